@@ -0,0 +1,80 @@
+import java.util.*;
+
+/**
+ * AdaptiveBatchController
+ *
+ * Picks the next JDBC batch size from the latency and throughput of the batches already sent (AIMD):
+ *
+ *  - a batch slower than the latency budget halves the size (multiplicative decrease)
+ *  - a batch whose rows/s falls more than DROP below the smoothed rate cuts the size by a quarter:
+ *    bigger batches stopped paying off (server load, network, wide rows)
+ *  - otherwise the size grows by step rows (additive increase)
+ *
+ * Every decision is kept in path(); converged() is the mean size over the last quarter of the batches.
+ *
+ * Usage:
+ *   AdaptiveBatchController c = new AdaptiveBatchController(10, 1, 5000, 50, 50.0);
+ *   while (rows left) { int n = c.next(); ... send n rows ...; c.observe(n, batchMs); }
+ */
+public class AdaptiveBatchController {
+
+    static final double DROP = 0.10;   // tolerated rows/s loss against the smoothed rate
+    static final double ALPHA = 0.3;   // smoothing of the rows/s estimate
+
+    /** One observed batch: size sent, its latency and rows/s, and the size chosen for the next one. */
+    public static final class Step {
+        public final int batch, size, nextSize;
+        public final double ms, rowsPerSec;
+        public final String action;
+
+        Step(int batch, int size, double ms, double rowsPerSec, int nextSize, String action) {
+            this.batch = batch; this.size = size; this.ms = ms; this.rowsPerSec = rowsPerSec;
+            this.nextSize = nextSize; this.action = action;
+        }
+    }
+
+    final int min, max, step;
+    final double budgetMs;
+    int size;
+    double smoothedRate = -1;
+    final List<Step> path = new ArrayList<>();
+
+    public AdaptiveBatchController(int initial, int min, int max, int step, double budgetMs) {
+        this.min = min;
+        this.max = max;
+        this.step = step;
+        this.budgetMs = budgetMs;
+        this.size = Math.max(min, Math.min(max, initial));
+    }
+
+    /** Size of the next batch. */
+    public int next() { return size; }
+
+    public void observe(int rows, double ms) {
+        double rate = rows / Math.max(1e-6, ms / 1000.0);
+        String action;
+        if (ms > budgetMs) {
+            size = Math.max(min, size / 2);
+            action = "over_budget";
+        } else if (smoothedRate > 0 && rate < smoothedRate * (1 - DROP)) {
+            size = Math.max(min, size - Math.max(1, size / 4));
+            action = "rate_drop";
+        } else {
+            size = Math.min(max, size + step);
+            action = "increase";
+        }
+        smoothedRate = smoothedRate < 0 ? rate : ALPHA * rate + (1 - ALPHA) * smoothedRate;
+        path.add(new Step(path.size() + 1, rows, ms, rate, size, action));
+    }
+
+    public List<Step> path() { return path; }
+
+    /** Mean batch size over the last quarter of the observed batches (the current size if none). */
+    public double converged() {
+        if (path.isEmpty()) return size;
+        int from = path.size() - Math.max(1, path.size() / 4);
+        double sum = 0;
+        for (int i = from; i < path.size(); i++) sum += path.get(i).size;
+        return sum / (path.size() - from);
+    }
+}
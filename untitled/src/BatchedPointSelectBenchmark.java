@@ -0,0 +1,215 @@
+import java.sql.*;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * BatchedPointSelectBenchmark
+ *
+ * Point lookups that fetch K movie ids per round trip instead of one (HardBenchmarkTest.dbPointSelectWorker).
+ * Modes:
+ *   any_array   -> SELECT ... WHERE movieid = ANY(?) with a single int array parameter
+ *   in_list     -> SELECT ... WHERE movieid IN (?, ?, ...) with K placeholders
+ *   multi_stmt  -> K single-row SELECTs sent as one multi-statement string (one round trip, K results)
+ *
+ * K is swept from 1 to 1000; each thread performs LOOKUPS_PER_THREAD lookups, i.e. LOOKUPS_PER_THREAD / K round trips.
+ *
+ * Outputs:
+ *   result/point_batch_summary.csv -> per (DBMS, mode, K, threads): lookups/s, latency per round trip and per lookup,
+ *                                     client allocated bytes / CPU µs per lookup (ClientCost)
+ */
+public class BatchedPointSelectBenchmark {
+
+    // === DB configs (change to your credentials) ===
+    static final String PG_DRIVER = "org.postgresql.Driver";
+    static final String PG_URL = LatencyProxy.wrap("jdbc:postgresql://127.0.0.1:5430/postgres");
+    static final String PG_USER = "test";
+    static final String PG_PASS = "123456";
+
+    static final String OG_DRIVER = "org.opengauss.Driver";
+    static final String OG_URL = LatencyProxy.wrap("jdbc:opengauss://127.0.0.1:5431/postgres");
+    static final String OG_USER = "gaussdb";
+    static final String OG_PASS = "123456Aa@";
+
+    // output
+    static final File RESULT_DIR = new File("result");
+    static final String SUMMARY_CSV = "result/point_batch_summary.csv";
+
+    // test params (tune)
+    static final int[] THREADS = {1, 8};
+    static final int[] BATCH_SIZES = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000};
+    static final int LOOKUPS_PER_THREAD = 5000; // kept fixed across K so every cell does the same logical work
+    static final int ID_RANGE = 10000;          // adjust ID range to your dataset
+    static final String[] MODES = {"any_array", "in_list", "multi_stmt"};
+
+    public static void main(String[] args) throws Exception {
+        if (!RESULT_DIR.exists()) RESULT_DIR.mkdirs();
+
+        List<String[]> rows = new ArrayList<>();
+        String[] dbs = {"PostgreSQL", "openGauss"};
+        for (String db : dbs) {
+            for (String mode : MODES) {
+                for (int k : BATCH_SIZES) {
+                    for (int t : THREADS) {
+                        System.out.printf("Running %s %s K=%d threads=%d ...%n", db, mode, k, t);
+                        rows.add(runCell(db, mode, k, t));
+                    }
+                }
+            }
+        }
+
+        writeSummaryCsv(SUMMARY_CSV, rows);
+        System.out.println("Done. Results in " + RESULT_DIR.getAbsolutePath());
+    }
+
+    static class ThreadStat {
+        int threadId;
+        long lookups;
+        long roundTrips;
+        double totalMs;
+        double avgMs;   // per round trip
+        double p99;     // per round trip
+        double maxMs;
+        ClientCost.Sample cost;
+    }
+
+    static String[] runCell(String db, String mode, int k, int threads) {
+        boolean pg = db.equals("PostgreSQL");
+        String driver = pg ? PG_DRIVER : OG_DRIVER;
+        String url = pg ? PG_URL : OG_URL;
+        String user = pg ? PG_USER : OG_USER;
+        String pass = pg ? PG_PASS : OG_PASS;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<ThreadStat>> futures = new ArrayList<>();
+        PgWireStats.Snapshot wireBefore = PgWireStats.snapshot(url);
+        long started = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            final int threadId = i + 1;
+            futures.add(pool.submit(() -> worker(threadId, driver, url, user, pass, mode, k, LOOKUPS_PER_THREAD)));
+        }
+        List<ThreadStat> stats = new ArrayList<>();
+        for (Future<ThreadStat> f : futures) {
+            try { stats.add(f.get()); } catch (Exception e) { e.printStackTrace(); }
+        }
+        long ended = System.nanoTime();
+        pool.shutdown();
+
+        long lookups = stats.stream().mapToLong(s -> s.lookups).sum();
+        long roundTrips = stats.stream().mapToLong(s -> s.roundTrips).sum();
+        double totalMs = (ended - started) / 1_000_000.0;
+        double lookupsPerSec = totalMs > 0 ? lookups / (totalMs / 1000.0) : 0.0;
+        double weighted = 0, p99 = 0, max = 0;
+        List<ClientCost.Sample> costs = new ArrayList<>();
+        for (ThreadStat ts : stats) {
+            if (ts.cost != null) costs.add(ts.cost);
+            weighted += ts.avgMs * ts.roundTrips;
+            p99 = Math.max(p99, ts.p99); // conservative: max of per-thread p99
+            max = Math.max(max, ts.maxMs);
+        }
+        double avgRtMs = roundTrips > 0 ? weighted / roundTrips : 0.0;
+        double usPerLookup = lookups > 0 ? avgRtMs * 1000.0 * roundTrips / lookups : 0.0;
+        String[] wire = PgWireStats.perOp(wireBefore, PgWireStats.snapshot(url), lookups); // per lookup
+        String[] client = ClientCost.perOp(costs); // per lookup
+
+        System.out.printf("Summary %s %s K=%d threads=%d lookups=%d lookups/s=%.2f avgRt=%.3fms p99Rt≈%.3fms perLookup=%.2fus%n",
+                db, mode, k, threads, lookups, lookupsPerSec, avgRtMs, p99, usPerLookup);
+
+        return new String[]{db, mode, Integer.toString(k), Integer.toString(threads), Long.toString(lookups),
+                Long.toString(roundTrips), String.format("%.2f", totalMs), String.format("%.2f", lookupsPerSec),
+                String.format("%.3f", avgRtMs), String.format("%.3f", p99), String.format("%.3f", max),
+                String.format("%.2f", usPerLookup), wire[0], wire[1], wire[2], wire[3], wire[4], client[0], client[1]};
+    }
+
+    static ThreadStat worker(int threadId, String driver, String url, String user, String pass,
+                             String mode, int k, int lookups) {
+        ThreadStat ts = new ThreadStat(); ts.threadId = threadId;
+        List<Double> lat = new ArrayList<>();
+        try { Class.forName(driver); } catch (ClassNotFoundException e) { System.err.println("Driver not found: " + e.getMessage()); return ts; }
+
+        try (Connection conn = DriverManager.getConnection(url, user, pass);
+             PreparedStatement ps = prepareForMode(conn, mode, k);
+             Statement stmt = conn.createStatement()) {
+            Random rnd = new Random();
+            int[] ids = new int[k];
+            ClientCost.Sample c0 = ClientCost.start();
+            long t0 = System.nanoTime();
+            for (int done = 0; done < lookups; done += k) {
+                for (int j = 0; j < k; j++) ids[j] = 1 + rnd.nextInt(ID_RANGE);
+                long s = System.nanoTime();
+                try {
+                    executeBatch(conn, ps, stmt, mode, ids);
+                    ts.lookups += k; // only lookups that came back count towards lookups/s
+                } catch (SQLException ee) { System.err.println("Query error: " + ee.getMessage()); }
+                lat.add((System.nanoTime() - s) / 1_000_000.0);
+                ts.roundTrips++;
+            }
+            ts.totalMs = (System.nanoTime() - t0) / 1_000_000.0;
+            ts.cost = ClientCost.since(c0, ts.lookups);
+            ts.avgMs = lat.stream().mapToDouble(d -> d).average().orElse(0.0);
+            ts.maxMs = lat.stream().mapToDouble(d -> d).max().orElse(0.0);
+            ts.p99 = percentile(lat, 99);
+        } catch (SQLException e) { System.err.println("DB worker error: " + e.getMessage()); }
+        return ts;
+    }
+
+    static PreparedStatement prepareForMode(Connection conn, String mode, int k) throws SQLException {
+        if (mode.equals("any_array")) {
+            return conn.prepareStatement("SELECT movieid, title FROM movies WHERE movieid = ANY(?)");
+        }
+        if (mode.equals("in_list")) {
+            StringBuilder sb = new StringBuilder("SELECT movieid, title FROM movies WHERE movieid IN (");
+            for (int j = 0; j < k; j++) sb.append(j == 0 ? "?" : ",?");
+            return conn.prepareStatement(sb.append(')').toString());
+        }
+        return null; // multi_stmt uses the plain Statement (try-with-resources skips a null resource)
+    }
+
+    // one round trip fetching ids.length rows
+    static void executeBatch(Connection conn, PreparedStatement ps, Statement stmt, String mode, int[] ids) throws SQLException {
+        if (mode.equals("any_array")) {
+            Integer[] boxed = new Integer[ids.length];
+            for (int j = 0; j < ids.length; j++) boxed[j] = ids[j];
+            Array arr = conn.createArrayOf("int4", boxed);
+            try {
+                ps.setArray(1, arr);
+                try (ResultSet rs = ps.executeQuery()) { while (rs.next()) { } }
+            } finally {
+                arr.free();
+            }
+        } else if (mode.equals("in_list")) {
+            for (int j = 0; j < ids.length; j++) ps.setInt(j + 1, ids[j]);
+            try (ResultSet rs = ps.executeQuery()) { while (rs.next()) { } }
+        } else {
+            StringBuilder sb = new StringBuilder(ids.length * 60);
+            for (int id : ids) sb.append("SELECT movieid, title FROM movies WHERE movieid = ").append(id).append(';');
+            boolean hasResult = stmt.execute(sb.toString());
+            while (true) {
+                if (hasResult) {
+                    try (ResultSet rs = stmt.getResultSet()) { while (rs.next()) { } }
+                } else if (stmt.getUpdateCount() == -1) {
+                    break;
+                }
+                hasResult = stmt.getMoreResults();
+            }
+        }
+    }
+
+    static double percentile(List<Double> arr, double p) {
+        if (arr == null || arr.isEmpty()) return 0.0;
+        double[] a = arr.stream().mapToDouble(d -> d).sorted().toArray();
+        double rank = p / 100.0 * (a.length - 1);
+        int lo = (int) Math.floor(rank), hi = (int) Math.ceil(rank);
+        if (hi == lo) return a[lo];
+        double w = rank - lo;
+        return a[lo] * (1 - w) + a[hi] * w;
+    }
+
+    static void writeSummaryCsv(String file, List<String[]> rows) {
+        try (PrintWriter pw = new PrintWriter(new FileWriter(file))) {
+            pw.println("DBMS,Mode,K,Threads,Lookups,RoundTrips,TotalTime_ms,Lookups_per_s,AvgRoundTrip_ms,P99RoundTrip_ms,MaxRoundTrip_ms,Latency_us_per_lookup," + PgWireStats.CSV_HEADER + "," + ClientCost.CSV_HEADER);
+            for (String[] r : rows) pw.println(String.join(",", r));
+            System.out.println("Saved summary CSV: " + file);
+        } catch (IOException e) { System.err.println("CSV write error: " + e.getMessage()); }
+    }
+}
@@ -0,0 +1,345 @@
+import java.sql.*;
+import java.io.*;
+import java.nio.file.*;
+import java.time.*;
+import java.time.format.*;
+import java.util.*;
+import java.util.stream.*;
+
+/**
+ * BenchmarkRunArchive
+ *
+ * Every benchmark overwrites result/*.csv. This tool keeps one directory per run and compares runs statistically.
+ *
+ * Usage:
+ *   java BenchmarkRunArchive archive [label]
+ *       copies result/*.csv into result/runs/<yyyyMMdd_HHmmss>[_label]/ and writes env.properties
+ *       (JDK, OS, CPU, JDBC driver versions, SELECT version() of both DBs)
+ *
+ *   java BenchmarkRunArchive compare <baseline> <candidate>
+ *       <baseline>/<candidate> are run directory names under result/runs (or paths); a comma-separated
+ *       list pools repeated runs into one sample set.
+ *       Rows with the same key columns (DBMS, Mode, Threads, ...) are samples of the same cell, so per-thread
+ *       CSVs (qps_tps_threads.csv, select_multi_threads.csv) and per-run CSVs (select_single.csv) give
+ *       several samples even from a single run.
+ *       For every (file, cell, metric) it reports the relative change of the median, a 95% bootstrap
+ *       confidence interval of that change and a two-sided Mann-Whitney U p-value, and flags significant
+ *       regressions in throughput (higher is better) and latency/p99 (lower is better).
+ *       Output: result/compare.csv
+ */
+public class BenchmarkRunArchive {
+
+    // === DB configs (change to your credentials) ===
+    static final String PG_DRIVER = "org.postgresql.Driver";
+    static final String PG_URL = "jdbc:postgresql://127.0.0.1:5430/postgres";
+    static final String PG_USER = "test";
+    static final String PG_PASS = "123456";
+
+    static final String OG_DRIVER = "org.opengauss.Driver";
+    static final String OG_URL = "jdbc:opengauss://127.0.0.1:5431/postgres";
+    static final String OG_USER = "gaussdb";
+    static final String OG_PASS = "123456Aa@";
+
+    static final File RESULT_DIR = new File("result");
+    static final File RUNS_DIR = new File("result/runs");
+    static final String COMPARE_CSV = "result/compare.csv";
+
+    // comparison settings
+    static final double ALPHA = 0.05;
+    static final int BOOTSTRAP_ROUNDS = 2000;
+    static final long BOOTSTRAP_SEED = 42;
+
+    // columns that number samples/ops rather than identify a cell or measure something
+    static final Set<String> IGNORED_COLUMNS = new HashSet<>(Arrays.asList(
+            "run", "threadid", "ops", "totalops", "queries", "totalqueries", "lookups", "roundtrips", "points"));
+
+    public static void main(String[] args) throws Exception {
+        if (args.length >= 1 && args[0].equals("archive")) {
+            archive(args.length > 1 ? args[1] : null);
+        } else if (args.length >= 3 && args[0].equals("compare")) {
+            compare(args[1], args[2]);
+        } else {
+            System.out.println("Usage:");
+            System.out.println("  java BenchmarkRunArchive archive [label]");
+            System.out.println("  java BenchmarkRunArchive compare <baselineRun[,run...]> <candidateRun[,run...]>");
+        }
+    }
+
+    // ======================== archive ========================
+
+    static void archive(String label) throws IOException {
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        String name = label == null || label.isEmpty() ? stamp : stamp + "_" + label.replaceAll("[^A-Za-z0-9._-]", "_");
+        File runDir = new File(RUNS_DIR, name);
+        if (!runDir.mkdirs()) throw new IOException("Cannot create run directory: " + runDir.getAbsolutePath());
+
+        File[] csvs = RESULT_DIR.listFiles((d, n) -> n.endsWith(".csv"));
+        int copied = 0;
+        if (csvs != null) {
+            for (File f : csvs) {
+                Files.copy(f.toPath(), new File(runDir, f.getName()).toPath(), StandardCopyOption.REPLACE_EXISTING);
+                copied++;
+            }
+        }
+
+        Properties env = collectEnvironment();
+        try (OutputStream os = new FileOutputStream(new File(runDir, "env.properties"))) {
+            env.store(os, "benchmark run " + name);
+        }
+        System.out.printf("Archived %d CSV files into %s%n", copied, runDir.getPath());
+    }
+
+    static Properties collectEnvironment() {
+        Properties env = new Properties();
+        env.setProperty("java.version", System.getProperty("java.version"));
+        env.setProperty("java.vendor", System.getProperty("java.vendor"));
+        env.setProperty("java.vm.name", System.getProperty("java.vm.name"));
+        env.setProperty("os.name", System.getProperty("os.name"));
+        env.setProperty("os.arch", System.getProperty("os.arch"));
+        env.setProperty("os.version", System.getProperty("os.version"));
+        env.setProperty("cpu.cores", Integer.toString(Runtime.getRuntime().availableProcessors()));
+        env.setProperty("cpu.model", cpuModel());
+        env.setProperty("jvm.maxHeapMb", Long.toString(Runtime.getRuntime().maxMemory() / (1024 * 1024)));
+        describeDb(env, "pg", PG_DRIVER, PG_URL, PG_USER, PG_PASS);
+        describeDb(env, "og", OG_DRIVER, OG_URL, OG_USER, OG_PASS);
+        return env;
+    }
+
+    static String cpuModel() {
+        String win = System.getenv("PROCESSOR_IDENTIFIER");
+        if (win != null) return win;
+        try (Stream<String> lines = Files.lines(Paths.get("/proc/cpuinfo"))) {
+            return lines.filter(l -> l.startsWith("model name"))
+                    .map(l -> l.substring(l.indexOf(':') + 1).trim())
+                    .findFirst().orElse("unknown");
+        } catch (IOException | UncheckedIOException e) {
+            return "unknown";
+        }
+    }
+
+    static void describeDb(Properties env, String prefix, String driver, String url, String user, String pass) {
+        try {
+            Class<?> cls = Class.forName(driver);
+            String implVersion = cls.getPackage() == null ? null : cls.getPackage().getImplementationVersion();
+            env.setProperty(prefix + ".driver.class", driver);
+            env.setProperty(prefix + ".driver.jarVersion", implVersion == null ? "unknown" : implVersion);
+        } catch (ClassNotFoundException e) {
+            env.setProperty(prefix + ".driver.class", driver + " (not on classpath)");
+            return;
+        }
+        try (Connection conn = DriverManager.getConnection(url, user, pass);
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT version()")) {
+            DatabaseMetaData md = conn.getMetaData();
+            env.setProperty(prefix + ".driver.version", md.getDriverName() + " " + md.getDriverVersion());
+            env.setProperty(prefix + ".url", url);
+            if (rs.next()) env.setProperty(prefix + ".server.version", rs.getString(1));
+        } catch (SQLException e) {
+            env.setProperty(prefix + ".server.version", "unavailable: " + e.getMessage());
+        }
+    }
+
+    // ======================== compare ========================
+
+    static void compare(String baseline, String candidate) throws IOException {
+        List<File> baseDirs = resolveRuns(baseline);
+        List<File> candDirs = resolveRuns(candidate);
+
+        Set<String> files = new TreeSet<>(csvNames(baseDirs));
+        files.retainAll(csvNames(candDirs));
+        if (files.isEmpty()) {
+            System.err.println("No CSV file is present in both runs.");
+            return;
+        }
+
+        List<String[]> out = new ArrayList<>();
+        int regressions = 0;
+        for (String file : files) {
+            Map<String, Map<String, List<Double>>> base = loadSamples(baseDirs, file);
+            Map<String, Map<String, List<Double>>> cand = loadSamples(candDirs, file);
+            for (String cell : base.keySet()) {
+                if (!cand.containsKey(cell)) continue;
+                for (String metric : base.get(cell).keySet()) {
+                    List<Double> a = base.get(cell).get(metric);
+                    List<Double> b = cand.get(cell).get(metric);
+                    if (b == null || a.isEmpty() || b.isEmpty()) continue;
+                    int dir = direction(metric);
+                    double medA = median(a), medB = median(b);
+                    double deltaPct = medA != 0 ? (medB - medA) / Math.abs(medA) * 100.0 : 0.0;
+                    double[] ci = bootstrapCiPct(a, b);
+                    double p = mannWhitneyP(a, b);
+                    String verdict = "no_change";
+                    boolean ciExcludesZero = ci[0] > 0 || ci[1] < 0;
+                    if (dir != 0 && p < ALPHA && ciExcludesZero) {
+                        boolean worse = dir > 0 ? deltaPct < 0 : deltaPct > 0;
+                        verdict = worse ? "REGRESSION" : "improvement";
+                        if (worse && isHeadlineMetric(metric)) {
+                            regressions++;
+                            System.out.printf("REGRESSION %s [%s] %s: %.3f -> %.3f (%+.1f%%, CI [%+.1f%%, %+.1f%%], p=%.4f)%n",
+                                    file, cell, metric, medA, medB, deltaPct, ci[0], ci[1], p);
+                        }
+                    }
+                    out.add(new String[]{file, cell, metric, dir > 0 ? "higher" : dir < 0 ? "lower" : "n/a",
+                            Integer.toString(a.size()), Integer.toString(b.size()),
+                            String.format("%.4f", medA), String.format("%.4f", medB), String.format("%.2f", deltaPct),
+                            String.format("%.2f", ci[0]), String.format("%.2f", ci[1]), String.format("%.5f", p), verdict});
+                }
+            }
+        }
+
+        try (PrintWriter pw = new PrintWriter(new FileWriter(COMPARE_CSV))) {
+            pw.println("File,Cell,Metric,Better,N_base,N_cand,Median_base,Median_cand,Delta_pct,CI95_low_pct,CI95_high_pct,MannWhitney_p,Verdict");
+            for (String[] r : out) pw.println(String.join(",", r));
+        }
+        System.out.printf("Compared %d metrics, %d significant throughput/p99 regressions. Saved %s%n",
+                out.size(), regressions, COMPARE_CSV);
+    }
+
+    static List<File> resolveRuns(String spec) throws IOException {
+        List<File> dirs = new ArrayList<>();
+        for (String s : spec.split(",")) {
+            File d = new File(s);
+            if (!d.isDirectory()) d = new File(RUNS_DIR, s);
+            if (!d.isDirectory()) throw new IOException("Run directory not found: " + s);
+            dirs.add(d);
+        }
+        return dirs;
+    }
+
+    static Set<String> csvNames(List<File> dirs) {
+        Set<String> names = new TreeSet<>();
+        for (File d : dirs) {
+            File[] fs = d.listFiles((x, n) -> n.endsWith(".csv"));
+            if (fs != null) for (File f : fs) names.add(f.getName());
+        }
+        return names;
+    }
+
+    /**
+     * cell key ("PostgreSQL|point_select|8") -> metric -> samples, pooled over every run directory.
+     * Non-numeric columns and numeric columns that are not metrics (Threads, K, ...) form the cell key.
+     */
+    static Map<String, Map<String, List<Double>>> loadSamples(List<File> dirs, String file) throws IOException {
+        Map<String, Map<String, List<Double>>> cells = new LinkedHashMap<>();
+        for (File d : dirs) {
+            File f = new File(d, file);
+            if (!f.exists()) continue;
+            List<String> lines = Files.readAllLines(f.toPath());
+            if (lines.isEmpty()) continue;
+            String[] header = lines.get(0).split(",");
+            for (int li = 1; li < lines.size(); li++) {
+                String[] r = lines.get(li).split(",");
+                if (r.length != header.length || r[0].equalsIgnoreCase("Average")) continue;
+                StringBuilder key = new StringBuilder();
+                Map<String, Double> metrics = new LinkedHashMap<>();
+                for (int c = 0; c < header.length; c++) {
+                    String h = header[c].trim();
+                    if (IGNORED_COLUMNS.contains(h.toLowerCase())) continue;
+                    Double v = parse(r[c]);
+                    if (isMetric(h)) { if (v != null) metrics.put(h, v); } // "NA" = not measured in this run
+                    else key.append(key.length() == 0 ? "" : "|").append(r[c].trim());
+                }
+                Map<String, List<Double>> cell = cells.computeIfAbsent(key.toString(), k -> new LinkedHashMap<>());
+                for (Map.Entry<String, Double> m : metrics.entrySet()) {
+                    cell.computeIfAbsent(m.getKey(), k -> new ArrayList<>()).add(m.getValue());
+                }
+            }
+        }
+        return cells;
+    }
+
+    static Double parse(String s) {
+        try { return Double.parseDouble(s.trim()); } catch (NumberFormatException e) { return null; }
+    }
+
+    static boolean isMetric(String header) {
+        return direction(header) != 0
+                || header.toLowerCase().matches(".*(ratio|speedup|bytes|cpu|share|xact_|blks_|tup_|checkpoint|buffers_).*"); // + ServerStats counters
+    }
+
+    // +1: higher is better (throughput), -1: lower is better (time/latency), 0: unknown
+    static int direction(String header) {
+        String h = header.toLowerCase();
+        if (h.endsWith("_per_op")) return -1; // protocol cost per operation
+        if (h.matches(".*(qps|tps|per_s|/s|throughput|speedup|hitratio).*")) return 1;
+        if (h.matches(".*(ms|_us|latency|p9\\d|avg|max|time).*")) return -1;
+        return 0;
+    }
+
+    static boolean isHeadlineMetric(String header) {
+        String h = header.toLowerCase();
+        return direction(header) > 0 || h.contains("p99");
+    }
+
+    // ======================== statistics ========================
+
+    static double median(List<Double> v) {
+        double[] a = v.stream().mapToDouble(d -> d).sorted().toArray();
+        int n = a.length;
+        return n % 2 == 1 ? a[n / 2] : (a[n / 2 - 1] + a[n / 2]) / 2.0;
+    }
+
+    /** 95% percentile-bootstrap CI of the relative change of the median, in percent. */
+    static double[] bootstrapCiPct(List<Double> a, List<Double> b) {
+        Random rnd = new Random(BOOTSTRAP_SEED);
+        double[] x = a.stream().mapToDouble(d -> d).toArray();
+        double[] y = b.stream().mapToDouble(d -> d).toArray();
+        double[] deltas = new double[BOOTSTRAP_ROUNDS];
+        double[] bx = new double[x.length], by = new double[y.length];
+        for (int r = 0; r < BOOTSTRAP_ROUNDS; r++) {
+            for (int i = 0; i < x.length; i++) bx[i] = x[rnd.nextInt(x.length)];
+            for (int i = 0; i < y.length; i++) by[i] = y[rnd.nextInt(y.length)];
+            double mx = medianOf(bx), my = medianOf(by);
+            deltas[r] = mx != 0 ? (my - mx) / Math.abs(mx) * 100.0 : 0.0;
+        }
+        Arrays.sort(deltas);
+        return new double[]{deltas[(int) (0.025 * (BOOTSTRAP_ROUNDS - 1))], deltas[(int) (0.975 * (BOOTSTRAP_ROUNDS - 1))]};
+    }
+
+    static double medianOf(double[] a) {
+        double[] s = a.clone();
+        Arrays.sort(s);
+        int n = s.length;
+        return n % 2 == 1 ? s[n / 2] : (s[n / 2 - 1] + s[n / 2]) / 2.0;
+    }
+
+    /** Two-sided Mann-Whitney U test, normal approximation with tie correction and continuity correction. */
+    static double mannWhitneyP(List<Double> a, List<Double> b) {
+        int n1 = a.size(), n2 = b.size();
+        if (n1 == 0 || n2 == 0) return 1.0;
+        int n = n1 + n2;
+        double[] all = new double[n];
+        boolean[] fromA = new boolean[n];
+        Integer[] idx = new Integer[n];
+        for (int i = 0; i < n1; i++) { all[i] = a.get(i); fromA[i] = true; }
+        for (int i = 0; i < n2; i++) all[n1 + i] = b.get(i);
+        for (int i = 0; i < n; i++) idx[i] = i;
+        Arrays.sort(idx, Comparator.comparingDouble(i -> all[i]));
+
+        double rankSumA = 0, tieTerm = 0;
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j + 1 < n && all[idx[j + 1]] == all[idx[i]]) j++;
+            double rank = (i + j) / 2.0 + 1;
+            int t = j - i + 1;
+            tieTerm += (double) t * t * t - t;
+            for (int k = i; k <= j; k++) if (fromA[idx[k]]) rankSumA += rank;
+            i = j + 1;
+        }
+        double u = rankSumA - n1 * (n1 + 1) / 2.0;
+        double mu = n1 * (double) n2 / 2.0;
+        double var = n1 * (double) n2 / 12.0 * ((n + 1) - tieTerm / ((double) n * (n - 1)));
+        if (var <= 0) return 1.0;
+        double z = (Math.abs(u - mu) - 0.5) / Math.sqrt(var);
+        if (z < 0) z = 0;
+        return Math.min(1.0, 2 * (1 - normalCdf(z)));
+    }
+
+    // Abramowitz-Stegun 7.1.26 approximation of the standard normal CDF
+    static double normalCdf(double z) {
+        double t = 1 / (1 + 0.3275911 * Math.abs(z) / Math.sqrt(2));
+        double erf = 1 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741 + t * (-1.453152027 + t * 1.061405429))))
+                * Math.exp(-z * z / 2);
+        return z >= 0 ? 0.5 * (1 + erf) : 0.5 * (1 - erf);
+    }
+}
@@ -0,0 +1,103 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * BitmapIndex
+ *
+ * One RoaringBitmap per distinct value of a low-cardinality column of a ';'-separated text table.
+ * Row id = 0-based data line number (header excluded), so indexes built on the same file can be
+ * combined with and/or/andNot. Derived indexes (e.g. movies.country -> countries.continent) are the OR
+ * of the source bitmaps that map to the same derived value.
+ *
+ * Usage:
+ *   BitmapIndex country = BitmapIndex.build("SQL/movies.txt", "country");
+ *   BitmapIndex continent = country.derive("continent", BitmapIndex.loadMapping("SQL/countries.txt", 0, 2));
+ *   long n = continent.get("EUROPE").andNotCardinality(country.get("gb"));
+ */
+public class BitmapIndex {
+
+    final String column;
+    final int rows;
+    final Map<String, RoaringBitmap> bitmaps = new TreeMap<>();
+
+    BitmapIndex(String column, int rows) {
+        this.column = column;
+        this.rows = rows;
+    }
+
+    /** Scans textFile once and builds a bitmap per distinct value of column. */
+    public static BitmapIndex build(String textFile, String column) throws IOException {
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(textFile), StandardCharsets.UTF_8))) {
+            String line = br.readLine();
+            if (line == null) throw new IOException("Empty file: " + textFile);
+            String[] header = line.split(";", -1);
+            int col = Arrays.asList(header).indexOf(column);
+            if (col < 0) throw new IllegalArgumentException("No column " + column + " in " + textFile);
+
+            Map<String, RoaringBitmap> tmp = new HashMap<>();
+            int row = 0;
+            while ((line = br.readLine()) != null) {
+                String value = ColumnarSnapshot.splitRow(line, header.length)[col];
+                tmp.computeIfAbsent(value, k -> new RoaringBitmap()).add(row++);
+            }
+            BitmapIndex idx = new BitmapIndex(column, row);
+            idx.bitmaps.putAll(tmp);
+            return idx;
+        }
+    }
+
+    /** key column -> value column of a small lookup file such as SQL/countries.txt. */
+    public static Map<String, String> loadMapping(String textFile, int keyCol, int valueCol) throws IOException {
+        Map<String, String> m = new HashMap<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(textFile), StandardCharsets.UTF_8))) {
+            String line = br.readLine(); // header
+            while ((line = br.readLine()) != null) {
+                String[] f = line.split(";", -1);
+                if (f.length > Math.max(keyCol, valueCol)) m.put(f[keyCol], f[valueCol]);
+            }
+        }
+        return m;
+    }
+
+    /** Index on mapping(value); source values without a mapping are left out. */
+    public BitmapIndex derive(String name, Map<String, String> mapping) {
+        BitmapIndex d = new BitmapIndex(name, rows);
+        for (Map.Entry<String, RoaringBitmap> e : bitmaps.entrySet()) {
+            String target = mapping.get(e.getKey());
+            if (target == null) continue;
+            RoaringBitmap prev = d.bitmaps.get(target);
+            d.bitmaps.put(target, prev == null ? e.getValue() : prev.or(e.getValue()));
+        }
+        return d;
+    }
+
+    /** Bitmap of value; empty when the value does not occur. Do not modify the returned bitmap. */
+    public RoaringBitmap get(String value) {
+        RoaringBitmap b = bitmaps.get(value);
+        return b != null ? b : new RoaringBitmap();
+    }
+
+    /** column IN (values...) */
+    public RoaringBitmap in(String... values) {
+        RoaringBitmap r = new RoaringBitmap();
+        for (String v : values) r = r.or(get(v));
+        return r;
+    }
+
+    public long count(String value) {
+        return get(value).cardinality();
+    }
+
+    public int rows() { return rows; }
+
+    public Set<String> values() { return bitmaps.keySet(); }
+
+    public long sizeInBytes() {
+        long n = 0;
+        for (Map.Entry<String, RoaringBitmap> e : bitmaps.entrySet()) {
+            n += e.getKey().length() + e.getValue().sizeInBytes();
+        }
+        return n;
+    }
+}
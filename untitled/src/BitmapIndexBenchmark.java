@@ -0,0 +1,199 @@
+import java.sql.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * BitmapIndexBenchmark
+ *
+ * Low-cardinality filters answered four ways:
+ *   File scan    -> full read of SQL/movies.txt / SQL/people.txt with the predicate on each row
+ *   File bitmap  -> BitmapIndex on movies.country, people.gender and continent (derived via SQL/countries.txt);
+ *                   COUNT(*) comes straight from the bitmaps
+ *   DB none      -> COUNT(*) on copies of the tables without secondary indexes
+ *   DB btree     -> same, with btree indexes on country / continent / gender
+ *   DB partial   -> same, with partial indexes covering exactly the filtered values
+ * The copies (bm_movies with a materialized continent column, bm_people) are created and dropped by the run.
+ *
+ * Outputs:
+ *   result/bitmap_index.csv -> per (engine, config, query): matches, avg/min latency, index bytes
+ */
+public class BitmapIndexBenchmark {
+
+    // === DB configs (change to your credentials) ===
+    static final String PG_DRIVER = "org.postgresql.Driver";
+    static final String PG_URL = LatencyProxy.wrap("jdbc:postgresql://127.0.0.1:5430/postgres");
+    static final String PG_USER = "test";
+    static final String PG_PASS = "123456";
+
+    static final String OG_DRIVER = "org.opengauss.Driver";
+    static final String OG_URL = LatencyProxy.wrap("jdbc:opengauss://127.0.0.1:5431/postgres");
+    static final String OG_USER = "gaussdb";
+    static final String OG_PASS = "123456Aa@";
+
+    static final String MOVIE_FILE = "SQL/movies.txt";
+    static final String PEOPLE_FILE = "SQL/people.txt";
+    static final String COUNTRY_FILE = "SQL/countries.txt";
+    static final File RESULT_DIR = new File("result");
+    static final String RESULT_CSV = "result/bitmap_index.csv";
+
+    static final int WARMUP_RUNS = 3;
+    static final int RUNS = 20;
+
+    static final String[] QUERY_NAMES = {"country_us", "continent_europe", "europe_not_gb", "us_or_asia", "not_us", "gender_f"};
+    static final String[] QUERY_SQL = {
+            "SELECT COUNT(*) FROM bm_movies WHERE country = 'us'",
+            "SELECT COUNT(*) FROM bm_movies WHERE continent = 'EUROPE'",
+            "SELECT COUNT(*) FROM bm_movies WHERE continent = 'EUROPE' AND country <> 'gb'",
+            "SELECT COUNT(*) FROM bm_movies WHERE country = 'us' OR continent = 'ASIA'",
+            "SELECT COUNT(*) FROM bm_movies WHERE country <> 'us'",
+            "SELECT COUNT(*) FROM bm_people WHERE gender = 'F'"
+    };
+
+    static final String[] SETUP_SQL = {
+            "DROP TABLE IF EXISTS bm_movies",
+            "DROP TABLE IF EXISTS bm_people",
+            "CREATE TABLE bm_movies AS SELECT m.*, c.continent FROM movies m JOIN countries c ON c.country_code = m.country",
+            "CREATE TABLE bm_people AS SELECT * FROM people"
+    };
+    static final String[][] INDEX_SQL = {
+            {}, // none
+            {"CREATE INDEX bm_movies_country ON bm_movies(country)",
+             "CREATE INDEX bm_movies_continent ON bm_movies(continent)",
+             "CREATE INDEX bm_people_gender ON bm_people(gender)"},
+            {"CREATE INDEX bm_movies_us ON bm_movies(movieid) WHERE country = 'us'",
+             "CREATE INDEX bm_movies_europe ON bm_movies(movieid) WHERE continent = 'EUROPE'",
+             "CREATE INDEX bm_movies_asia ON bm_movies(movieid) WHERE continent = 'ASIA'",
+             "CREATE INDEX bm_people_f ON bm_people(peopleid) WHERE gender = 'F'"}
+    };
+    static final String[] INDEX_CONFIGS = {"none", "btree", "partial"};
+    static final String INDEX_BYTES_SQL =
+            "SELECT COALESCE(SUM(pg_relation_size(indexrelid)), 0) FROM pg_index " +
+            "WHERE indrelid IN ('bm_movies'::regclass, 'bm_people'::regclass)";
+
+    public static void main(String[] args) throws Exception {
+        if (!RESULT_DIR.exists()) RESULT_DIR.mkdirs();
+        List<String[]> rows = new ArrayList<>();
+
+        // ===== file engine =====
+        long t0 = System.nanoTime();
+        BitmapIndex country = BitmapIndex.build(MOVIE_FILE, "country");
+        BitmapIndex continent = country.derive("continent", BitmapIndex.loadMapping(COUNTRY_FILE, 0, 2));
+        BitmapIndex gender = BitmapIndex.build(PEOPLE_FILE, "gender");
+        double buildMs = (System.nanoTime() - t0) / 1_000_000.0;
+        long bitmapBytes = country.sizeInBytes() + continent.sizeInBytes() + gender.sizeInBytes();
+        System.out.printf("Bitmap indexes built in %.2f ms, %d bytes (%d countries, %d continents, %d genders)%n",
+                buildMs, bitmapBytes, country.values().size(), continent.values().size(), gender.values().size());
+
+        Map<String, String> continentOf = BitmapIndex.loadMapping(COUNTRY_FILE, 0, 2);
+        List<LongSupplier> bitmapQueries = Arrays.asList(
+                () -> country.count("us"),
+                () -> continent.count("EUROPE"),
+                () -> continent.get("EUROPE").andNotCardinality(country.get("gb")),
+                () -> country.get("us").orCardinality(continent.get("ASIA")),
+                () -> country.get("us").not(country.rows()).cardinality(),
+                () -> gender.count("F"));
+        List<LongSupplier> scanQueries = Arrays.asList(
+                () -> scanCount(MOVIE_FILE, f -> f[2].equals("us")),
+                () -> scanCount(MOVIE_FILE, f -> "EUROPE".equals(continentOf.get(f[2]))),
+                () -> scanCount(MOVIE_FILE, f -> "EUROPE".equals(continentOf.get(f[2])) && !f[2].equals("gb")),
+                () -> scanCount(MOVIE_FILE, f -> f[2].equals("us") || "ASIA".equals(continentOf.get(f[2]))),
+                () -> scanCount(MOVIE_FILE, f -> !f[2].equals("us")),
+                () -> scanCount(PEOPLE_FILE, f -> f[5].equals("F")));
+
+        for (int q = 0; q < QUERY_NAMES.length; q++) {
+            String[] scan = timeFile(scanQueries.get(q));
+            String[] bitmap = timeFile(bitmapQueries.get(q));
+            rows.add(row("File", "scan", QUERY_NAMES[q], scan, 0));
+            rows.add(row("File", "bitmap", QUERY_NAMES[q], bitmap, bitmapBytes));
+            if (!scan[0].equals(bitmap[0])) {
+                System.err.printf("Count mismatch for %s: scan=%s bitmap=%s%n", QUERY_NAMES[q], scan[0], bitmap[0]);
+            }
+        }
+
+        // ===== databases =====
+        runDb(rows, "PostgreSQL", PG_DRIVER, PG_URL, PG_USER, PG_PASS);
+        runDb(rows, "openGauss", OG_DRIVER, OG_URL, OG_USER, OG_PASS);
+
+        try (PrintWriter pw = new PrintWriter(new FileWriter(RESULT_CSV))) {
+            pw.println("Engine,Config,Query,Matches,Avg_ms,Min_ms,IndexBytes");
+            for (String[] r : rows) pw.println(String.join(",", r));
+            System.out.println("Saved CSV: " + RESULT_CSV);
+        } catch (IOException e) {
+            System.err.println("CSV write failed: " + e.getMessage());
+        }
+    }
+
+    static void runDb(List<String[]> rows, String dbName, String driver, String url, String user, String pass) {
+        try { Class.forName(driver); } catch (ClassNotFoundException e) { System.err.println("Driver not found: " + e.getMessage()); return; }
+
+        try (Connection conn = DriverManager.getConnection(url, user, pass);
+             Statement stmt = conn.createStatement()) {
+            for (String sql : SETUP_SQL) stmt.execute(sql);
+            try {
+                for (int c = 0; c < INDEX_CONFIGS.length; c++) {
+                    for (String sql : INDEX_SQL[c]) stmt.execute(sql);
+                    stmt.execute("ANALYZE bm_movies");
+                    stmt.execute("ANALYZE bm_people");
+                    long indexBytes = 0;
+                    try (ResultSet rs = stmt.executeQuery(INDEX_BYTES_SQL)) {
+                        if (rs.next()) indexBytes = rs.getLong(1);
+                    }
+                    for (int q = 0; q < QUERY_SQL.length; q++) {
+                        System.out.printf("Running %s index=%s query=%s%n", dbName, INDEX_CONFIGS[c], QUERY_NAMES[q]);
+                        String sql = QUERY_SQL[q];
+                        String[] res = timeFile(() -> {
+                            try (ResultSet rs = stmt.executeQuery(sql)) {
+                                return rs.next() ? rs.getLong(1) : 0L;
+                            } catch (SQLException e) {
+                                throw new RuntimeException(e);
+                            }
+                        });
+                        rows.add(row(dbName, INDEX_CONFIGS[c], QUERY_NAMES[q], res, indexBytes));
+                    }
+                    for (String sql : INDEX_SQL[c]) stmt.execute("DROP INDEX IF EXISTS " + sql.split(" ")[2]);
+                }
+            } finally {
+                stmt.execute("DROP TABLE IF EXISTS bm_movies");
+                stmt.execute("DROP TABLE IF EXISTS bm_people");
+            }
+        } catch (SQLException | RuntimeException e) {
+            System.err.println(dbName + " run failed: " + e.getMessage());
+        }
+    }
+
+    /** Runs query WARMUP_RUNS + RUNS times; returns {matches, avg_ms, min_ms}. */
+    static String[] timeFile(LongSupplier query) {
+        for (int i = 0; i < WARMUP_RUNS; i++) query.getAsLong();
+        double sum = 0, min = Double.MAX_VALUE;
+        long matches = 0;
+        for (int i = 0; i < RUNS; i++) {
+            long s = System.nanoTime();
+            matches = query.getAsLong();
+            double ms = (System.nanoTime() - s) / 1_000_000.0;
+            sum += ms;
+            min = Math.min(min, ms);
+        }
+        return new String[]{Long.toString(matches), String.format("%.4f", sum / RUNS), String.format("%.4f", min)};
+    }
+
+    static String[] row(String engine, String config, String query, String[] res, long indexBytes) {
+        System.out.printf("%-10s %-8s %-17s matches=%s avg=%s ms min=%s ms%n", engine, config, query, res[0], res[1], res[2]);
+        return new String[]{engine, config, query, res[0], res[1], res[2], Long.toString(indexBytes)};
+    }
+
+    static long scanCount(String file, Predicate<String[]> pred) {
+        long count = 0;
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line = br.readLine(); // header
+            int cols = line == null ? 0 : line.split(";", -1).length;
+            while ((line = br.readLine()) != null) {
+                if (pred.test(ColumnarSnapshot.splitRow(line, cols))) count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+}
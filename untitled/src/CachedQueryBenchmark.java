@@ -0,0 +1,217 @@
+import java.sql.*;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * CachedQueryBenchmark
+ *
+ * Models an application cache in front of the DB: a Zipfian point-select workload on movies with a
+ * small share of writes, run once straight against the DB ("direct") and once through QueryResultCache ("cached").
+ * Writes go through the cache so they invalidate every cached movies entry.
+ *
+ * Outputs:
+ *   result/cache_summary.csv -> per (DBMS, mode, zipf s, threads): QPS, hit ratio, p99 of hits and misses,
+ *                               the QPS speed-up of cached over direct, and client allocated bytes / CPU µs per op (ClientCost)
+ */
+public class CachedQueryBenchmark {
+
+    // === DB configs (change to your credentials) ===
+    static final String PG_DRIVER = "org.postgresql.Driver";
+    static final String PG_URL = LatencyProxy.wrap("jdbc:postgresql://127.0.0.1:5430/postgres");
+    static final String PG_USER = "test";
+    static final String PG_PASS = "123456";
+
+    static final String OG_DRIVER = "org.opengauss.Driver";
+    static final String OG_URL = LatencyProxy.wrap("jdbc:opengauss://127.0.0.1:5431/postgres");
+    static final String OG_USER = "gaussdb";
+    static final String OG_PASS = "123456Aa@";
+
+    // output
+    static final File RESULT_DIR = new File("result");
+    static final String SUMMARY_CSV = "result/cache_summary.csv";
+
+    // test params (tune)
+    static final int[] THREADS = {1, 8, 16, 32};
+    static final double[] ZIPF_S = {0.5, 0.99, 1.2};
+    static final int OPS_PER_THREAD = 2000;
+    static final int ID_RANGE = 10000;          // adjust ID range to your dataset
+    static final double WRITE_RATIO = 0.01;     // share of ops that are writes (invalidate movies)
+    static final int CACHE_MAX_ENTRIES = 2000;  // smaller than ID_RANGE so eviction matters
+    static final long CACHE_TTL_MS = 0;         // 0 = no TTL
+
+    static final String READ_SQL = "SELECT movieid, title, country, year_released, runtime FROM movies WHERE movieid = ?";
+    static final String WRITE_SQL = "UPDATE movies SET runtime = runtime WHERE movieid = ?";
+    static final String[] TABLES = {"movies"};
+
+    public static void main(String[] args) throws Exception {
+        if (!RESULT_DIR.exists()) RESULT_DIR.mkdirs();
+
+        List<String[]> rows = new ArrayList<>();
+        String[] dbs = {"PostgreSQL", "openGauss"};
+        for (String db : dbs) {
+            for (double s : ZIPF_S) {
+                ZipfGenerator zipf = new ZipfGenerator(ID_RANGE, s);
+                for (int t : THREADS) {
+                    System.out.printf("Running %s direct zipf=%.2f threads=%d ...%n", db, s, t);
+                    CellResult direct = runCell(db, null, zipf, t);
+                    System.out.printf("Running %s cached zipf=%.2f threads=%d ...%n", db, s, t);
+                    QueryResultCache cache = new QueryResultCache(CACHE_MAX_ENTRIES, CACHE_TTL_MS);
+                    CellResult cached = runCell(db, cache, zipf, t);
+                    double speedup = direct.qps > 0 ? cached.qps / direct.qps : 0.0;
+                    rows.add(direct.row(db, "direct", s, t, 1.0));
+                    rows.add(cached.row(db, "cached", s, t, speedup));
+                    System.out.printf("Summary %s zipf=%.2f threads=%d direct=%.2f qps cached=%.2f qps hit=%.3f speedup=%.2fx%n",
+                            db, s, t, direct.qps, cached.qps, cached.hitRatio, speedup);
+                }
+            }
+        }
+
+        writeSummaryCsv(SUMMARY_CSV, rows);
+        System.out.println("Done. Results in " + RESULT_DIR.getAbsolutePath());
+    }
+
+    /** Zipf(n, s) sampler over 1..n using a precomputed CDF (shared, read-only). */
+    static class ZipfGenerator {
+        final double[] cdf;
+
+        ZipfGenerator(int n, double s) {
+            cdf = new double[n];
+            double sum = 0;
+            for (int i = 1; i <= n; i++) { sum += 1.0 / Math.pow(i, s); cdf[i - 1] = sum; }
+            for (int i = 0; i < n; i++) cdf[i] /= sum;
+        }
+
+        int next(Random rnd) {
+            int idx = Arrays.binarySearch(cdf, rnd.nextDouble());
+            return (idx >= 0 ? idx : -idx - 1) + 1;
+        }
+    }
+
+    static class ThreadStat {
+        long ops;
+        List<Double> hitLat = new ArrayList<>();
+        List<Double> missLat = new ArrayList<>();
+        List<Double> writeLat = new ArrayList<>();
+        ClientCost.Sample cost; // includes the cache's own lookups / copies
+    }
+
+    static class CellResult {
+        long ops;
+        double totalMs, qps, hitRatio, p99Hit, p99Miss, p99Write, avgMs;
+        String[] wire = PgWireStats.NA; // cache hits never reach the wire, so these drop with HitRatio
+        String[] cost = ClientCost.NA;
+
+        String[] row(String db, String mode, double s, int threads, double speedup) {
+            return new String[]{db, mode, String.format("%.2f", s), Integer.toString(threads), Long.toString(ops),
+                    String.format("%.2f", totalMs), String.format("%.2f", qps), String.format("%.3f", avgMs),
+                    String.format("%.4f", hitRatio), String.format("%.3f", p99Hit), String.format("%.3f", p99Miss),
+                    String.format("%.3f", p99Write), String.format("%.2f", speedup),
+                    wire[0], wire[1], wire[2], wire[3], wire[4], cost[0], cost[1]};
+        }
+    }
+
+    static CellResult runCell(String db, QueryResultCache cache, ZipfGenerator zipf, int threads) {
+        boolean pg = db.equals("PostgreSQL");
+        String driver = pg ? PG_DRIVER : OG_DRIVER;
+        String url = pg ? PG_URL : OG_URL;
+        String user = pg ? PG_USER : OG_USER;
+        String pass = pg ? PG_PASS : OG_PASS;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<ThreadStat>> futures = new ArrayList<>();
+        PgWireStats.Snapshot wireBefore = PgWireStats.snapshot(url);
+        long started = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            futures.add(pool.submit(() -> worker(driver, url, user, pass, cache, zipf, OPS_PER_THREAD)));
+        }
+        List<Double> hits = new ArrayList<>(), misses = new ArrayList<>(), writes = new ArrayList<>();
+        CellResult r = new CellResult();
+        List<ClientCost.Sample> costs = new ArrayList<>();
+        for (Future<ThreadStat> f : futures) {
+            try {
+                ThreadStat ts = f.get();
+                r.ops += ts.ops;
+                if (ts.cost != null) costs.add(ts.cost);
+                hits.addAll(ts.hitLat); misses.addAll(ts.missLat); writes.addAll(ts.writeLat);
+            } catch (Exception e) { e.printStackTrace(); }
+        }
+        long ended = System.nanoTime();
+        pool.shutdown();
+
+        r.totalMs = (ended - started) / 1_000_000.0;
+        r.qps = r.totalMs > 0 ? r.ops / (r.totalMs / 1000.0) : 0.0;
+        long reads = hits.size() + misses.size();
+        r.hitRatio = reads > 0 ? (double) hits.size() / reads : 0.0;
+        r.p99Hit = percentile(hits, 99);
+        r.p99Miss = percentile(misses, 99);
+        r.p99Write = percentile(writes, 99);
+        double sum = 0;
+        for (double d : hits) sum += d;
+        for (double d : misses) sum += d;
+        for (double d : writes) sum += d;
+        r.avgMs = r.ops > 0 ? sum / r.ops : 0.0;
+        r.wire = PgWireStats.perOp(wireBefore, PgWireStats.snapshot(url), r.ops);
+        r.cost = ClientCost.perOp(costs);
+        return r;
+    }
+
+    // cache == null -> every read goes to the DB (reads are counted as misses)
+    static ThreadStat worker(String driver, String url, String user, String pass,
+                             QueryResultCache cache, ZipfGenerator zipf, int ops) {
+        ThreadStat ts = new ThreadStat();
+        try { Class.forName(driver); } catch (ClassNotFoundException e) { System.err.println("Driver not found: " + e.getMessage()); return ts; }
+        try (Connection conn = DriverManager.getConnection(url, user, pass);
+             PreparedStatement read = conn.prepareStatement(READ_SQL);
+             PreparedStatement write = conn.prepareStatement(WRITE_SQL)) {
+            Random rnd = new Random();
+            ClientCost.Sample c0 = ClientCost.start();
+            for (int i = 0; i < ops; i++) {
+                int id = zipf.next(rnd);
+                long s = System.nanoTime();
+                try {
+                    if (rnd.nextDouble() < WRITE_RATIO) {
+                        write.setInt(1, id);
+                        write.executeUpdate();
+                        if (cache != null) cache.invalidate(TABLES);
+                        ts.writeLat.add((System.nanoTime() - s) / 1_000_000.0);
+                    } else if (cache == null) {
+                        read.setInt(1, id);
+                        try (ResultSet rs = read.executeQuery()) { while (rs.next()) { } }
+                        ts.missLat.add((System.nanoTime() - s) / 1_000_000.0);
+                    } else if (cache.get(READ_SQL, id) != null) {
+                        ts.hitLat.add((System.nanoTime() - s) / 1_000_000.0);
+                    } else {
+                        long[] epochs = cache.snapshotEpochs(TABLES);
+                        read.setInt(1, id);
+                        List<Object[]> rows;
+                        try (ResultSet rs = read.executeQuery()) { rows = QueryResultCache.readRows(rs); }
+                        cache.put(READ_SQL, new Object[]{id}, TABLES, epochs, rows);
+                        ts.missLat.add((System.nanoTime() - s) / 1_000_000.0);
+                    }
+                } catch (SQLException ee) { System.err.println("Query error: " + ee.getMessage()); }
+                ts.ops++;
+            }
+            ts.cost = ClientCost.since(c0, ts.ops);
+        } catch (SQLException e) { System.err.println("DB worker error: " + e.getMessage()); }
+        return ts;
+    }
+
+    static double percentile(List<Double> arr, double p) {
+        if (arr == null || arr.isEmpty()) return 0.0;
+        double[] a = arr.stream().mapToDouble(d -> d).sorted().toArray();
+        double rank = p / 100.0 * (a.length - 1);
+        int lo = (int) Math.floor(rank), hi = (int) Math.ceil(rank);
+        if (hi == lo) return a[lo];
+        double w = rank - lo;
+        return a[lo] * (1 - w) + a[hi] * w;
+    }
+
+    static void writeSummaryCsv(String file, List<String[]> rows) {
+        try (PrintWriter pw = new PrintWriter(new FileWriter(file))) {
+            pw.println("DBMS,Mode,ZipfS,Threads,TotalOps,TotalTime_ms,QPS,Avg_ms,HitRatio,P99Hit_ms,P99Miss_ms,P99Write_ms,QPS_Speedup," + PgWireStats.CSV_HEADER + "," + ClientCost.CSV_HEADER);
+            for (String[] r : rows) pw.println(String.join(",", r));
+            System.out.println("Saved summary CSV: " + file);
+        } catch (IOException e) { System.err.println("CSV write error: " + e.getMessage()); }
+    }
+}
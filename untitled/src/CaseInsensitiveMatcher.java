@@ -0,0 +1,238 @@
+import java.lang.invoke.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * CaseInsensitiveMatcher
+ *
+ * Case-insensitive substring search kernel for the File workers, replacing
+ *     parts[1].toLowerCase().contains(keyword.toLowerCase())
+ * which allocates two strings per line and searches naively.
+ *
+ *  - the pattern is folded once, in the constructor
+ *  - ASCII fast path on String/CharSequence: Boyer-Moore-Horspool over ASCII-folded chars, no allocation
+ *  - ASCII fast path on UTF-8 bytes: SWAR (8 bytes per long) first-byte candidate filter + verification
+ *  - slow path for non-ASCII text or pattern: code-point-wise comparison with
+ *    Character.toLowerCase(Character.toUpperCase(cp)), the same folding String.equalsIgnoreCase uses,
+ *    so "Babettes gæstebud" or CJK titles are matched correctly
+ *
+ * The fast paths bail out to the slow path as soon as they read a non-ASCII char/byte, because some
+ * non-ASCII characters fold to ASCII ones (KELVIN SIGN -> k, LONG S -> s).
+ */
+public final class CaseInsensitiveMatcher {
+
+    static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    static final long ONES = 0x0101010101010101L;
+    static final long HIGHS = 0x8080808080808080L;
+
+    final String pattern;
+    final int[] foldedCodePoints; // slow path
+    final boolean ascii;
+    final char[] foldedAscii;     // fast path, valid when ascii
+    final int[] shift;            // Horspool bad-character shifts, indexed by folded ASCII char
+    final long firstBroadcast;    // folded first pattern byte in every byte lane
+    final long firstFoldMask;     // 0x20 in every lane when the first byte is a letter, else 0
+
+    public CaseInsensitiveMatcher(String pattern) {
+        this.pattern = pattern;
+        this.foldedCodePoints = pattern.codePoints().map(CaseInsensitiveMatcher::fold).toArray();
+
+        boolean allAscii = true;
+        for (int i = 0; i < pattern.length(); i++) if (pattern.charAt(i) >= 128) { allAscii = false; break; }
+        this.ascii = allAscii;
+
+        int m = pattern.length();
+        this.foldedAscii = new char[m];
+        this.shift = new int[128];
+        if (allAscii) {
+            for (int i = 0; i < m; i++) foldedAscii[i] = (char) foldAscii(pattern.charAt(i));
+            java.util.Arrays.fill(shift, Math.max(1, m));
+            for (int k = 0; k < m - 1; k++) shift[foldedAscii[k]] = m - 1 - k;
+        }
+        int first = m > 0 && allAscii ? foldedAscii[0] : 0;
+        this.firstBroadcast = ONES * first;
+        this.firstFoldMask = first >= 'a' && first <= 'z' ? ONES * 0x20 : 0L;
+    }
+
+    public String pattern() {
+        return pattern;
+    }
+
+    static int fold(int cp) {
+        return Character.toLowerCase(Character.toUpperCase(cp));
+    }
+
+    static int foldAscii(int c) {
+        return c >= 'A' && c <= 'Z' ? c | 0x20 : c;
+    }
+
+    // ---------- String / CharSequence ----------
+
+    public boolean contains(CharSequence text) {
+        return contains(text, 0, text.length());
+    }
+
+    /** True if text[from, to) contains the pattern, ignoring case. */
+    public boolean contains(CharSequence text, int from, int to) {
+        int m = foldedAscii.length;
+        if (foldedCodePoints.length == 0) return true;
+        if (!ascii) return containsSlow(text, from, to);
+        if (to - from < m) return false; // folding never shortens a char sequence
+
+        char[] pat = foldedAscii;
+        int i = from + m - 1;
+        while (i < to) {
+            char c = text.charAt(i);
+            if (c >= 128) return containsSlow(text, from, to);
+            int lc = foldAscii(c);
+            if (lc == pat[m - 1]) {
+                int j = i, k = m - 1;
+                while (true) {
+                    if (k == 0) return true;
+                    char d = text.charAt(--j);
+                    if (d >= 128) return containsSlow(text, from, to);
+                    if (foldAscii(d) != pat[--k]) break;
+                }
+            }
+            i += shift[lc];
+        }
+        return false;
+    }
+
+    /** True if field number {@code field} (0-based) of a sep-delimited line contains the pattern, without splitting the line. */
+    public boolean fieldContains(CharSequence line, int field, char sep) {
+        int start = 0, len = line.length();
+        for (int f = 0; f < field; f++) {
+            while (start < len && line.charAt(start) != sep) start++;
+            if (start == len) return false; // fewer fields than requested
+            start++;
+        }
+        int end = start;
+        while (end < len && line.charAt(end) != sep) end++;
+        return contains(line, start, end);
+    }
+
+    // code-point-wise search with full Unicode simple folding
+    boolean containsSlow(CharSequence text, int from, int to) {
+        int[] pat = foldedCodePoints;
+        for (int start = from; start < to; ) {
+            int i = start, k = 0;
+            while (k < pat.length && i < to) {
+                int cp = codePointAt(text, i, to);
+                if (fold(cp) != pat[k]) break;
+                i += Character.charCount(cp);
+                k++;
+            }
+            if (k == pat.length) return true;
+            start += Character.charCount(codePointAt(text, start, to));
+        }
+        return false;
+    }
+
+    static int codePointAt(CharSequence text, int i, int to) {
+        char hi = text.charAt(i);
+        if (Character.isHighSurrogate(hi) && i + 1 < to) {
+            char lo = text.charAt(i + 1);
+            if (Character.isLowSurrogate(lo)) return Character.toCodePoint(hi, lo);
+        }
+        return hi;
+    }
+
+    // ---------- UTF-8 bytes ----------
+
+    /** True if the UTF-8 bytes buf[from, to) contain the pattern, ignoring case. */
+    public boolean containsUtf8(byte[] buf, int from, int to) {
+        int m = foldedAscii.length;
+        if (foldedCodePoints.length == 0) return true;
+        if (!ascii || !isAscii(buf, from, to)) {
+            String s = new String(buf, from, to - from, StandardCharsets.UTF_8);
+            return containsSlow(s, 0, s.length());
+        }
+        int last = to - m;
+        int i = from;
+        while (i <= last) {
+            if (i + 8 <= to) {
+                long w = (long) LONG_LE.get(buf, i);
+                long x = (w | firstFoldMask) ^ firstBroadcast;
+                // zero lanes of x are candidates; the expression never misses a zero lane
+                long hits = (x - ONES) & ~x & HIGHS;
+                if (hits == 0) { i += 8; continue; }
+                int cand = i + (Long.numberOfTrailingZeros(hits) >>> 3);
+                if (cand <= last && matchesAsciiAt(buf, cand)) return true;
+                i = cand + 1;
+            } else {
+                if (foldAscii(buf[i]) == foldedAscii[0] && matchesAsciiAt(buf, i)) return true;
+                i++;
+            }
+        }
+        return false;
+    }
+
+    boolean matchesAsciiAt(byte[] buf, int pos) {
+        char[] pat = foldedAscii;
+        for (int k = 0; k < pat.length; k++) {
+            if (foldAscii(buf[pos + k]) != pat[k]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Same search over buf[from, to) of a (typically direct) ByteBuffer, read in place with absolute gets:
+     * no copy, position and limit untouched, so threads can share the buffer.
+     */
+    public boolean containsUtf8(ByteBuffer buf, int from, int to) {
+        int m = foldedAscii.length;
+        if (foldedCodePoints.length == 0) return true;
+        if (!ascii || !isAscii(buf, from, to)) {
+            byte[] b = new byte[to - from];
+            buf.get(from, b);
+            String s = new String(b, StandardCharsets.UTF_8);
+            return containsSlow(s, 0, s.length());
+        }
+        boolean le = buf.order() == ByteOrder.LITTLE_ENDIAN;
+        int last = to - m;
+        int i = from;
+        while (i <= last) {
+            if (i + 8 <= to) {
+                long w = le ? buf.getLong(i) : Long.reverseBytes(buf.getLong(i));
+                long x = (w | firstFoldMask) ^ firstBroadcast;
+                long hits = (x - ONES) & ~x & HIGHS;
+                if (hits == 0) { i += 8; continue; }
+                int cand = i + (Long.numberOfTrailingZeros(hits) >>> 3);
+                if (cand <= last && matchesAsciiAt(buf, cand)) return true;
+                i = cand + 1;
+            } else {
+                if (foldAscii(buf.get(i)) == foldedAscii[0] && matchesAsciiAt(buf, i)) return true;
+                i++;
+            }
+        }
+        return false;
+    }
+
+    boolean matchesAsciiAt(ByteBuffer buf, int pos) {
+        char[] pat = foldedAscii;
+        for (int k = 0; k < pat.length; k++) {
+            if (foldAscii(buf.get(pos + k)) != pat[k]) return false;
+        }
+        return true;
+    }
+
+    static boolean isAscii(ByteBuffer buf, int from, int to) {
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            if ((buf.getLong(i) & HIGHS) != 0) return false; // byte order does not matter for the high bits
+        }
+        for (; i < to; i++) if (buf.get(i) < 0) return false;
+        return true;
+    }
+
+    static boolean isAscii(byte[] buf, int from, int to) {
+        int i = from;
+        for (; i + 8 <= to; i += 8) {
+            if ((((long) LONG_LE.get(buf, i)) & HIGHS) != 0) return false;
+        }
+        for (; i < to; i++) if (buf[i] < 0) return false;
+        return true;
+    }
+}
@@ -0,0 +1,101 @@
+import java.lang.management.*;
+import java.util.*;
+
+/**
+ * ClientCost
+ *
+ * Client-side cost of a measured loop, per worker thread, from ThreadMXBean:
+ *   allocated bytes -> com.sun.management.ThreadMXBean.getThreadAllocatedBytes (HotSpot / OpenJ9)
+ *   CPU time        -> getCurrentThreadCpuTime
+ * A worker calls start() right before its loop and since(start, ops) right after it, on the same thread,
+ * with the operations the loop performed. perOp() sums the samples and divides by the operations of the
+ * same samples, so a worker that failed before sampling (null) drops out of both sides instead of turning
+ * the cell NA. Counters the JVM does not offer are NA.
+ *
+ * Usage:
+ *   ClientCost.Sample c0 = ClientCost.start();
+ *   ... measured loop ...
+ *   ts.cost = ClientCost.since(c0, ts.ops);
+ *   String[] cols = ClientCost.perOp(costs);   // CSV_HEADER columns
+ */
+public class ClientCost {
+
+    public static final String CSV_HEADER = "Alloc_bytes_per_op,Client_cpu_us_per_op";
+    static final String[] NA = {"NA", "NA"}; // shared default for rows without samples; never written
+
+    static final ThreadMXBean MX = ManagementFactory.getThreadMXBean();
+    static final com.sun.management.ThreadMXBean ALLOC_MX = allocBean();
+    static final boolean CPU = cpuSupported();
+
+    /** Counter values (start()) or their difference over ops operations (since()); -1 = not available. */
+    public static final class Sample {
+        final long allocBytes, cpuNs, ops;
+
+        Sample(long allocBytes, long cpuNs, long ops) { this.allocBytes = allocBytes; this.cpuNs = cpuNs; this.ops = ops; }
+    }
+
+    public static Sample start() {
+        return new Sample(allocated(), CPU ? MX.getCurrentThreadCpuTime() : -1, 0);
+    }
+
+    public static Sample since(Sample start, long ops) {
+        long alloc = allocated(), cpu = CPU ? MX.getCurrentThreadCpuTime() : -1;
+        return new Sample(start.allocBytes < 0 || alloc < 0 ? -1 : alloc - start.allocBytes,
+                start.cpuNs < 0 || cpu < 0 ? -1 : cpu - start.cpuNs, ops);
+    }
+
+    /** The same sample counted in other units (e.g. round trips instead of lookups); null stays null. */
+    public static Sample withOps(Sample s, long ops) {
+        return s == null ? null : new Sample(s.allocBytes, s.cpuNs, ops);
+    }
+
+    /** CSV_HEADER columns for a cell: each counter summed over the samples that have it, per their operations. */
+    public static String[] perOp(Collection<Sample> samples) {
+        long alloc = 0, allocOps = 0, cpu = 0, cpuOps = 0;
+        for (Sample s : samples) {
+            if (s == null) continue; // worker failed before sampling: neither its cost nor its ops count
+            if (s.allocBytes >= 0) { alloc += s.allocBytes; allocOps += s.ops; }
+            if (s.cpuNs >= 0) { cpu += s.cpuNs; cpuOps += s.ops; }
+        }
+        return new String[]{allocOps > 0 ? String.format("%.1f", (double) alloc / allocOps) : "NA",
+                cpuOps > 0 ? String.format("%.2f", cpu / 1000.0 / cpuOps) : "NA"};
+    }
+
+    /** Collects samples from workers that return something else (e.g. an op count). */
+    public static final class Total {
+        private final List<Sample> samples = new ArrayList<>();
+
+        public synchronized void add(Sample s) { samples.add(s); }
+
+        public synchronized String[] perOp() { return ClientCost.perOp(samples); }
+    }
+
+    static long allocated() {
+        return ALLOC_MX == null ? -1 : ALLOC_MX.getCurrentThreadAllocatedBytes();
+    }
+
+    static com.sun.management.ThreadMXBean allocBean() {
+        try {
+            if (MX instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean b = (com.sun.management.ThreadMXBean) MX;
+                if (b.isThreadAllocatedMemorySupported()) {
+                    if (!b.isThreadAllocatedMemoryEnabled()) b.setThreadAllocatedMemoryEnabled(true);
+                    return b;
+                }
+            }
+        } catch (LinkageError | UnsupportedOperationException | SecurityException e) {
+            // not a HotSpot-style JVM
+        }
+        return null;
+    }
+
+    static boolean cpuSupported() {
+        try {
+            if (!MX.isCurrentThreadCpuTimeSupported()) return false;
+            if (!MX.isThreadCpuTimeEnabled()) MX.setThreadCpuTimeEnabled(true);
+            return true;
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return false;
+        }
+    }
+}
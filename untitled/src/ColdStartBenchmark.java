@@ -0,0 +1,281 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.sql.*;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.jar.*;
+
+/**
+ * ColdStartBenchmark
+ *
+ * Time-to-first-result of a short-lived JDBC job, measured in fresh JVMs and split into phases:
+ *   jvm_boot    -> process launch until main() (measured against the launcher's clock)
+ *   app_init    -> the job's own start-up work (reads SQL/movies.txt)
+ *   driver_init -> Class.forName(driver) + DriverManager.getDriver(url)
+ *   tcp_auth    -> DriverManager.getConnection (TCP connect, startup packet, authentication)
+ *   parse_plan  -> first statement on the connection: EXPLAIN of the query (parse + analyze + plan, no execution)
+ *   first_row   -> executeQuery of the query + rs.next()
+ * A second execution of the query on the warm connection is reported as steady_ms for contrast.
+ *
+ * Variants (per DBMS):
+ *   default        -> plain JVM
+ *   preload        -> a background thread loads the classes of a training run's class list while app_init runs
+ *   appcds         -> dynamic AppCDS archive from a training run (-XX:SharedArchiveFile)
+ *   appcds_preload -> both
+ * Training runs (-XX:DumpLoadedClassList / -XX:ArchiveClassesAtExit) write to result/coldstart/.
+ * AppCDS only accepts jars on the class path, so directories on the launcher's class path are packed into
+ * result/coldstart/cp*.jar and every variant runs from those jars.
+ *
+ * Outputs:
+ *   result/coldstart_runs.csv    -> every run with its phases in ms
+ *   result/coldstart_summary.csv -> median per (DBMS, variant)
+ */
+public class ColdStartBenchmark {
+
+    // === DB configs (change to your credentials) ===
+    static final String PG_DRIVER = "org.postgresql.Driver";
+    static final String PG_URL = "jdbc:postgresql://127.0.0.1:5430/postgres";
+    static final String PG_USER = "test";
+    static final String PG_PASS = "123456";
+
+    static final String OG_DRIVER = "org.opengauss.Driver";
+    static final String OG_URL = "jdbc:opengauss://127.0.0.1:5431/postgres";
+    static final String OG_USER = "gaussdb";
+    static final String OG_PASS = "123456Aa@";
+
+    static final String MOVIE_FILE = "SQL/movies.txt";
+    static final File RESULT_DIR = new File("result");
+    static final File WORK_DIR = new File("result/coldstart");
+    static final String RUNS_CSV = "result/coldstart_runs.csv";
+    static final String SUMMARY_CSV = "result/coldstart_summary.csv";
+
+    static final String QUERY = "SELECT movieid, title, country, year_released FROM movies WHERE movieid = 1";
+    static final String[] VARIANTS = {"default", "preload", "appcds", "appcds_preload"};
+    static final String[] PHASES = {"jvm_boot", "app_init", "driver_init", "tcp_auth", "parse_plan", "first_row"};
+    static final int RUNS = 7;
+    static final String RESULT_PREFIX = "RESULT,";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length >= 4 && args[0].equals("child")) {
+            runChild(args[1], args[2], Long.parseLong(args[3]));
+            return;
+        }
+        if (!RESULT_DIR.exists()) RESULT_DIR.mkdirs();
+        if (!WORK_DIR.exists()) WORK_DIR.mkdirs();
+        String classPath = jarClassPath(System.getProperty("java.class.path"));
+
+        List<String[]> runRows = new ArrayList<>();
+        List<String[]> summaryRows = new ArrayList<>();
+        for (String db : new String[]{"PostgreSQL", "openGauss"}) {
+            File classList = new File(WORK_DIR, db + ".classlist");
+            File archive = new File(WORK_DIR, db + ".jsa");
+            System.out.printf("Training %s: class list and AppCDS archive%n", db);
+            launch(classPath, db, "train", List.of("-XX:DumpLoadedClassList=" + classList.getPath()));
+            launch(classPath, db, "train", List.of("-XX:ArchiveClassesAtExit=" + archive.getPath()));
+
+            for (String variant : VARIANTS) {
+                List<String> flags = new ArrayList<>();
+                if (variant.startsWith("appcds")) {
+                    if (!archive.exists()) { System.err.println("No AppCDS archive for " + db + ", skipping " + variant); continue; }
+                    flags.add("-XX:SharedArchiveFile=" + archive.getPath());
+                }
+                if (variant.endsWith("preload")) flags.add("-Dcoldstart.preload=" + classList.getPath());
+
+                List<double[]> phases = new ArrayList<>();
+                String status = "ok";
+                for (int r = 1; r <= RUNS; r++) {
+                    System.out.printf("Running %s variant=%s run=%d%n", db, variant, r);
+                    String[] res = launch(classPath, db, variant, flags);
+                    if (res == null) { status = "child_failed"; continue; }
+                    runRows.add(prepend(res, Integer.toString(r)));
+                    if (!res[res.length - 1].equals("ok")) status = res[res.length - 1];
+                    double[] p = new double[PHASES.length + 2];
+                    for (int i = 0; i < p.length; i++) p[i] = Double.parseDouble(res[2 + i]);
+                    phases.add(p);
+                }
+                summaryRows.add(summarize(db, variant, phases, status));
+            }
+        }
+
+        String header = "DBMS,Variant," + String.join("_ms,", PHASES) + "_ms,Total_ms,Steady_ms,Status";
+        writeCsv(RUNS_CSV, "Run," + header, runRows);
+        writeCsv(SUMMARY_CSV, header.replace("Status", "Runs,Status"), summaryRows);
+    }
+
+    /** Starts one child JVM and returns its RESULT fields (DBMS, variant, phases..., total, steady, status). */
+    static String[] launch(String classPath, String db, String variant, List<String> jvmFlags) throws IOException, InterruptedException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> cmd = new ArrayList<>();
+        cmd.add(java);
+        cmd.addAll(jvmFlags);
+        cmd.addAll(Arrays.asList("-cp", classPath, "ColdStartBenchmark", "child", db, variant,
+                Long.toString(nowMicros())));
+        Process p = new ProcessBuilder(cmd).redirectErrorStream(true).start();
+        String[] result = null;
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.startsWith(RESULT_PREFIX)) result = line.substring(RESULT_PREFIX.length()).split(",");
+                else System.out.println("  " + line);
+            }
+        }
+        if (p.waitFor() != 0) System.err.printf("Child exited with %d (%s %s)%n", p.exitValue(), db, variant);
+        return result;
+    }
+
+    // replaces every directory entry of the class path with a jar of its contents
+    static String jarClassPath(String classPath) throws IOException {
+        List<String> out = new ArrayList<>();
+        int n = 0;
+        for (String entry : classPath.split(File.pathSeparator)) {
+            Path dir = Paths.get(entry);
+            if (!Files.isDirectory(dir)) { out.add(entry); continue; }
+            File jar = new File(WORK_DIR, "cp" + (n++) + ".jar");
+            try (JarOutputStream jos = new JarOutputStream(new FileOutputStream(jar));
+                 java.util.stream.Stream<Path> files = Files.walk(dir)) {
+                for (Path f : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                    jos.putNextEntry(new JarEntry(dir.relativize(f).toString().replace(File.separatorChar, '/')));
+                    Files.copy(f, jos);
+                    jos.closeEntry();
+                }
+            }
+            out.add(jar.getPath());
+        }
+        return String.join(File.pathSeparator, out);
+    }
+
+    static long nowMicros() {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+    }
+
+    static void runChild(String db, String variant, long launchMicros) {
+        long mainMicros = nowMicros();
+        long t0 = System.nanoTime();
+        double[] ms = new double[PHASES.length];
+        ms[0] = (mainMicros - launchMicros) / 1000.0;
+
+        Thread preloader = null;
+        String classList = System.getProperty("coldstart.preload");
+        if (classList != null) {
+            preloader = new Thread(() -> preload(classList), "class-preload");
+            preloader.setDaemon(true);
+            preloader.start();
+        }
+
+        boolean pg = db.equals("PostgreSQL");
+        String driver = pg ? PG_DRIVER : OG_DRIVER, url = pg ? PG_URL : OG_URL;
+        String user = pg ? PG_USER : OG_USER, pass = pg ? PG_PASS : OG_PASS;
+        String status = "ok";
+        double steadyMs = 0;
+        int phase = 1;
+        long s = System.nanoTime();
+        try {
+            // app_init: the job's own start-up work
+            long lines = 0;
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(MOVIE_FILE), StandardCharsets.UTF_8))) {
+                while (br.readLine() != null) lines++;
+            }
+            s = lap(ms, phase++, s);
+
+            Class.forName(driver);
+            DriverManager.getDriver(url);
+            s = lap(ms, phase++, s);
+
+            try (Connection conn = DriverManager.getConnection(url, user, pass)) {
+                s = lap(ms, phase++, s);
+                try (Statement stmt = conn.createStatement()) {
+                    try (ResultSet rs = stmt.executeQuery("EXPLAIN " + QUERY)) {
+                        while (rs.next()) { }
+                    }
+                    s = lap(ms, phase++, s);
+                    try (ResultSet rs = stmt.executeQuery(QUERY)) {
+                        if (!rs.next()) status = "no_row";
+                    }
+                    s = lap(ms, phase++, s);
+                    try (ResultSet rs = stmt.executeQuery(QUERY)) {
+                        while (rs.next()) { }
+                    }
+                    steadyMs = (System.nanoTime() - s) / 1_000_000.0;
+                }
+            }
+            if (lines == 0) status = "empty_input";
+        } catch (ClassNotFoundException e) {
+            status = "driver_not_found";
+        } catch (SQLException e) {
+            if (phase < PHASES.length) ms[phase] = (System.nanoTime() - s) / 1_000_000.0; // time until the failure
+            status = "sql_error_" + (e.getSQLState() == null ? "unknown" : e.getSQLState());
+            System.out.println("SQL error in " + (phase < PHASES.length ? PHASES[phase] : "steady") + ": " + e.getMessage());
+        } catch (IOException e) {
+            status = "io_error";
+            System.out.println("IO error: " + e.getMessage());
+        }
+
+        double total = ms[0] + (System.nanoTime() - t0) / 1_000_000.0 - steadyMs;
+        StringBuilder sb = new StringBuilder(RESULT_PREFIX).append(db).append(',').append(variant);
+        for (double v : ms) sb.append(',').append(String.format("%.3f", v));
+        sb.append(',').append(String.format("%.3f", total)).append(',').append(String.format("%.3f", steadyMs));
+        sb.append(',').append(status);
+        System.out.println(sb);
+    }
+
+    static long lap(double[] ms, int phase, long since) {
+        long now = System.nanoTime();
+        ms[phase] = (now - since) / 1_000_000.0;
+        return now;
+    }
+
+    // loads (without initializing) every class named in a -XX:DumpLoadedClassList file
+    static void preload(String classList) {
+        ClassLoader loader = ColdStartBenchmark.class.getClassLoader();
+        try (BufferedReader br = Files.newBufferedReader(Paths.get(classList), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#") || line.startsWith("@")) continue;
+                String name = line.split(" ", 2)[0].replace('/', '.');
+                if (name.contains("$$Lambda") || name.contains("$Proxy")) continue;
+                try { Class.forName(name, false, loader); } catch (Throwable ignore) { }
+            }
+        } catch (IOException ignore) { }
+    }
+
+    static String[] summarize(String db, String variant, List<double[]> runs, String status) {
+        String[] row = new String[2 + PHASES.length + 2 + 2];
+        row[0] = db;
+        row[1] = variant;
+        for (int i = 0; i < PHASES.length + 2; i++) {
+            double[] v = new double[runs.size()];
+            for (int r = 0; r < v.length; r++) v[r] = runs.get(r)[i];
+            row[2 + i] = String.format("%.3f", median(v));
+        }
+        row[row.length - 2] = Integer.toString(runs.size());
+        row[row.length - 1] = status;
+        System.out.printf("Summary %s %s: total(median)=%s ms status=%s%n", db, variant, row[2 + PHASES.length], status);
+        return row;
+    }
+
+    static double median(double[] v) {
+        if (v.length == 0) return 0.0;
+        double[] a = v.clone();
+        Arrays.sort(a);
+        return a.length % 2 == 1 ? a[a.length / 2] : (a[a.length / 2 - 1] + a[a.length / 2]) / 2;
+    }
+
+    static String[] prepend(String[] a, String first) {
+        String[] r = new String[a.length + 1];
+        r[0] = first;
+        System.arraycopy(a, 0, r, 1, a.length);
+        return r;
+    }
+
+    static void writeCsv(String file, String header, List<String[]> rows) {
+        try (PrintWriter pw = new PrintWriter(new FileWriter(file))) {
+            pw.println(header);
+            for (String[] r : rows) pw.println(String.join(",", r));
+            System.out.println("Saved CSV: " + file);
+        } catch (IOException e) {
+            System.err.println("CSV write failed: " + e.getMessage());
+        }
+    }
+}
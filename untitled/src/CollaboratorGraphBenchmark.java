@@ -0,0 +1,521 @@
+import java.sql.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * CollaboratorGraphBenchmark
+ *
+ * People are connected when they share a movie in credits. Two graph queries:
+ *   shortest  -> degrees of separation between two people (pairs picked at 1..MAX_HOPS hops)
+ *   khop      -> number of people within k hops (k = 1..MAX_KHOP)
+ * answered by:
+ *   DB  sql       -> WITH RECURSIVE over gr_credits (distinct movieid/peopleid pairs of credits, indexed both ways);
+ *                    UNION only removes duplicate (person, depth) rows, so the depth bound is the known answer
+ *   JVM bfs       -> person/movie bipartite graph in CSR form (int offsets + int adjacency), level BFS
+ *   JVM bidir     -> same CSR, bidirectional BFS expanding the smaller frontier (shortest only)
+ *   JVM parallel  -> same CSR, level BFS with the frontier split over the common ForkJoin pool
+ *   JVM boxed     -> HashMap<Integer, List<Integer>> adjacency, level BFS, for the footprint comparison
+ * The CSR is built from SQL/credits.txt (movieid;peopleid;credited_as). gr_credits is created and dropped by the run.
+ *
+ * Outputs:
+ *   result/collaborator_graph.csv        -> per (engine, method, query, hops): pairs, avg/p99 latency, avg result, agreement
+ *   result/collaborator_graph_memory.csv -> per (engine, structure): bytes
+ */
+public class CollaboratorGraphBenchmark {
+
+    // === DB configs (change to your credentials) ===
+    static final String PG_DRIVER = "org.postgresql.Driver";
+    static final String PG_URL = LatencyProxy.wrap("jdbc:postgresql://127.0.0.1:5430/postgres");
+    static final String PG_USER = "test";
+    static final String PG_PASS = "123456";
+
+    static final String OG_DRIVER = "org.opengauss.Driver";
+    static final String OG_URL = LatencyProxy.wrap("jdbc:opengauss://127.0.0.1:5431/postgres");
+    static final String OG_USER = "gaussdb";
+    static final String OG_PASS = "123456Aa@";
+
+    static final String CREDITS_FILE = "SQL/credits.txt";
+    static final File RESULT_DIR = new File("result");
+    static final String RESULT_CSV = "result/collaborator_graph.csv";
+    static final String MEMORY_CSV = "result/collaborator_graph_memory.csv";
+
+    static final int SOURCES = 5;       // source people; one target per (source, hop count)
+    static final int MAX_HOPS = 6;
+    static final int MAX_KHOP = 3;
+    static final long SEED = 42;
+    static final int WARMUP_RUNS = 3;
+    static final int RUNS = 30;
+    static final int DB_RUNS = 3;       // recursive CTEs at 4+ hops take seconds
+    static final int PARALLEL_CHUNK = 256;
+
+    static final String[] SETUP_SQL = {
+            "DROP TABLE IF EXISTS gr_credits",
+            "CREATE TABLE gr_credits AS SELECT DISTINCT movieid, peopleid FROM credits",
+            "CREATE INDEX gr_credits_people ON gr_credits(peopleid, movieid)",
+            "CREATE INDEX gr_credits_movie ON gr_credits(movieid, peopleid)",
+            "ANALYZE gr_credits"};
+    static final String BFS_CTE = "WITH RECURSIVE bfs(peopleid, depth) AS ("
+            + "SELECT CAST(? AS int), 0 UNION "
+            + "SELECT c2.peopleid, b.depth + 1 FROM bfs b JOIN gr_credits c1 ON c1.peopleid = b.peopleid "
+            + "JOIN gr_credits c2 ON c2.movieid = c1.movieid WHERE b.depth < ?) ";
+    static final String SHORTEST_SQL = BFS_CTE + "SELECT MIN(depth) FROM bfs WHERE peopleid = ?";
+    static final String KHOP_SQL = BFS_CTE + "SELECT COUNT(DISTINCT peopleid) - 1 FROM bfs";
+
+    // ===== CSR graph: nodes 0..people-1 are people, people..n-1 are movies =====
+    static int people, nodes;
+    static int[] offsets, adj;
+    static int[] personIndex, personId; // peopleid -> node, node -> peopleid
+    static int[] movieIndex;
+
+    // BFS scratch: a node is visited when mark[v] == stamp
+    static int stamp;
+    static int[] markA, markB, distA, distB;
+    static AtomicIntegerArray parMark;
+
+    public static void main(String[] args) throws Exception {
+        if (!RESULT_DIR.exists()) RESULT_DIR.mkdirs();
+        List<String[]> rows = new ArrayList<>();
+        List<String[]> memRows = new ArrayList<>();
+
+        long t0 = System.nanoTime();
+        List<int[]> pairs = loadCredits(CREDITS_FILE);
+        buildCsr(pairs);
+        System.out.printf("CSR: %d people, %d movies, %d edges, built in %.1f ms%n",
+                people, nodes - people, adj.length / 2, (System.nanoTime() - t0) / 1_000_000.0);
+        long csrBytes = 4L * (offsets.length + adj.length + personIndex.length + personId.length + movieIndex.length);
+        memRows.add(new String[]{"JVM", "csr", Long.toString(csrBytes)});
+
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = rt.totalMemory() - rt.freeMemory();
+        Map<Integer, List<Integer>> boxed = buildBoxed(pairs);
+        System.gc();
+        long boxedBytes = rt.totalMemory() - rt.freeMemory() - heapBefore;
+        memRows.add(new String[]{"JVM", "boxed_hashmap", Long.toString(Math.max(0, boxedBytes))});
+        System.out.printf("Memory: csr %d bytes, boxed ~%d bytes%n", csrBytes, boxedBytes);
+
+        markA = new int[nodes]; markB = new int[nodes]; distA = new int[nodes]; distB = new int[nodes];
+        parMark = new AtomicIntegerArray(nodes);
+
+        // pairs at each hop count, reference distances / k-hop counts from the sequential BFS
+        Random rnd = new Random(SEED);
+        List<List<int[]>> byHops = new ArrayList<>();
+        for (int h = 0; h <= MAX_HOPS; h++) byHops.add(new ArrayList<>());
+        List<Integer> sources = new ArrayList<>();
+        while (sources.size() < SOURCES) {
+            int s = rnd.nextInt(people);
+            if (offsets[s + 1] > offsets[s] && !sources.contains(s)) sources.add(s);
+        }
+        for (int s : sources) {
+            int[] dist = bfsAll(s);
+            for (int h = 1; h <= MAX_HOPS; h++) {
+                List<Integer> at = new ArrayList<>();
+                for (int v = 0; v < people; v++) if (dist[v] == h) at.add(v);
+                if (!at.isEmpty()) byHops.get(h).add(new int[]{s, at.get(rnd.nextInt(at.size())), h});
+            }
+        }
+        int[][] khopRef = new int[sources.size()][MAX_KHOP + 1];
+        for (int i = 0; i < sources.size(); i++) {
+            for (int k = 1; k <= MAX_KHOP; k++) khopRef[i][k] = khopSeq(sources.get(i), k);
+        }
+
+        // ===== JVM =====
+        String[] shortestMethods = {"bfs", "bidir", "parallel", "boxed"};
+        for (String method : shortestMethods) {
+            for (int h = 1; h <= MAX_HOPS; h++) {
+                List<int[]> ps = byHops.get(h);
+                if (ps.isEmpty()) continue;
+                List<Double> lat = new ArrayList<>();
+                boolean agree = true;
+                double sum = 0;
+                for (int[] p : ps) {
+                    int d = 0;
+                    for (int i = 0; i < WARMUP_RUNS + RUNS; i++) {
+                        long s = System.nanoTime();
+                        d = shortest(method, p[0], p[1], boxed);
+                        if (i >= WARMUP_RUNS) lat.add((System.nanoTime() - s) / 1_000_000.0);
+                    }
+                    sum += d;
+                    agree &= d == p[2];
+                }
+                rows.add(row("JVM", method, "shortest", h, ps.size(), lat, sum / ps.size(), agree));
+            }
+        }
+        String[] khopMethods = {"bfs", "parallel", "boxed"};
+        for (String method : khopMethods) {
+            for (int k = 1; k <= MAX_KHOP; k++) {
+                List<Double> lat = new ArrayList<>();
+                boolean agree = true;
+                double sum = 0;
+                for (int i = 0; i < sources.size(); i++) {
+                    int c = 0;
+                    for (int r = 0; r < WARMUP_RUNS + RUNS; r++) {
+                        long s = System.nanoTime();
+                        c = khop(method, sources.get(i), k, boxed);
+                        if (r >= WARMUP_RUNS) lat.add((System.nanoTime() - s) / 1_000_000.0);
+                    }
+                    sum += c;
+                    agree &= c == khopRef[i][k];
+                }
+                rows.add(row("JVM", method, "khop", k, sources.size(), lat, sum / sources.size(), agree));
+            }
+        }
+
+        // ===== DB =====
+        runDb(rows, memRows, "PostgreSQL", PG_DRIVER, PG_URL, PG_USER, PG_PASS, byHops, sources, khopRef);
+        runDb(rows, memRows, "openGauss", OG_DRIVER, OG_URL, OG_USER, OG_PASS, byHops, sources, khopRef);
+
+        try (PrintWriter pw = new PrintWriter(new FileWriter(RESULT_CSV))) {
+            pw.println("Engine,Method,Query,Hops,Pairs,Avg_ms,P99_ms,Avg_result,Agree");
+            for (String[] r : rows) pw.println(String.join(",", r));
+            System.out.println("Saved CSV: " + RESULT_CSV);
+        } catch (IOException e) {
+            System.err.println("CSV write failed: " + e.getMessage());
+        }
+        try (PrintWriter pw = new PrintWriter(new FileWriter(MEMORY_CSV))) {
+            pw.println("Engine,Structure,Bytes");
+            for (String[] r : memRows) pw.println(String.join(",", r));
+            System.out.println("Saved CSV: " + MEMORY_CSV);
+        } catch (IOException e) {
+            System.err.println("CSV write failed: " + e.getMessage());
+        }
+    }
+
+    static void runDb(List<String[]> rows, List<String[]> memRows, String dbName, String driver, String url, String user, String pass,
+                      List<List<int[]>> byHops, List<Integer> sources, int[][] khopRef) {
+        try { Class.forName(driver); } catch (ClassNotFoundException e) { System.err.println("Driver not found: " + e.getMessage()); return; }
+
+        try (Connection conn = DriverManager.getConnection(url, user, pass);
+             Statement stmt = conn.createStatement()) {
+            try {
+                for (String sql : SETUP_SQL) stmt.execute(sql);
+                try (ResultSet rs = stmt.executeQuery("SELECT pg_total_relation_size('gr_credits')")) {
+                    if (rs.next()) memRows.add(new String[]{dbName, "gr_credits_with_indexes", Long.toString(rs.getLong(1))});
+                }
+
+                try (PreparedStatement ps = conn.prepareStatement(SHORTEST_SQL)) {
+                    for (int h = 1; h <= MAX_HOPS; h++) {
+                        List<int[]> pairs = byHops.get(h);
+                        if (pairs.isEmpty()) continue;
+                        System.out.printf("Running %s shortest hops=%d%n", dbName, h);
+                        List<Double> lat = new ArrayList<>();
+                        boolean agree = true;
+                        double sum = 0;
+                        for (int[] p : pairs) {
+                            ps.setInt(1, personId[p[0]]);
+                            ps.setInt(2, h);
+                            ps.setInt(3, personId[p[1]]);
+                            int d = -1;
+                            for (int i = 0; i < 1 + DB_RUNS; i++) {
+                                long s = System.nanoTime();
+                                try (ResultSet rs = ps.executeQuery()) {
+                                    d = rs.next() ? rs.getInt(1) : -1;
+                                    if (rs.wasNull()) d = -1;
+                                }
+                                if (i >= 1) lat.add((System.nanoTime() - s) / 1_000_000.0);
+                            }
+                            sum += d;
+                            agree &= d == p[2];
+                        }
+                        rows.add(row(dbName, "sql", "shortest", h, pairs.size(), lat, sum / pairs.size(), agree));
+                    }
+                }
+                try (PreparedStatement ps = conn.prepareStatement(KHOP_SQL)) {
+                    for (int k = 1; k <= MAX_KHOP; k++) {
+                        System.out.printf("Running %s khop k=%d%n", dbName, k);
+                        List<Double> lat = new ArrayList<>();
+                        boolean agree = true;
+                        double sum = 0;
+                        for (int i = 0; i < sources.size(); i++) {
+                            ps.setInt(1, personId[sources.get(i)]);
+                            ps.setInt(2, k);
+                            int c = -1;
+                            for (int r = 0; r < 1 + DB_RUNS; r++) {
+                                long s = System.nanoTime();
+                                try (ResultSet rs = ps.executeQuery()) {
+                                    c = rs.next() ? rs.getInt(1) : -1;
+                                }
+                                if (r >= 1) lat.add((System.nanoTime() - s) / 1_000_000.0);
+                            }
+                            sum += c;
+                            agree &= c == khopRef[i][k];
+                        }
+                        rows.add(row(dbName, "sql", "khop", k, sources.size(), lat, sum / sources.size(), agree));
+                    }
+                }
+            } finally {
+                try { stmt.execute("DROP TABLE IF EXISTS gr_credits"); } catch (SQLException ignore) { }
+            }
+        } catch (SQLException e) {
+            System.err.println(dbName + " run failed: " + e.getMessage());
+        }
+    }
+
+    // ===== loading =====
+
+    /** Distinct {movieid, peopleid} pairs (a person can be both actor and director of a movie). */
+    static List<int[]> loadCredits(String path) throws IOException {
+        Set<Long> seen = new HashSet<>();
+        List<int[]> pairs = new ArrayList<>();
+        try (BufferedReader br = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            br.readLine(); // header
+            String line;
+            while ((line = br.readLine()) != null) {
+                int a = line.indexOf(';'), b = line.indexOf(';', a + 1);
+                if (a < 0 || b < 0) continue;
+                int movie = Integer.parseInt(line.substring(0, a)), person = Integer.parseInt(line.substring(a + 1, b));
+                if (seen.add(((long) movie << 32) | person)) pairs.add(new int[]{movie, person});
+            }
+        }
+        return pairs;
+    }
+
+    static void buildCsr(List<int[]> pairs) {
+        int maxMovie = 0, maxPerson = 0;
+        for (int[] p : pairs) { maxMovie = Math.max(maxMovie, p[0]); maxPerson = Math.max(maxPerson, p[1]); }
+        personIndex = new int[maxPerson + 1];
+        movieIndex = new int[maxMovie + 1];
+        Arrays.fill(personIndex, -1);
+        Arrays.fill(movieIndex, -1);
+        people = 0;
+        for (int[] p : pairs) if (personIndex[p[1]] < 0) personIndex[p[1]] = people++;
+        personId = new int[people];
+        for (int id = 0; id <= maxPerson; id++) if (personIndex[id] >= 0) personId[personIndex[id]] = id;
+        nodes = people;
+        for (int[] p : pairs) if (movieIndex[p[0]] < 0) movieIndex[p[0]] = nodes++;
+
+        offsets = new int[nodes + 1];
+        for (int[] p : pairs) { offsets[personIndex[p[1]] + 1]++; offsets[movieIndex[p[0]] + 1]++; }
+        for (int v = 0; v < nodes; v++) offsets[v + 1] += offsets[v];
+        adj = new int[offsets[nodes]];
+        int[] fill = Arrays.copyOf(offsets, nodes);
+        for (int[] p : pairs) {
+            int u = personIndex[p[1]], m = movieIndex[p[0]];
+            adj[fill[u]++] = m;
+            adj[fill[m]++] = u;
+        }
+    }
+
+    // person -> collaborators, the textbook representation
+    static Map<Integer, List<Integer>> buildBoxed(List<int[]> pairs) {
+        Map<Integer, List<Integer>> castOf = new HashMap<>();
+        for (int[] p : pairs) castOf.computeIfAbsent(p[0], k -> new ArrayList<>()).add(p[1]);
+        Map<Integer, List<Integer>> g = new HashMap<>();
+        for (List<Integer> cast : castOf.values()) {
+            for (Integer a : cast) {
+                List<Integer> out = g.computeIfAbsent(a, k -> new ArrayList<>());
+                for (Integer b : cast) if (!a.equals(b)) out.add(b);
+            }
+        }
+        return g;
+    }
+
+    // ===== traversals (distances in person hops = bipartite levels / 2) =====
+
+    static int shortest(String method, int s, int t, Map<Integer, List<Integer>> boxed) {
+        switch (method) {
+            case "bfs": return shortestSeq(s, t);
+            case "bidir": return shortestBidir(s, t);
+            case "parallel": return shortestParallel(s, t);
+            default: return shortestBoxed(personId[s], personId[t], boxed);
+        }
+    }
+
+    static int khop(String method, int s, int k, Map<Integer, List<Integer>> boxed) {
+        switch (method) {
+            case "bfs": return khopSeq(s, k);
+            case "parallel": return khopParallel(s, k);
+            default: return khopBoxed(personId[s], k, boxed);
+        }
+    }
+
+    /** Person-hop distance from s to every person (-1 = unreachable). */
+    static int[] bfsAll(int s) {
+        int[] dist = new int[nodes];
+        Arrays.fill(dist, -1);
+        int[] queue = new int[nodes];
+        int head = 0, tail = 0;
+        dist[s] = 0;
+        queue[tail++] = s;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int v = adj[i];
+                if (dist[v] < 0) { dist[v] = dist[u] + 1; queue[tail++] = v; }
+            }
+        }
+        for (int v = 0; v < nodes; v++) if (dist[v] > 0) dist[v] /= 2;
+        return dist;
+    }
+
+    static int shortestSeq(int s, int t) {
+        if (s == t) return 0;
+        stamp++;
+        int[] frontier = {s}, next = new int[nodes];
+        markA[s] = stamp;
+        for (int level = 1; frontier.length > 0; level++) {
+            int n = 0;
+            for (int u : frontier) {
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    int v = adj[i];
+                    if (markA[v] == stamp) continue;
+                    if (v == t) return level / 2;
+                    markA[v] = stamp;
+                    next[n++] = v;
+                }
+            }
+            frontier = Arrays.copyOf(next, n);
+        }
+        return -1;
+    }
+
+    static int shortestBidir(int s, int t) {
+        if (s == t) return 0;
+        stamp++;
+        int[] fa = {s}, fb = {t}, next = new int[nodes];
+        markA[s] = stamp; distA[s] = 0;
+        markB[t] = stamp; distB[t] = 0;
+        while (fa.length > 0 && fb.length > 0) {
+            boolean forward = fa.length <= fb.length;
+            int[] frontier = forward ? fa : fb;
+            int[] mark = forward ? markA : markB, dist = forward ? distA : distB;
+            int[] otherMark = forward ? markB : markA, otherDist = forward ? distB : distA;
+            int best = Integer.MAX_VALUE, n = 0;
+            for (int u : frontier) {
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    int v = adj[i];
+                    if (mark[v] == stamp) continue;
+                    mark[v] = stamp;
+                    dist[v] = dist[u] + 1;
+                    next[n++] = v;
+                    if (otherMark[v] == stamp) best = Math.min(best, dist[v] + otherDist[v]);
+                }
+            }
+            if (best != Integer.MAX_VALUE) return best / 2;
+            if (forward) fa = Arrays.copyOf(next, n); else fb = Arrays.copyOf(next, n);
+        }
+        return -1;
+    }
+
+    static int shortestParallel(int s, int t) {
+        if (s == t) return 0;
+        int st = ++stamp;
+        int[] frontier = {s};
+        parMark.set(s, st);
+        for (int level = 1; frontier.length > 0; level++) {
+            frontier = expandParallel(frontier, st);
+            if (parMark.get(t) == st) return level / 2;
+        }
+        return -1;
+    }
+
+    static int khopSeq(int s, int k) {
+        stamp++;
+        int[] frontier = {s}, next = new int[nodes];
+        markA[s] = stamp;
+        int count = 0;
+        for (int level = 1; level <= 2 * k && frontier.length > 0; level++) {
+            int n = 0;
+            for (int u : frontier) {
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    int v = adj[i];
+                    if (markA[v] == stamp) continue;
+                    markA[v] = stamp;
+                    next[n++] = v;
+                }
+            }
+            frontier = Arrays.copyOf(next, n);
+            if (level % 2 == 0) count += n;
+        }
+        return count;
+    }
+
+    static int khopParallel(int s, int k) {
+        int st = ++stamp;
+        int[] frontier = {s};
+        parMark.set(s, st);
+        int count = 0;
+        for (int level = 1; level <= 2 * k && frontier.length > 0; level++) {
+            frontier = expandParallel(frontier, st);
+            if (level % 2 == 0) count += frontier.length;
+        }
+        return count;
+    }
+
+    /** One BFS level: chunks of the frontier claim unvisited neighbours with a CAS on parMark. */
+    static int[] expandParallel(int[] frontier, int st) {
+        int chunks = (frontier.length + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK;
+        int[][] parts = IntStream.range(0, chunks).parallel().mapToObj(c -> {
+            int from = c * PARALLEL_CHUNK, to = Math.min(frontier.length, from + PARALLEL_CHUNK);
+            int[] out = new int[64];
+            int n = 0;
+            for (int j = from; j < to; j++) {
+                int u = frontier[j];
+                for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                    int v = adj[i];
+                    int cur = parMark.get(v);
+                    if (cur != st && parMark.compareAndSet(v, cur, st)) {
+                        if (n == out.length) out = Arrays.copyOf(out, n * 2);
+                        out[n++] = v;
+                    }
+                }
+            }
+            return Arrays.copyOf(out, n);
+        }).toArray(int[][]::new);
+        int total = 0;
+        for (int[] p : parts) total += p.length;
+        int[] next = new int[total];
+        int pos = 0;
+        for (int[] p : parts) { System.arraycopy(p, 0, next, pos, p.length); pos += p.length; }
+        return next;
+    }
+
+    static int shortestBoxed(int s, int t, Map<Integer, List<Integer>> g) {
+        if (s == t) return 0;
+        Set<Integer> seen = new HashSet<>();
+        seen.add(s);
+        List<Integer> frontier = Collections.singletonList(s);
+        for (int level = 1; !frontier.isEmpty(); level++) {
+            List<Integer> next = new ArrayList<>();
+            for (Integer u : frontier) {
+                for (Integer v : g.getOrDefault(u, Collections.emptyList())) {
+                    if (!seen.add(v)) continue;
+                    if (v == t) return level;
+                    next.add(v);
+                }
+            }
+            frontier = next;
+        }
+        return -1;
+    }
+
+    static int khopBoxed(int s, int k, Map<Integer, List<Integer>> g) {
+        Set<Integer> seen = new HashSet<>();
+        seen.add(s);
+        List<Integer> frontier = Collections.singletonList(s);
+        for (int level = 1; level <= k && !frontier.isEmpty(); level++) {
+            List<Integer> next = new ArrayList<>();
+            for (Integer u : frontier) {
+                for (Integer v : g.getOrDefault(u, Collections.emptyList())) {
+                    if (seen.add(v)) next.add(v);
+                }
+            }
+            frontier = next;
+        }
+        return seen.size() - 1;
+    }
+
+    static String[] row(String engine, String method, String query, int hops, int pairs, List<Double> lat, double avgResult, boolean agree) {
+        double[] a = lat.stream().mapToDouble(d -> d).sorted().toArray();
+        double avg = Arrays.stream(a).average().orElse(0.0);
+        double p99 = a.length == 0 ? 0.0 : a[Math.min(a.length - 1, (int) Math.ceil(0.99 * a.length) - 1)];
+        System.out.printf("%-10s %-8s %-8s hops=%d pairs=%d avg=%.3f ms p99=%.3f ms result=%.1f agree=%b%n",
+                engine, method, query, hops, pairs, avg, p99, avgResult, agree);
+        return new String[]{engine, method, query, Integer.toString(hops), Integer.toString(pairs),
+                String.format("%.3f", avg), String.format("%.3f", p99), String.format("%.1f", avgResult), Boolean.toString(agree)};
+    }
+}
@@ -0,0 +1,168 @@
+import java.sql.*;
+import java.io.*;
+import java.util.*;
+
+/**
+ * ColumnStoreBenchmark
+ *
+ * Scan / aggregate queries on row-store vs openGauss column-store (WITH (ORIENTATION = COLUMN)) copies of
+ * movies, people and credits, each repeated SCALE times with shifted ids:
+ *   row     -> plain heap tables, both engines
+ *   column  -> column-store tables, openGauss only; skipped on PostgreSQL (detected via SELECT version())
+ * Copies are bulk loaded with INSERT ... SELECT from the filmdb tables and generate_series, analyzed,
+ * and dropped at the end of the run. No secondary indexes, so every query is a scan.
+ *
+ * Outputs:
+ *   result/column_store.csv      -> per (DBMS, storage, scale, query): result rows, avg/min/max latency
+ *   result/column_store_load.csv -> per (DBMS, storage, scale): rows loaded, load time, table bytes
+ */
+public class ColumnStoreBenchmark {
+
+    // === DB configs (change to your credentials) ===
+    static final String PG_DRIVER = "org.postgresql.Driver";
+    static final String PG_URL = LatencyProxy.wrap("jdbc:postgresql://127.0.0.1:5430/postgres");
+    static final String PG_USER = "test";
+    static final String PG_PASS = "123456";
+
+    static final String OG_DRIVER = "org.opengauss.Driver";
+    static final String OG_URL = LatencyProxy.wrap("jdbc:opengauss://127.0.0.1:5431/postgres");
+    static final String OG_USER = "gaussdb";
+    static final String OG_PASS = "123456Aa@";
+
+    static final File RESULT_DIR = new File("result");
+    static final String RESULT_CSV = "result/column_store.csv";
+    static final String LOAD_CSV = "result/column_store_load.csv";
+
+    static final int[] SCALES = {1, 10, 50};
+    static final int ID_OFFSET = 1_000_000; // copy g gets ids + g * ID_OFFSET, keeps joins within a copy
+    static final int WARMUP_RUNS = 2;
+    static final int RUNS = 10;
+
+    static final String[] STORAGES = {"row", "column"};
+    static final String[] STORAGE_OPTIONS = {"", " WITH (ORIENTATION = COLUMN)"};
+
+    static final String[] TABLE_DDL = {
+            "CREATE TABLE cs_movies(movieid int, title varchar(100), country char(2), year_released int, runtime int)",
+            "CREATE TABLE cs_people(peopleid int, first_name varchar(30), surname varchar(30), born int, died int, gender char(1))",
+            "CREATE TABLE cs_credits(movieid int, peopleid int, credited_as char(1))"};
+    static final String[] LOAD_SQL = {
+            "INSERT INTO cs_movies SELECT m.movieid + g * " + ID_OFFSET + ", m.title, m.country, m.year_released, m.runtime "
+                    + "FROM movies m, generate_series(0, ?) g",
+            "INSERT INTO cs_people SELECT p.peopleid + g * " + ID_OFFSET + ", p.first_name, p.surname, p.born, p.died, p.gender "
+                    + "FROM people p, generate_series(0, ?) g",
+            "INSERT INTO cs_credits SELECT c.movieid + g * " + ID_OFFSET + ", c.peopleid + g * " + ID_OFFSET + ", c.credited_as "
+                    + "FROM credits c, generate_series(0, ?) g"};
+    static final String[] TABLES = {"cs_movies", "cs_people", "cs_credits"};
+
+    static final String[] QUERY_NAMES = {"movies_by_country", "movies_by_decade", "credits_by_role",
+            "actors_by_country", "people_born_after_1950", "directors_by_birth_decade"};
+    static final String[] QUERY_SQL = {
+            "SELECT country, COUNT(*), AVG(runtime) FROM cs_movies GROUP BY country",
+            "SELECT year_released / 10 * 10, COUNT(*), MIN(runtime), MAX(runtime) FROM cs_movies GROUP BY year_released / 10 * 10",
+            "SELECT credited_as, COUNT(*) FROM cs_credits GROUP BY credited_as",
+            "SELECT m.country, COUNT(*) FROM cs_credits c JOIN cs_movies m ON m.movieid = c.movieid "
+                    + "WHERE c.credited_as = 'A' GROUP BY m.country",
+            "SELECT gender, COUNT(*), AVG(born) FROM cs_people WHERE born >= 1950 GROUP BY gender",
+            "SELECT p.born / 10 * 10, COUNT(DISTINCT c.movieid) FROM cs_credits c JOIN cs_people p ON p.peopleid = c.peopleid "
+                    + "WHERE c.credited_as = 'D' GROUP BY p.born / 10 * 10"};
+
+    public static void main(String[] args) throws Exception {
+        if (!RESULT_DIR.exists()) RESULT_DIR.mkdirs();
+        List<String[]> rows = new ArrayList<>();
+        List<String[]> loadRows = new ArrayList<>();
+
+        runDb(rows, loadRows, "PostgreSQL", PG_DRIVER, PG_URL, PG_USER, PG_PASS);
+        runDb(rows, loadRows, "openGauss", OG_DRIVER, OG_URL, OG_USER, OG_PASS);
+
+        try (PrintWriter pw = new PrintWriter(new FileWriter(RESULT_CSV))) {
+            pw.println("DBMS,Storage,Scale,Query,Rows,Avg_ms,Min_ms,Max_ms");
+            for (String[] r : rows) pw.println(String.join(",", r));
+            System.out.println("Saved CSV: " + RESULT_CSV);
+        } catch (IOException e) {
+            System.err.println("CSV write failed: " + e.getMessage());
+        }
+        try (PrintWriter pw = new PrintWriter(new FileWriter(LOAD_CSV))) {
+            pw.println("DBMS,Storage,Scale,Rows_loaded,Load_ms,Table_bytes");
+            for (String[] r : loadRows) pw.println(String.join(",", r));
+            System.out.println("Saved CSV: " + LOAD_CSV);
+        } catch (IOException e) {
+            System.err.println("CSV write failed: " + e.getMessage());
+        }
+    }
+
+    static void runDb(List<String[]> rows, List<String[]> loadRows, String dbName, String driver, String url, String user, String pass) {
+        try { Class.forName(driver); } catch (ClassNotFoundException e) { System.err.println("Driver not found: " + e.getMessage()); return; }
+
+        try (Connection conn = DriverManager.getConnection(url, user, pass);
+             Statement stmt = conn.createStatement()) {
+            boolean columnStore = false;
+            try (ResultSet rs = stmt.executeQuery("SELECT version()")) {
+                if (rs.next()) columnStore = rs.getString(1).toLowerCase(Locale.ROOT).contains("opengauss");
+            }
+            if (!columnStore) System.out.printf("%s: no column store, running row tables only%n", dbName);
+
+            try {
+                for (int scale : SCALES) {
+                    for (int s = 0; s < STORAGES.length; s++) {
+                        if (s > 0 && !columnStore) continue;
+                        String storage = STORAGES[s];
+                        dropTables(stmt);
+                        for (String ddl : TABLE_DDL) stmt.execute(ddl + STORAGE_OPTIONS[s]);
+
+                        long loaded = 0;
+                        long t0 = System.nanoTime();
+                        for (String sql : LOAD_SQL) {
+                            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                                ps.setInt(1, scale - 1);
+                                loaded += ps.executeUpdate();
+                            }
+                        }
+                        double loadMs = (System.nanoTime() - t0) / 1_000_000.0;
+                        for (String t : TABLES) stmt.execute("ANALYZE " + t);
+                        long bytes = 0;
+                        for (String t : TABLES) {
+                            try (ResultSet rs = stmt.executeQuery("SELECT pg_total_relation_size('" + t + "')")) {
+                                if (rs.next()) bytes += rs.getLong(1);
+                            }
+                        }
+                        loadRows.add(new String[]{dbName, storage, Integer.toString(scale), Long.toString(loaded),
+                                String.format("%.1f", loadMs), Long.toString(bytes)});
+                        System.out.printf("%s %s x%d: loaded %d rows in %.1f ms, %d bytes%n", dbName, storage, scale, loaded, loadMs, bytes);
+
+                        for (int q = 0; q < QUERY_SQL.length; q++) {
+                            System.out.printf("Running %s %s x%d %s%n", dbName, storage, scale, QUERY_NAMES[q]);
+                            rows.add(timeQuery(stmt, dbName, storage, scale, QUERY_NAMES[q], QUERY_SQL[q]));
+                        }
+                    }
+                }
+            } finally {
+                dropTables(stmt);
+            }
+        } catch (SQLException e) {
+            System.err.println(dbName + " run failed: " + e.getMessage());
+        }
+    }
+
+    static void dropTables(Statement stmt) throws SQLException {
+        for (String t : TABLES) stmt.execute("DROP TABLE IF EXISTS " + t);
+    }
+
+    static String[] timeQuery(Statement stmt, String db, String storage, int scale, String name, String sql) throws SQLException {
+        int resultRows = 0;
+        List<Double> lat = new ArrayList<>();
+        for (int i = 0; i < WARMUP_RUNS + RUNS; i++) {
+            resultRows = 0;
+            long s = System.nanoTime();
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) resultRows++;
+            }
+            if (i >= WARMUP_RUNS) lat.add((System.nanoTime() - s) / 1_000_000.0);
+        }
+        double avg = lat.stream().mapToDouble(d -> d).average().orElse(0.0);
+        double min = lat.stream().mapToDouble(d -> d).min().orElse(0.0);
+        double max = lat.stream().mapToDouble(d -> d).max().orElse(0.0);
+        System.out.printf("%-10s %-6s x%-3d %-26s rows=%d avg=%.2f ms min=%.2f ms%n", db, storage, scale, name, resultRows, avg, min);
+        return new String[]{db, storage, Integer.toString(scale), name, Integer.toString(resultRows),
+                String.format("%.3f", avg), String.format("%.3f", min), String.format("%.3f", max)};
+    }
+}
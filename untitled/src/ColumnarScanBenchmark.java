@@ -0,0 +1,191 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * ColumnarScanBenchmark
+ *
+ * Writes ColumnarSnapshot copies of SQL/movies.txt and SQL/people.txt, then runs the same file-engine
+ * queries against the text files and the snapshots:
+ *   title_like   -> movies.title contains 'war' (case-insensitive)
+ *   year_range   -> COUNT(*) movies WHERE year_released BETWEEN 1990 AND 1999 (zone maps can skip blocks)
+ *   country_eq   -> COUNT(*) movies WHERE country = 'us' (dictionary code compare)
+ *   people_alive -> COUNT(*) people WHERE born >= 1970 AND died IS NULL
+ * The text path reads every byte of the file; the columnar path reads only the segments it needs.
+ *
+ * Outputs:
+ *   result/columnar_scan.csv -> per (query, engine): matches, bytes scanned, latency
+ *   result/columnar_size.csv -> per column: type and on-disk size vs the text file
+ */
+public class ColumnarScanBenchmark {
+
+    static final String MOVIE_FILE = "SQL/movies.txt";
+    static final String PEOPLE_FILE = "SQL/people.txt";
+    static final File RESULT_DIR = new File("result");
+    static final File SNAPSHOT_DIR = new File("result/columnar");
+    static final String SCAN_CSV = "result/columnar_scan.csv";
+    static final String SIZE_CSV = "result/columnar_size.csv";
+
+    static final int WARMUP_RUNS = 3;
+    static final int RUNS = 20;
+    static final String[] QUERIES = {"title_like", "year_range", "country_eq", "people_alive"};
+
+    public static void main(String[] args) throws Exception {
+        if (!RESULT_DIR.exists()) RESULT_DIR.mkdirs();
+
+        File moviesDir = new File(SNAPSHOT_DIR, "movies");
+        File peopleDir = new File(SNAPSHOT_DIR, "people");
+        long t0 = System.nanoTime();
+        ColumnarSnapshot.write(MOVIE_FILE, moviesDir);
+        ColumnarSnapshot.write(PEOPLE_FILE, peopleDir);
+        System.out.printf("Snapshots written in %.2f ms%n", (System.nanoTime() - t0) / 1_000_000.0);
+        writeSizeCsv(new String[]{MOVIE_FILE, PEOPLE_FILE}, new File[]{moviesDir, peopleDir});
+
+        List<String[]> rows = new ArrayList<>();
+        for (String q : QUERIES) {
+            long[] textRes = null, colRes = null;
+            for (String engine : new String[]{"text", "columnar"}) {
+                for (int i = 0; i < WARMUP_RUNS; i++) run(q, engine, moviesDir, peopleDir);
+                List<Double> times = new ArrayList<>();
+                long[] res = null;
+                for (int i = 0; i < RUNS; i++) {
+                    long s = System.nanoTime();
+                    res = run(q, engine, moviesDir, peopleDir);
+                    times.add((System.nanoTime() - s) / 1_000_000.0);
+                }
+                if (engine.equals("text")) textRes = res; else colRes = res;
+                double avg = times.stream().mapToDouble(d -> d).average().orElse(0.0);
+                double min = times.stream().mapToDouble(d -> d).min().orElse(0.0);
+                System.out.printf("%-13s %-9s matches=%d bytes=%d avg=%.3f ms min=%.3f ms%n", q, engine, res[0], res[1], avg, min);
+                rows.add(new String[]{q, engine, Long.toString(res[0]), Long.toString(res[1]),
+                        String.format("%.3f", avg), String.format("%.3f", min)});
+            }
+            if (textRes[0] != colRes[0]) {
+                System.err.printf("Result mismatch for %s: text=%d columnar=%d%n", q, textRes[0], colRes[0]);
+            }
+        }
+
+        try (PrintWriter pw = new PrintWriter(new FileWriter(SCAN_CSV))) {
+            pw.println("Query,Engine,Matches,BytesScanned,Avg_ms,Min_ms");
+            for (String[] r : rows) pw.println(String.join(",", r));
+            System.out.println("Saved CSV: " + SCAN_CSV);
+        } catch (IOException e) {
+            System.err.println("CSV write failed: " + e.getMessage());
+        }
+    }
+
+    // returns {matches, bytes scanned}
+    static long[] run(String query, String engine, File moviesDir, File peopleDir) throws IOException {
+        boolean people = query.equals("people_alive");
+        if (engine.equals("text")) {
+            String file = people ? PEOPLE_FILE : MOVIE_FILE;
+            return new long[]{textScan(query, file), new File(file).length()};
+        }
+        try (ColumnarSnapshot.Table t = new ColumnarSnapshot.Table(people ? peopleDir : moviesDir)) {
+            long matches = columnarScan(query, t);
+            return new long[]{matches, t.bytesRead()};
+        }
+    }
+
+    static long textScan(String query, String file) throws IOException {
+        CaseInsensitiveMatcher war = new CaseInsensitiveMatcher("war");
+        long count = 0;
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line = br.readLine(); // header
+            int cols = line == null ? 0 : line.split(";", -1).length;
+            while ((line = br.readLine()) != null) {
+                if (query.equals("title_like")) {
+                    if (war.contains(ColumnarSnapshot.splitRow(line, cols)[1])) count++;
+                    continue;
+                }
+                String[] f = ColumnarSnapshot.splitRow(line, cols);
+                switch (query) {
+                    case "year_range": {
+                        int y = Integer.parseInt(f[3]);
+                        if (y >= 1990 && y <= 1999) count++;
+                        break;
+                    }
+                    case "country_eq":
+                        if (f[2].equals("us")) count++;
+                        break;
+                    default: // people_alive
+                        if (Integer.parseInt(f[3]) >= 1970 && ColumnarSnapshot.isNullToken(f[4])) count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    static long columnarScan(String query, ColumnarSnapshot.Table t) throws IOException {
+        long count = 0;
+        switch (query) {
+            case "title_like": {
+                CaseInsensitiveMatcher war = new CaseInsensitiveMatcher("war");
+                ColumnarSnapshot.Column title = t.column("title");
+                int[] offsets = new int[ColumnarSnapshot.BLOCK_ROWS + 1];
+                for (int b = 0; b < title.blockCount(); b++) {
+                    int n = title.blockRows(b);
+                    if (offsets.length < n + 1) offsets = new int[n + 1];
+                    byte[] data = title.readStrings(b, offsets);
+                    for (int i = 0; i < n; i++) if (war.containsUtf8(data, offsets[i], offsets[i + 1])) count++;
+                }
+                break;
+            }
+            case "year_range": {
+                ColumnarSnapshot.Column year = t.column("year_released");
+                boolean[] nulls = new boolean[ColumnarSnapshot.BLOCK_ROWS];
+                for (int b = 0; b < year.blockCount(); b++) {
+                    if (!year.mayContain(b, 1990, 1999)) continue; // zone map skip
+                    if (nulls.length < year.blockRows(b)) nulls = new boolean[year.blockRows(b)];
+                    int[] v = year.readInts(b, nulls);
+                    for (int i = 0; i < v.length; i++) if (!nulls[i] && v[i] >= 1990 && v[i] <= 1999) count++;
+                }
+                break;
+            }
+            case "country_eq": {
+                ColumnarSnapshot.Column country = t.column("country");
+                int code = country.dictCode("us");
+                if (code < 0) break;
+                for (int b = 0; b < country.blockCount(); b++) {
+                    for (int c : country.readCodes(b)) if (c == code) count++;
+                }
+                break;
+            }
+            default: { // people_alive
+                ColumnarSnapshot.Column born = t.column("born");
+                ColumnarSnapshot.Column died = t.column("died");
+                for (int b = 0; b < born.blockCount(); b++) {
+                    if (!born.mayContain(b, 1970, Integer.MAX_VALUE)) continue;
+                    int n = born.blockRows(b);
+                    boolean[] bornNull = new boolean[n], diedNull = new boolean[n];
+                    int[] bv = born.readInts(b, bornNull);
+                    died.readInts(b, diedNull);
+                    for (int i = 0; i < n; i++) if (!bornNull[i] && bv[i] >= 1970 && diedNull[i]) count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    static void writeSizeCsv(String[] textFiles, File[] dirs) {
+        try (PrintWriter pw = new PrintWriter(new FileWriter(SIZE_CSV))) {
+            pw.println("Table,TextBytes,Column,Type,ColumnBytes");
+            for (int i = 0; i < dirs.length; i++) {
+                long textBytes = new File(textFiles[i]).length();
+                long total = 0;
+                try (ColumnarSnapshot.Table t = new ColumnarSnapshot.Table(dirs[i])) {
+                    for (String c : new ArrayList<>(t.columnNames())) {
+                        long bytes = new File(dirs[i], c + ".col").length();
+                        total += bytes;
+                        pw.printf("%s,%d,%s,%s,%d%n", dirs[i].getName(), textBytes, c, t.column(c).typeName(), bytes);
+                    }
+                }
+                pw.printf("%s,%d,ALL,-,%d%n", dirs[i].getName(), textBytes, total);
+                System.out.printf("%s: text=%d bytes, columnar=%d bytes%n", dirs[i].getName(), textBytes, total);
+            }
+            System.out.println("Saved CSV: " + SIZE_CSV);
+        } catch (IOException e) {
+            System.err.println("CSV write failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,522 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.*;
+
+/**
+ * ColumnarSnapshot
+ *
+ * Compressed columnar snapshot of a ';'-separated text table (SQL/movies.txt, SQL/people.txt or any
+ * file written by ExportTableToCsv), so file-engine queries read only the columns they need.
+ *
+ * Layout: one directory per table, one segment file per column (<column>.col) plus _schema.properties.
+ * Each segment holds blocks of BLOCK_ROWS rows, then a block directory with per-block zone maps (min/max),
+ * then a fixed trailer (directory offset, block count, magic).
+ *
+ * Column types are inferred from the data:
+ *   INT    -> every non-empty value is an int ("" and "null" are NULL); per block frame-of-reference
+ *             bit-packing or bit-packed deltas, whichever is smaller, plus a null bitmap when needed
+ *             (year_released, born, died, ids)
+ *   DICT   -> at most DICT_MAX distinct values; one dictionary per segment, bit-packed codes (country, gender)
+ *   STRING -> bit-packed lengths + concatenated UTF-8 bytes (title, names)
+ * Every block payload is compressed with java.util.zip.Deflater and kept raw when that does not help.
+ *
+ * Rows with more fields than the header (titles containing ';') keep their extra separators in column 1.
+ */
+public class ColumnarSnapshot {
+
+    static final int MAGIC = 0x434F4C31; // "COL1"
+    static final byte TYPE_INT = 1, TYPE_STRING = 2, TYPE_DICT = 3;
+    static final byte ENC_FOR = 0, ENC_DELTA = 1;
+    static final int BLOCK_ROWS = 4096;
+    static final int DICT_MAX = 256;
+    static final String SCHEMA_FILE = "_schema.properties";
+
+    // ======================== writer ========================
+
+    /** Writes a snapshot of textFile into outDir (created if missing). Returns the row count. */
+    public static int write(String textFile, File outDir) throws IOException {
+        return write(textFile, outDir, BLOCK_ROWS);
+    }
+
+    public static int write(String textFile, File outDir, int blockRows) throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(textFile), StandardCharsets.UTF_8);
+        if (lines.isEmpty()) throw new IOException("Empty file: " + textFile);
+        String[] header = lines.get(0).split(";", -1);
+        int cols = header.length, rows = lines.size() - 1;
+        String[][] data = new String[cols][rows];
+        for (int r = 0; r < rows; r++) {
+            String[] f = splitRow(lines.get(r + 1), cols);
+            for (int c = 0; c < cols; c++) data[c][r] = f[c];
+        }
+
+        if (!outDir.exists() && !outDir.mkdirs()) throw new IOException("Cannot create " + outDir);
+        Properties schema = new Properties();
+        schema.setProperty("source", textFile);
+        schema.setProperty("rows", Integer.toString(rows));
+        schema.setProperty("blockRows", Integer.toString(blockRows));
+        StringBuilder colList = new StringBuilder();
+        for (int c = 0; c < cols; c++) {
+            byte type = inferType(data[c]);
+            writeColumn(new File(outDir, header[c] + ".col"), type, data[c], blockRows);
+            colList.append(c == 0 ? "" : ",").append(header[c]).append(':').append(typeName(type));
+        }
+        schema.setProperty("columns", colList.toString());
+        try (OutputStream os = new FileOutputStream(new File(outDir, SCHEMA_FILE))) {
+            schema.store(os, "columnar snapshot");
+        }
+        return rows;
+    }
+
+    static String[] splitRow(String line, int cols) {
+        String[] f = line.split(";", -1);
+        if (f.length == cols) return f;
+        String[] out = new String[cols];
+        Arrays.fill(out, "");
+        if (f.length < cols) {
+            System.arraycopy(f, 0, out, 0, f.length);
+            return out;
+        }
+        // more separators than columns: the surplus belongs to column 1 (e.g. "Sirano; yeonaejojakdo")
+        int extra = f.length - cols;
+        out[0] = f[0];
+        out[1] = String.join(";", Arrays.copyOfRange(f, 1, 2 + extra));
+        System.arraycopy(f, 2 + extra, out, 2, cols - 2);
+        return out;
+    }
+
+    static boolean isNullToken(String s) {
+        return s.isEmpty() || s.equals("null");
+    }
+
+    static byte inferType(String[] values) {
+        boolean allInt = true, anyInt = false;
+        Set<String> distinct = new HashSet<>();
+        for (String v : values) {
+            if (distinct.size() <= DICT_MAX) distinct.add(v);
+            if (!allInt || isNullToken(v)) continue;
+            try { Integer.parseInt(v); anyInt = true; } catch (NumberFormatException e) { allInt = false; }
+        }
+        if (allInt && anyInt) return TYPE_INT;
+        if (distinct.size() <= DICT_MAX && values.length >= 4L * distinct.size()) return TYPE_DICT;
+        return TYPE_STRING;
+    }
+
+    static String typeName(byte type) {
+        return type == TYPE_INT ? "INT" : type == TYPE_DICT ? "DICT" : "STRING";
+    }
+
+    static void writeColumn(File file, byte type, String[] values, int blockRows) throws IOException {
+        String[] dict = null;
+        Map<String, Integer> codes = null;
+        if (type == TYPE_DICT) {
+            dict = new TreeSet<>(Arrays.asList(values)).toArray(new String[0]);
+            codes = new HashMap<>();
+            for (int i = 0; i < dict.length; i++) codes.put(dict[i], i);
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(type);
+            out.writeInt(values.length);
+            out.writeInt(blockRows);
+            if (dict != null) {
+                out.writeInt(dict.length);
+                for (String d : dict) writeString(out, d);
+            }
+
+            ByteArrayOutputStream directory = new ByteArrayOutputStream();
+            DataOutputStream dir = new DataOutputStream(directory);
+            int blocks = 0;
+            for (int start = 0; start < values.length; start += blockRows, blocks++) {
+                int n = Math.min(blockRows, values.length - start);
+                String[] slice = Arrays.copyOfRange(values, start, start + n);
+                byte[] raw;
+                int nulls = 0;
+                if (type == TYPE_INT) {
+                    int[] v = new int[n];
+                    boolean[] isNull = new boolean[n];
+                    long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+                    for (int i = 0; i < n; i++) {
+                        if (isNullToken(slice[i])) { isNull[i] = true; nulls++; continue; }
+                        v[i] = Integer.parseInt(slice[i]);
+                        min = Math.min(min, v[i]); max = Math.max(max, v[i]);
+                    }
+                    raw = encodeInts(v, isNull, nulls);
+                    writeBlockPayload(out, dir, raw, n, nulls);
+                    dir.writeLong(min); dir.writeLong(max);
+                } else {
+                    if (type == TYPE_DICT) {
+                        int[] c = new int[n];
+                        for (int i = 0; i < n; i++) c[i] = codes.get(slice[i]);
+                        raw = encodeCodes(c, dict.length);
+                    } else {
+                        raw = encodeStrings(slice);
+                    }
+                    writeBlockPayload(out, dir, raw, n, 0);
+                    String min = slice[0], max = slice[0];
+                    for (String s : slice) { if (s.compareTo(min) < 0) min = s; if (s.compareTo(max) > 0) max = s; }
+                    writeString(dir, min); writeString(dir, max);
+                }
+            }
+            long dirOffset = out.size();
+            directory.writeTo(out);
+            out.writeLong(dirOffset);
+            out.writeInt(blocks);
+            out.writeInt(MAGIC);
+        }
+    }
+
+    // directory entry: offset, stored length, raw length, rows, nulls, compressed flag (zone map follows)
+    static void writeBlockPayload(DataOutputStream out, DataOutputStream dir, byte[] raw, int rows, int nulls) throws IOException {
+        byte[] packed = deflate(raw);
+        boolean compressed = packed.length < raw.length;
+        byte[] stored = compressed ? packed : raw;
+        dir.writeLong(out.size());
+        dir.writeInt(stored.length);
+        dir.writeInt(raw.length);
+        dir.writeInt(rows);
+        dir.writeInt(nulls);
+        dir.writeBoolean(compressed);
+        out.write(stored);
+    }
+
+    static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    static byte[] encodeInts(int[] v, boolean[] isNull, int nulls) {
+        int n = v.length;
+        // null rows take the previous value so they do not widen either encoding
+        int prev = 0;
+        for (int i = 0; i < n; i++) { if (isNull[i]) v[i] = prev; else prev = v[i]; }
+
+        long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+        for (int x : v) { min = Math.min(min, x); max = Math.max(max, x); }
+        int forWidth = bitWidth(max - min);
+
+        long dMin = Long.MAX_VALUE, dMax = Long.MIN_VALUE;
+        for (int i = 1; i < n; i++) { long d = (long) v[i] - v[i - 1]; dMin = Math.min(dMin, d); dMax = Math.max(dMax, d); }
+        int deltaWidth = n > 1 ? bitWidth(dMax - dMin) : 64;
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bos);
+        try {
+            out.writeBoolean(nulls > 0);
+            if (nulls > 0) {
+                byte[] bitmap = new byte[(n + 7) / 8];
+                for (int i = 0; i < n; i++) if (isNull[i]) bitmap[i >>> 3] |= (byte) (1 << (i & 7));
+                out.write(bitmap);
+            }
+            if (deltaWidth < forWidth) {
+                out.writeByte(ENC_DELTA);
+                out.writeInt(v[0]);
+                out.writeLong(dMin);
+                out.writeByte(deltaWidth);
+                long[] d = new long[n - 1];
+                for (int i = 1; i < n; i++) d[i - 1] = (long) v[i] - v[i - 1] - dMin;
+                out.write(pack(d, deltaWidth));
+            } else {
+                out.writeByte(ENC_FOR);
+                out.writeLong(min);
+                out.writeByte(forWidth);
+                long[] d = new long[n];
+                for (int i = 0; i < n; i++) d[i] = v[i] - min;
+                out.write(pack(d, forWidth));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bos.toByteArray();
+    }
+
+    static byte[] encodeCodes(int[] codes, int dictSize) {
+        int width = bitWidth(Math.max(0, dictSize - 1));
+        long[] d = new long[codes.length];
+        for (int i = 0; i < codes.length; i++) d[i] = codes[i];
+        byte[] packed = pack(d, width);
+        byte[] out = new byte[1 + packed.length];
+        out[0] = (byte) width;
+        System.arraycopy(packed, 0, out, 1, packed.length);
+        return out;
+    }
+
+    static byte[] encodeStrings(String[] values) {
+        byte[][] bytes = new byte[values.length][];
+        long maxLen = 0;
+        int total = 0;
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = values[i].getBytes(StandardCharsets.UTF_8);
+            maxLen = Math.max(maxLen, bytes[i].length);
+            total += bytes[i].length;
+        }
+        int width = bitWidth(maxLen);
+        long[] lens = new long[values.length];
+        for (int i = 0; i < values.length; i++) lens[i] = bytes[i].length;
+        byte[] packed = pack(lens, width);
+        ByteBuffer bb = ByteBuffer.allocate(1 + packed.length + total);
+        bb.put((byte) width).put(packed);
+        for (byte[] b : bytes) bb.put(b);
+        return bb.array();
+    }
+
+    // ======================== bit packing ========================
+
+    static int bitWidth(long range) {
+        return range <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(range);
+    }
+
+    /** LSB-first bit packing of non-negative values into width bits each. */
+    static byte[] pack(long[] values, int width) {
+        byte[] out = new byte[(int) (((long) values.length * width + 7) / 8)];
+        if (width == 0) return out;
+        long bit = 0;
+        for (long v : values) {
+            for (int b = 0; b < width; b++, bit++) {
+                if (((v >>> b) & 1L) != 0) out[(int) (bit >>> 3)] |= (byte) (1 << (bit & 7));
+            }
+        }
+        return out;
+    }
+
+    static long unpack(byte[] buf, int base, long index, int width) {
+        if (width == 0) return 0;
+        long bit = index * width;
+        long v = 0;
+        for (int b = 0; b < width; ) {
+            int byteIdx = base + (int) (bit >>> 3);
+            int off = (int) (bit & 7);
+            int take = Math.min(8 - off, width - b);
+            long chunk = ((buf[byteIdx] & 0xFF) >>> off) & ((1L << take) - 1);
+            v |= chunk << b;
+            b += take;
+            bit += take;
+        }
+        return v;
+    }
+
+    static byte[] deflate(byte[] raw) {
+        Deflater d = new Deflater(Deflater.BEST_SPEED);
+        d.setInput(raw);
+        d.finish();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(raw.length / 2 + 16);
+        byte[] buf = new byte[8192];
+        while (!d.finished()) bos.write(buf, 0, d.deflate(buf));
+        d.end();
+        return bos.toByteArray();
+    }
+
+    static byte[] inflate(byte[] stored, int rawLen) throws IOException {
+        Inflater inf = new Inflater();
+        inf.setInput(stored);
+        byte[] raw = new byte[rawLen];
+        try {
+            int off = 0;
+            while (off < rawLen && !inf.finished()) off += inf.inflate(raw, off, rawLen - off);
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt block: " + e.getMessage(), e);
+        } finally {
+            inf.end();
+        }
+        return raw;
+    }
+
+    // ======================== reader ========================
+
+    /** An opened snapshot directory. bytesRead() counts every byte read from its segment files. */
+    public static class Table implements Closeable {
+        final File dir;
+        final int rows;
+        final Map<String, Column> columns = new LinkedHashMap<>();
+        long bytesRead;
+
+        public Table(File dir) throws IOException {
+            this.dir = dir;
+            Properties schema = new Properties();
+            try (InputStream in = new FileInputStream(new File(dir, SCHEMA_FILE))) { schema.load(in); }
+            rows = Integer.parseInt(schema.getProperty("rows"));
+            for (String c : schema.getProperty("columns").split(",")) {
+                String name = c.substring(0, c.lastIndexOf(':'));
+                columns.put(name, null); // opened lazily so untouched columns cost nothing
+            }
+        }
+
+        public int rows() { return rows; }
+
+        public long bytesRead() { return bytesRead; }
+
+        public Set<String> columnNames() { return columns.keySet(); }
+
+        public Column column(String name) throws IOException {
+            if (!columns.containsKey(name)) throw new IllegalArgumentException("No column " + name + " in " + dir);
+            Column c = columns.get(name);
+            if (c == null) {
+                c = new Column(this, new File(dir, name + ".col"));
+                columns.put(name, c);
+            }
+            return c;
+        }
+
+        @Override public void close() throws IOException {
+            for (Column c : columns.values()) if (c != null) c.close();
+        }
+    }
+
+    public static class Column implements Closeable {
+        final Table table;
+        final FileChannel ch;
+        final byte type;
+        final int rows;
+        final int blockRows;
+        String[] dict;
+        final long[] offsets;
+        final int[] storedLen, rawLen, blockRowCount, nullCount;
+        final boolean[] compressed;
+        final long[] minInt, maxInt;
+        final String[] minStr, maxStr;
+
+        Column(Table table, File file) throws IOException {
+            this.table = table;
+            this.ch = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            long size = ch.size();
+            ByteBuffer trailer = read(size - 16, 16);
+            long dirOffset = trailer.getLong();
+            int blocks = trailer.getInt();
+            if (trailer.getInt() != MAGIC) throw new IOException("Not a column segment: " + file);
+
+            ByteBuffer head = read(0, (int) Math.min(size, 13));
+            if (head.getInt() != MAGIC) throw new IOException("Bad magic: " + file);
+            type = head.get();
+            rows = head.getInt();
+            blockRows = head.getInt();
+
+            ByteBuffer dir = read(dirOffset, (int) (size - 16 - dirOffset));
+            offsets = new long[blocks];
+            storedLen = new int[blocks]; rawLen = new int[blocks]; blockRowCount = new int[blocks]; nullCount = new int[blocks];
+            compressed = new boolean[blocks];
+            minInt = new long[blocks]; maxInt = new long[blocks];
+            minStr = new String[blocks]; maxStr = new String[blocks];
+            for (int b = 0; b < blocks; b++) {
+                offsets[b] = dir.getLong();
+                storedLen[b] = dir.getInt();
+                rawLen[b] = dir.getInt();
+                blockRowCount[b] = dir.getInt();
+                nullCount[b] = dir.getInt();
+                compressed[b] = dir.get() != 0;
+                if (type == TYPE_INT) { minInt[b] = dir.getLong(); maxInt[b] = dir.getLong(); }
+                else { minStr[b] = readString(dir); maxStr[b] = readString(dir); }
+            }
+            if (type == TYPE_DICT) {
+                // the dictionary sits between the header and the first block
+                long firstBlock = blocks > 0 ? offsets[0] : dirOffset;
+                ByteBuffer d = read(13, (int) (firstBlock - 13));
+                dict = new String[d.getInt()];
+                for (int i = 0; i < dict.length; i++) dict[i] = readString(d);
+            }
+        }
+
+        ByteBuffer read(long pos, int len) throws IOException {
+            ByteBuffer bb = ByteBuffer.allocate(len);
+            while (bb.hasRemaining()) {
+                int n = ch.read(bb, pos + bb.position());
+                if (n < 0) throw new EOFException();
+            }
+            table.bytesRead += len;
+            bb.flip();
+            return bb;
+        }
+
+        static String readString(ByteBuffer bb) {
+            byte[] b = new byte[bb.getInt()];
+            bb.get(b);
+            return new String(b, StandardCharsets.UTF_8);
+        }
+
+        public int blockCount() { return offsets.length; }
+
+        public int blockRows(int b) { return blockRowCount[b]; }
+
+        public String typeName() { return ColumnarSnapshot.typeName(type); }
+
+        /** Zone map check for INT columns: false when no non-null value of block b can lie in [lo, hi]. */
+        public boolean mayContain(int b, long lo, long hi) {
+            if (blockRowCount[b] == nullCount[b]) return false;
+            return maxInt[b] >= lo && minInt[b] <= hi;
+        }
+
+        public int dictCode(String value) {
+            return dict == null ? -1 : Math.max(-1, Arrays.binarySearch(dict, value));
+        }
+
+        public String dictValue(int code) { return dict[code]; }
+
+        byte[] payload(int b) throws IOException {
+            ByteBuffer bb = read(offsets[b], storedLen[b]);
+            byte[] stored = bb.array();
+            return compressed[b] ? inflate(stored, rawLen[b]) : stored;
+        }
+
+        /** Decoded ints of block b; nulls (if non-null array) marks NULL rows. */
+        public int[] readInts(int b, boolean[] nulls) throws IOException {
+            byte[] p = payload(b);
+            int n = blockRowCount[b];
+            ByteBuffer bb = ByteBuffer.wrap(p);
+            boolean hasNulls = bb.get() != 0;
+            if (nulls != null) Arrays.fill(nulls, 0, n, false);
+            if (hasNulls) {
+                int bitmapLen = (n + 7) / 8;
+                if (nulls != null) for (int i = 0; i < n; i++) nulls[i] = (p[bb.position() + (i >>> 3)] & (1 << (i & 7))) != 0;
+                bb.position(bb.position() + bitmapLen);
+            }
+            int[] v = new int[n];
+            byte enc = bb.get();
+            if (enc == ENC_DELTA) {
+                int first = bb.getInt();
+                long dMin = bb.getLong();
+                int width = bb.get();
+                int base = bb.position();
+                v[0] = first;
+                for (int i = 1; i < n; i++) v[i] = (int) (v[i - 1] + dMin + unpack(p, base, i - 1, width));
+            } else {
+                long min = bb.getLong();
+                int width = bb.get();
+                int base = bb.position();
+                for (int i = 0; i < n; i++) v[i] = (int) (min + unpack(p, base, i, width));
+            }
+            return v;
+        }
+
+        public int[] readCodes(int b) throws IOException {
+            byte[] p = payload(b);
+            int width = p[0];
+            int n = blockRowCount[b];
+            int[] c = new int[n];
+            for (int i = 0; i < n; i++) c[i] = (int) unpack(p, 1, i, width);
+            return c;
+        }
+
+        /** Raw UTF-8 bytes of a STRING block; value i is data[offsets[i], offsets[i + 1]). */
+        public byte[] readStrings(int b, int[] offsetsOut) throws IOException {
+            byte[] p = payload(b);
+            int width = p[0];
+            int n = blockRowCount[b];
+            int dataStart = 1 + (int) (((long) n * width + 7) / 8);
+            int off = dataStart;
+            for (int i = 0; i < n; i++) {
+                offsetsOut[i] = off;
+                off += (int) unpack(p, 1, i, width);
+            }
+            offsetsOut[n] = off;
+            return p;
+        }
+
+        @Override public void close() throws IOException {
+            ch.close();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+import java.sql.*;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * CommitStrategyBenchmark
+ *
+ * The HardBenchmarkTest simple_tx UPDATE (one statement, one commit) run as a matrix of commit strategies:
+ *   statements per transaction -> 1, 10, 100 UPDATEs between commits
+ *   commit mode                -> session SET synchronous_commit = on / local / off (same setting in openGauss);
+ *                                 group = on plus commit_delay / commit_siblings so concurrent commits share a WAL flush
+ *                                 (needs the right to set them; written as NA otherwise)
+ *   savepoints                 -> none, or SAVEPOINT / RELEASE around every statement
+ * Each cell executes STATEMENTS_PER_THREAD updates per thread on its own connection.
+ * Durability column: full = survives a crash once acknowledged; local = flushed on the primary only,
+ * async = the last commits (up to about 3 x wal_writer_delay) can be lost on a crash, never corrupted.
+ * WAL bytes come from ServerStats snapshots around the cell (NA when not available).
+ *
+ * Outputs:
+ *   result/commit_strategy.csv -> per (DBMS, threads, statements/tx, commit mode, savepoints): statements/s, TPS,
+ *                                 avg/p99 transaction latency, WAL bytes per commit,
+ *                                 client allocated bytes / CPU µs per statement (ClientCost)
+ */
+public class CommitStrategyBenchmark {
+
+    // === DB configs (change to your credentials) ===
+    static final String PG_DRIVER = "org.postgresql.Driver";
+    static final String PG_URL = LatencyProxy.wrap("jdbc:postgresql://127.0.0.1:5430/postgres");
+    static final String PG_USER = "test";
+    static final String PG_PASS = "123456";
+
+    static final String OG_DRIVER = "org.opengauss.Driver";
+    static final String OG_URL = LatencyProxy.wrap("jdbc:opengauss://127.0.0.1:5431/postgres");
+    static final String OG_USER = "gaussdb";
+    static final String OG_PASS = "123456Aa@";
+
+    static final File RESULT_DIR = new File("result");
+    static final String RESULT_CSV = "result/commit_strategy.csv";
+
+    static final String SAMPLE_UPDATE_SQL = "UPDATE people SET first_name = first_name WHERE peopleid = ?";
+    static final int[] THREADS = {1, 8};
+    static final int[] STMTS_PER_TX = {1, 10, 100};
+    static final int STATEMENTS_PER_THREAD = 2000;
+    static final int ID_RANGE = 10000;
+
+    static final String[] COMMIT_MODES = {"on", "local", "off", "group"};
+    static final String[] DURABILITY = {"full", "local", "async", "full"};
+    static final String[][] COMMIT_MODE_SQL = {
+            {"SET synchronous_commit = on"},
+            {"SET synchronous_commit = local"},
+            {"SET synchronous_commit = off"},
+            {"SET synchronous_commit = on", "SET commit_delay = 1000", "SET commit_siblings = 1"}};
+    static final boolean[] SAVEPOINTS = {false, true};
+
+    public static void main(String[] args) throws Exception {
+        if (!RESULT_DIR.exists()) RESULT_DIR.mkdirs();
+        List<String[]> rows = new ArrayList<>();
+
+        runDb(rows, "PostgreSQL", PG_DRIVER, PG_URL, PG_USER, PG_PASS);
+        runDb(rows, "openGauss", OG_DRIVER, OG_URL, OG_USER, OG_PASS);
+
+        try (PrintWriter pw = new PrintWriter(new FileWriter(RESULT_CSV))) {
+            pw.println("DBMS,Threads,Stmts_per_tx,Commit_mode,Savepoints,Durability,Statements,Commits,Errors,Total_ms,"
+                    + "Stmts_per_s,TPS,Avg_tx_ms,P99_tx_ms,WAL_bytes_per_commit," + ClientCost.CSV_HEADER);
+            for (String[] r : rows) pw.println(String.join(",", r));
+            System.out.println("Saved CSV: " + RESULT_CSV);
+        } catch (IOException e) {
+            System.err.println("CSV write failed: " + e.getMessage());
+        }
+    }
+
+    static void runDb(List<String[]> rows, String dbName, String driver, String url, String user, String pass) {
+        try { Class.forName(driver); } catch (ClassNotFoundException e) { System.err.println("Driver not found: " + e.getMessage()); return; }
+
+        for (int m = 0; m < COMMIT_MODES.length; m++) {
+            // probe the session settings once; a refused SET marks the whole mode NA
+            try (Connection conn = DriverManager.getConnection(url, user, pass);
+                 Statement stmt = conn.createStatement()) {
+                for (String sql : COMMIT_MODE_SQL[m]) stmt.execute(sql);
+            } catch (SQLException e) {
+                System.err.printf("%s: commit mode %s unavailable (%s)%n", dbName, COMMIT_MODES[m], e.getMessage().trim());
+                if (e.getSQLState() != null && e.getSQLState().startsWith("08")) return; // cannot connect at all
+                for (int threads : THREADS) {
+                    for (int perTx : STMTS_PER_TX) {
+                        for (boolean sp : SAVEPOINTS) {
+                            rows.add(new String[]{dbName, Integer.toString(threads), Integer.toString(perTx), COMMIT_MODES[m],
+                                    sp ? "per_stmt" : "none", DURABILITY[m], "NA", "NA", "NA", "NA", "NA", "NA", "NA", "NA", "NA", "NA", "NA"});
+                        }
+                    }
+                }
+                continue;
+            }
+            for (int threads : THREADS) {
+                for (int perTx : STMTS_PER_TX) {
+                    for (boolean sp : SAVEPOINTS) {
+                        System.out.printf("Running %s threads=%d stmts/tx=%d commit=%s savepoints=%b%n", dbName, threads, perTx, COMMIT_MODES[m], sp);
+                        rows.add(runCell(dbName, driver, url, user, pass, threads, perTx, m, sp));
+                    }
+                }
+            }
+        }
+    }
+
+    static final class CellStat {
+        long statements, commits, errors;
+        final List<Double> txMs = new ArrayList<>();
+        final List<ClientCost.Sample> costs = new ArrayList<>();
+    }
+
+    static String[] runCell(String dbName, String driver, String url, String user, String pass, int threads, int perTx, int mode, boolean savepoints) {
+        ServerStats.Snapshot before = ServerStats.before(driver, url, user, pass);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<CellStat>> futures = new ArrayList<>();
+        long started = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            final int threadId = i + 1;
+            futures.add(pool.submit(() -> worker(threadId, url, user, pass, perTx, mode, savepoints)));
+        }
+        CellStat total = new CellStat();
+        for (Future<CellStat> f : futures) {
+            try {
+                CellStat s = f.get();
+                total.statements += s.statements;
+                total.commits += s.commits;
+                total.errors += s.errors;
+                total.txMs.addAll(s.txMs);
+                total.costs.addAll(s.costs);
+            } catch (Exception e) {
+                System.err.println("Worker failed: " + e.getMessage());
+            }
+        }
+        double totalMs = (System.nanoTime() - started) / 1_000_000.0;
+        pool.shutdown();
+        Double wal = ServerStats.delta(before, ServerStats.after(driver, url, user, pass), "wal_lsn");
+
+        double[] a = total.txMs.stream().mapToDouble(d -> d).sorted().toArray();
+        double avg = Arrays.stream(a).average().orElse(0.0);
+        double p99 = a.length == 0 ? 0.0 : a[Math.min(a.length - 1, (int) Math.ceil(0.99 * a.length) - 1)];
+        double stmtsPerS = total.statements / (totalMs / 1000.0), tps = total.commits / (totalMs / 1000.0);
+        String walPerCommit = wal == null || total.commits == 0 ? "NA" : String.format("%.1f", wal / total.commits);
+        String[] client = ClientCost.perOp(total.costs); // per committed statement
+        System.out.printf("%-10s threads=%d stmts/tx=%-3d commit=%-5s savepoints=%-5b stmts/s=%.1f tps=%.1f avg=%.3f ms p99=%.3f ms wal/commit=%s%n",
+                dbName, threads, perTx, COMMIT_MODES[mode], savepoints, stmtsPerS, tps, avg, p99, walPerCommit);
+        return new String[]{dbName, Integer.toString(threads), Integer.toString(perTx), COMMIT_MODES[mode],
+                savepoints ? "per_stmt" : "none", DURABILITY[mode], Long.toString(total.statements), Long.toString(total.commits),
+                Long.toString(total.errors), String.format("%.2f", totalMs), String.format("%.2f", stmtsPerS), String.format("%.2f", tps),
+                String.format("%.3f", avg), String.format("%.3f", p99), walPerCommit, client[0], client[1]};
+    }
+
+    static CellStat worker(int threadId, String url, String user, String pass, int perTx, int mode, boolean savepoints) throws SQLException {
+        CellStat cs = new CellStat();
+        Random rnd = new Random(threadId);
+        try (Connection conn = DriverManager.getConnection(url, user, pass);
+             Statement stmt = conn.createStatement();
+             PreparedStatement ps = conn.prepareStatement(SAMPLE_UPDATE_SQL)) {
+            for (String sql : COMMIT_MODE_SQL[mode]) stmt.execute(sql);
+            conn.setAutoCommit(false);
+            ClientCost.Sample c0 = ClientCost.start();
+            for (int done = 0; done < STATEMENTS_PER_THREAD; ) {
+                int n = Math.min(perTx, STATEMENTS_PER_THREAD - done);
+                // rows locked in ascending id order by every thread, so concurrent transactions cannot deadlock
+                int[] ids = new int[n];
+                for (int i = 0; i < n; i++) ids[i] = 1 + rnd.nextInt(ID_RANGE);
+                Arrays.sort(ids);
+                long s = System.nanoTime();
+                try {
+                    for (int id : ids) {
+                        Savepoint sp = savepoints ? conn.setSavepoint() : null;
+                        ps.setInt(1, id);
+                        ps.executeUpdate();
+                        if (sp != null) conn.releaseSavepoint(sp);
+                    }
+                    conn.commit();
+                    cs.txMs.add((System.nanoTime() - s) / 1_000_000.0); // committed transactions only
+                    cs.statements += n;
+                    cs.commits++;
+                } catch (SQLException e) {
+                    System.err.println("Tx error: " + e.getMessage());
+                    try { conn.rollback(); } catch (SQLException ignore) { }
+                    cs.errors++;
+                }
+                done += n;
+            }
+            cs.costs.add(ClientCost.since(c0, cs.statements));
+        }
+        return cs;
+    }
+}
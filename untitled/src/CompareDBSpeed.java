@@ -5,13 +5,13 @@ public class CompareDBSpeed {
 
     // PostgreSQL配置
     static final String PG_DRIVER = "org.postgresql.Driver";
-    static final String PG_URL = "jdbc:postgresql://127.0.0.1:5430/postgres";
+    static final String PG_URL = LatencyProxy.wrap("jdbc:postgresql://127.0.0.1:5430/postgres");
     static final String PG_USER = "test";
     static final String PG_PASS = "123456";
 
     // openGauss配置
     static final String OG_DRIVER = "org.opengauss.Driver";
-    static final String OG_URL = "jdbc:opengauss://127.0.0.1:5431/postgres";
+    static final String OG_URL = LatencyProxy.wrap("jdbc:opengauss://127.0.0.1:5431/postgres");
     static final String OG_USER = "gaussdb";
     static final String OG_PASS = "123456Aa@";
 
@@ -9,13 +9,18 @@ import java.util.concurrent.*;
  *
  * Tests:
  *  1) Single-thread SELECT LIKE '%keyword%' (10 runs) for PostgreSQL/openGauss/File
- *  2) Multi-thread SELECT (threads configurable) -- each thread performs queriesPerThread queries
- *  3) Batch INSERT (numRows) using transaction + rollback (measures execution time), File append test
+ *  2) Multi-thread SELECT (threads configurable) -- each thread performs queriesPerThread queries;
+ *     FileWire = the file engine behind FileWireServer, queried through the PostgreSQL JDBC driver;
+ *     FileColumnar = the same search over a ColumnarSnapshot of movies.txt, reading only the title segment
+ *  3) Batch INSERT (numRows) using transaction + rollback (measures execution time), File append test;
+ *     then a batch-size sweep over INSERT_SWEEP_ROWS rows: fixed FIXED_BATCH_SIZES vs an adaptive size
+ *     (AdaptiveBatchController, AIMD on per-batch latency and rows/s within ADAPTIVE_BUDGET_MS)
  *
  * Outputs CSV files in "result/" folder:
  *  - select_single.csv
- *  - select_multi.csv
+ *  - select_multi.csv (incl. client allocated bytes / CPU µs per query, see ClientCost)
  *  - insert_batch.csv
+ *  - insert_adaptive_path.csv (batch sizes chosen by the adaptive mode, batch by batch)
  *
  * Adjust DB configs and file paths at top of file.
  */
@@ -23,25 +28,35 @@ public class ComparePerformance {
 
     // === PostgreSQL 连接配置 ===
     static final String PG_DRIVER = "org.postgresql.Driver";
-    static final String PG_URL = "jdbc:postgresql://127.0.0.1:5430/postgres"; // 改为你的DB
+    static final String PG_URL = LatencyProxy.wrap("jdbc:postgresql://127.0.0.1:5430/postgres"); // 改为你的DB
     static final String PG_USER = "test";
     static final String PG_PASS = "123456";
 
     // === openGauss 连接配置 ===
     static final String OG_DRIVER = "org.opengauss.Driver";
-    static final String OG_URL = "jdbc:opengauss://127.0.0.1:5431/postgres"; // 改为你的DB
+    static final String OG_URL = LatencyProxy.wrap("jdbc:opengauss://127.0.0.1:5431/postgres"); // 改为你的DB
     static final String OG_USER = "gaussdb";
     static final String OG_PASS = "123456Aa@";
 
+    // === 文件引擎（FileWireServer，PG协议，首次使用时在进程内启动） ===
+    static final String FW_DRIVER = "org.postgresql.Driver";
+    static final String FW_USER = "file";
+    static final String FW_PASS = "file";
+
+    static String fwUrl() { return LatencyProxy.wrap(FileWireServer.sharedUrl()); }
+
     // === 本地文件路径（用于 File 比较） ===
     static final String MOVIE_FILE = "SQL/movies.txt";    // 请保证文件存在
+    static final String[] MOVIES_TABLES = {"movies"};      // QueryResultCache.shared(url) 失效粒度（-Dcache.results=true）
     static final String INSERT_FILE = "result/file_insert_append.txt"; // 临时文件用于 append 测试
+    static final File MOVIE_SNAPSHOT_DIR = new File("result/columnar/movies"); // ColumnarSnapshot 副本（FileColumnar）
 
     // === 结果目录与文件 ===
     static final File RESULT_DIR = new File("result");
     static final String SELECT_SINGLE_CSV = "result/select_single.csv";
     static final String SELECT_MULTI_CSV  = "result/select_multi.csv";
     static final String INSERT_BATCH_CSV  = "result/insert_batch.csv";
+    static final String INSERT_PATH_CSV   = "result/insert_adaptive_path.csv";
 
     // default settings
     static final int SINGLE_RUNS = 10;
@@ -49,6 +64,13 @@ public class ComparePerformance {
     static final int QUERIES_PER_THREAD = 1000;  // 每线程执行的查询次数（multi-thread 测试）
     static final int INSERT_NUM_ROWS = 1000;     // 批量插入条数
     static final int INSERT_BATCH_SIZE = 100;    // JDBC batch size
+    static final int INSERT_SWEEP_ROWS = 50000;  // 批大小对比使用的插入条数
+    static final int[] FIXED_BATCH_SIZES = {1, 10, 100, 1000, 5000};
+    static final int ADAPTIVE_INITIAL = 10;      // 自适应批大小：初值 / 上下限 / 加性步长 / 单批延迟预算
+    static final int ADAPTIVE_MIN = 1;
+    static final int ADAPTIVE_MAX = 10000;
+    static final int ADAPTIVE_STEP = 50;
+    static final double ADAPTIVE_BUDGET_MS = 50.0;
 
     public static void main(String[] args) throws Exception {
         ensureResultDir();
@@ -81,10 +103,40 @@ public class ComparePerformance {
         Map<String, Double> ogInsert = runInsertBatch("openGauss", OG_DRIVER, OG_URL, OG_USER, OG_PASS, insertTable, INSERT_NUM_ROWS, INSERT_BATCH_SIZE);
         double fileInsertMs = runFileAppendInsert(INSERT_NUM_ROWS);
 
-        writeInsertCsv(INSERT_BATCH_CSV, pgInsert, ogInsert, fileInsertMs);
+        List<String[]> insertRows = new ArrayList<>();
+        List<String[]> pathRows = new ArrayList<>();
+        addInsertRow(insertRows, "PostgreSQL", "fixed", Integer.toString(INSERT_BATCH_SIZE), INSERT_NUM_ROWS, pgInsert);
+        addInsertRow(insertRows, "openGauss", "fixed", Integer.toString(INSERT_BATCH_SIZE), INSERT_NUM_ROWS, ogInsert);
+        Map<String, Double> fileInsert = new HashMap<>();
+        fileInsert.put("totalMs", fileInsertMs);
+        fileInsert.put("perRowMs", fileInsertMs / Math.max(1, INSERT_NUM_ROWS));
+        addInsertRow(insertRows, "File", "append", "NA", INSERT_NUM_ROWS, fileInsert);
+
+        // batch-size sweep: fixed sizes vs adaptive
+        System.out.println("-> Running INSERT batch-size sweep (fixed vs adaptive)...");
+        String[][] dbs = {{"PostgreSQL", PG_DRIVER, PG_URL, PG_USER, PG_PASS}, {"openGauss", OG_DRIVER, OG_URL, OG_USER, OG_PASS}};
+        for (String[] db : dbs) {
+            for (int size : FIXED_BATCH_SIZES) {
+                addInsertRow(insertRows, db[0], "fixed", Integer.toString(size), INSERT_SWEEP_ROWS,
+                        runInsertBatch(db[0], db[1], db[2], db[3], db[4], insertTable, INSERT_SWEEP_ROWS, size));
+            }
+            AdaptiveBatchController controller = new AdaptiveBatchController(
+                    ADAPTIVE_INITIAL, ADAPTIVE_MIN, ADAPTIVE_MAX, ADAPTIVE_STEP, ADAPTIVE_BUDGET_MS);
+            Map<String, Double> adaptive = runInsertAdaptive(db[0], db[1], db[2], db[3], db[4], insertTable, INSERT_SWEEP_ROWS, controller);
+            addInsertRow(insertRows, db[0], "adaptive", adaptive.isEmpty() ? "NA" : String.format("%.0f", controller.converged()),
+                    INSERT_SWEEP_ROWS, adaptive);
+            for (AdaptiveBatchController.Step st : controller.path()) {
+                pathRows.add(new String[]{db[0], Integer.toString(st.batch), Integer.toString(st.size), String.format("%.3f", st.ms),
+                        String.format("%.1f", st.rowsPerSec), st.action, Integer.toString(st.nextSize)});
+            }
+        }
+
+        writeInsertCsv(INSERT_BATCH_CSV, insertRows);
+        writeInsertPathCsv(INSERT_PATH_CSV, pathRows);
 
         System.out.println("\nAll tests complete. CSV results in: " + RESULT_DIR.getAbsolutePath());
-        System.out.println("Files: " + SELECT_SINGLE_CSV + ", " + SELECT_MULTI_CSV + ", " + INSERT_BATCH_CSV);
+        System.out.println("Files: " + SELECT_SINGLE_CSV + ", " + SELECT_MULTI_CSV + ", " + INSERT_BATCH_CSV + ", " + INSERT_PATH_CSV);
+        QueryResultCache.printShared(); // -Dcache.results=true only
     }
 
     // ---------- Helpers ----------
@@ -137,14 +189,14 @@ public class ComparePerformance {
     static List<Double> runSelectSingleFile(String keyword, int runs) {
         System.out.println("[File] single select: keyword='" + keyword + "', runs=" + runs);
         List<Double> times = new ArrayList<>();
+        CaseInsensitiveMatcher matcher = new CaseInsensitiveMatcher(keyword);
         for (int i = 1; i <= runs; i++) {
             long t0 = System.nanoTime();
             int count = 0;
             try (BufferedReader br = new BufferedReader(new FileReader(MOVIE_FILE))) {
                 String line;
                 while ((line = br.readLine()) != null) {
-                    String[] parts = line.split(";");
-                    if (parts.length > 1 && parts[1].toLowerCase().contains(keyword.toLowerCase())) count++;
+                    if (matcher.fieldContains(line, 1, ';')) count++;
                 }
             } catch (IOException e) {
                 System.err.println("File SELECT failed: " + e.getMessage());
@@ -186,13 +238,15 @@ public class ComparePerformance {
     /**
      * For each DBMS and file, runs tests for thread counts provided.
      * Each thread will execute queriesPerThread SELECT queries.
-     * Returns CSV rows as list of String[]: [DBMS, threads, totalQueries, totalMs, QPS]
+     * Returns CSV rows as list of String[]: [DBMS, threads, totalQueries, totalMs, QPS, alloc bytes/query, client CPU µs/query]
      */
     static List<String[]> runSelectMulti(int[] threadsArray, int queriesPerThread, String keyword) {
         List<String[]> rows = new ArrayList<>();
         // For each DBMS and file
-        String[] targets = {"PostgreSQL", "openGauss", "File"};
+        String[] targets = {"PostgreSQL", "openGauss", "File", "FileColumnar", "FileWire"};
         for (String target : targets) {
+            String fw = "FileWire".equals(target) ? fwUrl() : null;
+            if ("FileColumnar".equals(target) && !writeMovieSnapshot()) continue;
             for (int t : threadsArray) {
                 System.out.printf("Multi SELECT: target=%s threads=%d queries/thread=%d%n", target, t, queriesPerThread);
                 long totalQueries = (long) t * queriesPerThread;
@@ -201,23 +255,26 @@ public class ComparePerformance {
                 // thread pool
                 ExecutorService pool = Executors.newFixedThreadPool(t);
                 List<Future<Long>> futures = new ArrayList<>();
+                ClientCost.Total cost = new ClientCost.Total();
 
                 for (int i = 0; i < t; i++) {
                     if ("File".equals(target)) {
-                        futures.add(pool.submit(() -> runSelectFileWorker(keyword, queriesPerThread)));
+                        futures.add(pool.submit(() -> runSelectFileWorker(keyword, queriesPerThread, cost)));
+                    } else if ("FileColumnar".equals(target)) {
+                        futures.add(pool.submit(() -> runSelectColumnarWorker(keyword, queriesPerThread, cost)));
+                    } else if (fw != null) {
+                        futures.add(pool.submit(() -> runSelectDbWorker(FW_DRIVER, fw, FW_USER, FW_PASS, keyword, queriesPerThread, cost)));
                     } else if ("PostgreSQL".equals(target)) {
-                        futures.add(pool.submit(() -> runSelectDbWorker(PG_DRIVER, PG_URL, PG_USER, PG_PASS, keyword, queriesPerThread)));
+                        futures.add(pool.submit(() -> runSelectDbWorker(PG_DRIVER, PG_URL, PG_USER, PG_PASS, keyword, queriesPerThread, cost)));
                     } else {
-                        futures.add(pool.submit(() -> runSelectDbWorker(OG_DRIVER, OG_URL, OG_USER, OG_PASS, keyword, queriesPerThread)));
+                        futures.add(pool.submit(() -> runSelectDbWorker(OG_DRIVER, OG_URL, OG_USER, OG_PASS, keyword, queriesPerThread, cost)));
                     }
                 }
 
-                long completedQueries = 0;
                 long worstMs = 0;
                 for (Future<Long> f : futures) {
                     try {
                         long ms = f.get(); // returns elapsed ms of that worker
-                        completedQueries += queriesPerThread;
                         if (ms > worstMs) worstMs = ms;
                     } catch (Exception e) {
                         System.err.println("Worker failed: " + e.getMessage());
@@ -230,14 +287,16 @@ public class ComparePerformance {
                 double qps = totalQueries / (totalMs / 1000.0);
                 System.out.printf("Result %s threads=%d: totalQueries=%d totalMs=%.2f QPS=%.2f%n%n", target, t, totalQueries, totalMs, qps);
 
-                rows.add(new String[]{target, Integer.toString(t), Long.toString(totalQueries), String.format("%.2f", totalMs), String.format("%.2f", qps)});
+                String[] perQuery = cost.perOp(); // over the workers that finished their loop
+                rows.add(new String[]{target, Integer.toString(t), Long.toString(totalQueries), String.format("%.2f", totalMs), String.format("%.2f", qps),
+                        perQuery[0], perQuery[1]});
             }
         }
         return rows;
     }
 
     // Worker for DB SELECT: opens its own connection and executes queries sequentially
-    static long runSelectDbWorker(String driver, String url, String user, String pass, String keyword, int queries) {
+    static long runSelectDbWorker(String driver, String url, String user, String pass, String keyword, int queries, ClientCost.Total cost) {
         String safeKeyword = keyword.replace("'", "''");
         String sql = "SELECT * FROM movies WHERE LOWER(title) LIKE LOWER('%" + safeKeyword + "%')";
         try {
@@ -249,11 +308,18 @@ public class ComparePerformance {
         long t0 = System.nanoTime();
         try (Connection conn = DriverManager.getConnection(url, user, pass);
              Statement stmt = conn.createStatement()) {
+            QueryResultCache cache = QueryResultCache.shared(url);
+            ClientCost.Sample c0 = ClientCost.start(); // after connecting, as the other harnesses do
             for (int i = 0; i < queries; i++) {
+                if (cache != null) { // -Dcache.results=true
+                    cache.queryLiteral(stmt, sql, MOVIES_TABLES);
+                    continue;
+                }
                 try (ResultSet rs = stmt.executeQuery(sql)) {
                     while (rs.next()) { /* iterate but do nothing */ }
                 }
             }
+            cost.add(ClientCost.since(c0, queries)); // before close, so teardown is not counted either
         } catch (SQLException e) {
             System.err.println("DB worker select failed: " + e.getMessage());
         }
@@ -262,14 +328,15 @@ public class ComparePerformance {
     }
 
     // Worker for File SELECT: each worker scans the file 'queries' times (inefficient but comparable)
-    static long runSelectFileWorker(String keyword, int queries) {
+    static long runSelectFileWorker(String keyword, int queries, ClientCost.Total cost) {
+        CaseInsensitiveMatcher matcher = new CaseInsensitiveMatcher(keyword);
+        ClientCost.Sample c0 = ClientCost.start();
         long t0 = System.nanoTime();
         for (int i = 0; i < queries; i++) {
             try (BufferedReader br = new BufferedReader(new FileReader(MOVIE_FILE))) {
                 String line;
                 while ((line = br.readLine()) != null) {
-                    String[] parts = line.split(";");
-                    if (parts.length > 1 && parts[1].toLowerCase().contains(keyword.toLowerCase())) {
+                    if (matcher.fieldContains(line, 1, ';')) {
                         // match found; do nothing
                     }
                 }
@@ -278,14 +345,57 @@ public class ComparePerformance {
             }
         }
         long t1 = System.nanoTime();
+        cost.add(ClientCost.since(c0, queries));
         return (t1 - t0) / 1_000_000; // ms
     }
 
+    // snapshot written once, before any FileColumnar cell is timed
+    static boolean writeMovieSnapshot() {
+        try {
+            long t0 = System.nanoTime();
+            int rows = ColumnarSnapshot.write(MOVIE_FILE, MOVIE_SNAPSHOT_DIR);
+            System.out.printf("Columnar snapshot of %s: %d rows in %.2f ms%n", MOVIE_FILE, rows, (System.nanoTime() - t0) / 1_000_000.0);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Columnar snapshot failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Worker for FileColumnar SELECT: each query decodes only the title segment of the snapshot
+    static long runSelectColumnarWorker(String keyword, int queries, ClientCost.Total cost) {
+        CaseInsensitiveMatcher matcher = new CaseInsensitiveMatcher(keyword);
+        int[] offsets = new int[ColumnarSnapshot.BLOCK_ROWS + 1];
+        try (ColumnarSnapshot.Table table = new ColumnarSnapshot.Table(MOVIE_SNAPSHOT_DIR)) {
+            ColumnarSnapshot.Column title = table.column("title");
+            ClientCost.Sample c0 = ClientCost.start();
+            long t0 = System.nanoTime();
+            for (int i = 0; i < queries; i++) {
+                for (int b = 0; b < title.blockCount(); b++) {
+                    int n = title.blockRows(b);
+                    if (offsets.length < n + 1) offsets = new int[n + 1];
+                    byte[] data = title.readStrings(b, offsets);
+                    for (int j = 0; j < n; j++) {
+                        if (matcher.containsUtf8(data, offsets[j], offsets[j + 1])) {
+                            // match found; do nothing
+                        }
+                    }
+                }
+            }
+            long t1 = System.nanoTime();
+            cost.add(ClientCost.since(c0, queries));
+            return (t1 - t0) / 1_000_000; // ms
+        } catch (IOException e) {
+            System.err.println("Columnar worker read failed: " + e.getMessage());
+            return 0L;
+        }
+    }
+
     static void writeSelectMultiCsv(String filename, List<String[]> rows) {
         try (PrintWriter pw = new PrintWriter(new FileWriter(filename))) {
-            pw.println("DBMS,Threads,TotalQueries,TotalTime(ms),QPS");
+            pw.println("DBMS,Threads,TotalQueries,TotalTime(ms),QPS," + ClientCost.CSV_HEADER);
             for (String[] r : rows) {
-                pw.printf("%s,%s,%s,%s,%s%n", r[0], r[1], r[2], r[3], r[4]);
+                pw.printf("%s,%s,%s,%s,%s,%s,%s%n", r[0], r[1], r[2], r[3], r[4], r[5], r[6]);
             }
             System.out.println("Saved CSV: " + filename);
         } catch (IOException e) {
@@ -335,6 +445,8 @@ public class ComparePerformance {
 
             // rollback to restore DB
             conn.rollback();
+            QueryResultCache cache = QueryResultCache.shared(url);
+            if (cache != null) cache.invalidate(table); // 写后失效（-Dcache.results=true）
             System.out.printf("%s: inserted %d rows in %.2f ms (rolled back)%n%n", name, numRows, totalMs);
 
         } catch (SQLException e) {
@@ -343,6 +455,72 @@ public class ComparePerformance {
         return result;
     }
 
+    /**
+     * Same insert as runInsertBatch, but every batch takes its size from the controller, which then sees the
+     * batch latency. Returns "totalMs" and "perRowMs"; the path stays in the controller.
+     */
+    static Map<String, Double> runInsertAdaptive(String name, String driver, String url, String user, String pass,
+                                                 String table, int numRows, AdaptiveBatchController controller) {
+        Map<String, Double> result = new HashMap<>();
+        System.out.printf("[%s] INSERT adaptive test: rows=%d initial batch=%d budget=%.0f ms (transaction + rollback)%n",
+                name, numRows, controller.next(), controller.budgetMs);
+
+        try {
+            Class.forName(driver);
+        } catch (ClassNotFoundException e) {
+            System.err.println(name + " driver not found: " + e.getMessage());
+            return result;
+        }
+
+        String insertSql = "INSERT INTO " + table + " (col1, col2) VALUES (?, ?)";
+        long t0 = System.nanoTime();
+        try (Connection conn = DriverManager.getConnection(url, user, pass);
+             PreparedStatement ps = conn.prepareStatement(insertSql)) {
+
+            conn.setAutoCommit(false);
+            int i = 0, lastN = 0;
+            double lastMs = 0;
+            while (i < numRows) {
+                int n = Math.min(controller.next(), numRows - i);
+                long b0 = System.nanoTime();
+                for (int k = 0; k < n; k++) {
+                    i++;
+                    ps.setString(1, "name_" + i);
+                    ps.setInt(2, i);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                double batchMs = (System.nanoTime() - b0) / 1_000_000.0;
+                if (n < controller.next()) { // the final partial batch says nothing about the chosen size
+                    lastN = n;
+                    lastMs = batchMs;
+                    break;
+                }
+                controller.observe(n, batchMs);
+            }
+            long t1 = System.nanoTime();
+            // the trace is printed after t1 so console I/O is not timed (the fixed-size runs print nothing per batch)
+            for (AdaptiveBatchController.Step st : controller.path()) {
+                System.out.printf("%s batch %d: size=%d %.2f ms %.0f rows/s -> %s, next=%d%n",
+                        name, st.batch, st.size, st.ms, st.rowsPerSec, st.action, st.nextSize);
+            }
+            if (lastN > 0) System.out.printf("%s last batch: size=%d %.2f ms%n", name, lastN, lastMs);
+            double totalMs = (t1 - t0) / 1_000_000.0;
+            result.put("totalMs", totalMs);
+            result.put("perRowMs", totalMs / numRows);
+
+            conn.rollback();
+            QueryResultCache cache = QueryResultCache.shared(url);
+            if (cache != null) cache.invalidate(table); // 写后失效（-Dcache.results=true）
+            System.out.printf("%s: inserted %d rows in %.2f ms, batch size converged to %.0f (rolled back)%n%n",
+                    name, numRows, totalMs, controller.converged());
+
+        } catch (SQLException e) {
+            System.err.println(name + " INSERT failed: " + e.getMessage());
+        }
+        return result;
+    }
+
     // prepare insert table if not exists (simple two-column table)
     static void prepareInsertTable(String url, String user, String pass, String name, String table) {
         String createSql = "CREATE TABLE IF NOT EXISTS " + table + " (col1 VARCHAR(100), col2 INT)";
@@ -382,16 +560,27 @@ public class ComparePerformance {
     }
 
     // --------------- write insert CSV ---------------
-    static void writeInsertCsv(String filename, Map<String, Double> pg, Map<String, Double> og, double fileMs) {
+    static void addInsertRow(List<String[]> rows, String dbms, String mode, String batchSize, int numRows, Map<String, Double> r) {
+        if (r == null || r.isEmpty()) return;
+        double totalMs = r.getOrDefault("totalMs", 0.0);
+        rows.add(new String[]{dbms, String.format("%.2f", totalMs), String.format("%.6f", r.getOrDefault("perRowMs", 0.0)),
+                mode, batchSize, Integer.toString(numRows), String.format("%.1f", totalMs > 0 ? numRows / (totalMs / 1000.0) : 0.0)});
+    }
+
+    static void writeInsertCsv(String filename, List<String[]> rows) {
         try (PrintWriter pw = new PrintWriter(new FileWriter(filename))) {
-            pw.println("DBMS,TotalTime(ms),PerRow(ms)");
-            if (pg != null && !pg.isEmpty()) {
-                pw.printf("PostgreSQL,%.2f,%.6f%n", pg.getOrDefault("totalMs", 0.0), pg.getOrDefault("perRowMs", 0.0));
-            }
-            if (og != null && !og.isEmpty()) {
-                pw.printf("openGauss,%.2f,%.6f%n", og.getOrDefault("totalMs", 0.0), og.getOrDefault("perRowMs", 0.0));
-            }
-            pw.printf("File,%.2f,%.6f%n", fileMs, fileMs / Math.max(1, INSERT_NUM_ROWS));
+            pw.println("DBMS,TotalTime(ms),PerRow(ms),Mode,BatchSize,Rows,Rows_per_s");
+            for (String[] r : rows) pw.println(String.join(",", r));
+            System.out.println("Saved CSV: " + filename);
+        } catch (IOException e) {
+            System.err.println("CSV write failed: " + e.getMessage());
+        }
+    }
+
+    static void writeInsertPathCsv(String filename, List<String[]> rows) {
+        try (PrintWriter pw = new PrintWriter(new FileWriter(filename))) {
+            pw.println("DBMS,Batch,Size,Batch_ms,Rows_per_s,Action,Next_size");
+            for (String[] r : rows) pw.println(String.join(",", r));
             System.out.println("Saved CSV: " + filename);
         } catch (IOException e) {
             System.err.println("CSV write failed: " + e.getMessage());
@@ -8,11 +8,12 @@ import java.util.stream.*;
 /**
  * ComparePerformanceEnhanced
  *
- * Purpose: run multi-thread SELECT workload across PostgreSQL, openGauss and local file,
+ * Purpose: run multi-thread SELECT workload across PostgreSQL, openGauss, local file, an off-heap
+ * in-memory copy of it (InMemory, see OffHeapTable) and the file engine over the PG protocol (FileWire, see FileWireServer),
  * and produce per-thread latency distributions + summary statistics (avg, p95, p99, max).
  *
  * Outputs:
- *   result/select_multi_summary.csv   -> per (DBMS, threads) summary
+ *   result/select_multi_summary.csv   -> per (DBMS, threads) summary, incl. client allocated bytes / CPU µs per query (ClientCost)
  *   result/select_multi_threads.csv   -> per-thread detailed stats
  *
  * Adjust DB URL / user / pass and file paths at top.
@@ -21,17 +22,25 @@ public class ComparePerformanceEnhanced {
 
     // === DB config (note DB name is "postgres" per your environment) ===
     static final String PG_DRIVER = "org.postgresql.Driver";
-    static final String PG_URL = "jdbc:postgresql://127.0.0.1:5430/postgres";
+    static final String PG_URL = LatencyProxy.wrap("jdbc:postgresql://127.0.0.1:5430/postgres");
     static final String PG_USER = "test";
     static final String PG_PASS = "123456";
 
     static final String OG_DRIVER = "org.opengauss.Driver";
-    static final String OG_URL = "jdbc:opengauss://127.0.0.1:5431/postgres";
+    static final String OG_URL = LatencyProxy.wrap("jdbc:opengauss://127.0.0.1:5431/postgres");
     static final String OG_USER = "gaussdb";
     static final String OG_PASS = "123456Aa@";
 
+    // === file engine behind FileWireServer (PG protocol, started in-process on first use) ===
+    static final String FW_DRIVER = "org.postgresql.Driver";
+    static final String FW_USER = "file";
+    static final String FW_PASS = "file";
+
+    static String fwUrl() { return LatencyProxy.wrap(FileWireServer.sharedUrl()); }
+
     // === file paths and result dir ===
     static final String MOVIE_FILE = "SQL/movies.txt";
+    static final String[] MOVIES_TABLES = {"movies"}; // QueryResultCache.shared(url) invalidation (-Dcache.results=true)
     static final File RESULT_DIR = new File("result");
     static final String SUMMARY_CSV = "result/select_multi_summary.csv";
     static final String THREADS_CSV = "result/select_multi_threads.csv";
@@ -45,15 +54,24 @@ public class ComparePerformanceEnhanced {
         ensureResultDir();
 
         System.out.println("=== ComparePerformanceEnhanced ===");
-        System.out.println("Targets: PostgreSQL (port 5430), openGauss (port 5431), File");
+        System.out.println("Targets: PostgreSQL (port 5430), openGauss (port 5431), File, InMemory");
         System.out.println("DB name: postgres");
         System.out.println();
 
         List<String[]> summaryRows = new ArrayList<>();
         List<String[]> threadRows  = new ArrayList<>();
 
-        // Order: PostgreSQL, openGauss, File
-        String[] targets = {"PostgreSQL", "openGauss", "File"};
+        // load the InMemory table before any cell is timed, so the first InMemory cell does not pay for it
+        try {
+            long t0 = System.nanoTime();
+            OffHeapTable movies = inMemoryMovies();
+            System.out.printf("InMemory table loaded: %d rows in %.2f ms%n", movies.rows(), (System.nanoTime() - t0) / 1_000_000.0);
+        } catch (IOException e) {
+            System.err.println("InMemory load error: " + e.getMessage());
+        }
+
+        // Order: PostgreSQL, openGauss, File, InMemory, FileWire
+        String[] targets = {"PostgreSQL", "openGauss", "File", "InMemory", "FileWire"};
         for (String target : targets) {
             for (int t : THREADS) {
                 System.out.printf("Running target=%s threads=%d queriesPerThread=%d%n", target, t, QUERIES_PER_THREAD);
@@ -69,7 +87,9 @@ public class ComparePerformanceEnhanced {
                         String.format("%.3f", res.avgMs),
                         String.format("%.3f", res.p95Ms),
                         String.format("%.3f", res.p99Ms),
-                        String.format("%.3f", res.maxMs)
+                        String.format("%.3f", res.maxMs),
+                        res.wire[0], res.wire[1], res.wire[2], res.wire[3], res.wire[4],
+                        res.cost[0], res.cost[1]
                 });
                 // add per-thread rows
                 for (ThreadStat ts : res.threadStats) {
@@ -94,6 +114,7 @@ public class ComparePerformanceEnhanced {
         System.out.println("Done. CSV files written to " + RESULT_DIR.getAbsolutePath());
         System.out.println("  - " + SUMMARY_CSV);
         System.out.println("  - " + THREADS_CSV);
+        QueryResultCache.printShared(); // -Dcache.results=true only
     }
 
     // ensure result dir
@@ -114,6 +135,8 @@ public class ComparePerformanceEnhanced {
         double p95Ms;
         double p99Ms;
         double maxMs;
+        String[] wire = PgWireStats.NA; // File / InMemory have no wire traffic
+        String[] cost = ClientCost.NA;
         List<ThreadStat> threadStats = new ArrayList<>();
     }
 
@@ -125,6 +148,7 @@ public class ComparePerformanceEnhanced {
         double p95Ms;
         double p99Ms;
         double maxMs;
+        ClientCost.Sample cost; // allocation / CPU of this thread's query loop
     }
 
     // run multi-thread test for a given target
@@ -134,6 +158,9 @@ public class ComparePerformanceEnhanced {
         List<Future<ThreadStat>> futures = new ArrayList<>();
 
         long totalQueries = (long) threads * queriesPerThread;
+        String wireUrl = "PostgreSQL".equals(target) ? PG_URL : "openGauss".equals(target) ? OG_URL
+                : "FileWire".equals(target) ? fwUrl() : null;
+        PgWireStats.Snapshot wireBefore = wireUrl != null ? PgWireStats.snapshot(wireUrl) : null;
         long globalStart = System.nanoTime();
 
         for (int i = 0; i < threads; i++) {
@@ -142,6 +169,10 @@ public class ComparePerformanceEnhanced {
                 futures.add(pool.submit(() -> dbWorker(threadId, PG_DRIVER, PG_URL, PG_USER, PG_PASS, keyword, queriesPerThread)));
             } else if ("openGauss".equals(target)) {
                 futures.add(pool.submit(() -> dbWorker(threadId, OG_DRIVER, OG_URL, OG_USER, OG_PASS, keyword, queriesPerThread)));
+            } else if ("FileWire".equals(target)) {
+                futures.add(pool.submit(() -> dbWorker(threadId, FW_DRIVER, wireUrl, FW_USER, FW_PASS, keyword, queriesPerThread)));
+            } else if ("InMemory".equals(target)) {
+                futures.add(pool.submit(() -> inMemoryWorker(threadId, keyword, queriesPerThread)));
             } else {
                 futures.add(pool.submit(() -> fileWorker(threadId, MOVIE_FILE, keyword, queriesPerThread)));
             }
@@ -185,8 +216,10 @@ public class ComparePerformanceEnhanced {
         double globalMax = 0.0;
         List<Double> p95candidates = new ArrayList<>();
         List<Double> p99candidates = new ArrayList<>();
+        List<ClientCost.Sample> costs = new ArrayList<>();
 
         for (ThreadStat ts : result.threadStats) {
+            if (ts.cost != null) costs.add(ts.cost);
             totalQueriesExecuted += ts.queries;
             weightedSum += ts.avgMs * ts.queries;
             if (ts.maxMs > globalMax) globalMax = ts.maxMs;
@@ -209,6 +242,8 @@ public class ComparePerformanceEnhanced {
         result.p95Ms = approxP95;
         result.p99Ms = approxP99;
         result.maxMs = globalMax;
+        if (wireUrl != null) result.wire = PgWireStats.perOp(wireBefore, PgWireStats.snapshot(wireUrl), totalQueriesExecuted);
+        result.cost = ClientCost.perOp(costs);
 
         // print summary
         System.out.printf("Summary: target=%s threads=%d totalQueries=%d totalMs=%.2f QPS=%.2f avgMs=%.3f p95≈%.3f p99≈%.3f maxMs=%.3f%n%n",
@@ -237,11 +272,19 @@ public class ComparePerformanceEnhanced {
         long t0 = System.nanoTime();
         try (Connection conn = DriverManager.getConnection(url, user, pass);
              Statement stmt = conn.createStatement()) {
+            QueryResultCache cache = QueryResultCache.shared(url);
+            ClientCost.Sample c0 = ClientCost.start(); // after connecting, as the other harnesses do
 
             for (int i = 0; i < queries; i++) {
                 long s = System.nanoTime();
-                try (ResultSet rs = stmt.executeQuery(sql)) {
-                    while (rs.next()) { /* iterate */ }
+                try {
+                    if (cache != null) { // -Dcache.results=true
+                        cache.queryLiteral(stmt, sql, MOVIES_TABLES);
+                    } else {
+                        try (ResultSet rs = stmt.executeQuery(sql)) {
+                            while (rs.next()) { /* iterate */ }
+                        }
+                    }
                 } catch (SQLException e) {
                     System.err.println("Worker DB query failed: " + e.getMessage());
                 }
@@ -249,6 +292,7 @@ public class ComparePerformanceEnhanced {
                 double ms = (eTime - s) / 1_000_000.0;
                 latencies.add(ms);
             }
+            ts.cost = ClientCost.since(c0, latencies.size()); // before close, so teardown is not counted either
 
         } catch (SQLException e) {
             System.err.println("DB worker connection/query error: " + e.getMessage());
@@ -265,15 +309,16 @@ public class ComparePerformanceEnhanced {
         ts.threadId = threadId;
         ts.queries = queries;
         List<Double> latencies = new ArrayList<>(queries);
+        CaseInsensitiveMatcher matcher = new CaseInsensitiveMatcher(keyword);
 
+        ClientCost.Sample c0 = ClientCost.start();
         for (int i = 0; i < queries; i++) {
             long s = System.nanoTime();
             int count = 0;
             try (BufferedReader br = new BufferedReader(new FileReader(movieFile))) {
                 String line;
                 while ((line = br.readLine()) != null) {
-                    String[] parts = line.split(";");
-                    if (parts.length > 1 && parts[1].toLowerCase().contains(keyword.toLowerCase())) count++;
+                    if (matcher.fieldContains(line, 1, ';')) count++;
                 }
             } catch (IOException e) {
                 System.err.println("File worker IO error: " + e.getMessage());
@@ -282,6 +327,45 @@ public class ComparePerformanceEnhanced {
             double ms = (e - s) / 1_000_000.0;
             latencies.add(ms);
         }
+        ts.cost = ClientCost.since(c0, queries);
+        long totalMs = (long)latencies.stream().mapToDouble(d->d).sum();
+        computeThreadStatsFromLatencies(ts, latencies, totalMs);
+        return ts;
+    }
+
+    // InMemory target: movies loaded once into an OffHeapTable (in main, outside the timed cells), shared read-only by all threads
+    static OffHeapTable inMemoryMovies;
+
+    static synchronized OffHeapTable inMemoryMovies() throws IOException {
+        if (inMemoryMovies == null) inMemoryMovies = OffHeapTable.load(MOVIE_FILE, 1);
+        return inMemoryMovies;
+    }
+
+    // InMemory worker: each query scans the off-heap title column through its own cursor
+    static ThreadStat inMemoryWorker(int threadId, String keyword, int queries) {
+        ThreadStat ts = new ThreadStat();
+        ts.threadId = threadId;
+        ts.queries = queries;
+        List<Double> latencies = new ArrayList<>(queries);
+        CaseInsensitiveMatcher matcher = new CaseInsensitiveMatcher(keyword);
+
+        OffHeapTable movies;
+        try {
+            movies = inMemoryMovies();
+        } catch (IOException e) {
+            System.err.println("InMemory load error: " + e.getMessage());
+            return ts;
+        }
+        ClientCost.Sample c0 = ClientCost.start();
+        for (int i = 0; i < queries; i++) {
+            long s = System.nanoTime();
+            int count = 0;
+            OffHeapTable.Cursor c = movies.cursor();
+            while (c.next()) if (c.stringContains(1, matcher)) count++; // in place, no copy
+            long e = System.nanoTime();
+            latencies.add((e - s) / 1_000_000.0);
+        }
+        ts.cost = ClientCost.since(c0, queries);
         long totalMs = (long)latencies.stream().mapToDouble(d->d).sum();
         computeThreadStatsFromLatencies(ts, latencies, totalMs);
         return ts;
@@ -314,10 +398,9 @@ public class ComparePerformanceEnhanced {
     // write summary CSV
     static void writeCsvSummary(String filename, List<String[]> rows) {
         try (PrintWriter pw = new PrintWriter(new FileWriter(filename))) {
-            pw.println("DBMS,Threads,TotalQueries,TotalTime(ms),QPS,AvgLatency(ms),P95(ms),P99(ms),Max(ms)");
+            pw.println("DBMS,Threads,TotalQueries,TotalTime(ms),QPS,AvgLatency(ms),P95(ms),P99(ms),Max(ms)," + PgWireStats.CSV_HEADER + "," + ClientCost.CSV_HEADER);
             for (String[] r : rows) {
-                pw.printf("%s,%s,%s,%s,%s,%s,%s,%s,%s%n",
-                        r[0], r[1], r[2], r[3], r[4], r[5], r[6], r[7], r[8]);
+                pw.println(String.join(",", r));
             }
             System.out.println("Saved summary CSV: " + filename);
         } catch (IOException e) {
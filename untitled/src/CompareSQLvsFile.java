@@ -7,13 +7,13 @@ public class CompareSQLvsFile {
 
     // === PostgreSQL 连接配置 ===
     static final String PG_DRIVER = "org.postgresql.Driver";
-    static final String PG_URL = "jdbc:postgresql://127.0.0.1:5430/postgres";
+    static final String PG_URL = LatencyProxy.wrap("jdbc:postgresql://127.0.0.1:5430/postgres");
     static final String PG_USER = "test";
     static final String PG_PASS = "123456";
 
     // === openGauss 连接配置 ===
     static final String OG_DRIVER = "org.opengauss.Driver";
-    static final String OG_URL = "jdbc:opengauss://127.0.0.1:5431/postgres";
+    static final String OG_URL = LatencyProxy.wrap("jdbc:opengauss://127.0.0.1:5431/postgres");
     static final String OG_USER = "gaussdb";
     static final String OG_PASS = "123456Aa@";
 
@@ -104,6 +104,7 @@ public class CompareSQLvsFile {
 
         List<Double> times = new ArrayList<>();
         int totalCount = 0;
+        CaseInsensitiveMatcher matcher = new CaseInsensitiveMatcher(keyword);
 
         try {
             for (int i = 1; i <= 10; i++) {
@@ -113,8 +114,7 @@ public class CompareSQLvsFile {
                 try (BufferedReader br = new BufferedReader(new FileReader(MOVIE_FILE))) {
                     String line;
                     while ((line = br.readLine()) != null) {
-                        String[] parts = line.split(";");
-                        if (parts.length > 1 && parts[1].toLowerCase().contains(keyword.toLowerCase())) {
+                        if (matcher.fieldContains(line, 1, ';')) {
                             count++;
                         }
                     }
@@ -0,0 +1,726 @@
+import java.io.*;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * FileSql
+ *
+ * The small SQL dialect answered by FileWireServer. Tables are the ';'-separated text files of a directory
+ * (header line first, "" or "null" = NULL, integer columns inferred from the data), and every statement scans
+ * its file once, the same way the in-process File workers do.
+ *
+ *   SELECT * | COUNT(*) | col [AS a], ... FROM table [WHERE pred [AND pred ...]] [LIMIT n]
+ *   SELECT value, ...                                   (no FROM, e.g. connection checks)
+ *   UPDATE table SET col = col [, ...] [WHERE ...]      (no-op self-assignment only; reports the matching rows)
+ *   BEGIN | START TRANSACTION | COMMIT | END | ROLLBACK | ABORT | SET | RESET | DISCARD | DEALLOCATE
+ *
+ *   pred:  x {= | <> | != | < | <= | > | >=} v | x [NOT] {LIKE | ILIKE} v | x [NOT] BETWEEN v AND v
+ *          | x IS [NOT] NULL | x [NOT] IN (v, ...)
+ *   x:     col | LOWER(col) | UPPER(col)
+ *   v:     integer | 'string' | $n | NULL | LOWER(v) | UPPER(v) | (v) | v::type  (integer and text types)
+ *
+ * The first column of a table is taken as its unique key: an equality on it ends the scan at the first hit.
+ */
+public class FileSql {
+
+    static final int INT4 = 23, INT8 = 20, TEXT = 25; // type OIDs
+    static final int FOLD_NONE = 0, FOLD_LOWER = 1, FOLD_UPPER = 2;
+    static final int CMP = 0, LIKE = 1, BETWEEN = 2, IN = 3, NULL_TEST = 4;
+
+    static final class SqlError extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        final String code; // SQLSTATE
+
+        SqlError(String code, String message) {
+            super(message);
+            this.code = code;
+        }
+    }
+
+    // ---------------- tables ----------------
+
+    static final class Table {
+        final String name;
+        final File file;
+        final String[] columns;
+        final boolean[] isInt;
+        final long rows;
+
+        Table(String name, File file, String[] columns, boolean[] isInt, long rows) {
+            this.name = name;
+            this.file = file;
+            this.columns = columns;
+            this.isInt = isInt;
+            this.rows = rows;
+        }
+
+        // null if the file has no ';' header
+        static Table load(File f) throws IOException {
+            try (BufferedReader br = OffHeapTable.open(f.getPath())) {
+                String header = br.readLine();
+                if (header == null || header.indexOf(';') < 0) return null;
+                String[] cols = header.split(";", -1);
+                for (int c = 0; c < cols.length; c++) cols[c] = cols[c].trim().toLowerCase(Locale.ROOT);
+                boolean[] allInt = new boolean[cols.length], anyInt = new boolean[cols.length];
+                Arrays.fill(allInt, true);
+                long rows = 0;
+                String line;
+                while ((line = br.readLine()) != null) {
+                    String[] v = ColumnarSnapshot.splitRow(line, cols.length);
+                    for (int c = 0; c < cols.length; c++) {
+                        if (!allInt[c] || ColumnarSnapshot.isNullToken(v[c])) continue;
+                        if (OffHeapTable.isInt(v[c])) anyInt[c] = true;
+                        else allInt[c] = false;
+                    }
+                    rows++;
+                }
+                boolean[] isInt = new boolean[cols.length];
+                for (int c = 0; c < cols.length; c++) isInt[c] = allInt[c] && anyInt[c];
+                String name = f.getName().substring(0, f.getName().lastIndexOf('.')).toLowerCase(Locale.ROOT);
+                return new Table(name, f, cols, isInt, rows);
+            }
+        }
+
+        int column(String name) throws SqlError {
+            for (int c = 0; c < columns.length; c++) if (columns[c].equals(name)) return c;
+            throw new SqlError("42703", "column \"" + name + "\" of relation \"" + this.name + "\" does not exist");
+        }
+    }
+
+    // every *.txt with a ';' header, keyed by file name without extension
+    static Map<String, Table> loadTables(File dir) throws IOException {
+        File[] files = dir.listFiles((d, n) -> n.endsWith(".txt"));
+        if (files == null) throw new FileNotFoundException("data directory not found: " + dir.getPath());
+        Map<String, Table> tables = new TreeMap<>();
+        for (File f : files) {
+            Table t = Table.load(f);
+            if (t != null) tables.put(t.name, t);
+        }
+        return tables;
+    }
+
+    // ---------------- statements ----------------
+
+    enum Kind { EMPTY, SELECT, UPDATE, UTILITY }
+
+    /** Rows of a statement; names == null for statements without a result set. Values are String or Long, null = NULL. */
+    static final class Result {
+        final String[] names;
+        final int[] types;
+        final List<Object[]> rows;
+        final String tag;
+
+        Result(String[] names, int[] types, List<Object[]> rows, String tag) {
+            this.names = names;
+            this.types = types;
+            this.rows = rows;
+            this.tag = tag;
+        }
+    }
+
+    static final class Value {
+        Object literal;   // Long, String or null
+        int param;        // 1-based $n, 0 = literal
+        int fold = FOLD_NONE;
+
+        Object get(Object[] params) {
+            Object v = param > 0 ? params[param - 1] : literal;
+            return v == null || fold == FOLD_NONE ? v : fold(v.toString(), fold);
+        }
+    }
+
+    static final class Item {
+        int col = -1;
+        boolean count;
+        Value value;
+        String name;
+    }
+
+    static final class Pred {
+        int kind, col, fold;
+        boolean not, ilike;
+        String op;
+        final List<Value> values = new ArrayList<>();
+    }
+
+    static final class Query {
+        final Kind kind;
+        final String tag;    // fixed command tag (UTILITY) or statement keyword
+        Table table;
+        boolean star;
+        final List<Item> items = new ArrayList<>();
+        final List<Pred> where = new ArrayList<>();
+        long limit = -1;
+        int[] paramTypes = new int[0];
+
+        Query(Kind kind, String tag) {
+            this.kind = kind;
+            this.tag = tag;
+        }
+
+        int paramCount() { return paramTypes.length; }
+
+        /** Result columns, or null if the statement returns no rows. */
+        String[] columnNames() {
+            if (kind != Kind.SELECT) return null;
+            if (star) return table.columns.clone();
+            String[] n = new String[items.size()];
+            for (int i = 0; i < n.length; i++) n[i] = items.get(i).name;
+            return n;
+        }
+
+        int[] columnTypes() {
+            if (kind != Kind.SELECT) return null;
+            if (star) {
+                int[] t = new int[table.columns.length];
+                for (int c = 0; c < t.length; c++) t[c] = table.isInt[c] ? INT4 : TEXT;
+                return t;
+            }
+            int[] t = new int[items.size()];
+            for (int i = 0; i < t.length; i++) {
+                Item it = items.get(i);
+                if (it.count) t[i] = INT8;
+                else if (it.col >= 0) t[i] = table.isInt[it.col] ? INT4 : TEXT;
+                else if (it.value.param > 0) t[i] = it.value.fold == FOLD_NONE ? paramTypes[it.value.param - 1] : TEXT;
+                else if (it.value.literal instanceof Long) {
+                    long v = (Long) it.value.literal;
+                    t[i] = v == (int) v ? INT4 : INT8;
+                } else t[i] = TEXT;
+            }
+            return t;
+        }
+
+        Result execute(Object[] params) throws SqlError {
+            if (kind == Kind.EMPTY || kind == Kind.UTILITY) return new Result(null, null, Collections.emptyList(), tag);
+            String[] names = columnNames();
+            int[] types = columnTypes();
+            List<Object[]> out = new ArrayList<>();
+            if (table == null) { // SELECT without FROM
+                Object[] row = new Object[items.size()];
+                for (int i = 0; i < row.length; i++) row[i] = items.get(i).value.get(params);
+                if (limit != 0) out.add(row);
+                return new Result(names, types, out, "SELECT " + out.size());
+            }
+
+            Bound[] preds = new Bound[where.size()];
+            for (int i = 0; i < preds.length; i++) preds[i] = bind(where.get(i), params);
+            // a substring match is a necessary condition on the whole line, so it can skip rows before splitting
+            CaseInsensitiveMatcher prefilter = null;
+            boolean unique = false;
+            for (Bound b : preds) {
+                if (prefilter == null && b.kind == LIKE && !b.not && b.ci != null) prefilter = b.ci;
+                if (b.kind == CMP && b.col == 0 && b.fold == FOLD_NONE && b.op.equals("=")) unique = true;
+            }
+            boolean countOnly = kind == Kind.UPDATE || (items.size() == 1 && items.get(0).count);
+
+            long matched = 0;
+            if (limit != 0 || countOnly) {
+                int cols = table.columns.length;
+                try (BufferedReader br = OffHeapTable.open(table.file.getPath())) {
+                    String line = br.readLine(); // header
+                    while ((line = br.readLine()) != null) {
+                        if (prefilter != null && !prefilter.contains(line)) continue;
+                        String[] f = ColumnarSnapshot.splitRow(line, cols);
+                        if (!matches(preds, f)) continue;
+                        matched++;
+                        if (!countOnly) out.add(project(f, params));
+                        if (unique || (!countOnly && limit > 0 && matched >= limit)) break;
+                    }
+                } catch (IOException e) {
+                    throw new SqlError("58030", "could not read file \"" + table.file + "\": " + e.getMessage());
+                }
+            }
+            if (kind == Kind.UPDATE) return new Result(null, null, Collections.emptyList(), "UPDATE " + matched);
+            if (countOnly && limit != 0) out.add(new Object[]{matched});
+            return new Result(names, types, out, "SELECT " + out.size());
+        }
+
+        Object[] project(String[] f, Object[] params) {
+            if (star) {
+                Object[] row = new Object[f.length];
+                for (int c = 0; c < f.length; c++) row[c] = ColumnarSnapshot.isNullToken(f[c]) ? null : f[c];
+                return row;
+            }
+            Object[] row = new Object[items.size()];
+            for (int i = 0; i < row.length; i++) {
+                Item it = items.get(i);
+                if (it.col >= 0) row[i] = ColumnarSnapshot.isNullToken(f[it.col]) ? null : f[it.col];
+                else row[i] = it.value.get(params);
+            }
+            return row;
+        }
+
+        Bound bind(Pred p, Object[] params) throws SqlError {
+            Bound b = new Bound();
+            b.kind = p.kind;
+            b.col = p.col;
+            b.fold = p.fold;
+            b.not = p.not;
+            b.op = p.op;
+            b.numeric = table.isInt[p.col] && p.fold == FOLD_NONE && p.kind != LIKE;
+            List<Object> vals = new ArrayList<>();
+            for (Value v : p.values) {
+                Object o = v.get(params);
+                if (o != null) vals.add(o);
+                else if (p.kind != IN || p.not) b.never = true; // comparison with NULL is never true
+            }
+            if (p.kind == IN && vals.isEmpty()) b.never = true;
+            if (b.never || p.kind == NULL_TEST) return b;
+
+            if (b.numeric) {
+                b.nums = new long[vals.size()];
+                for (int i = 0; i < b.nums.length; i++) b.nums[i] = toLong(vals.get(i));
+            } else {
+                b.strs = new String[vals.size()];
+                for (int i = 0; i < b.strs.length; i++) b.strs[i] = vals.get(i).toString();
+            }
+            if (p.kind == LIKE) {
+                String pattern = b.strs[0];
+                String lit = containsLiteral(pattern);
+                boolean ci = p.ilike || (p.fold != FOLD_NONE && pattern.equals(fold(pattern, p.fold)));
+                if (lit != null && !lit.isEmpty() && ci) b.ci = new CaseInsensitiveMatcher(lit);
+                else if (lit != null && !p.ilike) b.contains = lit;
+                else b.regex = likeToRegex(pattern, p.ilike);
+            }
+            return b;
+        }
+    }
+
+    static final class Bound {
+        int kind, col, fold;
+        boolean not, numeric, never;
+        String op;
+        long[] nums;
+        String[] strs;
+        CaseInsensitiveMatcher ci;
+        String contains;
+        Pattern regex;
+    }
+
+    static boolean matches(Bound[] preds, String[] f) {
+        for (Bound b : preds) if (!test(b, f)) return false;
+        return true;
+    }
+
+    static boolean test(Bound b, String[] f) {
+        String s = f[b.col];
+        boolean isNull = ColumnarSnapshot.isNullToken(s);
+        if (b.kind == NULL_TEST) return isNull != b.not;
+        if (isNull || b.never) return false;
+        boolean r;
+        switch (b.kind) {
+            case CMP: {
+                int c = compare(b, s, 0);
+                switch (b.op) {
+                    case "=": return c == 0;
+                    case "<": return c < 0;
+                    case "<=": return c <= 0;
+                    case ">": return c > 0;
+                    case ">=": return c >= 0;
+                    default: return c != 0; // <> / !=
+                }
+            }
+            case LIKE:
+                if (b.ci != null) r = b.ci.contains(s);
+                else if (b.contains != null) r = fold(s, b.fold).contains(b.contains);
+                else r = b.regex.matcher(fold(s, b.fold)).matches();
+                break;
+            case BETWEEN:
+                r = compare(b, s, 0) >= 0 && compare(b, s, 1) <= 0;
+                break;
+            default: { // IN
+                r = false;
+                int n = b.numeric ? b.nums.length : b.strs.length;
+                for (int i = 0; i < n && !r; i++) r = compare(b, s, i) == 0;
+            }
+        }
+        return r != b.not;
+    }
+
+    static int compare(Bound b, String s, int i) {
+        if (b.numeric) {
+            try {
+                return Long.compare(Long.parseLong(s), b.nums[i]);
+            } catch (NumberFormatException e) {
+                return s.compareTo(Long.toString(b.nums[i]));
+            }
+        }
+        return fold(s, b.fold).compareTo(b.strs[i]);
+    }
+
+    static String fold(String s, int fold) {
+        return fold == FOLD_LOWER ? s.toLowerCase(Locale.ROOT) : fold == FOLD_UPPER ? s.toUpperCase(Locale.ROOT) : s;
+    }
+
+    static long toLong(Object v) throws SqlError {
+        if (v instanceof Long) return (Long) v;
+        try {
+            return Long.parseLong(v.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new SqlError("22P02", "invalid input syntax for type integer: \"" + v + "\"");
+        }
+    }
+
+    // "%lit%" with no other wildcards -> lit, else null
+    static String containsLiteral(String pattern) {
+        if (pattern.length() < 2 || pattern.charAt(0) != '%' || pattern.charAt(pattern.length() - 1) != '%') return null;
+        String lit = pattern.substring(1, pattern.length() - 1);
+        return lit.indexOf('%') < 0 && lit.indexOf('_') < 0 && lit.indexOf('\\') < 0 ? lit : null;
+    }
+
+    static Pattern likeToRegex(String pattern, boolean ci) {
+        StringBuilder re = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '%') re.append(".*");
+            else if (c == '_') re.append('.');
+            else {
+                if (c == '\\' && i + 1 < pattern.length()) c = pattern.charAt(++i);
+                re.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(re.toString(), Pattern.DOTALL | (ci ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0));
+    }
+
+    // ---------------- parsing ----------------
+
+    /** Statements of a (possibly ';'-separated) query string; an empty string gives no statements. */
+    static List<Query> parseAll(String sql, Map<String, Table> tables) throws SqlError {
+        Parser p = new Parser(lex(sql), tables);
+        List<Query> out = new ArrayList<>();
+        while (true) {
+            while (p.accept(";")) { }
+            if (p.peek().kind == 'e') return out;
+            out.add(p.statement());
+            if (p.peek().kind != 'e' && !p.at(";")) throw p.syntaxError();
+        }
+    }
+
+    /** Exactly one statement (extended protocol Parse); an empty string gives an EMPTY query. */
+    static Query parse(String sql, Map<String, Table> tables) throws SqlError {
+        List<Query> qs = parseAll(sql, tables);
+        if (qs.size() > 1) throw new SqlError("42601", "cannot insert multiple commands into a prepared statement");
+        return qs.isEmpty() ? new Query(Kind.EMPTY, "") : qs.get(0);
+    }
+
+    static final class Tok {
+        final char kind; // w word (lowercased), q quoted identifier, n number, s string, p parameter, o symbol, e end
+        final String text;
+
+        Tok(char kind, String text) {
+            this.kind = kind;
+            this.text = text;
+        }
+    }
+
+    static List<Tok> lex(String sql) throws SqlError {
+        List<Tok> toks = new ArrayList<>();
+        int i = 0, n = sql.length();
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) { i++; continue; }
+            if (c == '-' && i + 1 < n && sql.charAt(i + 1) == '-') {
+                while (i < n && sql.charAt(i) != '\n') i++;
+                continue;
+            }
+            int start = i;
+            if (Character.isLetter(c) || c == '_') {
+                while (i < n && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_')) i++;
+                toks.add(new Tok('w', sql.substring(start, i).toLowerCase(Locale.ROOT)));
+            } else if (Character.isDigit(c)) {
+                while (i < n && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) i++;
+                toks.add(new Tok('n', sql.substring(start, i)));
+            } else if (c == '$' && i + 1 < n && Character.isDigit(sql.charAt(i + 1))) {
+                i++;
+                while (i < n && Character.isDigit(sql.charAt(i))) i++;
+                toks.add(new Tok('p', sql.substring(start + 1, i)));
+            } else if (c == '\'' || c == '"') {
+                StringBuilder sb = new StringBuilder();
+                i++;
+                while (true) {
+                    if (i >= n) throw new SqlError("42601", "unterminated quoted " + (c == '\'' ? "string" : "identifier"));
+                    char d = sql.charAt(i++);
+                    if (d == c) {
+                        if (i < n && sql.charAt(i) == c) { sb.append(c); i++; } // doubled quote
+                        else break;
+                    } else sb.append(d);
+                }
+                toks.add(new Tok(c == '\'' ? 's' : 'q', sb.toString()));
+            } else {
+                String two = i + 1 < n ? sql.substring(i, i + 2) : "";
+                if (two.equals("<=") || two.equals(">=") || two.equals("<>") || two.equals("!=") || two.equals("::")) {
+                    toks.add(new Tok('o', two));
+                    i += 2;
+                } else if ("(),*=<>;.-".indexOf(c) >= 0) {
+                    toks.add(new Tok('o', String.valueOf(c)));
+                    i++;
+                } else {
+                    throw new SqlError("42601", "syntax error at or near \"" + c + "\"");
+                }
+            }
+        }
+        toks.add(new Tok('e', ""));
+        return toks;
+    }
+
+    static final class Parser {
+        final List<Tok> toks;
+        final Map<String, Table> tables;
+        final Map<Integer, Integer> paramTypes = new TreeMap<>();
+        int pos;
+
+        Parser(List<Tok> toks, Map<String, Table> tables) {
+            this.toks = toks;
+            this.tables = tables;
+        }
+
+        Tok peek() { return peek(0); }
+
+        Tok peek(int ahead) { return toks.get(Math.min(pos + ahead, toks.size() - 1)); }
+
+        Tok next() {
+            Tok t = peek();
+            if (t.kind != 'e') pos++;
+            return t;
+        }
+
+        boolean at(String s) {
+            Tok t = peek();
+            return (t.kind == 'w' || t.kind == 'o') && t.text.equals(s);
+        }
+
+        boolean accept(String s) {
+            if (!at(s)) return false;
+            pos++;
+            return true;
+        }
+
+        void expect(String s) throws SqlError {
+            if (!accept(s)) throw syntaxError();
+        }
+
+        SqlError syntaxError() {
+            Tok t = peek();
+            return new SqlError("42601", t.kind == 'e' ? "syntax error at end of input" : "syntax error at or near \"" + t.text + "\"");
+        }
+
+        String ident() throws SqlError {
+            Tok t = peek();
+            if (t.kind != 'w' && t.kind != 'q') throw syntaxError();
+            pos++;
+            return t.text;
+        }
+
+        boolean atCall(String fn) {
+            return peek().kind == 'w' && peek().text.equals(fn) && peek(1).kind == 'o' && peek(1).text.equals("(");
+        }
+
+        Query statement() throws SqlError {
+            Tok t = peek();
+            if (t.kind != 'w') throw syntaxError();
+            paramTypes.clear();
+            Query q;
+            switch (t.text) {
+                case "select": q = select(); break;
+                case "update": q = update(); break;
+                case "begin": case "start": return utility("BEGIN");
+                case "commit": case "end": return utility("COMMIT");
+                case "rollback": case "abort": return utility("ROLLBACK");
+                case "set": return utility("SET");
+                case "reset": return utility("RESET");
+                case "discard": return utility("DISCARD ALL");
+                case "deallocate": return utility("DEALLOCATE");
+                default: throw new SqlError("0A000", t.text.toUpperCase(Locale.ROOT) + " is not supported by the file engine");
+            }
+            int n = paramTypes.isEmpty() ? 0 : Collections.max(paramTypes.keySet());
+            q.paramTypes = new int[n];
+            for (int i = 0; i < n; i++) q.paramTypes[i] = paramTypes.getOrDefault(i + 1, TEXT);
+            return q;
+        }
+
+        // options of utility statements are accepted and ignored
+        Query utility(String tag) {
+            while (peek().kind != 'e' && !at(";")) pos++;
+            return new Query(Kind.UTILITY, tag);
+        }
+
+        Query select() throws SqlError {
+            expect("select");
+            Query q = new Query(Kind.SELECT, "SELECT");
+            List<String> colNames = new ArrayList<>();
+            if (accept("*")) q.star = true;
+            else {
+                do {
+                    Item it = new Item();
+                    String col = null;
+                    if (atCall("count")) {
+                        next();
+                        expect("(");
+                        expect("*");
+                        expect(")");
+                        it.count = true;
+                        it.name = "count";
+                    } else if ((peek().kind == 'w' && !peek().text.equals("null") && !atCall("lower") && !atCall("upper"))
+                            || peek().kind == 'q') {
+                        col = ident();
+                        it.name = col;
+                    } else {
+                        it.value = value(TEXT);
+                        it.name = "?column?";
+                    }
+                    if (accept("as")) it.name = ident();
+                    colNames.add(col);
+                    q.items.add(it);
+                } while (accept(","));
+            }
+            if (accept("from")) q.table = table();
+            for (int i = 0; i < q.items.size(); i++) {
+                Item it = q.items.get(i);
+                if (colNames.get(i) != null) {
+                    if (q.table == null) throw new SqlError("42703", "column \"" + colNames.get(i) + "\" does not exist");
+                    it.col = q.table.column(colNames.get(i));
+                } else if (it.count && q.table == null) {
+                    throw new SqlError("0A000", "COUNT(*) needs a FROM clause in the file engine");
+                }
+            }
+            if (q.star && q.table == null) throw new SqlError("42601", "SELECT * with no tables specified is not valid");
+            if (accept("where")) {
+                if (q.table == null) throw syntaxError();
+                conditions(q);
+            }
+            if (accept("limit")) {
+                if (!accept("all")) {
+                    Tok t = next();
+                    if (t.kind != 'n') throw syntaxError();
+                    q.limit = parseLong(t.text);
+                }
+            }
+            return q;
+        }
+
+        Query update() throws SqlError {
+            expect("update");
+            Query q = new Query(Kind.UPDATE, "UPDATE");
+            q.table = table();
+            expect("set");
+            do {
+                String col = ident();
+                q.table.column(col);
+                expect("=");
+                if (peek().kind != 'w' && peek().kind != 'q' || !peek().text.equals(col)) {
+                    throw new SqlError("0A000", "the file engine is read-only: only no-op assignments (SET col = col) are accepted");
+                }
+                next();
+            } while (accept(","));
+            if (accept("where")) conditions(q);
+            return q;
+        }
+
+        Table table() throws SqlError {
+            String name = ident();
+            if (accept(".")) name = ident(); // schema is ignored
+            Table t = tables.get(name);
+            if (t == null) throw new SqlError("42P01", "relation \"" + name + "\" does not exist");
+            return t;
+        }
+
+        void conditions(Query q) throws SqlError {
+            do q.where.add(predicate(q.table)); while (accept("and"));
+        }
+
+        Pred predicate(Table table) throws SqlError {
+            Pred p = new Pred();
+            if (atCall("lower") || atCall("upper")) {
+                p.fold = next().text.equals("lower") ? FOLD_LOWER : FOLD_UPPER;
+                expect("(");
+                p.col = table.column(ident());
+                expect(")");
+            } else {
+                p.col = table.column(ident());
+            }
+            int hint = table.isInt[p.col] && p.fold == FOLD_NONE ? INT4 : TEXT;
+            if (accept("is")) {
+                p.kind = NULL_TEST;
+                p.not = accept("not");
+                expect("null");
+                return p;
+            }
+            p.not = accept("not");
+            if (accept("like") || (p.ilike = accept("ilike"))) {
+                p.kind = LIKE;
+                p.values.add(value(TEXT));
+            } else if (accept("between")) {
+                p.kind = BETWEEN;
+                p.values.add(value(hint));
+                expect("and");
+                p.values.add(value(hint));
+            } else if (accept("in")) {
+                p.kind = IN;
+                expect("(");
+                do p.values.add(value(hint)); while (accept(","));
+                expect(")");
+            } else {
+                Tok t = peek();
+                if (p.not || t.kind != 'o' || !Arrays.asList("=", "<>", "!=", "<", "<=", ">", ">=").contains(t.text)) throw syntaxError();
+                next();
+                p.kind = CMP;
+                p.op = t.text;
+                p.values.add(value(hint));
+            }
+            return p;
+        }
+
+        Value value(int typeHint) throws SqlError {
+            Value v = primary(typeHint);
+            while (accept("::")) { // casts, e.g. pgjdbc's simple query mode sends ('42'::int4)
+                String type = ident();
+                boolean integer = Arrays.asList("int2", "int4", "int8", "smallint", "int", "integer", "bigint").contains(type);
+                if (!integer && !Arrays.asList("text", "varchar", "bpchar", "unknown").contains(type)) {
+                    throw new SqlError("0A000", "cast to " + type + " is not supported by the file engine");
+                }
+                if (v.param > 0) paramTypes.put(v.param, integer ? INT4 : TEXT);
+                else if (v.literal != null) v.literal = integer ? (Object) toLong(v.literal) : v.literal.toString();
+            }
+            return v;
+        }
+
+        Value primary(int typeHint) throws SqlError {
+            if (accept("(")) {
+                Value v = value(typeHint);
+                expect(")");
+                return v;
+            }
+            if (atCall("lower") || atCall("upper")) {
+                int fold = next().text.equals("lower") ? FOLD_LOWER : FOLD_UPPER;
+                expect("(");
+                Value v = value(TEXT);
+                expect(")");
+                v.fold = fold;
+                return v;
+            }
+            Value v = new Value();
+            boolean negative = accept("-");
+            Tok t = peek();
+            if (t.kind == 'n') v.literal = negative ? -parseLong(t.text) : parseLong(t.text);
+            else if (negative) throw syntaxError();
+            else if (t.kind == 's') v.literal = t.text;
+            else if (t.kind == 'p') {
+                v.param = Integer.parseInt(t.text);
+                if (v.param < 1) throw new SqlError("42P02", "there is no parameter $" + t.text);
+                paramTypes.putIfAbsent(v.param, typeHint);
+            } else if (!(t.kind == 'w' && t.text.equals("null"))) throw syntaxError();
+            next();
+            return v;
+        }
+
+        static long parseLong(String s) throws SqlError {
+            try {
+                return Long.parseLong(s);
+            } catch (NumberFormatException e) {
+                throw new SqlError(s.indexOf('.') >= 0 ? "0A000" : "22003",
+                        s.indexOf('.') >= 0 ? "numeric literals are not supported by the file engine: " + s : "value out of range: " + s);
+            }
+        }
+    }
+}
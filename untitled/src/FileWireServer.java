@@ -0,0 +1,682 @@
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FileWireServer
+ *
+ * Minimal PostgreSQL v3 protocol front end for the file engine, so the File target can be measured through the
+ * same client stack as the DB targets (org.postgresql.Driver over TCP) and only the storage side differs.
+ * Statements are answered by FileSql over the ';'-separated tables of a directory (SQL/movies.txt -> movies,
+ * SQL/people.txt -> people, ...), scanning the file per statement like the in-process File workers.
+ *
+ * Protocol: startup (SSL/GSS requests declined, any user/password accepted), simple query, extended query
+ * (Parse/Bind/Describe/Execute/Close/Sync/Flush with text or binary integer parameters and results, portal
+ * row limits), and BEGIN/COMMIT/ROLLBACK transaction status. Files are never written, so a "transaction" only
+ * costs its round trips.
+ *
+ * Threading: one NIO selector thread does all socket I/O; complete messages of a connection are handed as one
+ * batch to a worker pool, one batch per connection at a time (pipelined messages keep their order), so idle
+ * connections cost no threads. The pool is sized to the cores on purpose: statements are CPU-bound file scans,
+ * and a bounded pool queues them the way a server's fixed backends do, where a thread (or virtual thread) per
+ * connection would let every client scan at once and oversubscribe the CPU at high thread counts.
+ *
+ * Usage: java FileWireServer [port] [dataDir]   (defaults 5433, SQL) -> jdbc:postgresql://127.0.0.1:5433/filedb
+ *        FileWireServer.sharedUrl() starts one in-process server on a free port for the benchmarks ("FileWire").
+ */
+public class FileWireServer implements AutoCloseable {
+
+    static final int DEFAULT_PORT = 5433;
+    static final String DATA_DIR = "SQL";
+    static final int MAX_MESSAGE = 64 << 20;
+    static final int PROTOCOL_3 = 196608, SSL_REQUEST = 80877103, GSSENC_REQUEST = 80877104, CANCEL_REQUEST = 80877102;
+    static final Object[] NO_PARAMS = new Object[0];
+    static final short[] TEXT_FORMAT = new short[0];
+
+    final Map<String, FileSql.Table> tables;
+    final Selector selector;
+    final ServerSocketChannel listener;
+    final ExecutorService workers;
+    final Thread loop;
+    final Queue<Completion> completions = new ConcurrentLinkedQueue<>();
+    final AtomicInteger nextPid = new AtomicInteger(1);
+    final AtomicInteger connections = new AtomicInteger();
+    volatile boolean closed;
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String dir = args.length > 1 ? args[1] : DATA_DIR;
+        FileWireServer server = new FileWireServer(port, dir);
+        System.out.printf("FileWireServer listening on 127.0.0.1:%d, tables %s%n", server.port(), server.tables.keySet());
+        System.out.printf("  e.g. jdbc:postgresql://127.0.0.1:%d/filedb%n", server.port());
+        server.loop.join();
+    }
+
+    /** Listens on 127.0.0.1:port (0 = any free port) and serves the tables of dataDir. */
+    public FileWireServer(int port, String dataDir) throws IOException {
+        this.tables = FileSql.loadTables(new File(dataDir));
+        this.selector = Selector.open();
+        this.listener = ServerSocketChannel.open();
+        listener.bind(new InetSocketAddress("127.0.0.1", port));
+        listener.configureBlocking(false);
+        listener.register(selector, SelectionKey.OP_ACCEPT);
+        int n = Math.max(2, Runtime.getRuntime().availableProcessors());
+        this.workers = Executors.newFixedThreadPool(n, r -> {
+            Thread t = new Thread(r, "file-wire-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        this.loop = new Thread(this::run, "file-wire-" + port);
+        loop.setDaemon(true);
+        loop.start();
+    }
+
+    public int port() { return listener.socket().getLocalPort(); }
+
+    public int connections() { return connections.get(); }
+
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+        try { loop.join(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        workers.shutdownNow();
+    }
+
+    // ======================== shared in-process server ========================
+
+    static FileWireServer shared;
+
+    /** JDBC URL of an in-process server over SQL/, started on first use. */
+    public static synchronized String sharedUrl() {
+        if (shared == null) {
+            try {
+                shared = new FileWireServer(0, DATA_DIR);
+                System.out.printf("FileWireServer: tables %s on 127.0.0.1:%d%n", shared.tables.keySet(), shared.port());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return "jdbc:postgresql://127.0.0.1:" + shared.port() + "/filedb";
+    }
+
+    // ======================== event loop ========================
+
+    static final class Msg {
+        final char type; // 0 = untyped startup-phase packet
+        final byte[] body;
+
+        Msg(char type, byte[] body) {
+            this.type = type;
+            this.body = body;
+        }
+    }
+
+    static final class Completion {
+        final Conn conn;
+        final Out out;
+        final boolean close;
+
+        Completion(Conn conn, Out out, boolean close) {
+            this.conn = conn;
+            this.out = out;
+            this.close = close;
+        }
+    }
+
+    final class Conn {
+        final SocketChannel ch;
+        SelectionKey key;
+        ByteBuffer in = ByteBuffer.allocate(8192); // kept in write mode
+        final ArrayDeque<ByteBuffer> out = new ArrayDeque<>();
+        final Session session = new Session();
+        boolean untyped = true; // startup phase: packets have no type byte
+        boolean busy;           // a batch is running on the worker pool
+        boolean closing;        // close once out is drained
+
+        Conn(SocketChannel ch) { this.ch = ch; }
+    }
+
+    void run() {
+        try {
+            while (!closed) {
+                selector.select();
+                Completion done;
+                while ((done = completions.poll()) != null) finish(done);
+
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) { accept(); continue; }
+                    Conn c = (Conn) key.attachment();
+                    try {
+                        if (key.isReadable()) read(c);
+                        if (key.isValid() && key.isWritable()) flush(c);
+                    } catch (IOException e) {
+                        close(c);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("FileWireServer stopped: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Conn) close((Conn) key.attachment());
+            }
+            try { listener.close(); } catch (IOException ignore) { }
+            try { selector.close(); } catch (IOException ignore) { }
+        }
+    }
+
+    void accept() throws IOException {
+        SocketChannel ch = listener.accept();
+        if (ch == null) return;
+        ch.configureBlocking(false);
+        ch.socket().setTcpNoDelay(true);
+        Conn c = new Conn(ch);
+        c.key = ch.register(selector, SelectionKey.OP_READ, c);
+        connections.incrementAndGet();
+    }
+
+    void read(Conn c) throws IOException {
+        if (!c.in.hasRemaining()) { // only reachable when idle: one message larger than the buffer
+            ByteBuffer bigger = ByteBuffer.allocate(c.in.capacity() * 2);
+            c.in.flip();
+            bigger.put(c.in);
+            c.in = bigger;
+        }
+        if (c.ch.read(c.in) < 0) { close(c); return; }
+        dispatch(c);
+        updateInterest(c);
+    }
+
+    // hands all complete messages to the worker pool unless a batch is already running
+    void dispatch(Conn c) throws IOException {
+        if (c.busy || c.closing) return;
+        List<Msg> batch = frame(c);
+        if (batch.isEmpty()) return;
+        c.busy = true;
+        workers.execute(() -> {
+            Out out = new Out();
+            for (Msg m : batch) {
+                try {
+                    c.session.handle(m, out);
+                } catch (RuntimeException e) { // malformed message or engine bug: report, keep the connection
+                    c.session.error(out, "XX000", String.valueOf(e));
+                    if (m.type != 'Q') c.session.skipToSync = true;
+                }
+                if (c.session.closed) break;
+            }
+            completions.add(new Completion(c, out, c.session.closed));
+            selector.wakeup();
+        });
+    }
+
+    List<Msg> frame(Conn c) throws IOException {
+        List<Msg> batch = new ArrayList<>();
+        ByteBuffer in = c.in;
+        in.flip();
+        try {
+            while (true) {
+                int hdr = c.untyped ? 4 : 5;
+                if (in.remaining() < hdr) break;
+                int p = in.position();
+                int len = in.getInt(c.untyped ? p : p + 1);
+                if (len < 4 || len > MAX_MESSAGE) throw new IOException("invalid message length " + len);
+                if (in.remaining() < len + hdr - 4) break;
+                char type = c.untyped ? 0 : (char) (in.get(p) & 0xff);
+                byte[] body = new byte[len - 4];
+                in.position(p + hdr);
+                in.get(body);
+                if (c.untyped) {
+                    int code = body.length >= 4 ? ByteBuffer.wrap(body).getInt() : 0;
+                    if (code != SSL_REQUEST && code != GSSENC_REQUEST) c.untyped = false;
+                }
+                batch.add(new Msg(type, body));
+            }
+        } finally {
+            in.compact();
+        }
+        return batch;
+    }
+
+    void finish(Completion done) {
+        Conn c = done.conn;
+        if (!c.ch.isOpen()) return;
+        c.busy = false;
+        if (done.out.len > 0) c.out.add(ByteBuffer.wrap(done.out.buf, 0, done.out.len));
+        if (done.close) c.closing = true;
+        try {
+            flush(c);
+            if (c.ch.isOpen()) {
+                dispatch(c); // messages that arrived while the batch ran
+                updateInterest(c);
+            }
+        } catch (IOException e) {
+            close(c);
+        }
+    }
+
+    void flush(Conn c) throws IOException {
+        while (!c.out.isEmpty()) {
+            ByteBuffer b = c.out.peek();
+            c.ch.write(b);
+            if (b.hasRemaining()) break;
+            c.out.poll();
+        }
+        if (c.out.isEmpty() && c.closing) { close(c); return; }
+        updateInterest(c);
+    }
+
+    // stop reading while busy with a full buffer, so a pipelining client cannot grow it without bound
+    void updateInterest(Conn c) {
+        if (!c.key.isValid()) return;
+        int ops = (c.out.isEmpty() ? 0 : SelectionKey.OP_WRITE) | (c.busy && !c.in.hasRemaining() ? 0 : SelectionKey.OP_READ);
+        c.key.interestOps(ops);
+    }
+
+    void close(Conn c) {
+        if (c.key != null) c.key.cancel();
+        if (c.ch.isOpen()) connections.decrementAndGet();
+        try { c.ch.close(); } catch (IOException ignore) { }
+    }
+
+    // ======================== protocol ========================
+
+    static final class Prepared {
+        final FileSql.Query query;
+        final int[] paramOids; // as sent in Parse, 0 = unspecified
+
+        Prepared(FileSql.Query query, int[] paramOids) {
+            this.query = query;
+            this.paramOids = paramOids;
+        }
+
+        int paramType(int i) {
+            return i < paramOids.length && paramOids[i] != 0 ? paramOids[i] : query.paramTypes[i];
+        }
+    }
+
+    static final class Portal {
+        final FileSql.Query query;
+        final Object[] params;
+        final short[] formats;
+        FileSql.Result result; // set by the first Execute
+        int pos;
+
+        Portal(FileSql.Query query, Object[] params, short[] formats) {
+            this.query = query;
+            this.params = params;
+            this.formats = formats;
+        }
+    }
+
+    /** Per-connection protocol state; only touched by the connection's current batch. */
+    final class Session {
+        final Map<String, Prepared> statements = new HashMap<>();
+        final Map<String, Portal> portals = new HashMap<>();
+        char txStatus = 'I';      // I idle, T in transaction, E failed transaction
+        boolean skipToSync;       // extended-query error: ignore messages until Sync
+        boolean closed;
+
+        void handle(Msg m, Out out) {
+            if (m.type == 0) { startup(new Body(m.body), out); return; }
+            if (skipToSync && m.type != 'S') return;
+            Body b = new Body(m.body);
+            try {
+                switch (m.type) {
+                    case 'Q': simpleQuery(b.cstr(), out); break;
+                    case 'P': parse(b, out); break;
+                    case 'B': bind(b, out); break;
+                    case 'D': describe(b, out); break;
+                    case 'E': execute(b, out); break;
+                    case 'C': {
+                        char kind = (char) b.i8();
+                        String name = b.cstr();
+                        if (kind == 'S') statements.remove(name);
+                        else portals.remove(name);
+                        out.begin('3');
+                        out.end();
+                        break;
+                    }
+                    case 'S':
+                        skipToSync = false;
+                        portals.remove("");
+                        readyForQuery(out);
+                        break;
+                    case 'H': break; // every batch is flushed anyway
+                    case 'X': closed = true; break;
+                    default: throw new FileSql.SqlError("08P01", "unsupported frontend message type '" + m.type + "'");
+                }
+            } catch (FileSql.SqlError e) {
+                error(out, e.code, e.getMessage());
+                if (m.type != 'Q') skipToSync = true;
+            }
+        }
+
+        // ErrorResponse; inside a transaction block any error aborts the transaction
+        void error(Out out, String code, String message) {
+            if (txStatus == 'T') txStatus = 'E';
+            out.begin('E');
+            out.i8('S'); out.cstr("ERROR");
+            out.i8('V'); out.cstr("ERROR");
+            out.i8('C'); out.cstr(code);
+            out.i8('M'); out.cstr(message);
+            out.i8(0);
+            out.end();
+        }
+
+        void startup(Body b, Out out) {
+            int code = b.i32();
+            if (code == SSL_REQUEST || code == GSSENC_REQUEST) { out.i8('N'); return; }
+            if (code == CANCEL_REQUEST) { closed = true; return; } // statements are not cancellable
+            if (code != PROTOCOL_3) {
+                error(out, "08P01", "unsupported frontend protocol " + (code >> 16) + "." + (code & 0xffff));
+                closed = true;
+                return;
+            }
+            Map<String, String> params = new HashMap<>();
+            while (true) {
+                String k = b.cstr();
+                if (k.isEmpty()) break;
+                params.put(k, b.cstr());
+            }
+            out.begin('R');
+            out.i32(0); // AuthenticationOk
+            out.end();
+            parameterStatus(out, "server_version", "14.0");
+            parameterStatus(out, "server_encoding", "UTF8");
+            parameterStatus(out, "client_encoding", "UTF8");
+            parameterStatus(out, "DateStyle", "ISO, MDY");
+            parameterStatus(out, "TimeZone", "UTC");
+            parameterStatus(out, "integer_datetimes", "on");
+            parameterStatus(out, "standard_conforming_strings", "on");
+            parameterStatus(out, "is_superuser", "off");
+            parameterStatus(out, "application_name", params.getOrDefault("application_name", ""));
+            parameterStatus(out, "session_authorization", params.getOrDefault("user", ""));
+            out.begin('K');
+            out.i32(nextPid.getAndIncrement());
+            out.i32(0);
+            out.end();
+            readyForQuery(out);
+        }
+
+        void simpleQuery(String sql, Out out) {
+            try {
+                List<FileSql.Query> queries = FileSql.parseAll(sql, tables);
+                if (queries.isEmpty()) { out.begin('I'); out.end(); }
+                for (FileSql.Query q : queries) {
+                    FileSql.Result r = run(q, NO_PARAMS);
+                    if (r.names != null) rowDescription(out, r.names, r.types, TEXT_FORMAT);
+                    for (Object[] row : r.rows) dataRow(out, row, r.types, TEXT_FORMAT);
+                    commandComplete(out, r.tag);
+                }
+            } catch (FileSql.SqlError e) {
+                error(out, e.code, e.getMessage());
+            }
+            readyForQuery(out);
+        }
+
+        void parse(Body b, Out out) throws FileSql.SqlError {
+            String name = b.cstr(), sql = b.cstr();
+            int[] oids = new int[b.i16()];
+            for (int i = 0; i < oids.length; i++) oids[i] = b.i32();
+            if (!name.isEmpty() && statements.containsKey(name)) {
+                throw new FileSql.SqlError("42P05", "prepared statement \"" + name + "\" already exists");
+            }
+            statements.put(name, new Prepared(FileSql.parse(sql, tables), oids));
+            out.begin('1');
+            out.end();
+        }
+
+        void bind(Body b, Out out) throws FileSql.SqlError {
+            String portal = b.cstr(), name = b.cstr();
+            Prepared ps = statement(name);
+            short[] paramFormats = b.formats();
+            int n = b.i16();
+            if (n != ps.query.paramCount()) {
+                throw new FileSql.SqlError("08P01", "bind message supplies " + n + " parameters, but prepared statement \""
+                        + name + "\" requires " + ps.query.paramCount());
+            }
+            Object[] params = new Object[n];
+            for (int i = 0; i < n; i++) {
+                int len = b.i32();
+                if (len < 0) continue; // NULL
+                byte[] v = b.bytes(len);
+                int format = paramFormats.length == 0 ? 0 : paramFormats[paramFormats.length == 1 ? 0 : i];
+                params[i] = format == 0 ? new String(v, StandardCharsets.UTF_8) : decodeBinary(v, ps.paramType(i));
+            }
+            portals.put(portal, new Portal(ps.query, params, b.formats()));
+            out.begin('2');
+            out.end();
+        }
+
+        void describe(Body b, Out out) throws FileSql.SqlError {
+            char kind = (char) b.i8();
+            String name = b.cstr();
+            FileSql.Query q;
+            short[] formats;
+            if (kind == 'S') {
+                Prepared ps = statement(name);
+                q = ps.query;
+                formats = TEXT_FORMAT;
+                out.begin('t');
+                out.i16(q.paramCount());
+                for (int i = 0; i < q.paramCount(); i++) out.i32(ps.paramType(i));
+                out.end();
+            } else {
+                Portal p = portal(name);
+                q = p.query;
+                formats = p.formats;
+            }
+            String[] names = q.columnNames();
+            if (names == null) { out.begin('n'); out.end(); } // NoData
+            else rowDescription(out, names, q.columnTypes(), formats);
+        }
+
+        void execute(Body b, Out out) throws FileSql.SqlError {
+            Portal p = portal(b.cstr());
+            int maxRows = b.i32();
+            if (p.query.kind == FileSql.Kind.EMPTY) { out.begin('I'); out.end(); return; }
+            if (p.result == null) p.result = run(p.query, p.params);
+            List<Object[]> rows = p.result.rows;
+            int end = maxRows > 0 ? Math.min(rows.size(), p.pos + maxRows) : rows.size();
+            for (; p.pos < end; p.pos++) dataRow(out, rows.get(p.pos), p.result.types, p.formats);
+            if (p.pos < rows.size()) { out.begin('s'); out.end(); } // PortalSuspended
+            else commandComplete(out, p.result.tag);
+        }
+
+        FileSql.Result run(FileSql.Query q, Object[] params) throws FileSql.SqlError {
+            boolean ends = q.kind == FileSql.Kind.UTILITY && (q.tag.equals("COMMIT") || q.tag.equals("ROLLBACK"));
+            if (txStatus == 'E' && !ends) {
+                throw new FileSql.SqlError("25P02", "current transaction is aborted, commands ignored until end of transaction block");
+            }
+            FileSql.Result r = q.execute(params);
+            if (q.kind == FileSql.Kind.UTILITY) {
+                if (q.tag.equals("BEGIN")) txStatus = 'T';
+                else if (ends) {
+                    boolean failed = txStatus == 'E';
+                    txStatus = 'I';
+                    if (failed) return new FileSql.Result(null, null, r.rows, "ROLLBACK");
+                }
+            }
+            return r;
+        }
+
+        Prepared statement(String name) throws FileSql.SqlError {
+            Prepared ps = statements.get(name);
+            if (ps == null) throw new FileSql.SqlError("26000", "prepared statement \"" + name + "\" does not exist");
+            return ps;
+        }
+
+        Portal portal(String name) throws FileSql.SqlError {
+            Portal p = portals.get(name);
+            if (p == null) throw new FileSql.SqlError("34000", "portal \"" + name + "\" does not exist");
+            return p;
+        }
+
+        Object decodeBinary(byte[] v, int oid) throws FileSql.SqlError {
+            ByteBuffer bb = ByteBuffer.wrap(v);
+            if (oid == FileSql.INT4 && v.length == 4) return (long) bb.getInt();
+            if (oid == FileSql.INT8 && v.length == 8) return bb.getLong();
+            if (oid == 21 && v.length == 2) return (long) bb.getShort(); // int2
+            if (oid == FileSql.TEXT || oid == 1043 || oid == 1042 || oid == 0) return new String(v, StandardCharsets.UTF_8);
+            throw new FileSql.SqlError("0A000", "binary parameters of type " + oid + " are not supported");
+        }
+
+        void readyForQuery(Out out) {
+            out.begin('Z');
+            out.i8(txStatus);
+            out.end();
+        }
+
+    }
+
+    void parameterStatus(Out out, String name, String value) {
+        out.begin('S');
+        out.cstr(name);
+        out.cstr(value);
+        out.end();
+    }
+
+    static void rowDescription(Out out, String[] names, int[] types, short[] formats) {
+        out.begin('T');
+        out.i16(names.length);
+        for (int c = 0; c < names.length; c++) {
+            out.cstr(names[c]);
+            out.i32(0);  // table oid
+            out.i16(0);  // column number
+            out.i32(types[c]);
+            out.i16(types[c] == FileSql.INT4 ? 4 : types[c] == FileSql.INT8 ? 8 : -1);
+            out.i32(-1); // typmod
+            out.i16(format(formats, c));
+        }
+        out.end();
+    }
+
+    static void dataRow(Out out, Object[] row, int[] types, short[] formats) {
+        out.begin('D');
+        out.i16(row.length);
+        for (int c = 0; c < row.length; c++) {
+            Object v = row[c];
+            if (v == null) { out.i32(-1); continue; }
+            if (format(formats, c) == 1 && types[c] == FileSql.INT4) {
+                out.i32(4);
+                out.i32(Integer.parseInt(v.toString()));
+            } else if (format(formats, c) == 1 && types[c] == FileSql.INT8) {
+                out.i32(8);
+                out.i64(Long.parseLong(v.toString()));
+            } else { // text, and the binary form of text is its UTF-8 bytes too
+                byte[] b = v.toString().getBytes(StandardCharsets.UTF_8);
+                out.i32(b.length);
+                out.bytes(b);
+            }
+        }
+        out.end();
+    }
+
+    static void commandComplete(Out out, String tag) {
+        out.begin('C');
+        out.cstr(tag);
+        out.end();
+    }
+
+    static int format(short[] formats, int column) {
+        return formats.length == 0 ? 0 : formats[formats.length == 1 ? 0 : column];
+    }
+
+    /** Reads the body of one frontend message. */
+    static final class Body {
+        final ByteBuffer b;
+
+        Body(byte[] body) { b = ByteBuffer.wrap(body); }
+
+        int i8() { return b.get() & 0xff; }
+
+        int i16() { return b.getShort(); }
+
+        int i32() { return b.getInt(); }
+
+        byte[] bytes(int n) {
+            byte[] v = new byte[n];
+            b.get(v);
+            return v;
+        }
+
+        String cstr() {
+            int start = b.position();
+            while (b.get() != 0) { }
+            return new String(b.array(), start, b.position() - start - 1, StandardCharsets.UTF_8);
+        }
+
+        short[] formats() {
+            short[] f = new short[i16()];
+            for (int i = 0; i < f.length; i++) f[i] = b.getShort();
+            return f;
+        }
+    }
+
+    /** Growable buffer of backend messages; begin()/end() write the type byte and patch the length. */
+    static final class Out {
+        byte[] buf = new byte[512];
+        int len, start;
+
+        void ensure(int n) {
+            if (len + n > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + n));
+        }
+
+        void begin(char type) {
+            ensure(5);
+            buf[len++] = (byte) type;
+            start = len;
+            len += 4;
+        }
+
+        void end() {
+            int n = len - start;
+            buf[start] = (byte) (n >>> 24);
+            buf[start + 1] = (byte) (n >>> 16);
+            buf[start + 2] = (byte) (n >>> 8);
+            buf[start + 3] = (byte) n;
+        }
+
+        void i8(int v) {
+            ensure(1);
+            buf[len++] = (byte) v;
+        }
+
+        void i16(int v) {
+            ensure(2);
+            buf[len++] = (byte) (v >>> 8);
+            buf[len++] = (byte) v;
+        }
+
+        void i32(int v) {
+            ensure(4);
+            for (int s = 24; s >= 0; s -= 8) buf[len++] = (byte) (v >>> s);
+        }
+
+        void i64(long v) {
+            ensure(8);
+            for (int s = 56; s >= 0; s -= 8) buf[len++] = (byte) (v >>> s);
+        }
+
+        void bytes(byte[] b) {
+            ensure(b.length);
+            System.arraycopy(b, 0, buf, len, b.length);
+            len += b.length;
+        }
+
+        void cstr(String s) {
+            bytes(s.getBytes(StandardCharsets.UTF_8));
+            i8(0);
+        }
+    }
+}
@@ -0,0 +1,330 @@
+import java.sql.*;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * ForumOltpBenchmark
+ *
+ * TPC-C-like transaction mix over copies of the forum schema of filmdb.sql (fo_members / fo_topics / fo_posts,
+ * same columns, unique member names and foreign keys), with ids drawn from sequences:
+ *   register   -> nextval + INSERT member; DUP_NAME_PCT of them reuse a taken name and roll back on the unique key
+ *   new_topic  -> look up the member, nextval + INSERT topic (FK to the member)
+ *   reply      -> read the topic's latest post, nextval + INSERT a reply to it or to the topic
+ *                 (ancestry extended like forum_posts, FKs to topic and member)
+ *   read_page  -> topic header + post count + one page of posts in thread order joined with member names
+ * Each terminal has its own connection, runs TX_PER_TERMINAL transactions back to back (no think time)
+ * and picks the type by the mix weights. Tables are seeded with generate_series, recreated per terminal count
+ * and dropped at the end.
+ *
+ * Settings (system properties):
+ *   -Doltp.terminals=1,8,32      terminal counts
+ *   -Doltp.mix=5,10,45,40        weights of register,new_topic,reply,read_page
+ *   -Doltp.tx=500                transactions per terminal
+ *
+ * Outputs:
+ *   result/forum_oltp.csv -> per (DBMS, terminals, tx type + all): committed, aborted, TPS, avg/p95/p99/max latency;
+ *                            the "all" row adds client allocated bytes / CPU µs per transaction (ClientCost, sampled
+ *                            around each terminal's whole loop, so NA on the per-type rows)
+ */
+public class ForumOltpBenchmark {
+
+    // === DB configs (change to your credentials) ===
+    static final String PG_DRIVER = "org.postgresql.Driver";
+    static final String PG_URL = LatencyProxy.wrap("jdbc:postgresql://127.0.0.1:5430/postgres");
+    static final String PG_USER = "test";
+    static final String PG_PASS = "123456";
+
+    static final String OG_DRIVER = "org.opengauss.Driver";
+    static final String OG_URL = LatencyProxy.wrap("jdbc:opengauss://127.0.0.1:5431/postgres");
+    static final String OG_USER = "gaussdb";
+    static final String OG_PASS = "123456Aa@";
+
+    static final File RESULT_DIR = new File("result");
+    static final String RESULT_CSV = "result/forum_oltp.csv";
+
+    static final int[] TERMINALS = parseInts(System.getProperty("oltp.terminals", "1,8,32"));
+    static final int[] MIX = parseInts(System.getProperty("oltp.mix", "5,10,45,40"));
+    static final int TX_PER_TERMINAL = Integer.getInteger("oltp.tx", 500);
+    static final String[] TX_TYPES = {"register", "new_topic", "reply", "read_page"};
+
+    static final int SEED_MEMBERS = 2000;
+    static final int SEED_TOPICS = 500;
+    static final int SEED_POSTS = 10000;
+    static final int DUP_NAME_PCT = 1;
+    static final int PAGE_SIZE = 20;
+
+    static final String[] SETUP_SQL = {
+            "DROP TABLE IF EXISTS fo_posts",
+            "DROP TABLE IF EXISTS fo_topics",
+            "DROP TABLE IF EXISTS fo_members",
+            "DROP SEQUENCE IF EXISTS fo_member_seq",
+            "DROP SEQUENCE IF EXISTS fo_topic_seq",
+            "DROP SEQUENCE IF EXISTS fo_post_seq",
+            "CREATE TABLE fo_members(memberid int not null primary key, name varchar(30) not null, registered date not null, unique(name))",
+            "CREATE TABLE fo_topics(topicid int not null primary key, post_date date not null, memberid int not null, message text not null, "
+                    + "foreign key (memberid) references fo_members(memberid))",
+            "CREATE TABLE fo_posts(topicid int not null, postid int not null primary key, post_date date not null, memberid int not null, "
+                    + "ancestry varchar(1000), message text not null, "
+                    + "foreign key (memberid) references fo_members(memberid), foreign key (topicid) references fo_topics(topicid))",
+            "CREATE INDEX fo_posts_topic ON fo_posts(topicid, postid)",
+            "INSERT INTO fo_members SELECT g, 'member ' || g, CURRENT_DATE FROM generate_series(1, " + SEED_MEMBERS + ") g",
+            "INSERT INTO fo_topics SELECT g, CURRENT_DATE, 1 + g % " + SEED_MEMBERS + ", 'topic ' || g FROM generate_series(1, " + SEED_TOPICS + ") g",
+            "INSERT INTO fo_posts SELECT 1 + g % " + SEED_TOPICS + ", g, CURRENT_DATE, 1 + (g * 7) % " + SEED_MEMBERS
+                    + ", NULL, 'seed reply ' || g FROM generate_series(1, " + SEED_POSTS + ") g",
+            "CREATE SEQUENCE fo_member_seq START WITH " + (SEED_MEMBERS + 1),
+            "CREATE SEQUENCE fo_topic_seq START WITH " + (SEED_TOPICS + 1),
+            "CREATE SEQUENCE fo_post_seq START WITH " + (SEED_POSTS + 1),
+            "ANALYZE fo_members",
+            "ANALYZE fo_topics",
+            "ANALYZE fo_posts"};
+    static final String[] DROP_SQL = {
+            "DROP TABLE IF EXISTS fo_posts", "DROP TABLE IF EXISTS fo_topics", "DROP TABLE IF EXISTS fo_members",
+            "DROP SEQUENCE IF EXISTS fo_member_seq", "DROP SEQUENCE IF EXISTS fo_topic_seq", "DROP SEQUENCE IF EXISTS fo_post_seq"};
+
+    static final String NEXT_MEMBER = "SELECT nextval('fo_member_seq')";
+    static final String NEXT_TOPIC = "SELECT nextval('fo_topic_seq')";
+    static final String NEXT_POST = "SELECT nextval('fo_post_seq')";
+    static final String INSERT_MEMBER = "INSERT INTO fo_members(memberid, name, registered) VALUES (?, ?, CURRENT_DATE)";
+    static final String GET_MEMBER = "SELECT name FROM fo_members WHERE memberid = ?";
+    static final String INSERT_TOPIC = "INSERT INTO fo_topics(topicid, post_date, memberid, message) VALUES (?, CURRENT_DATE, ?, ?)";
+    static final String LATEST_POST = "SELECT postid, ancestry FROM fo_posts WHERE topicid = ? ORDER BY postid DESC LIMIT 1";
+    static final String INSERT_POST = "INSERT INTO fo_posts(topicid, postid, post_date, memberid, ancestry, message) VALUES (?, ?, CURRENT_DATE, ?, ?, ?)";
+    static final String TOPIC_HEADER = "SELECT t.message, t.post_date, m.name FROM fo_topics t JOIN fo_members m ON m.memberid = t.memberid WHERE t.topicid = ?";
+    static final String POST_COUNT = "SELECT COUNT(*) FROM fo_posts WHERE topicid = ?";
+    static final String POST_PAGE = "SELECT p.postid, p.post_date, m.name, p.message FROM fo_posts p JOIN fo_members m ON m.memberid = p.memberid "
+            + "WHERE p.topicid = ? ORDER BY COALESCE(p.ancestry, '') || lpad(CAST(p.postid AS text), 10, '0') LIMIT " + PAGE_SIZE + " OFFSET ?";
+
+    /** Committed ids, shared by the terminals so that FK targets always exist. */
+    static final class IdPool {
+        private int[] ids = new int[1024];
+        private int size;
+
+        IdPool(int seeded) { for (int i = 1; i <= seeded; i++) add(i); }
+
+        synchronized void add(int id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+
+        synchronized int random(Random rnd) { return ids[rnd.nextInt(size)]; }
+    }
+
+    static final class TerminalStat {
+        final long[] committed = new long[TX_TYPES.length], aborted = new long[TX_TYPES.length];
+        final List<List<Double>> lat = new ArrayList<>();
+        ClientCost.Sample cost;
+
+        TerminalStat() { for (int i = 0; i < TX_TYPES.length; i++) lat.add(new ArrayList<>()); }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (!RESULT_DIR.exists()) RESULT_DIR.mkdirs();
+        if (MIX.length != TX_TYPES.length) throw new IllegalArgumentException("oltp.mix needs " + TX_TYPES.length + " weights");
+        List<String[]> rows = new ArrayList<>();
+
+        runDb(rows, "PostgreSQL", PG_DRIVER, PG_URL, PG_USER, PG_PASS);
+        runDb(rows, "openGauss", OG_DRIVER, OG_URL, OG_USER, OG_PASS);
+
+        try (PrintWriter pw = new PrintWriter(new FileWriter(RESULT_CSV))) {
+            pw.println("DBMS,Terminals,Mix,Tx_type,Committed,Aborted,TPS,Avg_ms,P95_ms,P99_ms,Max_ms," + ClientCost.CSV_HEADER);
+            for (String[] r : rows) pw.println(String.join(",", r));
+            System.out.println("Saved CSV: " + RESULT_CSV);
+        } catch (IOException e) {
+            System.err.println("CSV write failed: " + e.getMessage());
+        }
+    }
+
+    static void runDb(List<String[]> rows, String dbName, String driver, String url, String user, String pass) {
+        try { Class.forName(driver); } catch (ClassNotFoundException e) { System.err.println("Driver not found: " + e.getMessage()); return; }
+
+        try (Connection conn = DriverManager.getConnection(url, user, pass);
+             Statement stmt = conn.createStatement()) {
+            try {
+                for (int terminals : TERMINALS) {
+                    for (String sql : SETUP_SQL) stmt.execute(sql);
+                    System.out.printf("Running %s terminals=%d mix=%s tx/terminal=%d%n", dbName, terminals, mixLabel(), TX_PER_TERMINAL);
+                    rows.addAll(runMix(dbName, driver, url, user, pass, terminals));
+                }
+            } finally {
+                for (String sql : DROP_SQL) {
+                    try { stmt.execute(sql); } catch (SQLException ignore) { }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println(dbName + " run failed: " + e.getMessage());
+        }
+    }
+
+    static List<String[]> runMix(String dbName, String driver, String url, String user, String pass, int terminals) {
+        IdPool members = new IdPool(SEED_MEMBERS), topics = new IdPool(SEED_TOPICS);
+        ExecutorService pool = Executors.newFixedThreadPool(terminals);
+        List<Future<TerminalStat>> futures = new ArrayList<>();
+        long started = System.nanoTime();
+        for (int i = 0; i < terminals; i++) {
+            final int terminal = i + 1;
+            futures.add(pool.submit(() -> terminal(terminal, url, user, pass, members, topics)));
+        }
+        List<TerminalStat> stats = new ArrayList<>();
+        for (Future<TerminalStat> f : futures) {
+            try { stats.add(f.get()); } catch (Exception e) { System.err.println("Terminal failed: " + e.getMessage()); }
+        }
+        double wallMs = (System.nanoTime() - started) / 1_000_000.0;
+        pool.shutdown();
+
+        List<String[]> rows = new ArrayList<>();
+        long allCommitted = 0, allAborted = 0;
+        List<Double> all = new ArrayList<>();
+        for (int t = 0; t < TX_TYPES.length; t++) {
+            long committed = 0, aborted = 0;
+            List<Double> lat = new ArrayList<>();
+            for (TerminalStat ts : stats) {
+                committed += ts.committed[t];
+                aborted += ts.aborted[t];
+                lat.addAll(ts.lat.get(t));
+            }
+            allCommitted += committed;
+            allAborted += aborted;
+            all.addAll(lat);
+            rows.add(row(dbName, terminals, TX_TYPES[t], committed, aborted, wallMs, lat, ClientCost.NA));
+        }
+        List<ClientCost.Sample> costs = new ArrayList<>();
+        for (TerminalStat ts : stats) costs.add(ts.cost);
+        rows.add(row(dbName, terminals, "all", allCommitted, allAborted, wallMs, all,
+                ClientCost.perOp(costs)));
+        return rows;
+    }
+
+    static TerminalStat terminal(int terminal, String url, String user, String pass, IdPool members, IdPool topics) throws SQLException {
+        TerminalStat ts = new TerminalStat();
+        Random rnd = new Random(terminal * 7919L);
+        int weightSum = Arrays.stream(MIX).sum();
+        try (Connection conn = DriverManager.getConnection(url, user, pass);
+             PreparedStatement nextMember = conn.prepareStatement(NEXT_MEMBER);
+             PreparedStatement nextTopic = conn.prepareStatement(NEXT_TOPIC);
+             PreparedStatement nextPost = conn.prepareStatement(NEXT_POST);
+             PreparedStatement insertMember = conn.prepareStatement(INSERT_MEMBER);
+             PreparedStatement getMember = conn.prepareStatement(GET_MEMBER);
+             PreparedStatement insertTopic = conn.prepareStatement(INSERT_TOPIC);
+             PreparedStatement latestPost = conn.prepareStatement(LATEST_POST);
+             PreparedStatement insertPost = conn.prepareStatement(INSERT_POST);
+             PreparedStatement topicHeader = conn.prepareStatement(TOPIC_HEADER);
+             PreparedStatement postCount = conn.prepareStatement(POST_COUNT);
+             PreparedStatement postPage = conn.prepareStatement(POST_PAGE)) {
+            conn.setAutoCommit(false);
+            ClientCost.Sample c0 = ClientCost.start();
+            for (int k = 0; k < TX_PER_TERMINAL; k++) {
+                int pick = rnd.nextInt(weightSum), type = 0;
+                while (pick >= MIX[type]) pick -= MIX[type++];
+
+                int newMember = 0, newTopic = 0;
+                long s = System.nanoTime();
+                try {
+                    switch (TX_TYPES[type]) {
+                        case "register": {
+                            int id = nextId(nextMember);
+                            insertMember.setInt(1, id);
+                            insertMember.setString(2, rnd.nextInt(100) < DUP_NAME_PCT
+                                    ? "member " + (1 + rnd.nextInt(SEED_MEMBERS)) : "t" + terminal + " member " + id);
+                            insertMember.executeUpdate();
+                            newMember = id;
+                            break;
+                        }
+                        case "new_topic": {
+                            int member = members.random(rnd);
+                            getMember.setInt(1, member);
+                            try (ResultSet rs = getMember.executeQuery()) { rs.next(); }
+                            int id = nextId(nextTopic);
+                            insertTopic.setInt(1, id);
+                            insertTopic.setInt(2, member);
+                            insertTopic.setString(3, "terminal " + terminal + " topic " + id);
+                            insertTopic.executeUpdate();
+                            newTopic = id;
+                            break;
+                        }
+                        case "reply": {
+                            int topic = topics.random(rnd);
+                            latestPost.setInt(1, topic);
+                            String ancestry = null;
+                            try (ResultSet rs = latestPost.executeQuery()) {
+                                if (rs.next() && rnd.nextBoolean()) {
+                                    String parentPath = rs.getString(2);
+                                    ancestry = (parentPath == null ? "" : parentPath) + String.format("%010d", rs.getInt(1));
+                                    if (ancestry.length() > 1000) ancestry = null;
+                                }
+                            }
+                            int id = nextId(nextPost);
+                            insertPost.setInt(1, topic);
+                            insertPost.setInt(2, id);
+                            insertPost.setInt(3, members.random(rnd));
+                            insertPost.setString(4, ancestry);
+                            insertPost.setString(5, "terminal " + terminal + " reply " + id);
+                            insertPost.executeUpdate();
+                            break;
+                        }
+                        default: {
+                            int topic = topics.random(rnd);
+                            topicHeader.setInt(1, topic);
+                            try (ResultSet rs = topicHeader.executeQuery()) { while (rs.next()) { } }
+                            postCount.setInt(1, topic);
+                            int count;
+                            try (ResultSet rs = postCount.executeQuery()) { count = rs.next() ? rs.getInt(1) : 0; }
+                            postPage.setInt(1, topic);
+                            postPage.setInt(2, PAGE_SIZE * rnd.nextInt(Math.max(1, (count + PAGE_SIZE - 1) / PAGE_SIZE)));
+                            try (ResultSet rs = postPage.executeQuery()) { while (rs.next()) { } }
+                        }
+                    }
+                    conn.commit();
+                    ts.committed[type]++;
+                    if (newMember > 0) members.add(newMember);
+                    if (newTopic > 0) topics.add(newTopic);
+                } catch (SQLException e) {
+                    // duplicate names are expected (23505); anything else is reported
+                    if (!"23505".equals(e.getSQLState())) System.err.println("Tx " + TX_TYPES[type] + " error: " + e.getMessage());
+                    try { conn.rollback(); } catch (SQLException ignore) { }
+                    ts.aborted[type]++;
+                }
+                ts.lat.get(type).add((System.nanoTime() - s) / 1_000_000.0);
+            }
+            ts.cost = ClientCost.since(c0, Arrays.stream(ts.committed).sum() + Arrays.stream(ts.aborted).sum());
+        }
+        return ts;
+    }
+
+    static int nextId(PreparedStatement seq) throws SQLException {
+        try (ResultSet rs = seq.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    static String[] row(String db, int terminals, String type, long committed, long aborted, double wallMs, List<Double> lat, String[] client) {
+        double tps = wallMs > 0 ? committed / (wallMs / 1000.0) : 0.0;
+        double avg = lat.stream().mapToDouble(d -> d).average().orElse(0.0);
+        double max = lat.stream().mapToDouble(d -> d).max().orElse(0.0);
+        double p95 = percentile(lat, 95), p99 = percentile(lat, 99);
+        System.out.printf("%-10s terminals=%-3d %-10s committed=%d aborted=%d tps=%.1f avg=%.3f ms p95=%.3f ms p99=%.3f ms max=%.3f ms%n",
+                db, terminals, type, committed, aborted, tps, avg, p95, p99, max);
+        return new String[]{db, Integer.toString(terminals), mixLabel(), type, Long.toString(committed), Long.toString(aborted),
+                String.format("%.2f", tps), String.format("%.3f", avg), String.format("%.3f", p95), String.format("%.3f", p99), String.format("%.3f", max),
+                client[0], client[1]};
+    }
+
+    static double percentile(List<Double> arr, double p) {
+        if (arr.isEmpty()) return 0.0;
+        double[] a = arr.stream().mapToDouble(d -> d).sorted().toArray();
+        double rank = p / 100.0 * (a.length - 1);
+        int lo = (int) Math.floor(rank), hi = (int) Math.ceil(rank);
+        return a[lo] + (a[hi] - a[lo]) * (rank - lo);
+    }
+
+    static String mixLabel() {
+        StringBuilder sb = new StringBuilder();
+        for (int w : MIX) sb.append(sb.length() > 0 ? "/" : "").append(w);
+        return sb.toString();
+    }
+
+    static int[] parseInts(String csv) {
+        return Arrays.stream(csv.split(",")).map(String::trim).filter(s -> !s.isEmpty()).mapToInt(Integer::parseInt).toArray();
+    }
+}
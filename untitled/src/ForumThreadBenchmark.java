@@ -0,0 +1,357 @@
+import java.sql.*;
+import java.io.*;
+import java.util.*;
+
+/**
+ * ForumThreadBenchmark
+ *
+ * Thread retrieval on synthetic forum trees stored like forum_posts in filmdb.sql: ancestry is the
+ * materialized path of 10-digit ancestor ids, root first, NULL on the first post of a topic.
+ * Each tree shape (DEPTH, FANOUT) is a full FANOUT-ary tree per topic, with enough topics for about TOTAL_POSTS rows.
+ * Queries:
+ *   thread     -> whole thread of a topic in display (pre-)order
+ *   subtree    -> all replies below a post halfway down the tree
+ *   ancestors  -> the chain from a leaf up to the first post
+ * answered by:
+ *   DB  path   -> ancestry LIKE 'prefix%' on a text_pattern_ops btree; ancestors = ids parsed from the leaf's ancestry
+ *   DB  cte    -> WITH RECURSIVE over parentid (btree on parentid)
+ *   JVM tree   -> parent array + pre-order numbering: a subtree is a contiguous range, ancestors follow parents
+ * fp_posts is created, loaded with batched inserts and dropped per shape.
+ *
+ * Outputs:
+ *   result/forum_threads.csv -> per (engine, method, depth, fan-out, query): avg rows, avg/p99 latency, agreement
+ */
+public class ForumThreadBenchmark {
+
+    // === DB configs (change to your credentials) ===
+    static final String PG_DRIVER = "org.postgresql.Driver";
+    static final String PG_URL = LatencyProxy.wrap("jdbc:postgresql://127.0.0.1:5430/postgres");
+    static final String PG_USER = "test";
+    static final String PG_PASS = "123456";
+
+    static final String OG_DRIVER = "org.opengauss.Driver";
+    static final String OG_URL = LatencyProxy.wrap("jdbc:opengauss://127.0.0.1:5431/postgres");
+    static final String OG_USER = "gaussdb";
+    static final String OG_PASS = "123456Aa@";
+
+    static final File RESULT_DIR = new File("result");
+    static final String RESULT_CSV = "result/forum_threads.csv";
+
+    static final int[][] SHAPES = {{3, 4}, {3, 16}, {6, 4}, {6, 6}, {12, 2}, {16, 2}}; // {depth, fan-out}
+    static final int TOTAL_POSTS = 100_000;
+    static final int TARGETS = 20;
+    static final long SEED = 42;
+    static final int WARMUP_RUNS = 3;
+    static final int RUNS = 30;
+    static final int DB_RUNS = 5;
+    static final int BATCH = 1000;
+    static final int ID_WIDTH = 10;
+
+    static final String[] QUERIES = {"thread", "subtree", "ancestors"};
+    static final String[] SETUP_SQL = {
+            "DROP TABLE IF EXISTS fp_posts",
+            "CREATE TABLE fp_posts(topicid int not null, postid int not null primary key, parentid int, "
+                    + "ancestry varchar(1000), message text not null)"};
+    static final String[] INDEX_SQL = {
+            "CREATE INDEX fp_posts_parent ON fp_posts(parentid)",
+            "ANALYZE fp_posts"};
+    static final String ANCESTRY_INDEX = "CREATE INDEX fp_posts_ancestry ON fp_posts(ancestry text_pattern_ops)";
+    static final String ANCESTRY_INDEX_PLAIN = "CREATE INDEX fp_posts_ancestry ON fp_posts(ancestry)";
+    static final String SORT_KEY = "COALESCE(ancestry, '') || lpad(CAST(postid AS text), 10, '0')";
+    // prefixes are built from ints only, so they are inlined: a LIKE parameter would hide the prefix from generic plans
+    static final String PATH_THREAD = "SELECT postid, " + SORT_KEY + " AS k FROM fp_posts WHERE postid = %d "
+            + "UNION ALL SELECT postid, " + SORT_KEY + " FROM fp_posts WHERE ancestry LIKE '%s%%' ORDER BY k";
+    static final String PATH_SUBTREE = "SELECT postid FROM fp_posts WHERE ancestry LIKE '%s%%'";
+    static final String PATH_ANCESTRY = "SELECT ancestry FROM fp_posts WHERE postid = ?";
+    static final String PATH_ANCESTORS = "SELECT postid, message FROM fp_posts WHERE postid IN (%s)";
+    static final String CTE_THREAD = "WITH RECURSIVE t(postid, k) AS ("
+            + "SELECT postid, lpad(CAST(postid AS text), 10, '0') FROM fp_posts WHERE postid = ? "
+            + "UNION ALL SELECT p.postid, t.k || lpad(CAST(p.postid AS text), 10, '0') FROM fp_posts p JOIN t ON p.parentid = t.postid) "
+            + "SELECT postid, k FROM t ORDER BY k";
+    static final String CTE_SUBTREE = "WITH RECURSIVE t(postid) AS ("
+            + "SELECT postid FROM fp_posts WHERE parentid = ? "
+            + "UNION ALL SELECT p.postid FROM fp_posts p JOIN t ON p.parentid = t.postid) SELECT postid FROM t";
+    static final String CTE_ANCESTORS = "WITH RECURSIVE t(postid, parentid, message) AS ("
+            + "SELECT a.postid, a.parentid, a.message FROM fp_posts a JOIN fp_posts c ON a.postid = c.parentid WHERE c.postid = ? "
+            + "UNION ALL SELECT p.postid, p.parentid, p.message FROM fp_posts p JOIN t ON p.postid = t.parentid) SELECT postid, message FROM t";
+
+    // ===== current shape; post ids are 1..posts, array index = postid =====
+    static int posts;
+    static int[] parent, depth, topic, roots;
+    static String[] ancestry;
+    // JVM tree index
+    static int[] order, start, end;
+
+    public static void main(String[] args) throws Exception {
+        if (!RESULT_DIR.exists()) RESULT_DIR.mkdirs();
+        List<String[]> rows = new ArrayList<>();
+
+        for (int[] shape : SHAPES) {
+            int d = shape[0], f = shape[1];
+            generate(d, f);
+            long t0 = System.nanoTime();
+            buildIndex();
+            System.out.printf("Shape depth=%d fanout=%d: %d topics, %d posts, tree index %.1f ms%n",
+                    d, f, roots.length, posts, (System.nanoTime() - t0) / 1_000_000.0);
+
+            // targets: topic roots, posts at depth d/2, leaves at depth d
+            Random rnd = new Random(SEED);
+            int[][] targets = new int[QUERIES.length][TARGETS];
+            List<Integer> mid = new ArrayList<>(), leaves = new ArrayList<>();
+            for (int id = 1; id <= posts; id++) {
+                if (depth[id] == Math.max(1, d / 2)) mid.add(id);
+                if (depth[id] == d) leaves.add(id);
+            }
+            for (int i = 0; i < TARGETS; i++) {
+                targets[0][i] = roots[rnd.nextInt(roots.length)];
+                targets[1][i] = mid.get(rnd.nextInt(mid.size()));
+                targets[2][i] = leaves.get(rnd.nextInt(leaves.size()));
+            }
+            int[][] expected = new int[QUERIES.length][TARGETS];
+            for (int q = 0; q < QUERIES.length; q++) {
+                for (int i = 0; i < TARGETS; i++) expected[q][i] = jvmQuery(QUERIES[q], targets[q][i]).length;
+            }
+
+            for (int q = 0; q < QUERIES.length; q++) {
+                List<Double> lat = new ArrayList<>();
+                double rowsSum = 0;
+                for (int i = 0; i < TARGETS; i++) {
+                    int[] r = null;
+                    for (int k = 0; k < WARMUP_RUNS + RUNS; k++) {
+                        long s = System.nanoTime();
+                        r = jvmQuery(QUERIES[q], targets[q][i]);
+                        if (k >= WARMUP_RUNS) lat.add((System.nanoTime() - s) / 1_000_000.0);
+                    }
+                    rowsSum += r.length;
+                }
+                rows.add(row("JVM", "tree", d, f, QUERIES[q], rowsSum / TARGETS, lat, true));
+            }
+
+            runDb(rows, "PostgreSQL", PG_DRIVER, PG_URL, PG_USER, PG_PASS, d, f, targets, expected);
+            runDb(rows, "openGauss", OG_DRIVER, OG_URL, OG_USER, OG_PASS, d, f, targets, expected);
+        }
+
+        try (PrintWriter pw = new PrintWriter(new FileWriter(RESULT_CSV))) {
+            pw.println("Engine,Method,Depth,Fanout,Posts,Query,Avg_rows,Avg_ms,P99_ms,Agree");
+            for (String[] r : rows) pw.println(String.join(",", r));
+            System.out.println("Saved CSV: " + RESULT_CSV);
+        } catch (IOException e) {
+            System.err.println("CSV write failed: " + e.getMessage());
+        }
+    }
+
+    // ===== synthetic trees =====
+
+    static void generate(int d, int f) {
+        long perTopic = 0, level = 1;
+        for (int i = 0; i <= d; i++) { perTopic += level; level *= f; }
+        int topics = (int) Math.max(1, TOTAL_POSTS / perTopic);
+        posts = (int) (perTopic * topics);
+        parent = new int[posts + 1];
+        depth = new int[posts + 1];
+        topic = new int[posts + 1];
+        ancestry = new String[posts + 1];
+        roots = new int[topics];
+        int next = 1;
+        for (int t = 0; t < topics; t++) {
+            int root = next++;
+            roots[t] = root;
+            topic[root] = t + 1;
+            // breadth first: children of the previous level's posts get consecutive ids
+            int levelStart = root, levelEnd = root + 1;
+            for (int lv = 1; lv <= d; lv++) {
+                for (int p = levelStart; p < levelEnd; p++) {
+                    String prefix = (ancestry[p] == null ? "" : ancestry[p]) + pad(p);
+                    for (int c = 0; c < f; c++) {
+                        int id = next++;
+                        parent[id] = p;
+                        depth[id] = lv;
+                        topic[id] = t + 1;
+                        ancestry[id] = prefix;
+                    }
+                }
+                int count = (levelEnd - levelStart) * f;
+                levelStart = levelEnd;
+                levelEnd = levelStart + count;
+            }
+        }
+    }
+
+    static String pad(int id) {
+        String s = Integer.toString(id);
+        StringBuilder sb = new StringBuilder(ID_WIDTH);
+        for (int i = s.length(); i < ID_WIDTH; i++) sb.append('0');
+        return sb.append(s).toString();
+    }
+
+    /** Pre-order numbering over a children CSR: the subtree of v is order[start[v] .. end[v]). */
+    static void buildIndex() {
+        int[] childStart = new int[posts + 2];
+        for (int id = 1; id <= posts; id++) if (parent[id] > 0) childStart[parent[id] + 1]++;
+        for (int id = 1; id <= posts; id++) childStart[id + 1] += childStart[id];
+        int[] children = new int[Math.max(1, childStart[posts + 1])];
+        int[] fill = Arrays.copyOf(childStart, posts + 1);
+        for (int id = 1; id <= posts; id++) if (parent[id] > 0) children[fill[parent[id]]++] = id;
+
+        order = new int[posts];
+        start = new int[posts + 1];
+        end = new int[posts + 1];
+        int pos = 0;
+        int[] stack = new int[posts], cursor = new int[posts + 1];
+        for (int root : roots) {
+            int sp = 0;
+            stack[sp++] = root;
+            start[root] = pos;
+            order[pos++] = root;
+            cursor[root] = childStart[root];
+            while (sp > 0) {
+                int v = stack[sp - 1];
+                if (cursor[v] < childStart[v + 1]) {
+                    int c = children[cursor[v]++];
+                    start[c] = pos;
+                    order[pos++] = c;
+                    cursor[c] = childStart[c];
+                    stack[sp++] = c;
+                } else {
+                    end[v] = pos;
+                    sp--;
+                }
+            }
+        }
+    }
+
+    static int[] jvmQuery(String query, int id) {
+        switch (query) {
+            case "thread": return Arrays.copyOfRange(order, start[id], end[id]);
+            case "subtree": return Arrays.copyOfRange(order, start[id] + 1, end[id]);
+            default:
+                int[] out = new int[depth[id]];
+                for (int p = parent[id], i = 0; p > 0; p = parent[p]) out[i++] = p;
+                return out;
+        }
+    }
+
+    // ===== DB =====
+
+    static void runDb(List<String[]> rows, String dbName, String driver, String url, String user, String pass,
+                      int d, int f, int[][] targets, int[][] expected) {
+        try { Class.forName(driver); } catch (ClassNotFoundException e) { System.err.println("Driver not found: " + e.getMessage()); return; }
+
+        try (Connection conn = DriverManager.getConnection(url, user, pass);
+             Statement stmt = conn.createStatement()) {
+            try {
+                for (String sql : SETUP_SQL) stmt.execute(sql);
+                long t0 = System.nanoTime();
+                load(conn);
+                try {
+                    stmt.execute(ANCESTRY_INDEX);
+                } catch (SQLException e) {
+                    System.err.printf("%s: text_pattern_ops unavailable, plain btree on ancestry (%s)%n", dbName, e.getMessage().trim());
+                    stmt.execute(ANCESTRY_INDEX_PLAIN);
+                }
+                for (String sql : INDEX_SQL) stmt.execute(sql);
+                System.out.printf("%s: loaded %d posts in %.1f ms%n", dbName, posts, (System.nanoTime() - t0) / 1_000_000.0);
+
+                for (String method : new String[]{"path", "cte"}) {
+                    for (int q = 0; q < QUERIES.length; q++) {
+                        System.out.printf("Running %s %s %s depth=%d fanout=%d%n", dbName, method, QUERIES[q], d, f);
+                        List<Double> lat = new ArrayList<>();
+                        boolean agree = true;
+                        double rowsSum = 0;
+                        for (int i = 0; i < TARGETS; i++) {
+                            int n = 0;
+                            for (int k = 0; k < 1 + DB_RUNS; k++) {
+                                long s = System.nanoTime();
+                                n = dbQuery(conn, method, QUERIES[q], targets[q][i]);
+                                if (k >= 1) lat.add((System.nanoTime() - s) / 1_000_000.0);
+                            }
+                            rowsSum += n;
+                            agree &= n == expected[q][i];
+                        }
+                        rows.add(row(dbName, method, d, f, QUERIES[q], rowsSum / TARGETS, lat, agree));
+                    }
+                }
+            } finally {
+                try { stmt.execute("DROP TABLE IF EXISTS fp_posts"); } catch (SQLException ignore) { }
+            }
+        } catch (SQLException e) {
+            System.err.println(dbName + " run failed: " + e.getMessage());
+        }
+    }
+
+    static void load(Connection conn) throws SQLException {
+        boolean auto = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO fp_posts(topicid, postid, parentid, ancestry, message) VALUES (?, ?, ?, ?, ?)")) {
+            for (int id = 1; id <= posts; id++) {
+                ps.setInt(1, topic[id]);
+                ps.setInt(2, id);
+                if (parent[id] > 0) ps.setInt(3, parent[id]); else ps.setNull(3, Types.INTEGER);
+                ps.setString(4, ancestry[id]);
+                ps.setString(5, "post " + id + " at depth " + depth[id]);
+                ps.addBatch();
+                if (id % BATCH == 0) ps.executeBatch();
+            }
+            ps.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(auto);
+        }
+    }
+
+    /** Rows returned by one query. */
+    static int dbQuery(Connection conn, String method, String query, int id) throws SQLException {
+        if (method.equals("path")) {
+            switch (query) {
+                case "thread": return count(conn, String.format(PATH_THREAD, id, pad(id)));
+                case "subtree": return count(conn, String.format(PATH_SUBTREE, (ancestry[id] == null ? "" : ancestry[id]) + pad(id)));
+                default:
+                    String path;
+                    try (PreparedStatement ps = conn.prepareStatement(PATH_ANCESTRY)) {
+                        ps.setInt(1, id);
+                        try (ResultSet rs = ps.executeQuery()) {
+                            path = rs.next() ? rs.getString(1) : null;
+                        }
+                    }
+                    if (path == null || path.isEmpty()) return 0;
+                    StringBuilder ids = new StringBuilder();
+                    for (int i = 0; i + ID_WIDTH <= path.length(); i += ID_WIDTH) {
+                        if (ids.length() > 0) ids.append(',');
+                        ids.append(Integer.parseInt(path.substring(i, i + ID_WIDTH)));
+                    }
+                    return count(conn, String.format(PATH_ANCESTORS, ids));
+            }
+        }
+        String sql = query.equals("thread") ? CTE_THREAD : query.equals("subtree") ? CTE_SUBTREE : CTE_ANCESTORS;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, id);
+            int n = 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) n++;
+            }
+            return n;
+        }
+    }
+
+    static int count(Connection conn, String sql) throws SQLException {
+        int n = 0;
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) n++;
+        }
+        return n;
+    }
+
+    static String[] row(String engine, String method, int d, int f, String query, double avgRows, List<Double> lat, boolean agree) {
+        double[] a = lat.stream().mapToDouble(x -> x).sorted().toArray();
+        double avg = Arrays.stream(a).average().orElse(0.0);
+        double p99 = a.length == 0 ? 0.0 : a[Math.min(a.length - 1, (int) Math.ceil(0.99 * a.length) - 1)];
+        System.out.printf("%-10s %-5s depth=%-2d fanout=%-2d %-9s rows=%.1f avg=%.4f ms p99=%.4f ms agree=%b%n",
+                engine, method, d, f, query, avgRows, avg, p99, agree);
+        return new String[]{engine, method, Integer.toString(d), Integer.toString(f), Integer.toString(posts), query,
+                String.format("%.1f", avgRows), String.format("%.4f", avg), String.format("%.4f", p99), Boolean.toString(agree)};
+    }
+}
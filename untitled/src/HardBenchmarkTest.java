@@ -1,5 +1,6 @@
 /* HardBenchmarkTest.java
-   Java multi-thread benchmark for QPS / TPS on PostgreSQL and openGauss.
+   Java multi-thread benchmark for QPS / TPS on PostgreSQL, openGauss and the file engine
+   behind FileWireServer (FileWire, same JDBC client path as the databases).
 
    Usage:
      - put JDBC jars on classpath
@@ -8,7 +9,9 @@
      - run:
          java -cp ".:postgresql-42.7.3.jar:opengauss-jdbc.jar" HardBenchmarkTest
 
-   Outputs CSV into result/
+   Outputs CSV into result/ (qps_tps_server_stats.csv: server-side counter deltas per cell with -Dserver.stats=true,
+   NA otherwise, see ServerStats;
+   qps_tps_summary.csv ends with client allocated bytes / CPU per op, see ClientCost)
 */
 
 import java.sql.*;
@@ -22,51 +25,65 @@ public class HardBenchmarkTest {
 
     // === DB configs (change to your credentials) ===
     static final String PG_DRIVER = "org.postgresql.Driver";
-    static final String PG_URL = "jdbc:postgresql://127.0.0.1:5430/postgres";
+    static final String PG_URL = LatencyProxy.wrap("jdbc:postgresql://127.0.0.1:5430/postgres");
     static final String PG_USER = "test";
     static final String PG_PASS = "123456";
 
     static final String OG_DRIVER = "org.opengauss.Driver";
-    static final String OG_URL = "jdbc:opengauss://127.0.0.1:5431/postgres";
+    static final String OG_URL = LatencyProxy.wrap("jdbc:opengauss://127.0.0.1:5431/postgres");
     static final String OG_USER = "gaussdb";
     static final String OG_PASS = "123456Aa@";
 
+    // === file engine behind FileWireServer (PG protocol, started in-process on first use) ===
+    static final String FW_DRIVER = "org.postgresql.Driver";
+    static final String FW_USER = "file";
+    static final String FW_PASS = "file";
+
+    static String fwUrl() { return LatencyProxy.wrap(FileWireServer.sharedUrl()); }
+
     // output
     static final File RESULT_DIR = new File("result");
     static final String SUMMARY_CSV = "result/qps_tps_summary.csv";
     static final String THREADS_CSV = "result/qps_tps_threads.csv";
+    static final String SERVER_STATS_CSV = "result/qps_tps_server_stats.csv"; // ServerStats deltas per cell
 
     // test params (tune)
     static final int[] THREADS = {1, 8, 16, 32};
     static final int OPS_PER_THREAD = 200; // number of ops per thread (reduce for small datasets)
     static final String POINT_SELECT_SQL = "SELECT movieid FROM movies WHERE movieid = ?"; // index-based point select recommended
     static final String SAMPLE_UPDATE_SQL = "UPDATE people SET first_name = first_name WHERE peopleid = ?"; // trivial update to measure tx cost
+    static final String[] POINT_SELECT_TABLES = {"movies"}, SAMPLE_UPDATE_TABLES = {"people"}; // for QueryResultCache.shared(url)
 
     public static void main(String[] args) throws Exception {
         if (!RESULT_DIR.exists()) RESULT_DIR.mkdirs();
 
         List<String[]> summaryRows = new ArrayList<>();
         List<String[]> threadRows  = new ArrayList<>();
+        List<String[]> serverRows  = new ArrayList<>();
 
-        // 1) run for both DBs and both modes
-        String[] dbs = {"PostgreSQL", "openGauss"};
+        // 1) run for both DBs (+ the file engine over the PG protocol) and both modes
+        String[] dbs = {"PostgreSQL", "openGauss", "FileWire"};
         for (String db : dbs) {
             for (int t : THREADS) {
                 System.out.printf("Running %s point_select threads=%d ...%n", db, t);
                 MultiResult mr = runWorkload(db, "point_select", t, OPS_PER_THREAD);
                 summaryRows.add(mr.summaryRow());
                 threadRows.addAll(mr.threadRows);
+                serverRows.add(mr.serverRow());
 
                 System.out.printf("Running %s simple_tx threads=%d ...%n", db, t);
                 mr = runWorkload(db, "simple_tx", t, OPS_PER_THREAD);
                 summaryRows.add(mr.summaryRow());
                 threadRows.addAll(mr.threadRows);
+                serverRows.add(mr.serverRow());
             }
         }
 
         // 2) write CSVs
         writeSummaryCsv(SUMMARY_CSV, summaryRows);
         writeThreadsCsv(THREADS_CSV, threadRows);
+        writeServerStatsCsv(SERVER_STATS_CSV, serverRows);
+        QueryResultCache.printShared(); // -Dcache.results=true only
 
         System.out.println("Done. Results in " + RESULT_DIR.getAbsolutePath());
     }
@@ -80,12 +97,28 @@ public class HardBenchmarkTest {
         double totalMs;
         double qps; // ops/sec
         double avgMs, p95, p99, max;
+        String[] wire = PgWireStats.NA; // per-op protocol traffic (-Dnet.wire=true)
+        String[] cost = ClientCost.NA;  // client allocation / CPU per op
+        int connectErrors; // workers that could not open their connection (e.g. 53300 too many clients)
+        ServerStats.Snapshot serverBefore, serverAfter; // null for FileWire / unreachable servers / without -Dserver.stats
         List<String[]> threadRows = new ArrayList<>();
 
         String[] summaryRow() {
-            return new String[]{db, mode, Integer.toString(threads), Long.toString(totalOps),
+            String[] base = {db, mode, Integer.toString(threads), Long.toString(totalOps),
                     String.format("%.2f", totalMs), String.format("%.2f", qps),
                     String.format("%.3f", avgMs), String.format("%.3f", p95), String.format("%.3f", p99), String.format("%.3f", max)};
+            String[] row = Arrays.copyOf(base, base.length + wire.length + cost.length);
+            System.arraycopy(wire, 0, row, base.length, wire.length);
+            System.arraycopy(cost, 0, row, base.length + wire.length, cost.length);
+            return row;
+        }
+
+        String[] serverRow() {
+            String[] base = {db, mode, Integer.toString(threads), Long.toString(totalOps)};
+            String[] stats = ServerStats.row(serverBefore, serverAfter, totalOps, avgMs * totalOps);
+            String[] row = Arrays.copyOf(base, base.length + stats.length);
+            System.arraycopy(stats, 0, row, base.length, stats.length);
+            return row;
         }
     }
 
@@ -93,6 +126,11 @@ public class HardBenchmarkTest {
     static MultiResult runWorkload(String db, String mode, int threads, int opsPerThread) {
         ExecutorService pool = Executors.newFixedThreadPool(threads);
         List<Future<ThreadStat>> futures = new ArrayList<>();
+        String fw = db.equals("FileWire") ? fwUrl() : null;
+        String wireUrl = fw != null ? fw : db.equals("PostgreSQL") ? PG_URL : OG_URL;
+        ServerStats.Snapshot serverBefore = fw != null || !ServerStats.ENABLED ? null : db.equals("PostgreSQL")
+                ? ServerStats.before(PG_DRIVER, PG_URL, PG_USER, PG_PASS) : ServerStats.before(OG_DRIVER, OG_URL, OG_USER, OG_PASS);
+        PgWireStats.Snapshot wireBefore = PgWireStats.snapshot(wireUrl);
 
         for (int i=0;i<threads;i++) {
             final int threadId = i+1;
@@ -101,6 +139,11 @@ public class HardBenchmarkTest {
                     futures.add(pool.submit(() -> dbPointSelectWorker(threadId, PG_DRIVER, PG_URL, PG_USER, PG_PASS, opsPerThread)));
                 else
                     futures.add(pool.submit(() -> dbSimpleTxWorker(threadId, PG_DRIVER, PG_URL, PG_USER, PG_PASS, opsPerThread)));
+            } else if (fw != null) {
+                if (mode.equals("point_select"))
+                    futures.add(pool.submit(() -> dbPointSelectWorker(threadId, FW_DRIVER, fw, FW_USER, FW_PASS, opsPerThread)));
+                else
+                    futures.add(pool.submit(() -> dbSimpleTxWorker(threadId, FW_DRIVER, fw, FW_USER, FW_PASS, opsPerThread)));
             } else {
                 if (mode.equals("point_select"))
                     futures.add(pool.submit(() -> dbPointSelectWorker(threadId, OG_DRIVER, OG_URL, OG_USER, OG_PASS, opsPerThread)));
@@ -129,6 +172,7 @@ public class HardBenchmarkTest {
         for (ThreadStat ts: stats) {
             weightedSum += ts.avgMs * ts.ops;
             totalOps += ts.ops;
+            if (ts.connectFailed) mr.connectErrors++;
             if (ts.maxMs > globalMax) globalMax = ts.maxMs;
             p95s.add(ts.p95);
             p99s.add(ts.p99);
@@ -142,6 +186,15 @@ public class HardBenchmarkTest {
         mr.p95 = p95s.stream().mapToDouble(d->d).max().orElse(0.0);
         mr.p99 = p99s.stream().mapToDouble(d->d).max().orElse(0.0);
         mr.max = globalMax;
+        mr.wire = PgWireStats.perOp(wireBefore, PgWireStats.snapshot(wireUrl), mr.totalOps);
+        List<ClientCost.Sample> costs = new ArrayList<>();
+        for (ThreadStat ts : stats) costs.add(ts.cost);
+        mr.cost = ClientCost.perOp(costs);
+        mr.serverBefore = serverBefore;
+        if (serverBefore != null) {
+            mr.serverAfter = db.equals("PostgreSQL")
+                    ? ServerStats.after(PG_DRIVER, PG_URL, PG_USER, PG_PASS) : ServerStats.after(OG_DRIVER, OG_URL, OG_USER, OG_PASS);
+        }
 
         System.out.printf("Summary %s %s threads=%d ops=%d totalMs=%.2f qps=%.2f avgMs=%.3f p95≈%.3f p99≈%.3f max=%.3f%n",
                 db, mode, threads, mr.totalOps, mr.totalMs, mr.qps, mr.avgMs, mr.p95, mr.p99, mr.max);
@@ -158,6 +211,8 @@ public class HardBenchmarkTest {
         double p95;
         double p99;
         double maxMs;
+        ClientCost.Sample cost; // around the measured loop
+        boolean connectFailed;
     }
 
     // db point select worker: uses POINT_SELECT_SQL with random id
@@ -170,23 +225,31 @@ public class HardBenchmarkTest {
         try (Connection conn = DriverManager.getConnection(url,user,pass);
              PreparedStatement ps = conn.prepareStatement(POINT_SELECT_SQL)) {
             Random rnd = new Random();
+            QueryResultCache cache = QueryResultCache.shared(url);
+            ClientCost.Sample c0 = ClientCost.start();
             long t0 = System.nanoTime();
             for (int i=0;i<ops;i++) {
                 int id = Math.max(1, rnd.nextInt(10000)); // adjust ID range to your dataset
-                ps.setInt(1, id);
+                if (cache == null) ps.setInt(1, id); // the cache binds only on a miss
                 long s = System.nanoTime();
-                try (ResultSet rs = ps.executeQuery()) {
-                    while(rs.next()){}
-                } catch (SQLException ee){ System.err.println("Query error: "+ee.getMessage()); }
+                if (cache != null) { // -Dcache.results=true: read through the shared cache
+                    try { cache.query(ps, POINT_SELECT_SQL, POINT_SELECT_TABLES, id); }
+                    catch (SQLException ee){ System.err.println("Query error: "+ee.getMessage()); }
+                } else {
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while(rs.next()){}
+                    } catch (SQLException ee){ System.err.println("Query error: "+ee.getMessage()); }
+                }
                 long e = System.nanoTime();
                 double ms = (e-s)/1_000_000.0;
                 lat.add(ms);
                 ts.ops++;
             }
             long t1 = System.nanoTime();
+            ts.cost = ClientCost.since(c0, ts.ops);
             ts.totalMs = (t1-t0)/1_000_000.0;
             computeStats(ts, lat);
-        } catch (SQLException e) { System.err.println("DB worker error: "+e.getMessage()); }
+        } catch (SQLException e) { System.err.println("DB worker error: "+e.getMessage()); ts.connectFailed = true; }
         return ts;
     }
 
@@ -199,6 +262,8 @@ public class HardBenchmarkTest {
              PreparedStatement ps = conn.prepareStatement(SAMPLE_UPDATE_SQL)) {
             conn.setAutoCommit(false);
             Random rnd = new Random();
+            QueryResultCache cache = QueryResultCache.shared(url);
+            ClientCost.Sample c0 = ClientCost.start();
             long t0 = System.nanoTime();
             for (int i=0;i<ops;i++) {
                 int id = Math.max(1, rnd.nextInt(10000));
@@ -207,6 +272,7 @@ public class HardBenchmarkTest {
                 try {
                     ps.executeUpdate();
                     conn.commit();
+                    if (cache != null) cache.invalidate(SAMPLE_UPDATE_TABLES);
                 } catch (SQLException ee) {
                     System.err.println("Tx error: "+ee.getMessage());
                     try { conn.rollback(); } catch(SQLException ex){ }
@@ -217,9 +283,10 @@ public class HardBenchmarkTest {
                 ts.ops++;
             }
             long t1 = System.nanoTime();
+            ts.cost = ClientCost.since(c0, ts.ops);
             ts.totalMs = (t1-t0)/1_000_000.0;
             computeStats(ts, lat);
-        } catch (SQLException e) { System.err.println("DB tx worker error: "+e.getMessage()); }
+        } catch (SQLException e) { System.err.println("DB tx worker error: "+e.getMessage()); ts.connectFailed = true; }
         return ts;
     }
 
@@ -243,14 +310,20 @@ public class HardBenchmarkTest {
     // CSV writers
     static void writeSummaryCsv(String file, List<String[]> rows) {
         try (PrintWriter pw=new PrintWriter(new FileWriter(file))) {
-            pw.println("DBMS,Mode,Threads,TotalOps,TotalTime_ms,QPS,Avg_ms,P95_ms,P99_ms,Max_ms");
-            for (String[] r: rows) {
-                pw.printf("%s,%s,%s,%s,%s,%s,%s,%s,%s,%s%n", r[0],r[1],r[2],r[3],r[4],r[5],r[6],r[7],r[8],r[9]);
-            }
+            pw.println("DBMS,Mode,Threads,TotalOps,TotalTime_ms,QPS,Avg_ms,P95_ms,P99_ms,Max_ms," + PgWireStats.CSV_HEADER + "," + ClientCost.CSV_HEADER);
+            for (String[] r: rows) pw.println(String.join(",", r));
             System.out.println("Saved summary CSV: "+file);
         } catch (IOException e){ System.err.println("CSV write error: "+e.getMessage()); }
     }
 
+    static void writeServerStatsCsv(String file, List<String[]> rows) {
+        try (PrintWriter pw=new PrintWriter(new FileWriter(file))) {
+            pw.println("DBMS,Mode,Threads,TotalOps," + ServerStats.CSV_HEADER);
+            for (String[] r: rows) pw.println(String.join(",", r));
+            System.out.println("Saved server stats CSV: "+file);
+        } catch (IOException e){ System.err.println("CSV write error: "+e.getMessage()); }
+    }
+
     static void writeThreadsCsv(String file, List<String[]> rows) {
         try (PrintWriter pw=new PrintWriter(new FileWriter(file))) {
             pw.println("DBMS,Mode,Threads,ThreadId,Ops,TotalMs,AvgMs,P95ms,P99ms,MaxMs");
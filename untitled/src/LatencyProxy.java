@@ -0,0 +1,387 @@
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.*;
+
+/**
+ * LatencyProxy
+ *
+ * Embedded TCP proxy that puts an emulated network between a JDBC client and a local DB:
+ *   delayMs       -> one-way delay added in each direction (RTT = 2 x delayMs)
+ *   jitterMs      -> uniform +/- jitter on top of the delay (never reorders bytes)
+ *   bandwidthMbps -> per-direction link rate in megabits/s; 0 = unlimited
+ *   packetBytes   -> reads are cut into segments of at most this size, each delivered on its own
+ *                    (serialization delay per segment); 0 = forward whole reads
+ * One NIO selector thread serves every connection; segments wait in per-direction queues until due.
+ *
+ * Any workload can run through it without code changes: URLs built with LatencyProxy.wrap(url) are
+ * rewritten to a shared proxy when -Dnet.delayMs / -Dnet.jitterMs / -Dnet.bandwidthMbps / -Dnet.packetBytes
+ * is set, and left alone otherwise. e.g.
+ *   java -Dnet.delayMs=2 -cp ... HardBenchmarkTest
+ *
+ * With -Dnet.wire=true each connection's PostgreSQL v3 messages are also counted (PgWireStats).
+ *
+ * Standalone:
+ *   java LatencyProxy <listenPort> <host:port> [delayMs] [jitterMs] [bandwidthMbps] [packetBytes]
+ */
+public class LatencyProxy implements Closeable {
+
+    static final int READ_BUFFER = 64 * 1024;
+    static final long MAX_QUEUED_BYTES = 4L << 20; // per direction; reading pauses above this
+
+    /** Emulated link parameters. */
+    public static class Config {
+        double delayMs;
+        double jitterMs;
+        double bandwidthMbps;
+        int packetBytes;
+        boolean wire;         // PgWireStats accounting
+
+        public Config(double delayMs, double jitterMs, double bandwidthMbps, int packetBytes) {
+            this(delayMs, jitterMs, bandwidthMbps, packetBytes, false);
+        }
+
+        public Config(double delayMs, double jitterMs, double bandwidthMbps, int packetBytes, boolean wire) {
+            this.delayMs = delayMs;
+            this.jitterMs = jitterMs;
+            this.bandwidthMbps = bandwidthMbps;
+            this.packetBytes = packetBytes;
+            this.wire = wire;
+        }
+
+        /** Config from -Dnet.* properties, or null when none is set. */
+        public static Config fromSystemProperties() {
+            String d = System.getProperty("net.delayMs"), j = System.getProperty("net.jitterMs");
+            String b = System.getProperty("net.bandwidthMbps"), p = System.getProperty("net.packetBytes");
+            boolean w = Boolean.getBoolean("net.wire");
+            if (d == null && j == null && b == null && p == null && !w) return null;
+            return new Config(d == null ? 0 : Double.parseDouble(d), j == null ? 0 : Double.parseDouble(j),
+                    b == null ? 0 : Double.parseDouble(b), p == null ? 0 : Integer.parseInt(p), w);
+        }
+
+        @Override public String toString() {
+            return String.format("delay=%.3fms jitter=%.3fms bandwidth=%s packet=%s wire=%s", delayMs, jitterMs,
+                    bandwidthMbps > 0 ? bandwidthMbps + "Mbps" : "unlimited", packetBytes > 0 ? packetBytes + "B" : "whole-read", wire);
+        }
+    }
+
+    static final class Segment {
+        final long due;        // System.nanoTime() at which it may be written
+        final ByteBuffer data; // null = end of stream
+
+        Segment(long due, ByteBuffer data) {
+            this.due = due;
+            this.data = data;
+        }
+    }
+
+    /** One direction of a connection: bytes read from src wait in queue, then go to dst. */
+    final class Direction {
+        final SocketChannel src, dst;
+        final ArrayDeque<Segment> queue = new ArrayDeque<>();
+        final AtomicLong bytes;
+        long queuedBytes;
+        long linkFree;      // when the emulated link has serialized everything queued so far
+        long lastDue;
+        boolean reading = true;
+        boolean eof;        // src reached end of stream
+        boolean blocked;    // dst did not take a whole segment
+        boolean shutdown;   // end of stream forwarded
+
+        Direction(SocketChannel src, SocketChannel dst, AtomicLong bytes) {
+            this.src = src;
+            this.dst = dst;
+            this.bytes = bytes;
+        }
+
+        void enqueue(ByteBuffer data, long now) {
+            int len = data == null ? 0 : data.remaining();
+            if (bandwidthBytesPerNs > 0) {
+                linkFree = Math.max(now, linkFree) + (long) (len / bandwidthBytesPerNs);
+            } else {
+                linkFree = now;
+            }
+            long jitter = jitterNs > 0 ? (long) ((random.nextDouble() * 2 - 1) * jitterNs) : 0;
+            long due = Math.max(linkFree + Math.max(0, delayNs + jitter), lastDue); // never reorder
+            lastDue = due;
+            queue.addLast(new Segment(due, data));
+            queuedBytes += len;
+            bytes.addAndGet(len);
+        }
+
+        /** Writes every due segment; returns the next due time, or Long.MAX_VALUE if none is waiting. */
+        long flush(long now) throws IOException {
+            while (!queue.isEmpty()) {
+                Segment s = queue.peekFirst();
+                if (s.due > now) return s.due;
+                if (s.data == null) {
+                    dst.shutdownOutput();
+                    shutdown = true;
+                    queue.pollFirst();
+                    continue;
+                }
+                dst.write(s.data);
+                if (s.data.hasRemaining()) { blocked = true; return Long.MAX_VALUE; }
+                blocked = false;
+                queuedBytes -= s.data.limit();
+                queue.pollFirst();
+            }
+            blocked = false;
+            return Long.MAX_VALUE;
+        }
+    }
+
+    final class Conn {
+        final SocketChannel client, server;
+        final Direction up, down;
+        SelectionKey clientKey, serverKey;
+        boolean connected;
+        final PgWireStats.Parser parser; // null when wire accounting is off
+
+        Conn(SocketChannel client, SocketChannel server) {
+            this.client = client;
+            this.server = server;
+            this.parser = wire != null ? wire.newConnection() : null;
+            this.up = new Direction(client, server, bytesUp);
+            this.down = new Direction(server, client, bytesDown);
+        }
+
+        void updateInterest() {
+            if (!connected || !client.isOpen() || !server.isOpen()) return;
+            clientKey.interestOps((up.reading ? SelectionKey.OP_READ : 0) | (down.blocked ? SelectionKey.OP_WRITE : 0));
+            serverKey.interestOps((down.reading ? SelectionKey.OP_READ : 0) | (up.blocked ? SelectionKey.OP_WRITE : 0));
+        }
+
+        void close() {
+            try { client.close(); } catch (IOException ignore) { }
+            try { server.close(); } catch (IOException ignore) { }
+            conns.remove(this);
+        }
+    }
+
+    final InetSocketAddress upstream;
+    final Config config;
+    final long delayNs, jitterNs;
+    final double bandwidthBytesPerNs;
+    final Random random = new Random();
+    final PgWireStats wire;
+    final ServerSocketChannel listener;
+    final Selector selector;
+    final Set<Conn> conns = new HashSet<>(); // loop thread only
+    final Thread loop;
+    final ByteBuffer readBuf = ByteBuffer.allocateDirect(READ_BUFFER);
+    volatile boolean closed;
+
+    final AtomicLong bytesUp = new AtomicLong();
+    final AtomicLong bytesDown = new AtomicLong();
+    final AtomicLong connections = new AtomicLong();
+
+    /** Listens on 127.0.0.1:listenPort (0 = any free port) and forwards to host:port. */
+    public LatencyProxy(int listenPort, String host, int port, Config config) throws IOException {
+        this.upstream = new InetSocketAddress(host, port);
+        this.config = config;
+        this.delayNs = (long) (config.delayMs * 1_000_000);
+        this.jitterNs = (long) (config.jitterMs * 1_000_000);
+        this.bandwidthBytesPerNs = config.bandwidthMbps > 0 ? config.bandwidthMbps * 1_000_000 / 8 / 1e9 : 0;
+        this.wire = config.wire ? new PgWireStats() : null;
+        this.selector = Selector.open();
+        this.listener = ServerSocketChannel.open();
+        listener.bind(new InetSocketAddress("127.0.0.1", listenPort));
+        listener.configureBlocking(false);
+        listener.register(selector, SelectionKey.OP_ACCEPT);
+        this.loop = new Thread(this::run, "latency-proxy-" + port);
+        loop.setDaemon(true);
+        loop.start();
+    }
+
+    public int port() { return listener.socket().getLocalPort(); }
+
+    public long bytesUp() { return bytesUp.get(); }
+
+    public long bytesDown() { return bytesDown.get(); }
+
+    public long connections() { return connections.get(); }
+
+    /** Protocol accounting of this proxy, or null when Config.wire is off. */
+    public PgWireStats wireStats() { return wire; }
+
+    /** url with its host:port replaced by this proxy's address. */
+    public String jdbcUrl(String url) {
+        return HOST_PORT.matcher(url).replaceFirst("//127.0.0.1:" + port() + "/");
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+        try { loop.join(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    }
+
+    // ======================== shared proxies for -Dnet.* ========================
+
+    static final Pattern HOST_PORT = Pattern.compile("//([^/:]+):(\\d+)/");
+    static final Map<String, LatencyProxy> SHARED = new ConcurrentHashMap<>();
+
+    /** Routes url through a shared proxy when -Dnet.* is set; returns url unchanged otherwise. */
+    public static String wrap(String url) {
+        Config cfg = Config.fromSystemProperties();
+        if (cfg == null) return url;
+        Matcher m = HOST_PORT.matcher(url);
+        if (!m.find()) return url;
+        String host = m.group(1);
+        int port = Integer.parseInt(m.group(2));
+        LatencyProxy proxy = SHARED.computeIfAbsent(host + ":" + port, k -> {
+            try {
+                LatencyProxy p = new LatencyProxy(0, host, port, cfg);
+                System.out.printf("LatencyProxy: %s:%d via 127.0.0.1:%d (%s)%n", host, port, p.port(), cfg);
+                return p;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return proxy.jdbcUrl(url);
+    }
+
+    /** PgWireStats of the shared proxy a wrap()ped url points at; null if there is none or accounting is off. */
+    public static PgWireStats wireStats(String url) {
+        Matcher m = HOST_PORT.matcher(url);
+        if (!m.find()) return null;
+        int port = Integer.parseInt(m.group(2));
+        for (LatencyProxy p : SHARED.values()) if (p.port() == port) return p.wire;
+        return null;
+    }
+
+    // ======================== event loop ========================
+
+    void run() {
+        try {
+            while (!closed) {
+                long now = System.nanoTime();
+                long next = Long.MAX_VALUE;
+                for (Conn c : new ArrayList<>(conns)) next = Math.min(next, flush(c, now));
+
+                long wait = next == Long.MAX_VALUE ? -1 : next - now;
+                if (wait < 0 && next != Long.MAX_VALUE) wait = 0;
+                if (wait == -1) {
+                    selector.select();
+                } else if (wait < 2_000_000) {
+                    // select(timeout) has millisecond granularity; sub-ms delays need finer sleeps
+                    if (selector.selectNow() == 0 && wait > 0) LockSupport.parkNanos(Math.min(wait, 200_000));
+                } else {
+                    selector.select(wait / 1_000_000 - 1);
+                }
+
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) { accept(); continue; }
+                    Conn c = (Conn) key.attachment();
+                    try {
+                        if (key.isConnectable()) connected(c);
+                        else {
+                            if (key.isReadable()) read(c, key.channel() == c.client ? c.up : c.down);
+                            if (key.isValid() && key.isWritable()) flush(c, System.nanoTime());
+                        }
+                    } catch (IOException e) {
+                        c.close();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("LatencyProxy stopped: " + e.getMessage());
+        } finally {
+            for (Conn c : new ArrayList<>(conns)) c.close();
+            try { listener.close(); } catch (IOException ignore) { }
+            try { selector.close(); } catch (IOException ignore) { }
+        }
+    }
+
+    void accept() throws IOException {
+        SocketChannel client = listener.accept();
+        if (client == null) return;
+        SocketChannel server = SocketChannel.open();
+        try {
+            client.configureBlocking(false);
+            client.socket().setTcpNoDelay(true);
+            server.configureBlocking(false);
+            server.socket().setTcpNoDelay(true);
+            Conn c = new Conn(client, server);
+            c.clientKey = client.register(selector, 0, c); // starts reading once upstream is connected
+            c.serverKey = server.register(selector, SelectionKey.OP_CONNECT, c);
+            conns.add(c);
+            connections.incrementAndGet();
+            if (server.connect(upstream)) connected(c);
+        } catch (IOException e) {
+            client.close();
+            server.close();
+        }
+    }
+
+    void connected(Conn c) throws IOException {
+        if (!c.server.finishConnect()) return;
+        c.connected = true;
+        c.updateInterest();
+    }
+
+    void read(Conn c, Direction d) throws IOException {
+        readBuf.clear();
+        int n = d.src.read(readBuf);
+        long now = System.nanoTime();
+        if (n < 0) {
+            d.reading = false;
+            d.eof = true;
+            d.enqueue(null, now);
+        } else if (n > 0) {
+            readBuf.flip();
+            if (c.parser != null) c.parser.feed(readBuf, d == c.up); // passive: reads only, bytes are unchanged
+            int seg = config.packetBytes > 0 ? config.packetBytes : n;
+            while (readBuf.hasRemaining()) {
+                int len = Math.min(seg, readBuf.remaining());
+                ByteBuffer b = ByteBuffer.allocate(len);
+                int lim = readBuf.limit();
+                readBuf.limit(readBuf.position() + len);
+                b.put(readBuf).flip();
+                readBuf.limit(lim);
+                d.enqueue(b, now);
+            }
+            if (d.queuedBytes > MAX_QUEUED_BYTES) d.reading = false; // backpressure
+        }
+        flush(c, now);
+    }
+
+    // flushes both directions of c; returns its next due time
+    long flush(Conn c, long now) {
+        try {
+            long next = Math.min(c.up.flush(now), c.down.flush(now));
+            for (Direction d : new Direction[]{c.up, c.down}) {
+                if (!d.reading && !d.eof && d.queuedBytes < MAX_QUEUED_BYTES / 2) d.reading = true; // resume after backpressure
+            }
+            if (c.up.shutdown && c.down.shutdown) { c.close(); return Long.MAX_VALUE; }
+            c.updateInterest();
+            return next;
+        } catch (IOException | CancelledKeyException e) {
+            c.close();
+            return Long.MAX_VALUE;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: java LatencyProxy <listenPort> <host:port> [delayMs] [jitterMs] [bandwidthMbps] [packetBytes]");
+            return;
+        }
+        String[] hp = args[1].split(":");
+        Config cfg = new Config(args.length > 2 ? Double.parseDouble(args[2]) : 0, args.length > 3 ? Double.parseDouble(args[3]) : 0,
+                args.length > 4 ? Double.parseDouble(args[4]) : 0, args.length > 5 ? Integer.parseInt(args[5]) : 0);
+        LatencyProxy p = new LatencyProxy(Integer.parseInt(args[0]), hp[0], Integer.parseInt(hp[1]), cfg);
+        System.out.printf("LatencyProxy listening on 127.0.0.1:%d -> %s (%s)%n", p.port(), args[1], cfg);
+        p.loop.join();
+    }
+}
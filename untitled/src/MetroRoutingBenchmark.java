@@ -0,0 +1,539 @@
+import java.sql.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * MetroRoutingBenchmark
+ *
+ * Station-to-station routing on SQL/shenzhen_metro.sql (stations + line_detail; num orders the stations of a line):
+ *   stops      -> fewest stops between two stations
+ *   transfers  -> fewest line changes between two stations
+ * answered by:
+ *   DB  sql        -> WITH RECURSIVE over line_detail; stops keeps (station, stops) rows up to the station count,
+ *                     transfers walks (station, line, transfers) states up to lineCount - 1 transfers (a fewest-transfer
+ *                     route never rides a line twice); UNION alone cannot stop it, since changing line back and forth
+ *                     keeps producing new (station, line, transfers) rows
+ *   JVM dijkstra   -> in-memory graph parsed from the same .sql file; stations for stops,
+ *                     (station, line) states with cost transfers * STOP_WEIGHT + stops for transfers
+ *   JVM astar      -> stops only, heuristic = great-circle distance / longest hop between adjacent stations
+ *   JVM all_pairs  -> int[n][n] tables precomputed by one search per source, O(1) lookup
+ * The schema is loaded into a DB from the .sql file when line_detail is missing or empty.
+ * Throughput: THREADS request threads, each with its own connection (DB) or the shared read-only graph (JVM).
+ *
+ * Outputs:
+ *   result/metro_routing.csv            -> per (engine, method, query): pairs, avg/p99 latency, agreement with dijkstra
+ *   result/metro_routing_throughput.csv -> per (engine, method, query, threads): requests, total ms, routes/s,
+ *                                          client allocated bytes / CPU µs per route (ClientCost)
+ *   result/metro_routing_precompute.csv -> graph / all-pairs build time and bytes
+ */
+public class MetroRoutingBenchmark {
+
+    // === DB configs (change to your credentials) ===
+    static final String PG_DRIVER = "org.postgresql.Driver";
+    static final String PG_URL = LatencyProxy.wrap("jdbc:postgresql://127.0.0.1:5430/postgres");
+    static final String PG_USER = "test";
+    static final String PG_PASS = "123456";
+
+    static final String OG_DRIVER = "org.opengauss.Driver";
+    static final String OG_URL = LatencyProxy.wrap("jdbc:opengauss://127.0.0.1:5431/postgres");
+    static final String OG_USER = "gaussdb";
+    static final String OG_PASS = "123456Aa@";
+
+    static final String METRO_SQL = "SQL/shenzhen_metro.sql";
+    static final File RESULT_DIR = new File("result");
+    static final String RESULT_CSV = "result/metro_routing.csv";
+    static final String THROUGHPUT_CSV = "result/metro_routing_throughput.csv";
+    static final String PRECOMPUTE_CSV = "result/metro_routing_precompute.csv";
+
+    static final int PAIRS = 50;
+    static final long SEED = 42;
+    static final int WARMUP_RUNS = 3;
+    static final int RUNS = 30;
+    static final int DB_RUNS = 3;
+    static final int[] THREADS = {1, 4, 16};
+    static final int JVM_REQUESTS_PER_THREAD = 5000;
+    static final int DB_REQUESTS_PER_THREAD = 50;
+    static final int STOP_WEIGHT = 1000; // one transfer outweighs any number of stops
+
+    static final String[] QUERIES = {"stops", "transfers"};
+    static final String STOPS_SQL = "WITH RECURSIVE adj(s, t) AS ("
+            + "SELECT a.station_id, b.station_id FROM line_detail a JOIN line_detail b ON b.line_id = a.line_id AND b.num = a.num + 1 "
+            + "UNION ALL SELECT b.station_id, a.station_id FROM line_detail a JOIN line_detail b ON b.line_id = a.line_id AND b.num = a.num + 1), "
+            + "bfs(station_id, stops) AS (SELECT CAST(? AS int), 0 "
+            + "UNION SELECT adj.t, bfs.stops + 1 FROM bfs JOIN adj ON adj.s = bfs.station_id WHERE bfs.stops < ?) "
+            + "SELECT MIN(stops) FROM bfs WHERE station_id = ?";
+    static final String TRANSFERS_SQL = "WITH RECURSIVE moves(s, l, t, tl, cost) AS ("
+            + "SELECT a.station_id, a.line_id, b.station_id, b.line_id, 0 FROM line_detail a JOIN line_detail b "
+            + "ON b.line_id = a.line_id AND (b.num = a.num + 1 OR b.num = a.num - 1) "
+            + "UNION ALL SELECT a.station_id, a.line_id, b.station_id, b.line_id, 1 FROM line_detail a JOIN line_detail b "
+            + "ON b.station_id = a.station_id AND b.line_id <> a.line_id), "
+            + "paths(station_id, line_id, transfers) AS (SELECT station_id, line_id, 0 FROM line_detail WHERE station_id = ? "
+            + "UNION SELECT m.t, m.tl, p.transfers + m.cost FROM paths p JOIN moves m ON m.s = p.station_id AND m.l = p.line_id "
+            + "WHERE p.transfers + m.cost <= ?) "
+            + "SELECT MIN(transfers) FROM paths WHERE station_id = ?";
+
+    // ===== in-memory graph =====
+    static int n;                          // stations served by at least one line
+    static int[] stationId;                // node -> station_id
+    static Map<Integer, Integer> nodeOf = new HashMap<>();
+    static double[] lat, lon;
+    static int[][] neighbours;             // node -> adjacent nodes on any line
+    static int[] stateNode, stateLine;     // (station, line) state -> node / line_id
+    static int[][] stateRide, stateSwitch; // state -> states one stop away on the same line / same station other line
+    static int[][] statesAt;               // node -> its states
+    static double maxHopKm;
+    static int lineCount;                  // lines in line_detail; bounds the transfers recursion
+    static int[][] allStops, allTransfers;
+
+    public static void main(String[] args) throws Exception {
+        if (!RESULT_DIR.exists()) RESULT_DIR.mkdirs();
+        List<String[]> rows = new ArrayList<>();
+        List<String[]> tputRows = new ArrayList<>();
+        List<String[]> preRows = new ArrayList<>();
+
+        long t0 = System.nanoTime();
+        loadGraph(METRO_SQL);
+        double graphMs = (System.nanoTime() - t0) / 1_000_000.0;
+        long graphBytes = 0;
+        for (int[] a : neighbours) graphBytes += 4L * a.length;
+        for (int[] a : stateRide) graphBytes += 4L * a.length;
+        for (int[] a : stateSwitch) graphBytes += 4L * a.length;
+        graphBytes += 8L * 2 * n + 4L * (n + 2 * stateNode.length);
+        preRows.add(new String[]{"graph", String.format("%.1f", graphMs), Long.toString(graphBytes)});
+        System.out.printf("Graph: %d stations, %d lines, %d (station, line) states, longest hop %.2f km, built in %.1f ms%n",
+                n, lineCount, stateNode.length, maxHopKm, graphMs);
+
+        t0 = System.nanoTime();
+        allStops = new int[n][];
+        allTransfers = new int[n][];
+        for (int s = 0; s < n; s++) {
+            allStops[s] = stopsFrom(s);
+            allTransfers[s] = transfersFrom(s);
+        }
+        double allMs = (System.nanoTime() - t0) / 1_000_000.0;
+        preRows.add(new String[]{"all_pairs", String.format("%.1f", allMs), Long.toString(2L * 4 * n * n)});
+        System.out.printf("All-pairs tables: %.1f ms, %d bytes%n", allMs, 2L * 4 * n * n);
+
+        Random rnd = new Random(SEED);
+        int[][] pairs = new int[PAIRS][];
+        for (int i = 0; i < PAIRS; i++) {
+            int a = rnd.nextInt(n), b;
+            do { b = rnd.nextInt(n); } while (b == a);
+            pairs[i] = new int[]{a, b};
+        }
+        int[][] reference = new int[QUERIES.length][PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            reference[0][i] = dijkstraStops(pairs[i][0], pairs[i][1]);
+            reference[1][i] = dijkstraTransfers(pairs[i][0], pairs[i][1]);
+        }
+
+        // ===== JVM =====
+        String[][] jvmMethods = {{"dijkstra", "astar", "all_pairs"}, {"dijkstra", "all_pairs"}};
+        for (int q = 0; q < QUERIES.length; q++) {
+            for (String method : jvmMethods[q]) {
+                List<Double> lat = new ArrayList<>();
+                boolean agree = true;
+                for (int i = 0; i < PAIRS; i++) {
+                    int r = 0;
+                    for (int k = 0; k < WARMUP_RUNS + RUNS; k++) {
+                        long s = System.nanoTime();
+                        r = route(QUERIES[q], method, pairs[i][0], pairs[i][1]);
+                        if (k >= WARMUP_RUNS) lat.add((System.nanoTime() - s) / 1_000_000.0);
+                    }
+                    agree &= r == reference[q][i];
+                }
+                rows.add(row("JVM", method, QUERIES[q], lat, agree));
+                for (int threads : THREADS) {
+                    final String query = QUERIES[q], m = method;
+                    tputRows.add(throughput("JVM", method, query, threads, JVM_REQUESTS_PER_THREAD, pairs,
+                            () -> (s, t) -> route(query, m, s, t)));
+                }
+            }
+        }
+
+        // ===== DB =====
+        runDb(rows, tputRows, "PostgreSQL", PG_DRIVER, PG_URL, PG_USER, PG_PASS, pairs, reference);
+        runDb(rows, tputRows, "openGauss", OG_DRIVER, OG_URL, OG_USER, OG_PASS, pairs, reference);
+
+        writeCsv(RESULT_CSV, "Engine,Method,Query,Pairs,Avg_ms,P99_ms,Agree", rows);
+        writeCsv(THROUGHPUT_CSV, "Engine,Method,Query,Threads,Requests,Total_ms,Routes_per_s," + ClientCost.CSV_HEADER, tputRows);
+        writeCsv(PRECOMPUTE_CSV, "Structure,Build_ms,Bytes", preRows);
+    }
+
+    static void writeCsv(String path, String header, List<String[]> rows) {
+        try (PrintWriter pw = new PrintWriter(new FileWriter(path))) {
+            pw.println(header);
+            for (String[] r : rows) pw.println(String.join(",", r));
+            System.out.println("Saved CSV: " + path);
+        } catch (IOException e) {
+            System.err.println("CSV write failed: " + e.getMessage());
+        }
+    }
+
+    static void runDb(List<String[]> rows, List<String[]> tputRows, String dbName, String driver, String url, String user, String pass,
+                      int[][] pairs, int[][] reference) {
+        try { Class.forName(driver); } catch (ClassNotFoundException e) { System.err.println("Driver not found: " + e.getMessage()); return; }
+
+        try (Connection conn = DriverManager.getConnection(url, user, pass)) {
+            ensureSchema(conn, dbName);
+            for (int q = 0; q < QUERIES.length; q++) {
+                String query = QUERIES[q];
+                System.out.printf("Running %s %s%n", dbName, query);
+                List<Double> lat = new ArrayList<>();
+                boolean agree = true;
+                try (PreparedStatement ps = conn.prepareStatement(query.equals("stops") ? STOPS_SQL : TRANSFERS_SQL)) {
+                    for (int i = 0; i < PAIRS; i++) {
+                        int r = 0;
+                        for (int k = 0; k < 1 + DB_RUNS; k++) {
+                            long s = System.nanoTime();
+                            r = sqlRoute(ps, query, pairs[i][0], pairs[i][1]);
+                            if (k >= 1) lat.add((System.nanoTime() - s) / 1_000_000.0);
+                        }
+                        agree &= r == reference[q][i];
+                    }
+                }
+                rows.add(row(dbName, "sql", query, lat, agree));
+
+                for (int threads : THREADS) {
+                    tputRows.add(throughput(dbName, "sql", query, threads, DB_REQUESTS_PER_THREAD, pairs, () -> {
+                        Connection c = DriverManager.getConnection(url, user, pass);
+                        try {
+                            PreparedStatement ps = c.prepareStatement(query.equals("stops") ? STOPS_SQL : TRANSFERS_SQL);
+                            return new Router() {
+                                public int route(int s, int t) throws SQLException { return sqlRoute(ps, query, s, t); }
+                                public void close() throws SQLException { ps.close(); c.close(); }
+                            };
+                        } catch (SQLException e) {
+                            c.close(); // prepare failed: do not leak the connection
+                            throw e;
+                        }
+                    }));
+                }
+            }
+        } catch (SQLException | IOException e) {
+            System.err.println(dbName + " run failed: " + e.getMessage());
+        }
+    }
+
+    static int sqlRoute(PreparedStatement ps, String query, int s, int t) throws SQLException {
+        ps.setInt(1, stationId[s]);
+        ps.setInt(2, query.equals("stops") ? n : Math.max(0, lineCount - 1));
+        ps.setInt(3, stationId[t]);
+        try (ResultSet rs = ps.executeQuery()) {
+            int r = rs.next() ? rs.getInt(1) : -1;
+            return rs.wasNull() ? -1 : r;
+        }
+    }
+
+    /** Runs SQL/shenzhen_metro.sql statement by statement unless line_detail already has rows. */
+    static void ensureSchema(Connection conn, String dbName) throws SQLException, IOException {
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM line_detail")) {
+            if (rs.next() && rs.getLong(1) > 0) return;
+        } catch (SQLException e) {
+            // not loaded yet
+        }
+        long t0 = System.nanoTime();
+        boolean auto = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        int count = 0;
+        try (Statement st = conn.createStatement()) {
+            StringBuilder sb = new StringBuilder();
+            for (String line : Files.readAllLines(Paths.get(METRO_SQL), StandardCharsets.UTF_8)) {
+                sb.append(line).append('\n');
+                if (line.trim().endsWith(";")) {
+                    String sql = sb.toString().trim();
+                    sb.setLength(0);
+                    st.execute(sql.substring(0, sql.length() - 1));
+                    count++;
+                }
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(auto);
+        }
+        System.out.printf("%s: loaded %s (%d statements) in %.1f ms%n", dbName, METRO_SQL, count, (System.nanoTime() - t0) / 1_000_000.0);
+    }
+
+    // ===== throughput =====
+
+    interface Router extends AutoCloseable {
+        int route(int s, int t) throws Exception;
+        default void close() throws SQLException { }
+    }
+
+    interface RouterFactory {
+        Router open() throws Exception;
+    }
+
+    static String[] throughput(String engine, String method, String query, int threads, int perThread, int[][] pairs, RouterFactory factory) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(threads), start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        ClientCost.Total cost = new ClientCost.Total();
+        for (int i = 0; i < threads; i++) {
+            final int threadId = i;
+            futures.add(pool.submit(() -> {
+                try (Router r = factory.open()) {
+                    ready.countDown();
+                    start.await();
+                    ClientCost.Sample c0 = ClientCost.start();
+                    int done = 0;
+                    for (int k = 0; k < perThread; k++) {
+                        int[] p = pairs[(threadId * 7 + k) % pairs.length];
+                        r.route(p[0], p[1]);
+                        done++;
+                    }
+                    cost.add(ClientCost.since(c0, done));
+                    return done;
+                } finally {
+                    if (ready.getCount() > 0) ready.countDown();
+                }
+            }));
+        }
+        long total = 0;
+        double ms;
+        try {
+            ready.await();
+            long s = System.nanoTime();
+            start.countDown();
+            for (Future<Integer> f : futures) {
+                try { total += f.get(); } catch (ExecutionException e) { System.err.println("Router failed: " + e.getCause()); }
+            }
+            ms = (System.nanoTime() - s) / 1_000_000.0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ms = 0;
+        } finally {
+            pool.shutdown();
+        }
+        double rps = ms > 0 ? total / (ms / 1000.0) : 0.0;
+        String[] client = cost.perOp();
+        System.out.printf("Throughput %-10s %-9s %-9s threads=%d requests=%d %.1f ms %.1f routes/s alloc=%sB cpu=%sus per route%n",
+                engine, method, query, threads, total, ms, rps, client[0], client[1]);
+        return new String[]{engine, method, query, Integer.toString(threads), Long.toString(total),
+                String.format("%.1f", ms), String.format("%.1f", rps), client[0], client[1]};
+    }
+
+    // ===== graph loading =====
+
+    /** Reads the INSERT INTO stations / line_detail rows of the dump. */
+    static void loadGraph(String path) throws IOException {
+        Map<Integer, double[]> coords = new HashMap<>();
+        Map<Integer, TreeMap<Integer, Integer>> lines = new TreeMap<>(); // line_id -> num -> station_id
+        for (String line : Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8)) {
+            if (!line.startsWith("INSERT INTO stations") && !line.startsWith("INSERT INTO line_detail")) continue;
+            String values = line.substring(line.indexOf("VALUES (") + 8, line.lastIndexOf(')'));
+            String[] parts = values.split(",");
+            if (line.startsWith("INSERT INTO stations")) {
+                int id = Integer.parseInt(parts[0].trim());
+                coords.put(id, new double[]{parseOrNaN(parts[parts.length - 2]), parseOrNaN(parts[parts.length - 1])});
+            } else {
+                lines.computeIfAbsent(Integer.parseInt(parts[0].trim()), k -> new TreeMap<>())
+                        .put(Integer.parseInt(parts[2].trim()), Integer.parseInt(parts[1].trim()));
+            }
+        }
+
+        List<Integer> ids = new ArrayList<>();
+        for (TreeMap<Integer, Integer> l : lines.values()) {
+            for (int id : l.values()) if (!nodeOf.containsKey(id)) { nodeOf.put(id, ids.size()); ids.add(id); }
+        }
+        n = ids.size();
+        stationId = ids.stream().mapToInt(Integer::intValue).toArray();
+        lat = new double[n];
+        lon = new double[n];
+        for (int v = 0; v < n; v++) {
+            double[] c = coords.getOrDefault(stationId[v], new double[]{Double.NaN, Double.NaN});
+            lat[v] = c[0];
+            lon[v] = c[1];
+        }
+
+        List<Set<Integer>> nb = new ArrayList<>();
+        for (int v = 0; v < n; v++) nb.add(new LinkedHashSet<>());
+        List<int[]> states = new ArrayList<>(); // {node, line}
+        List<List<Integer>> ride = new ArrayList<>();
+        List<List<Integer>> at = new ArrayList<>();
+        for (int v = 0; v < n; v++) at.add(new ArrayList<>());
+        maxHopKm = 0;
+        for (Map.Entry<Integer, TreeMap<Integer, Integer>> e : lines.entrySet()) {
+            int prevState = -1, prevNode = -1;
+            for (int id : e.getValue().values()) {
+                int v = nodeOf.get(id), st = states.size();
+                states.add(new int[]{v, e.getKey()});
+                ride.add(new ArrayList<>());
+                at.get(v).add(st);
+                if (prevState >= 0) {
+                    ride.get(prevState).add(st);
+                    ride.get(st).add(prevState);
+                    nb.get(prevNode).add(v);
+                    nb.get(v).add(prevNode);
+                    double km = haversineKm(prevNode, v);
+                    if (!Double.isNaN(km)) maxHopKm = Math.max(maxHopKm, km);
+                }
+                prevState = st;
+                prevNode = v;
+            }
+        }
+        lineCount = lines.size();
+        neighbours = new int[n][];
+        for (int v = 0; v < n; v++) neighbours[v] = nb.get(v).stream().mapToInt(Integer::intValue).toArray();
+        int ns = states.size();
+        stateNode = new int[ns];
+        stateLine = new int[ns];
+        stateRide = new int[ns][];
+        stateSwitch = new int[ns][];
+        statesAt = new int[n][];
+        for (int v = 0; v < n; v++) statesAt[v] = at.get(v).stream().mapToInt(Integer::intValue).toArray();
+        for (int st = 0; st < ns; st++) {
+            stateNode[st] = states.get(st)[0];
+            stateLine[st] = states.get(st)[1];
+            stateRide[st] = ride.get(st).stream().mapToInt(Integer::intValue).toArray();
+        }
+        for (int st = 0; st < ns; st++) {
+            int[] same = statesAt[stateNode[st]];
+            int[] other = new int[same.length - 1];
+            int k = 0;
+            for (int o : same) if (o != st) other[k++] = o;
+            stateSwitch[st] = other;
+        }
+    }
+
+    static double parseOrNaN(String s) {
+        s = s.trim();
+        return s.equalsIgnoreCase("NULL") ? Double.NaN : Double.parseDouble(s);
+    }
+
+    static double haversineKm(int a, int b) {
+        double dLat = Math.toRadians(lat[b] - lat[a]), dLon = Math.toRadians(lon[b] - lon[a]);
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat[a])) * Math.cos(Math.toRadians(lat[b])) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * 6371.0 * Math.asin(Math.min(1.0, Math.sqrt(h)));
+    }
+
+    // ===== searches (thread-safe: scratch arrays per call) =====
+
+    static int route(String query, String method, int s, int t) {
+        if (query.equals("stops")) {
+            switch (method) {
+                case "dijkstra": return dijkstraStops(s, t);
+                case "astar": return astarStops(s, t);
+                default: return allStops[s][t];
+            }
+        }
+        return method.equals("dijkstra") ? dijkstraTransfers(s, t) : allTransfers[s][t];
+    }
+
+    static int dijkstraStops(int s, int t) {
+        return searchStops(s, t, false);
+    }
+
+    static int astarStops(int s, int t) {
+        return searchStops(s, t, true);
+    }
+
+    // queue entries: {f = g + h, node}; every hop costs 1
+    static int searchStops(int s, int t, boolean astar) {
+        int[] g = new int[n];
+        Arrays.fill(g, Integer.MAX_VALUE);
+        boolean[] done = new boolean[n];
+        PriorityQueue<int[]> pq = new PriorityQueue<>((a, b) -> Integer.compare(a[0], b[0]));
+        g[s] = 0;
+        pq.add(new int[]{astar ? heuristic(s, t) : 0, s});
+        while (!pq.isEmpty()) {
+            int u = pq.poll()[1];
+            if (done[u]) continue;
+            if (u == t) return g[u];
+            done[u] = true;
+            for (int v : neighbours[u]) {
+                if (g[u] + 1 < g[v]) {
+                    g[v] = g[u] + 1;
+                    pq.add(new int[]{g[v] + (astar ? heuristic(v, t) : 0), v});
+                }
+            }
+        }
+        return -1;
+    }
+
+    // no hop covers more than maxHopKm, so distance / maxHopKm never overestimates the stops left
+    static int heuristic(int v, int t) {
+        if (maxHopKm <= 0) return 0;
+        double km = haversineKm(v, t);
+        return Double.isNaN(km) ? 0 : (int) Math.floor(km / maxHopKm);
+    }
+
+    /** Fewest transfers s -> t (ties broken by stops), over (station, line) states. */
+    static int dijkstraTransfers(int s, int t) {
+        int ns = stateNode.length;
+        int[] cost = new int[ns];
+        Arrays.fill(cost, Integer.MAX_VALUE);
+        boolean[] done = new boolean[ns];
+        PriorityQueue<int[]> pq = new PriorityQueue<>((a, b) -> Integer.compare(a[0], b[0]));
+        for (int st : statesAt[s]) { cost[st] = 0; pq.add(new int[]{0, st}); }
+        while (!pq.isEmpty()) {
+            int u = pq.poll()[1];
+            if (done[u]) continue;
+            if (stateNode[u] == t) return cost[u] / STOP_WEIGHT;
+            done[u] = true;
+            for (int v : stateRide[u]) relax(pq, cost, v, cost[u] + 1);
+            for (int v : stateSwitch[u]) relax(pq, cost, v, cost[u] + STOP_WEIGHT);
+        }
+        return -1;
+    }
+
+    static void relax(PriorityQueue<int[]> pq, int[] cost, int v, int c) {
+        if (c < cost[v]) {
+            cost[v] = c;
+            pq.add(new int[]{c, v});
+        }
+    }
+
+    /** Fewest stops from s to every station (BFS; -1 = unreachable). */
+    static int[] stopsFrom(int s) {
+        int[] d = new int[n];
+        Arrays.fill(d, -1);
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        d[s] = 0;
+        queue[tail++] = s;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int v : neighbours[u]) if (d[v] < 0) { d[v] = d[u] + 1; queue[tail++] = v; }
+        }
+        return d;
+    }
+
+    /** Fewest transfers from s to every station: 0-1 BFS over states (ride = 0, switch line = 1). */
+    static int[] transfersFrom(int s) {
+        int ns = stateNode.length;
+        int[] d = new int[ns];
+        Arrays.fill(d, Integer.MAX_VALUE);
+        ArrayDeque<Integer> dq = new ArrayDeque<>();
+        for (int st : statesAt[s]) { d[st] = 0; dq.add(st); }
+        while (!dq.isEmpty()) {
+            int u = dq.poll();
+            for (int v : stateRide[u]) if (d[u] < d[v]) { d[v] = d[u]; dq.addFirst(v); }
+            for (int v : stateSwitch[u]) if (d[u] + 1 < d[v]) { d[v] = d[u] + 1; dq.addLast(v); }
+        }
+        int[] out = new int[n];
+        Arrays.fill(out, -1);
+        for (int st = 0; st < ns; st++) {
+            int v = stateNode[st];
+            if (d[st] != Integer.MAX_VALUE && (out[v] < 0 || d[st] < out[v])) out[v] = d[st];
+        }
+        return out;
+    }
+
+    static String[] row(String engine, String method, String query, List<Double> lat, boolean agree) {
+        double[] a = lat.stream().mapToDouble(d -> d).sorted().toArray();
+        double avg = Arrays.stream(a).average().orElse(0.0);
+        double p99 = a.length == 0 ? 0.0 : a[Math.min(a.length - 1, (int) Math.ceil(0.99 * a.length) - 1)];
+        System.out.printf("%-10s %-9s %-9s pairs=%d avg=%.4f ms p99=%.4f ms agree=%b%n", engine, method, query, PAIRS, avg, p99, agree);
+        return new String[]{engine, method, query, Integer.toString(PAIRS),
+                String.format("%.4f", avg), String.format("%.4f", p99), Boolean.toString(agree)};
+    }
+}
@@ -0,0 +1,127 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * NetworkSensitivityBenchmark
+ *
+ * Re-runs round-trip-bound workloads behind LatencyProxy at several emulated RTTs to see which
+ * strategy wins once the DB is not on loopback:
+ *   point_select -> HardBenchmarkTest point select, one round trip per op
+ *   simple_tx    -> HardBenchmarkTest UPDATE + COMMIT
+ *   batch_K      -> BatchedPointSelectBenchmark any_array with K ids per round trip
+ * Each (DBMS, RTT) gets its own proxy; RTT 0 still goes through the proxy so its overhead is in every row.
+ *
+ * Outputs:
+ *   result/network_sensitivity.csv -> per (DBMS, RTT, workload, threads): ops/s, rows/s, avg/p99 latency,
+ *                                     round trips / messages / bytes per op (PgWireStats),
+ *                                     client allocated bytes / CPU µs per op (ClientCost, from the reused workers)
+ */
+public class NetworkSensitivityBenchmark {
+
+    // === DB configs (change to your credentials); not wrapped, this class places its own proxies ===
+    static final String PG_DRIVER = "org.postgresql.Driver";
+    static final String PG_URL = "jdbc:postgresql://127.0.0.1:5430/postgres";
+    static final String PG_USER = "test";
+    static final String PG_PASS = "123456";
+
+    static final String OG_DRIVER = "org.opengauss.Driver";
+    static final String OG_URL = "jdbc:opengauss://127.0.0.1:5431/postgres";
+    static final String OG_USER = "gaussdb";
+    static final String OG_PASS = "123456Aa@";
+
+    static final File RESULT_DIR = new File("result");
+    static final String RESULT_CSV = "result/network_sensitivity.csv";
+
+    static final double[] ONE_WAY_DELAY_MS = {0, 0.5, 1, 2.5}; // RTT 0..5 ms
+    static final double JITTER_MS = 0.1;
+    static final int[] THREADS = {1, 8};
+    static final int OPS_PER_THREAD = 200;
+    static final int[] BATCH_K = {1, 10, 100};
+
+    public static void main(String[] args) throws Exception {
+        if (!RESULT_DIR.exists()) RESULT_DIR.mkdirs();
+        List<String[]> rows = new ArrayList<>();
+
+        String[][] dbs = {
+                {"PostgreSQL", PG_DRIVER, PG_URL, PG_USER, PG_PASS},
+                {"openGauss", OG_DRIVER, OG_URL, OG_USER, OG_PASS}};
+        for (String[] db : dbs) {
+            java.util.regex.Matcher m = LatencyProxy.HOST_PORT.matcher(db[2]);
+            if (!m.find()) { System.err.println("Cannot parse host:port of " + db[2]); continue; }
+            for (double delay : ONE_WAY_DELAY_MS) {
+                LatencyProxy.Config cfg = new LatencyProxy.Config(delay, delay > 0 ? JITTER_MS : 0, 0, 0, true);
+                try (LatencyProxy proxy = new LatencyProxy(0, m.group(1), Integer.parseInt(m.group(2)), cfg)) {
+                    String url = proxy.jdbcUrl(db[2]);
+                    for (int t : THREADS) {
+                        System.out.printf("Running %s rtt=%.1fms threads=%d (%s)%n", db[0], 2 * delay, t, cfg);
+                        rows.add(runCell(db, proxy, url, delay, "point_select", 1, t));
+                        rows.add(runCell(db, proxy, url, delay, "simple_tx", 1, t));
+                        for (int k : BATCH_K) rows.add(runCell(db, proxy, url, delay, "batch_" + k, k, t));
+                    }
+                }
+            }
+        }
+
+        try (PrintWriter pw = new PrintWriter(new FileWriter(RESULT_CSV))) {
+            pw.println("DBMS,OneWayDelay_ms,RTT_ms,Workload,Threads,Ops,Ops_per_sec,Rows_per_sec,Avg_ms,P99_ms," + PgWireStats.CSV_HEADER
+                    + "," + ClientCost.CSV_HEADER);
+            for (String[] r : rows) pw.println(String.join(",", r));
+            System.out.println("Saved CSV: " + RESULT_CSV);
+        } catch (IOException e) {
+            System.err.println("CSV write failed: " + e.getMessage());
+        }
+    }
+
+    // k = ids per op (1 for the HardBenchmarkTest workloads)
+    static String[] runCell(String[] db, LatencyProxy proxy, String url, double delay, String workload, int k, int threads) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<double[]>> futures = new ArrayList<>();
+        PgWireStats.Snapshot wireBefore = proxy.wireStats().snapshot();
+        ClientCost.Total cost = new ClientCost.Total();
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            final int threadId = i + 1;
+            futures.add(pool.submit(() -> {
+                if (workload.equals("point_select")) {
+                    HardBenchmarkTest.ThreadStat ts = HardBenchmarkTest.dbPointSelectWorker(threadId, db[1], url, db[3], db[4], OPS_PER_THREAD);
+                    cost.add(ts.cost);
+                    return new double[]{ts.ops, ts.avgMs, ts.p99};
+                } else if (workload.equals("simple_tx")) {
+                    HardBenchmarkTest.ThreadStat ts = HardBenchmarkTest.dbSimpleTxWorker(threadId, db[1], url, db[3], db[4], OPS_PER_THREAD);
+                    cost.add(ts.cost);
+                    return new double[]{ts.ops, ts.avgMs, ts.p99};
+                }
+                BatchedPointSelectBenchmark.ThreadStat ts = BatchedPointSelectBenchmark.worker(threadId, db[1], url, db[3], db[4],
+                        "any_array", k, OPS_PER_THREAD * k);
+                cost.add(ClientCost.withOps(ts.cost, ts.roundTrips)); // per round trip, like the other columns
+                return new double[]{ts.roundTrips, ts.avgMs, ts.p99};
+            }));
+        }
+        long ops = 0;
+        double weighted = 0, p99 = 0;
+        for (Future<double[]> f : futures) {
+            try {
+                double[] r = f.get();
+                ops += (long) r[0];
+                weighted += r[1] * r[0];
+                p99 = Math.max(p99, r[2]); // conservative: max of per-thread p99
+            } catch (Exception e) {
+                System.err.println("Worker failed: " + e.getMessage());
+            }
+        }
+        double totalMs = (System.nanoTime() - start) / 1_000_000.0;
+        pool.shutdown();
+        String[] wire = PgWireStats.perOp(wireBefore, proxy.wireStats().snapshot(), ops); // per op, i.e. per round trip for batch_K
+        String[] client = cost.perOp();
+
+        double opsPerSec = totalMs > 0 ? ops / (totalMs / 1000.0) : 0.0;
+        double avg = ops > 0 ? weighted / ops : 0.0;
+        System.out.printf("Summary %s rtt=%.1fms %s threads=%d ops=%d ops/s=%.2f rows/s=%.2f avg=%.3fms p99≈%.3fms%n",
+                db[0], 2 * delay, workload, threads, ops, opsPerSec, opsPerSec * k, avg, p99);
+        return new String[]{db[0], String.format("%.2f", delay), String.format("%.2f", 2 * delay), workload,
+                Integer.toString(threads), Long.toString(ops), String.format("%.2f", opsPerSec),
+                String.format("%.2f", opsPerSec * k), String.format("%.3f", avg), String.format("%.3f", p99),
+                wire[0], wire[1], wire[2], wire[3], wire[4], client[0], client[1]};
+    }
+}
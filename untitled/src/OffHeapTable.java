@@ -0,0 +1,237 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * OffHeapTable
+ *
+ * In-memory copy of a ';'-separated text table kept outside the Java heap, so large scale factors do not
+ * turn into millions of String objects for the GC to trace. Rows live in direct ByteBuffers as fixed-width
+ * slots (null bitmap, then 4 bytes per INT column, 12 bytes per STRING column = heap offset + length);
+ * string bytes (UTF-8) live in a separate chunked string heap, also direct.
+ *
+ * Reads go through a Cursor, a flyweight that only moves an index: getInt/isNull read the slot in place,
+ * stringContains/stringEquals compare a STRING value in place in the string heap, stringView wraps it in a
+ * read-only slice, and stringBytes copies it into a caller-owned array. Buffers are never written after
+ * load (reads use absolute gets only), so any number of threads can scan with their own cursors.
+ *
+ * Usage:
+ *   OffHeapTable movies = OffHeapTable.load("SQL/movies.txt", 1);
+ *   OffHeapTable.Cursor c = movies.cursor();
+ *   while (c.next()) if (!c.isNull(3) && c.getInt(3) >= 1990) n++;
+ */
+public class OffHeapTable {
+
+    static final byte TYPE_INT = 1, TYPE_STRING = 2;
+    static final int ROWS_PER_CHUNK = 1 << 16;
+    static final int HEAP_CHUNK_BYTES = 16 << 20;
+
+    final String[] names;
+    final byte[] types;
+    final int[] slotOffset;
+    final int nullBytes;
+    final int rowWidth;
+    final List<ByteBuffer> rowChunks = new ArrayList<>();
+    final List<ByteBuffer> heapChunks = new ArrayList<>();
+    int rows;
+
+    OffHeapTable(String[] names, byte[] types) {
+        this.names = names;
+        this.types = types;
+        this.nullBytes = (names.length + 7) / 8;
+        this.slotOffset = new int[names.length];
+        int off = nullBytes;
+        for (int c = 0; c < names.length; c++) {
+            slotOffset[c] = off;
+            off += types[c] == TYPE_INT ? 4 : 12;
+        }
+        this.rowWidth = off;
+    }
+
+    /**
+     * Loads textFile, repeating its data rows scale times (ids are not rewritten). Column types come from
+     * a first pass: INT when every non-null value parses as an int ("" and "null" are NULL), else STRING.
+     */
+    public static OffHeapTable load(String textFile, int scale) throws IOException {
+        String[] header;
+        byte[] types;
+        try (BufferedReader br = open(textFile)) {
+            String line = br.readLine();
+            if (line == null) throw new IOException("Empty file: " + textFile);
+            header = line.split(";", -1);
+            types = new byte[header.length];
+            Arrays.fill(types, TYPE_INT);
+            while ((line = br.readLine()) != null) {
+                String[] f = ColumnarSnapshot.splitRow(line, header.length);
+                for (int c = 0; c < f.length; c++) {
+                    if (types[c] == TYPE_INT && !ColumnarSnapshot.isNullToken(f[c]) && !isInt(f[c])) types[c] = TYPE_STRING;
+                }
+            }
+        }
+
+        OffHeapTable t = new OffHeapTable(header, types);
+        for (int s = 0; s < scale; s++) {
+            try (BufferedReader br = open(textFile)) {
+                String line = br.readLine(); // header
+                while ((line = br.readLine()) != null) t.append(ColumnarSnapshot.splitRow(line, header.length));
+            }
+        }
+        return t;
+    }
+
+    static BufferedReader open(String file) throws IOException {
+        return new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+    }
+
+    static boolean isInt(String s) {
+        try { Integer.parseInt(s); return true; } catch (NumberFormatException e) { return false; }
+    }
+
+    void append(String[] fields) {
+        int chunk = rows / ROWS_PER_CHUNK;
+        if (chunk == rowChunks.size()) {
+            rowChunks.add(ByteBuffer.allocateDirect(ROWS_PER_CHUNK * rowWidth).order(ByteOrder.nativeOrder()));
+        }
+        ByteBuffer buf = rowChunks.get(chunk);
+        int base = (rows % ROWS_PER_CHUNK) * rowWidth;
+        for (int c = 0; c < names.length; c++) {
+            String v = fields[c];
+            int at = base + slotOffset[c];
+            if (types[c] == TYPE_INT) {
+                if (ColumnarSnapshot.isNullToken(v)) setNull(buf, base, c);
+                else buf.putInt(at, Integer.parseInt(v));
+            } else {
+                byte[] b = v.getBytes(StandardCharsets.UTF_8);
+                buf.putLong(at, heapAppend(b));
+                buf.putInt(at + 8, b.length);
+            }
+        }
+        rows++;
+    }
+
+    static void setNull(ByteBuffer buf, int base, int col) {
+        int i = base + (col >>> 3);
+        buf.put(i, (byte) (buf.get(i) | (1 << (col & 7))));
+    }
+
+    // returns the global heap offset; a string never spans two chunks
+    long heapAppend(byte[] b) {
+        if (b.length > HEAP_CHUNK_BYTES) throw new IllegalArgumentException("String longer than a heap chunk: " + b.length);
+        ByteBuffer h = heapChunks.isEmpty() ? null : heapChunks.get(heapChunks.size() - 1);
+        if (h == null || h.remaining() < b.length) {
+            h = ByteBuffer.allocateDirect(HEAP_CHUNK_BYTES);
+            heapChunks.add(h);
+        }
+        long off = (long) (heapChunks.size() - 1) * HEAP_CHUNK_BYTES + h.position();
+        h.put(b);
+        return off;
+    }
+
+    public int rows() { return rows; }
+
+    public int columnIndex(String name) {
+        for (int c = 0; c < names.length; c++) if (names[c].equals(name)) return c;
+        throw new IllegalArgumentException("No column " + name);
+    }
+
+    public boolean isIntColumn(int col) { return types[col] == TYPE_INT; }
+
+    /** Bytes of direct memory held by row slots and the string heap. */
+    public long offHeapBytes() {
+        return (long) rowChunks.size() * ROWS_PER_CHUNK * rowWidth + (long) heapChunks.size() * HEAP_CHUNK_BYTES;
+    }
+
+    public Cursor cursor() { return new Cursor(); }
+
+    /** Primitive accessors by absolute row number. */
+    public boolean isNull(int row, int col) {
+        ByteBuffer buf = rowChunks.get(row / ROWS_PER_CHUNK);
+        int base = (row % ROWS_PER_CHUNK) * rowWidth;
+        return (buf.get(base + (col >>> 3)) & (1 << (col & 7))) != 0;
+    }
+
+    public int getInt(int row, int col) {
+        return rowChunks.get(row / ROWS_PER_CHUNK).getInt((row % ROWS_PER_CHUNK) * rowWidth + slotOffset[col]);
+    }
+
+    /** Forward-only view of one row at a time; never allocates while scanning. Not thread-safe. */
+    public class Cursor {
+        int row = -1;
+        ByteBuffer chunk;
+        int base;
+
+        public boolean next() {
+            if (row + 1 >= rows) return false;
+            row++;
+            int r = row % ROWS_PER_CHUNK;
+            if (r == 0) chunk = rowChunks.get(row / ROWS_PER_CHUNK);
+            base = r * rowWidth;
+            return true;
+        }
+
+        public void seek(int row) {
+            if (row < 0 || row >= rows) throw new IndexOutOfBoundsException("row " + row);
+            this.row = row;
+            chunk = rowChunks.get(row / ROWS_PER_CHUNK);
+            base = (row % ROWS_PER_CHUNK) * rowWidth;
+        }
+
+        public int row() { return row; }
+
+        public boolean isNull(int col) {
+            return (chunk.get(base + (col >>> 3)) & (1 << (col & 7))) != 0;
+        }
+
+        public int getInt(int col) {
+            return chunk.getInt(base + slotOffset[col]);
+        }
+
+        public int stringLength(int col) {
+            return chunk.getInt(base + slotOffset[col] + 8);
+        }
+
+        /** Case-insensitive substring test on a STRING column, run in place on the direct string heap. */
+        public boolean stringContains(int col, CaseInsensitiveMatcher m) {
+            long off = chunk.getLong(base + slotOffset[col]);
+            int len = chunk.getInt(base + slotOffset[col] + 8);
+            int at = (int) (off % HEAP_CHUNK_BYTES);
+            return m.containsUtf8(heapChunks.get((int) (off / HEAP_CHUNK_BYTES)), at, at + len);
+        }
+
+        /** True if a STRING column equals the given UTF-8 bytes, compared in place. */
+        public boolean stringEquals(int col, byte[] utf8) {
+            long off = chunk.getLong(base + slotOffset[col]);
+            int len = chunk.getInt(base + slotOffset[col] + 8);
+            if (len != utf8.length) return false;
+            ByteBuffer h = heapChunks.get((int) (off / HEAP_CHUNK_BYTES));
+            int at = (int) (off % HEAP_CHUNK_BYTES);
+            for (int i = 0; i < len; i++) if (h.get(at + i) != utf8[i]) return false;
+            return true;
+        }
+
+        /** Read-only view of a STRING column's UTF-8 bytes (position 0, limit = length); no copy. */
+        public ByteBuffer stringView(int col) {
+            long off = chunk.getLong(base + slotOffset[col]);
+            int len = chunk.getInt(base + slotOffset[col] + 8);
+            return heapChunks.get((int) (off / HEAP_CHUNK_BYTES)).slice((int) (off % HEAP_CHUNK_BYTES), len).asReadOnlyBuffer();
+        }
+
+        /** Copies the UTF-8 bytes of a STRING column into dst (must hold stringLength(col)); returns the length. */
+        public int stringBytes(int col, byte[] dst) {
+            long off = chunk.getLong(base + slotOffset[col]);
+            int len = chunk.getInt(base + slotOffset[col] + 8);
+            heapChunks.get((int) (off / HEAP_CHUNK_BYTES)).get((int) (off % HEAP_CHUNK_BYTES), dst, 0, len);
+            return len;
+        }
+
+        /** Decodes a column value as a String (allocates; for output, not for scanning). */
+        public String getString(int col) {
+            if (types[col] == TYPE_INT) return isNull(col) ? null : Integer.toString(getInt(col));
+            byte[] b = new byte[stringLength(col)];
+            stringBytes(col, b);
+            return new String(b, StandardCharsets.UTF_8);
+        }
+    }
+}
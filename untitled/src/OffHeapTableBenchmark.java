@@ -0,0 +1,233 @@
+import java.io.*;
+import java.lang.management.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * OffHeapTableBenchmark
+ *
+ * Loads movies and people (repeated SCALE times) into memory two ways and scans them:
+ *   OnHeap  -> List<String[]> of rows, INT columns used by the scans pre-parsed into int[] at load
+ *   OffHeap -> OffHeapTable (direct ByteBuffers, fixed-width slots + string heap), read through a Cursor
+ * Scans per run: title contains 'war' (movies), year_released BETWEEN 1990 AND 1999 (movies),
+ * born >= 1970 AND died IS NULL (people).
+ *
+ * Each (target, scale) cell runs in a fresh JVM (same classpath, -Xmx CHILD_HEAP) so heap, RSS and GC
+ * numbers are not polluted by the other cells.
+ *
+ * Outputs:
+ *   result/offheap_store.csv -> per (target, scale): rows, load time, heap / direct / RSS MB after load,
+ *                               GC count and time during load + scans, scan time and rows/s
+ */
+public class OffHeapTableBenchmark {
+
+    static final String MOVIE_FILE = "SQL/movies.txt";
+    static final String PEOPLE_FILE = "SQL/people.txt";
+    static final File RESULT_DIR = new File("result");
+    static final String RESULT_CSV = "result/offheap_store.csv";
+
+    static final int[] SCALES = {1, 10, 30};
+    static final String[] TARGETS = {"OnHeap", "OffHeap"};
+    static final String CHILD_HEAP = "-Xmx1g";
+    static final int SCAN_RUNS = 20;
+    static final String RESULT_PREFIX = "RESULT,";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 3 && args[0].equals("child")) {
+            runChild(args[1], Integer.parseInt(args[2]));
+            return;
+        }
+        if (!RESULT_DIR.exists()) RESULT_DIR.mkdirs();
+
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String cp = System.getProperty("java.class.path");
+        List<String> rows = new ArrayList<>();
+        for (int scale : SCALES) {
+            for (String target : TARGETS) {
+                System.out.printf("Running target=%s scale=%d%n", target, scale);
+                Process p = new ProcessBuilder(java, CHILD_HEAP, "-cp", cp, "OffHeapTableBenchmark", "child", target, Integer.toString(scale))
+                        .redirectErrorStream(true).start();
+                try (BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = br.readLine()) != null) {
+                        if (line.startsWith(RESULT_PREFIX)) rows.add(line.substring(RESULT_PREFIX.length()));
+                        else System.out.println("  " + line);
+                    }
+                }
+                if (p.waitFor() != 0) System.err.printf("Child failed: target=%s scale=%d exit=%d%n", target, scale, p.exitValue());
+            }
+        }
+
+        try (PrintWriter pw = new PrintWriter(new FileWriter(RESULT_CSV))) {
+            pw.println("Target,Scale,Rows,Load_ms,Heap_MB,Direct_MB,RSS_MB,GC_count,GC_ms,Scan_ms,Rows_per_sec,Matches");
+            for (String r : rows) pw.println(r);
+            System.out.println("Saved CSV: " + RESULT_CSV);
+        } catch (IOException e) {
+            System.err.println("CSV write failed: " + e.getMessage());
+        }
+    }
+
+    static void runChild(String target, int scale) throws IOException {
+        long t0 = System.nanoTime();
+        Scanner scanner = target.equals("OffHeap") ? new OffHeapScanner(scale) : new OnHeapScanner(scale);
+        double loadMs = (System.nanoTime() - t0) / 1_000_000.0;
+
+        long[] gcLoad = gcTotals();
+
+        // steady-state footprint after load (the explicit GC is left out of the GC columns)
+        System.gc();
+        MemoryMXBean mem = ManagementFactory.getMemoryMXBean();
+        double heapMb = mem.getHeapMemoryUsage().getUsed() / 1048576.0;
+        double directMb = directBytes() / 1048576.0;
+        double rssMb = rssBytes() / 1048576.0;
+
+        long[] gc0 = gcTotals();
+        long matches = 0;
+        long s = System.nanoTime();
+        for (int i = 0; i < SCAN_RUNS; i++) matches = scanner.titleLike() + scanner.yearRange() + scanner.peopleAlive();
+        double scanMs = (System.nanoTime() - s) / 1_000_000.0;
+        long[] gc1 = gcTotals();
+        long gcCount = gcLoad[0] + gc1[0] - gc0[0], gcMs = gcLoad[1] + gc1[1] - gc0[1];
+
+        long rows = scanner.rows();
+        double rowsPerSec = scanMs > 0 ? (double) scanner.rowsPerRun() * SCAN_RUNS / (scanMs / 1000.0) : 0.0;
+        System.out.printf("target=%s scale=%d rows=%d load=%.1f ms heap=%.1f MB direct=%.1f MB rss=%.1f MB gc=%d (%d ms) scan=%.1f ms%n",
+                target, scale, rows, loadMs, heapMb, directMb, rssMb, gcCount, gcMs, scanMs);
+        System.out.println(RESULT_PREFIX + String.join(",", target, Integer.toString(scale), Long.toString(rows),
+                String.format("%.1f", loadMs), String.format("%.1f", heapMb), String.format("%.1f", directMb),
+                String.format("%.1f", rssMb), Long.toString(gcCount), Long.toString(gcMs),
+                String.format("%.1f", scanMs), String.format("%.0f", rowsPerSec), Long.toString(matches)));
+    }
+
+    // {collections, time ms} summed over all collectors
+    static long[] gcTotals() {
+        long count = 0, ms = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            ms += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[]{count, ms};
+    }
+
+    static long directBytes() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) return pool.getMemoryUsed();
+        }
+        return 0;
+    }
+
+    // VmRSS from /proc (Linux); -1 elsewhere
+    static long rssBytes() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+            }
+        } catch (IOException | NumberFormatException ignore) { }
+        return -1;
+    }
+
+    interface Scanner {
+        long rows();
+        long rowsPerRun(); // rows visited by the three scans
+        long titleLike();
+        long yearRange();
+        long peopleAlive();
+    }
+
+    static class OnHeapScanner implements Scanner {
+        static final int NULL_INT = Integer.MIN_VALUE; // outside every scanned range, so NULL never matches
+
+        final List<String[]> movies, people;
+        final int[] movieYear, personBorn; // typed like the off-heap INT slots, so the scans compare like-for-like
+        final CaseInsensitiveMatcher war = new CaseInsensitiveMatcher("war");
+
+        OnHeapScanner(int scale) throws IOException {
+            movies = load(MOVIE_FILE, scale);
+            people = load(PEOPLE_FILE, scale);
+            movieYear = ints(movies, 3);
+            personBorn = ints(people, 3);
+        }
+
+        static int[] ints(List<String[]> rows, int col) {
+            int[] v = new int[rows.size()];
+            for (int i = 0; i < v.length; i++) {
+                String f = rows.get(i)[col];
+                v[i] = ColumnarSnapshot.isNullToken(f) ? NULL_INT : Integer.parseInt(f);
+            }
+            return v;
+        }
+
+        static List<String[]> load(String file, int scale) throws IOException {
+            List<String[]> rows = new ArrayList<>();
+            for (int s = 0; s < scale; s++) {
+                try (BufferedReader br = OffHeapTable.open(file)) {
+                    String line = br.readLine();
+                    int cols = line.split(";", -1).length;
+                    while ((line = br.readLine()) != null) rows.add(ColumnarSnapshot.splitRow(line, cols));
+                }
+            }
+            return rows;
+        }
+
+        public long rows() { return movies.size() + people.size(); }
+
+        public long rowsPerRun() { return 2L * movies.size() + people.size(); }
+
+        public long titleLike() {
+            long n = 0;
+            for (String[] r : movies) if (war.contains(r[1])) n++;
+            return n;
+        }
+
+        public long yearRange() {
+            long n = 0;
+            for (int y : movieYear) if (y >= 1990 && y <= 1999) n++;
+            return n;
+        }
+
+        public long peopleAlive() {
+            long n = 0;
+            for (int i = 0; i < personBorn.length; i++) if (personBorn[i] >= 1970 && ColumnarSnapshot.isNullToken(people.get(i)[4])) n++;
+            return n;
+        }
+    }
+
+    static class OffHeapScanner implements Scanner {
+        final OffHeapTable movies, people;
+        final CaseInsensitiveMatcher war = new CaseInsensitiveMatcher("war");
+
+        OffHeapScanner(int scale) throws IOException {
+            movies = OffHeapTable.load(MOVIE_FILE, scale);
+            people = OffHeapTable.load(PEOPLE_FILE, scale);
+        }
+
+        public long rows() { return movies.rows() + people.rows(); }
+
+        public long rowsPerRun() { return 2L * movies.rows() + people.rows(); }
+
+        public long titleLike() {
+            long n = 0;
+            OffHeapTable.Cursor c = movies.cursor();
+            while (c.next()) if (c.stringContains(1, war)) n++;
+            return n;
+        }
+
+        public long yearRange() {
+            long n = 0;
+            OffHeapTable.Cursor c = movies.cursor();
+            while (c.next()) {
+                int y = c.getInt(3);
+                if (!c.isNull(3) && y >= 1990 && y <= 1999) n++;
+            }
+            return n;
+        }
+
+        public long peopleAlive() {
+            long n = 0;
+            OffHeapTable.Cursor c = people.cursor();
+            while (c.next()) if (!c.isNull(3) && c.getInt(3) >= 1970 && c.isNull(4)) n++;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+import java.sql.*;
+import java.io.*;
+import java.util.*;
+import java.util.regex.*;
+
+/**
+ * PartitionPruningBenchmark
+ *
+ * Range partitioning on year_released: a copy of movies and a CREDITS_SCALE-times copy of credits
+ * (denormalized with the movie's year_released) are built unpartitioned and then range-partitioned into
+ * N = 4, one per decade, 64, 256 and 1000 partitions:
+ *   width = ceil(year span / N) years, starting at the first decade; partitions past the last year stay empty,
+ *   so the largest counts measure the per-partition planning cost more than the data split
+ *   PostgreSQL -> CREATE TABLE ... PARTITION BY RANGE + PARTITION OF
+ *   openGauss  -> CREATE TABLE ... PARTITION BY RANGE (...) (PARTITION ... VALUES LESS THAN ...)
+ * For each layout point / range / full queries are run:
+ *   pruning  -> partitions in the EXPLAIN plan (PostgreSQL: scanned child tables, openGauss: Selected Partitions)
+ *   plan     -> "Planning Time" of EXPLAIN ANALYZE where reported, plus client time of a plain EXPLAIN
+ *   latency  -> avg / p99 of the query itself
+ * All pt_* tables are created and dropped by the run.
+ *
+ * Outputs:
+ *   result/partitioning.csv -> per (DBMS, partitions, query): partitions scanned, plan / explain ms, avg / p99 ms
+ */
+public class PartitionPruningBenchmark {
+
+    // === DB configs (change to your credentials) ===
+    static final String PG_DRIVER = "org.postgresql.Driver";
+    static final String PG_URL = LatencyProxy.wrap("jdbc:postgresql://127.0.0.1:5430/postgres");
+    static final String PG_USER = "test";
+    static final String PG_PASS = "123456";
+
+    static final String OG_DRIVER = "org.opengauss.Driver";
+    static final String OG_URL = LatencyProxy.wrap("jdbc:opengauss://127.0.0.1:5431/postgres");
+    static final String OG_USER = "gaussdb";
+    static final String OG_PASS = "123456Aa@";
+
+    static final File RESULT_DIR = new File("result");
+    static final String RESULT_CSV = "result/partitioning.csv";
+
+    static final int DECADES = -1; // placeholder in PARTITION_COUNTS: one partition per decade
+    static final int[] PARTITION_COUNTS = {4, DECADES, 64, 256, 1000};
+    static final int CREDITS_SCALE = 10;
+    static final int ID_OFFSET = 1_000_000;
+    static final int WARMUP_RUNS = 3;
+    static final int RUNS = 20;
+
+    static final String MOVIES_COLS = "movieid int, title varchar(100), country char(2), year_released int, runtime int";
+    static final String CREDITS_COLS = "movieid int, peopleid int, credited_as char(1), year_released int";
+    static final String LOAD_MOVIES = "INSERT INTO %s SELECT movieid, title, country, year_released, runtime FROM movies";
+    static final String LOAD_CREDITS = "INSERT INTO %s SELECT c.movieid + g * " + ID_OFFSET + ", c.peopleid + g * " + ID_OFFSET
+            + ", c.credited_as, m.year_released FROM credits c JOIN movies m ON m.movieid = c.movieid, generate_series(0, "
+            + (CREDITS_SCALE - 1) + ") g";
+
+    // {M} = movies table, {C} = credits table
+    static final String[] QUERY_NAMES = {"point_year", "point_movie", "range_5y", "range_30y", "full_by_country", "full_by_role"};
+    static final String[] QUERY_SQL = {
+            "SELECT * FROM {M} WHERE year_released = 1994",
+            "SELECT * FROM {C} WHERE year_released = 1994 AND movieid = 1000",
+            "SELECT credited_as, COUNT(*) FROM {C} WHERE year_released BETWEEN 1990 AND 1994 GROUP BY credited_as",
+            "SELECT country, COUNT(*) FROM {M} WHERE year_released >= 1960 AND year_released < 1990 GROUP BY country",
+            "SELECT country, COUNT(*), AVG(runtime) FROM {M} GROUP BY country",
+            "SELECT credited_as, COUNT(*) FROM {C} GROUP BY credited_as"};
+
+    static final Pattern PLANNING = Pattern.compile("Planning [Tt]ime: ([0-9.]+)");
+    static final Pattern SELECTED = Pattern.compile("Selected Partitions:\\s*([0-9.,\\s]+)");
+    static final Pattern CHILD_SCAN = Pattern.compile(" on (pt_(?:movies|credits)_p_\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        if (!RESULT_DIR.exists()) RESULT_DIR.mkdirs();
+        List<String[]> rows = new ArrayList<>();
+
+        runDb(rows, "PostgreSQL", PG_DRIVER, PG_URL, PG_USER, PG_PASS);
+        runDb(rows, "openGauss", OG_DRIVER, OG_URL, OG_USER, OG_PASS);
+
+        try (PrintWriter pw = new PrintWriter(new FileWriter(RESULT_CSV))) {
+            pw.println("DBMS,Partitions,Build_ms,Query,Rows,Partitions_scanned,Plan_ms,Explain_ms,Avg_ms,P99_ms");
+            for (String[] r : rows) pw.println(String.join(",", r));
+            System.out.println("Saved CSV: " + RESULT_CSV);
+        } catch (IOException e) {
+            System.err.println("CSV write failed: " + e.getMessage());
+        }
+    }
+
+    static void runDb(List<String[]> rows, String dbName, String driver, String url, String user, String pass) {
+        try { Class.forName(driver); } catch (ClassNotFoundException e) { System.err.println("Driver not found: " + e.getMessage()); return; }
+
+        try (Connection conn = DriverManager.getConnection(url, user, pass);
+             Statement stmt = conn.createStatement()) {
+            boolean openGauss = false;
+            try (ResultSet rs = stmt.executeQuery("SELECT version()")) {
+                if (rs.next()) openGauss = rs.getString(1).toLowerCase(Locale.ROOT).contains("opengauss");
+            }
+            int lo, hi;
+            try (ResultSet rs = stmt.executeQuery("SELECT MIN(year_released), MAX(year_released) FROM movies")) {
+                rs.next();
+                lo = Math.floorDiv(rs.getInt(1), 10) * 10;
+                hi = rs.getInt(2) + 1;
+            }
+
+            try {
+                // 0 = unpartitioned baseline
+                List<Integer> counts = new ArrayList<>();
+                counts.add(0);
+                for (int n : PARTITION_COUNTS) counts.add(n == DECADES ? (hi - lo + 9) / 10 : n);
+
+                for (int n : counts) {
+                    dropTables(stmt);
+                    long t0 = System.nanoTime();
+                    createTable(stmt, "pt_movies", MOVIES_COLS, n, lo, hi, openGauss);
+                    createTable(stmt, "pt_credits", CREDITS_COLS, n, lo, hi, openGauss);
+                    stmt.execute(String.format(LOAD_MOVIES, "pt_movies"));
+                    stmt.execute(String.format(LOAD_CREDITS, "pt_credits"));
+                    stmt.execute("ANALYZE pt_movies");
+                    stmt.execute("ANALYZE pt_credits");
+                    double buildMs = (System.nanoTime() - t0) / 1_000_000.0;
+                    System.out.printf("%s: %d partitions built in %.1f ms%n", dbName, n, buildMs);
+
+                    for (int q = 0; q < QUERY_SQL.length; q++) {
+                        String sql = QUERY_SQL[q].replace("{M}", "pt_movies").replace("{C}", "pt_credits");
+                        System.out.printf("Running %s partitions=%d %s%n", dbName, n, QUERY_NAMES[q]);
+                        rows.add(runQuery(stmt, dbName, n, buildMs, QUERY_NAMES[q], sql));
+                    }
+                }
+            } finally {
+                dropTables(stmt);
+            }
+        } catch (SQLException e) {
+            System.err.println(dbName + " run failed: " + e.getMessage());
+        }
+    }
+
+    static void dropTables(Statement stmt) throws SQLException {
+        stmt.execute("DROP TABLE IF EXISTS pt_movies");
+        stmt.execute("DROP TABLE IF EXISTS pt_credits");
+    }
+
+    /** n == 0 -> plain table; otherwise n ranges of ceil((hi - lo) / n) years from lo, first and last open-ended. */
+    static void createTable(Statement stmt, String table, String cols, int n, int lo, int hi, boolean openGauss) throws SQLException {
+        if (n == 0) {
+            stmt.execute("CREATE TABLE " + table + "(" + cols + ")");
+            return;
+        }
+        int width = Math.max(1, (hi - lo + n - 1) / n);
+        if (openGauss) {
+            StringBuilder sb = new StringBuilder("CREATE TABLE " + table + "(" + cols + ") PARTITION BY RANGE (year_released) (");
+            for (int i = 0; i < n; i++) {
+                if (i > 0) sb.append(", ");
+                sb.append(String.format("PARTITION %s_p_%d VALUES LESS THAN (%s)", table, i,
+                        i == n - 1 ? "MAXVALUE" : Integer.toString(lo + (i + 1) * width)));
+            }
+            stmt.execute(sb.append(")").toString());
+        } else {
+            stmt.execute("CREATE TABLE " + table + "(" + cols + ") PARTITION BY RANGE (year_released)");
+            for (int i = 0; i < n; i++) {
+                stmt.execute(String.format("CREATE TABLE %s_p_%d PARTITION OF %s FOR VALUES FROM (%s) TO (%s)", table, i, table,
+                        i == 0 ? "MINVALUE" : Integer.toString(lo + i * width),
+                        i == n - 1 ? "MAXVALUE" : Integer.toString(lo + (i + 1) * width)));
+            }
+        }
+    }
+
+    static String[] runQuery(Statement stmt, String db, int n, double buildMs, String name, String sql) throws SQLException {
+        List<String> plan = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery("EXPLAIN ANALYZE " + sql)) {
+            while (rs.next()) plan.add(rs.getString(1));
+        }
+        String planMs = "NA";
+        for (String line : plan) {
+            Matcher m = PLANNING.matcher(line);
+            if (m.find()) planMs = m.group(1);
+        }
+        String scanned = n == 0 ? "NA" : Integer.toString(partitionsScanned(plan));
+
+        List<Double> explain = new ArrayList<>();
+        List<Double> lat = new ArrayList<>();
+        int resultRows = 0;
+        for (int i = 0; i < WARMUP_RUNS + RUNS; i++) {
+            long s = System.nanoTime();
+            try (ResultSet rs = stmt.executeQuery("EXPLAIN " + sql)) {
+                while (rs.next()) { }
+            }
+            if (i >= WARMUP_RUNS) explain.add((System.nanoTime() - s) / 1_000_000.0);
+
+            resultRows = 0;
+            s = System.nanoTime();
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) resultRows++;
+            }
+            if (i >= WARMUP_RUNS) lat.add((System.nanoTime() - s) / 1_000_000.0);
+        }
+        double explainMs = explain.stream().mapToDouble(d -> d).average().orElse(0.0);
+        double[] a = lat.stream().mapToDouble(d -> d).sorted().toArray();
+        double avg = Arrays.stream(a).average().orElse(0.0);
+        double p99 = a.length == 0 ? 0.0 : a[Math.min(a.length - 1, (int) Math.ceil(0.99 * a.length) - 1)];
+        System.out.printf("%-10s n=%-4d %-16s rows=%d scanned=%s plan=%s ms explain=%.2f ms avg=%.2f ms p99=%.2f ms%n",
+                db, n, name, resultRows, scanned, planMs, explainMs, avg, p99);
+        return new String[]{db, Integer.toString(n), String.format("%.1f", buildMs), name, Integer.toString(resultRows),
+                scanned, planMs, String.format("%.3f", explainMs), String.format("%.3f", avg), String.format("%.3f", p99)};
+    }
+
+    // openGauss: "Selected Partitions:  1..3,7"; PostgreSQL: distinct child tables appearing as scan targets
+    static int partitionsScanned(List<String> plan) {
+        int selected = 0;
+        boolean sawSelected = false;
+        Set<String> children = new HashSet<>();
+        for (String line : plan) {
+            Matcher m = SELECTED.matcher(line);
+            if (m.find()) {
+                sawSelected = true;
+                for (String part : m.group(1).trim().split(",")) {
+                    part = part.trim();
+                    if (part.isEmpty()) continue;
+                    int dots = part.indexOf("..");
+                    selected += dots < 0 ? 1 : Integer.parseInt(part.substring(dots + 2).trim()) - Integer.parseInt(part.substring(0, dots).trim()) + 1;
+                }
+            }
+            Matcher c = CHILD_SCAN.matcher(line);
+            while (c.find()) children.add(c.group(1));
+        }
+        return sawSelected ? selected : children.size();
+    }
+}
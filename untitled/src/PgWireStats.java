@@ -0,0 +1,172 @@
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PgWireStats
+ *
+ * Passive PostgreSQL v3 protocol accounting for LatencyProxy (openGauss speaks the same framing).
+ * The proxy hands every chunk it forwards to a per-connection Parser, which only follows message
+ * boundaries (type byte + int32 length, untyped startup packets, the one-byte SSL/GSS reply) and never
+ * delays or changes the bytes.
+ *
+ * Traffic up to the first ReadyForQuery of a connection is counted as startup (auth, parameter status)
+ * and the client's Terminate ('X') as teardown; everything in between is operation traffic, so opening
+ * and closing connections inside a cell does not inflate the per-op columns. A round trip is counted whenever the client sends after the
+ * server has answered, so a pipelined Parse/Bind/Execute/Sync is one round trip.
+ *
+ * Enable with -Dnet.wire=true (alone or with the other -Dnet.* options); benchmarks then take a
+ * snapshot(url) before and after a cell and write perOp(...) into their summary CSVs.
+ */
+public class PgWireStats {
+
+    static final int SSL_REQUEST = 80877103, GSSENC_REQUEST = 80877104;
+
+    /** Columns added to summary CSVs. */
+    public static final String CSV_HEADER = "RoundTrips_per_op,Msgs_up_per_op,Msgs_down_per_op,Bytes_up_per_op,Bytes_down_per_op";
+    static final String[] NA = {"NA", "NA", "NA", "NA", "NA"};
+
+    final LongAdder roundTrips = new LongAdder();
+    final LongAdder msgsUp = new LongAdder(), msgsDown = new LongAdder();
+    final LongAdder bytesUp = new LongAdder(), bytesDown = new LongAdder();
+    final LongAdder startupBytes = new LongAdder(), teardownBytes = new LongAdder();
+    final LongAdder connections = new LongAdder();
+    final Map<String, LongAdder> byType = new ConcurrentHashMap<>(); // "F:Q", "B:D", ...
+
+    public static final class Snapshot {
+        public final long roundTrips, msgsUp, msgsDown, bytesUp, bytesDown, startupBytes, teardownBytes, connections;
+
+        Snapshot(PgWireStats s) {
+            roundTrips = s.roundTrips.sum();
+            msgsUp = s.msgsUp.sum();
+            msgsDown = s.msgsDown.sum();
+            bytesUp = s.bytesUp.sum();
+            bytesDown = s.bytesDown.sum();
+            startupBytes = s.startupBytes.sum();
+            teardownBytes = s.teardownBytes.sum();
+            connections = s.connections.sum();
+        }
+    }
+
+    public Snapshot snapshot() { return new Snapshot(this); }
+
+    /** Message counts by direction and type, e.g. {"F:P"=200, "B:D"=200, ...}. */
+    public Map<String, Long> messageTypes() {
+        Map<String, Long> m = new TreeMap<>();
+        byType.forEach((k, v) -> m.put(k, v.sum()));
+        return m;
+    }
+
+    /** Snapshot of the proxy behind a LatencyProxy.wrap() URL, or null when wire accounting is off. */
+    public static Snapshot snapshot(String url) {
+        PgWireStats s = LatencyProxy.wireStats(url);
+        return s == null ? null : s.snapshot();
+    }
+
+    /** Per-operation columns (see CSV_HEADER) for the traffic between two snapshots; "NA" when off. */
+    public static String[] perOp(Snapshot before, Snapshot after, long ops) {
+        if (before == null || after == null || ops <= 0) return NA.clone();
+        double n = ops;
+        return new String[]{
+                String.format("%.2f", (after.roundTrips - before.roundTrips) / n),
+                String.format("%.2f", (after.msgsUp - before.msgsUp) / n),
+                String.format("%.2f", (after.msgsDown - before.msgsDown) / n),
+                String.format("%.1f", (after.bytesUp - before.bytesUp) / n),
+                String.format("%.1f", (after.bytesDown - before.bytesDown) / n)};
+    }
+
+    Parser newConnection() {
+        connections.increment();
+        return new Parser();
+    }
+
+    /** Follows the message framing of one connection; called from the proxy's selector thread only. */
+    final class Parser {
+        final Stream up = new Stream(true), down = new Stream(false);
+        boolean ready;            // first ReadyForQuery seen
+        boolean lastFromServer = true;
+        boolean opaque;           // TLS negotiated: framing no longer visible
+        boolean expectSingleByte; // reply to SSLRequest / GSSENCRequest
+
+        void feed(ByteBuffer chunk, boolean fromClient) {
+            if (opaque) return;
+            (fromClient ? up : down).feed(chunk);
+        }
+
+        final class Stream {
+            final boolean client;
+            final byte[] hdr = new byte[8];
+            int hdrPos;
+            long skip;            // body bytes of the current message still to pass
+            boolean startup;
+
+            Stream(boolean client) {
+                this.client = client;
+                this.startup = client;
+            }
+
+            void feed(ByteBuffer chunk) {
+                int pos = chunk.position(), end = chunk.limit();
+                while (pos < end && !opaque) {
+                    if (skip > 0) {
+                        int n = (int) Math.min(skip, end - pos);
+                        skip -= n;
+                        pos += n;
+                        continue;
+                    }
+                    if (!client && expectSingleByte) {
+                        expectSingleByte = false;
+                        byte reply = chunk.get(pos++);
+                        message((char) reply, 1);
+                        if (reply == 'S' || reply == 'G') opaque = true;
+                        continue;
+                    }
+                    int hdrSize = startup ? 8 : 5;
+                    hdr[hdrPos++] = chunk.get(pos++);
+                    if (hdrPos < hdrSize) continue;
+                    hdrPos = 0;
+                    if (startup) {
+                        int len = readInt(0), code = readInt(4);
+                        skip = Math.max(0, len - 8);
+                        message('0', len);
+                        if (code == SSL_REQUEST || code == GSSENC_REQUEST) expectSingleByte = true;
+                        else startup = false;
+                    } else {
+                        char type = (char) hdr[0];
+                        int len = readInt(1);
+                        skip = Math.max(0, len - 4);
+                        message(type, len + 1L);
+                    }
+                }
+            }
+
+            int readInt(int at) {
+                return ((hdr[at] & 0xff) << 24) | ((hdr[at + 1] & 0xff) << 16) | ((hdr[at + 2] & 0xff) << 8) | (hdr[at + 3] & 0xff);
+            }
+
+            void message(char type, long size) {
+                byType.computeIfAbsent((client ? "F:" : "B:") + type, k -> new LongAdder()).increment();
+                if (!ready) {
+                    startupBytes.add(size);
+                    if (!client && type == 'Z') { ready = true; lastFromServer = true; }
+                    return;
+                }
+                if (client && type == 'X') { // Terminate: connection teardown, not part of any operation
+                    teardownBytes.add(size);
+                    return;
+                }
+                if (client) {
+                    if (lastFromServer) roundTrips.increment();
+                    lastFromServer = false;
+                    msgsUp.increment();
+                    bytesUp.add(size);
+                } else {
+                    lastFromServer = true;
+                    msgsDown.increment();
+                    bytesDown.add(size);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * QueryResultCache
+ *
+ * Client-side result cache that sits in front of a JDBC connection, like an application cache would.
+ *
+ *  - key: SQL text + bind parameters
+ *  - size-bounded LRU, split into independently locked segments so concurrent readers rarely contend
+ *  - optional TTL (ttlMillis <= 0 disables it)
+ *  - per-table invalidation: every table has an epoch counter, writes bump it and entries
+ *    remember the epochs they were loaded under, so stale entries miss lazily on the next get
+ *
+ * Usage:
+ *   QueryResultCache cache = new QueryResultCache(10_000, 0);
+ *   List<Object[]> rows = cache.query(conn, "SELECT ... WHERE movieid = ?", new String[]{"movies"}, id);
+ *   cache.update(conn, "UPDATE people SET ... WHERE peopleid = ?", new String[]{"people"}, id);
+ *
+ * Existing harness workers (HardBenchmarkTest, ComparePerformance, ComparePerformanceEnhanced) read through
+ * shared(url) when started with -Dcache.results=true (-Dcache.maxEntries, -Dcache.ttlMs); their writes invalidate it.
+ */
+public class QueryResultCache {
+
+    static final int SEGMENTS = 16;
+
+    static final boolean SHARED_ON = Boolean.getBoolean("cache.results");
+    static final ConcurrentHashMap<String, QueryResultCache> SHARED = new ConcurrentHashMap<>();
+
+    /**
+     * Cache of the existing harness workers for one target (its JDBC URL, so targets running the same SQL
+     * never see each other's rows); null (off) unless -Dcache.results=true.
+     */
+    public static QueryResultCache shared(String url) {
+        if (!SHARED_ON) return null;
+        return SHARED.computeIfAbsent(url, u -> new QueryResultCache(
+                Integer.getInteger("cache.maxEntries", 10_000), Long.getLong("cache.ttlMs", 0L)));
+    }
+
+    /** One line per shared cache (target, hit ratio, entries); nothing when they are off. */
+    public static void printShared() {
+        for (Map.Entry<String, QueryResultCache> e : new TreeMap<>(SHARED).entrySet()) {
+            System.out.printf("Result cache %s: hit ratio %.4f, %d entries%n", e.getKey(), e.getValue().hitRatio(), e.getValue().size());
+        }
+    }
+
+    static final class Key {
+        final String sql;
+        final Object[] params;
+        final int hash;
+
+        Key(String sql, Object[] params) {
+            this.sql = sql;
+            this.params = params == null ? new Object[0] : params.clone();
+            this.hash = 31 * sql.hashCode() + Arrays.hashCode(this.params);
+        }
+
+        @Override public int hashCode() { return hash; }
+
+        @Override public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return hash == k.hash && sql.equals(k.sql) && Arrays.equals(params, k.params);
+        }
+    }
+
+    static final class Entry {
+        final List<Object[]> rows;
+        final String[] tables;
+        final long[] epochs;
+        final long expiresAtNanos;
+
+        Entry(List<Object[]> rows, String[] tables, long[] epochs, long expiresAtNanos) {
+            this.rows = rows;
+            this.tables = tables;
+            this.epochs = epochs;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    // one access-ordered LinkedHashMap per segment, guarded by its own monitor
+    static final class Segment extends LinkedHashMap<Key, Entry> {
+        private static final long serialVersionUID = 1L;
+
+        final int capacity;
+        long evictions;
+
+        Segment(int capacity) {
+            super(Math.max(16, capacity * 4 / 3), 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            if (size() > capacity) { evictions++; return true; }
+            return false;
+        }
+    }
+
+    final Segment[] segments = new Segment[SEGMENTS];
+    final long ttlNanos;
+    final ConcurrentHashMap<String, AtomicLong> tableEpochs = new ConcurrentHashMap<>();
+
+    final LongAdder hits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    final LongAdder expired = new LongAdder();
+    final LongAdder invalidated = new LongAdder();
+
+    public QueryResultCache(int maxEntries, long ttlMillis) {
+        int perSegment = Math.max(1, maxEntries / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) segments[i] = new Segment(perSegment);
+        this.ttlNanos = ttlMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(ttlMillis) : 0;
+    }
+
+    Segment segmentFor(Key key) {
+        int h = key.hash ^ (key.hash >>> 16);
+        return segments[h & (SEGMENTS - 1)];
+    }
+
+    AtomicLong epochOf(String table) {
+        return tableEpochs.computeIfAbsent(table.toLowerCase(), t -> new AtomicLong());
+    }
+
+    /** Current epochs of the given tables; take this BEFORE running the query that fills the entry. */
+    long[] snapshotEpochs(String[] tables) {
+        long[] e = new long[tables.length];
+        for (int i = 0; i < tables.length; i++) e[i] = epochOf(tables[i]).get();
+        return e;
+    }
+
+    /** Cached rows or null on miss (absent, expired, or invalidated by a write to one of its tables). */
+    public List<Object[]> get(String sql, Object... params) {
+        Key key = new Key(sql, params);
+        Segment seg = segmentFor(key);
+        Entry e;
+        synchronized (seg) { e = seg.get(key); }
+        if (e == null) { misses.increment(); return null; }
+        if (ttlNanos > 0 && System.nanoTime() - e.expiresAtNanos > 0) {
+            synchronized (seg) { seg.remove(key, e); }
+            expired.increment(); misses.increment();
+            return null;
+        }
+        for (int i = 0; i < e.tables.length; i++) {
+            if (epochOf(e.tables[i]).get() != e.epochs[i]) {
+                synchronized (seg) { seg.remove(key, e); }
+                invalidated.increment(); misses.increment();
+                return null;
+            }
+        }
+        hits.increment();
+        return e.rows;
+    }
+
+    public void put(String sql, Object[] params, String[] tables, long[] epochs, List<Object[]> rows) {
+        Key key = new Key(sql, params);
+        Entry e = new Entry(Collections.unmodifiableList(rows), tables.clone(), epochs,
+                ttlNanos > 0 ? System.nanoTime() + ttlNanos : 0);
+        Segment seg = segmentFor(key);
+        synchronized (seg) { seg.put(key, e); }
+    }
+
+    /** Read-through query: serves from the cache, or executes on conn and caches the materialized rows. */
+    public List<Object[]> query(Connection conn, String sql, String[] tables, Object... params) throws SQLException {
+        List<Object[]> rows = get(sql, params);
+        if (rows != null) return rows;
+        long[] epochs = snapshotEpochs(tables);
+        rows = executeQuery(conn, sql, params);
+        put(sql, params, tables, epochs, rows);
+        return rows;
+    }
+
+    /** Read-through on a statement the caller already prepared for sql; params are bound only on a miss. */
+    public List<Object[]> query(PreparedStatement ps, String sql, String[] tables, Object... params) throws SQLException {
+        List<Object[]> rows = get(sql, params);
+        if (rows != null) return rows;
+        long[] epochs = snapshotEpochs(tables);
+        bind(ps, params);
+        try (ResultSet rs = ps.executeQuery()) { rows = readRows(rs); }
+        put(sql, params, tables, epochs, rows);
+        return rows;
+    }
+
+    /** Read-through for literal SQL run on a plain Statement (the key is the SQL text alone). */
+    public List<Object[]> queryLiteral(Statement stmt, String sql, String[] tables) throws SQLException {
+        List<Object[]> rows = get(sql);
+        if (rows != null) return rows;
+        long[] epochs = snapshotEpochs(tables);
+        try (ResultSet rs = stmt.executeQuery(sql)) { rows = readRows(rs); }
+        put(sql, new Object[0], tables, epochs, rows);
+        return rows;
+    }
+
+    /** Write-through update: executes on conn and invalidates every entry depending on the given tables. */
+    public int update(Connection conn, String sql, String[] tables, Object... params) throws SQLException {
+        int n;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            bind(ps, params);
+            n = ps.executeUpdate();
+        }
+        invalidate(tables);
+        return n;
+    }
+
+    public void invalidate(String... tables) {
+        for (String t : tables) epochOf(t).incrementAndGet();
+    }
+
+    static List<Object[]> executeQuery(Connection conn, String sql, Object[] params) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            bind(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                return readRows(rs);
+            }
+        }
+    }
+
+    static List<Object[]> readRows(ResultSet rs) throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        int cols = rs.getMetaData().getColumnCount();
+        while (rs.next()) {
+            Object[] row = new Object[cols];
+            for (int i = 0; i < cols; i++) row[i] = rs.getObject(i + 1);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    static void bind(PreparedStatement ps, Object[] params) throws SQLException {
+        if (params == null) return;
+        for (int i = 0; i < params.length; i++) ps.setObject(i + 1, params[i]);
+    }
+
+    public long size() {
+        long n = 0;
+        for (Segment s : segments) synchronized (s) { n += s.size(); }
+        return n;
+    }
+
+    public long evictions() {
+        long n = 0;
+        for (Segment s : segments) synchronized (s) { n += s.evictions; }
+        return n;
+    }
+
+    public double hitRatio() {
+        long h = hits.sum(), m = misses.sum();
+        return h + m == 0 ? 0.0 : (double) h / (h + m);
+    }
+}
@@ -0,0 +1,342 @@
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * RoaringBitmap
+ *
+ * Compressed set of non-negative int row ids in the Roaring layout: ids are split by their high 16 bits
+ * into containers, and each container stores its low 16 bits either as a sorted char[] (sparse, at most
+ * ARRAY_MAX values) or as a 1024-word bitset (dense). Containers switch representation as they grow or shrink.
+ *
+ * and/or/andNot/not return new bitmaps and never modify their inputs. cardinality() is the sum of the
+ * container counts, and andCardinality/orCardinality/andNotCardinality count a combination without
+ * building it, so COUNT(*) over a filter never materializes row ids.
+ *
+ * Usage:
+ *   RoaringBitmap us = new RoaringBitmap(); us.add(3); us.add(70000);
+ *   long n = us.andNotCardinality(other);
+ */
+public class RoaringBitmap {
+
+    static final int ARRAY_MAX = 4096;
+    static final int WORDS = 1024;
+
+    /** One 2^16-value chunk: sorted array while sparse, bitset once it exceeds ARRAY_MAX values. */
+    static final class Container {
+        char[] array; // null when this container is a bitset
+        long[] bits;
+        int card;
+
+        static Container ofArray(char[] a, int card) {
+            if (card == 0) return null;
+            Container c = new Container();
+            c.array = a;
+            c.card = card;
+            return c;
+        }
+
+        static Container ofBits(long[] w, int card) {
+            if (card == 0) return null;
+            Container c = new Container();
+            if (card <= ARRAY_MAX) {
+                c.array = new char[card];
+                int k = 0;
+                for (int i = 0; i < WORDS; i++) {
+                    long word = w[i];
+                    while (word != 0) {
+                        c.array[k++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                c.bits = w;
+            }
+            c.card = card;
+            return c;
+        }
+
+        boolean contains(char v) {
+            if (bits != null) return (bits[v >>> 6] & (1L << v)) != 0;
+            return Arrays.binarySearch(array, 0, card, v) >= 0;
+        }
+
+        void add(char v) {
+            if (bits != null) {
+                long mask = 1L << v;
+                if ((bits[v >>> 6] & mask) == 0) { bits[v >>> 6] |= mask; card++; }
+                return;
+            }
+            // appends in ascending order are the common case while an index is being built
+            int pos = card > 0 && array[card - 1] < v ? -(card + 1) : Arrays.binarySearch(array, 0, card, v);
+            if (pos >= 0) return;
+            pos = -pos - 1;
+            if (card == ARRAY_MAX) {
+                bits = toBits();
+                array = null;
+                bits[v >>> 6] |= 1L << v;
+                card++;
+                return;
+            }
+            if (card == array.length) array = Arrays.copyOf(array, Math.min(ARRAY_MAX, Math.max(4, card * 2)));
+            System.arraycopy(array, pos, array, pos + 1, card - pos);
+            array[pos] = v;
+            card++;
+        }
+
+        long[] toBits() {
+            if (bits != null) return bits.clone();
+            long[] w = new long[WORDS];
+            for (int i = 0; i < card; i++) w[array[i] >>> 6] |= 1L << array[i];
+            return w;
+        }
+
+        Container copy() {
+            Container c = new Container();
+            c.array = array == null ? null : Arrays.copyOf(array, card);
+            c.bits = bits == null ? null : bits.clone();
+            c.card = card;
+            return c;
+        }
+
+        long sizeInBytes() {
+            return bits != null ? 8L * WORDS : 2L * card;
+        }
+    }
+
+    char[] keys = new char[4];
+    Container[] containers = new Container[4];
+    int size;
+
+    public void add(int row) {
+        if (row < 0) throw new IllegalArgumentException("row id must be >= 0: " + row);
+        char high = (char) (row >>> 16);
+        int i = size > 0 && keys[size - 1] == high ? size - 1 : indexOf(high);
+        if (i < 0) {
+            i = -i - 1;
+            Container c = new Container();
+            c.array = new char[4];
+            insertAt(i, high, c);
+        }
+        containers[i].add((char) row);
+    }
+
+    public boolean contains(int row) {
+        if (row < 0) return false;
+        int i = indexOf((char) (row >>> 16));
+        return i >= 0 && containers[i].contains((char) row);
+    }
+
+    public long cardinality() {
+        long n = 0;
+        for (int i = 0; i < size; i++) n += containers[i].card;
+        return n;
+    }
+
+    public boolean isEmpty() { return size == 0; }
+
+    public long sizeInBytes() {
+        long n = 3L * size; // key + type tag per container
+        for (int i = 0; i < size; i++) n += containers[i].sizeInBytes();
+        return n;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            int base = keys[i] << 16;
+            Container c = containers[i];
+            if (c.bits == null) {
+                for (int k = 0; k < c.card; k++) action.accept(base | c.array[k]);
+            } else {
+                for (int w = 0; w < WORDS; w++) {
+                    long word = c.bits[w];
+                    while (word != 0) {
+                        action.accept(base | (w << 6) + Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                    }
+                }
+            }
+        }
+    }
+
+    // ======================== set operations ========================
+
+    public RoaringBitmap and(RoaringBitmap o) {
+        RoaringBitmap r = new RoaringBitmap();
+        int i = 0, j = 0;
+        while (i < size && j < o.size) {
+            if (keys[i] < o.keys[j]) i++;
+            else if (keys[i] > o.keys[j]) j++;
+            else {
+                Container c = and(containers[i], o.containers[j]);
+                if (c != null) r.append(keys[i], c);
+                i++; j++;
+            }
+        }
+        return r;
+    }
+
+    public RoaringBitmap or(RoaringBitmap o) {
+        RoaringBitmap r = new RoaringBitmap();
+        int i = 0, j = 0;
+        while (i < size || j < o.size) {
+            if (j == o.size || (i < size && keys[i] < o.keys[j])) { r.append(keys[i], containers[i].copy()); i++; }
+            else if (i == size || keys[i] > o.keys[j]) { r.append(o.keys[j], o.containers[j].copy()); j++; }
+            else { r.append(keys[i], or(containers[i], o.containers[j])); i++; j++; }
+        }
+        return r;
+    }
+
+    public RoaringBitmap andNot(RoaringBitmap o) {
+        RoaringBitmap r = new RoaringBitmap();
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < o.size && o.keys[j] < keys[i]) j++;
+            Container c = j < o.size && o.keys[j] == keys[i] ? andNot(containers[i], o.containers[j]) : containers[i].copy();
+            if (c != null) r.append(keys[i], c);
+        }
+        return r;
+    }
+
+    /** Complement within the row ids [0, universe). */
+    public RoaringBitmap not(int universe) {
+        return range(universe).andNot(this);
+    }
+
+    public long andCardinality(RoaringBitmap o) {
+        long n = 0;
+        int i = 0, j = 0;
+        while (i < size && j < o.size) {
+            if (keys[i] < o.keys[j]) i++;
+            else if (keys[i] > o.keys[j]) j++;
+            else n += andCardinality(containers[i++], o.containers[j++]);
+        }
+        return n;
+    }
+
+    public long orCardinality(RoaringBitmap o) {
+        return cardinality() + o.cardinality() - andCardinality(o);
+    }
+
+    public long andNotCardinality(RoaringBitmap o) {
+        return cardinality() - andCardinality(o);
+    }
+
+    /** All row ids in [0, n). */
+    public static RoaringBitmap range(int n) {
+        RoaringBitmap r = new RoaringBitmap();
+        for (int base = 0; base < n && base >= 0; base += 1 << 16) {
+            int count = Math.min(1 << 16, n - base);
+            long[] w = new long[WORDS];
+            for (int k = 0; k < count >>> 6; k++) w[k] = -1L;
+            if ((count & 63) != 0) w[count >>> 6] = (1L << count) - 1;
+            r.append((char) (base >>> 16), Container.ofBits(w, count));
+        }
+        return r;
+    }
+
+    static Container and(Container a, Container b) {
+        if (a.bits == null && b.bits == null) {
+            char[] out = new char[Math.min(a.card, b.card)];
+            int i = 0, j = 0, k = 0;
+            while (i < a.card && j < b.card) {
+                if (a.array[i] < b.array[j]) i++;
+                else if (a.array[i] > b.array[j]) j++;
+                else { out[k++] = a.array[i]; i++; j++; }
+            }
+            return Container.ofArray(out, k);
+        }
+        if (a.bits == null || b.bits == null) {
+            Container arr = a.bits == null ? a : b, set = a.bits == null ? b : a;
+            char[] out = new char[arr.card];
+            int k = 0;
+            for (int i = 0; i < arr.card; i++) if (set.contains(arr.array[i])) out[k++] = arr.array[i];
+            return Container.ofArray(out, k);
+        }
+        long[] w = new long[WORDS];
+        int card = 0;
+        for (int i = 0; i < WORDS; i++) { w[i] = a.bits[i] & b.bits[i]; card += Long.bitCount(w[i]); }
+        return Container.ofBits(w, card);
+    }
+
+    static Container or(Container a, Container b) {
+        if (a.bits == null && b.bits == null && a.card + b.card <= ARRAY_MAX) {
+            char[] out = new char[a.card + b.card];
+            int i = 0, j = 0, k = 0;
+            while (i < a.card || j < b.card) {
+                if (j == b.card || (i < a.card && a.array[i] < b.array[j])) out[k++] = a.array[i++];
+                else if (i == a.card || a.array[i] > b.array[j]) out[k++] = b.array[j++];
+                else { out[k++] = a.array[i]; i++; j++; }
+            }
+            return Container.ofArray(out, k);
+        }
+        long[] w = a.toBits();
+        if (b.bits != null) for (int i = 0; i < WORDS; i++) w[i] |= b.bits[i];
+        else for (int i = 0; i < b.card; i++) w[b.array[i] >>> 6] |= 1L << b.array[i];
+        int card = 0;
+        for (long word : w) card += Long.bitCount(word);
+        return Container.ofBits(w, card);
+    }
+
+    static Container andNot(Container a, Container b) {
+        if (a.bits == null) {
+            char[] out = new char[a.card];
+            int k = 0;
+            for (int i = 0; i < a.card; i++) if (!b.contains(a.array[i])) out[k++] = a.array[i];
+            return Container.ofArray(out, k);
+        }
+        long[] w = a.bits.clone();
+        if (b.bits != null) for (int i = 0; i < WORDS; i++) w[i] &= ~b.bits[i];
+        else for (int i = 0; i < b.card; i++) w[b.array[i] >>> 6] &= ~(1L << b.array[i]);
+        int card = 0;
+        for (long word : w) card += Long.bitCount(word);
+        return Container.ofBits(w, card);
+    }
+
+    static int andCardinality(Container a, Container b) {
+        int n = 0;
+        if (a.bits != null && b.bits != null) {
+            for (int i = 0; i < WORDS; i++) n += Long.bitCount(a.bits[i] & b.bits[i]);
+        } else if (a.bits == null && b.bits == null) {
+            int i = 0, j = 0;
+            while (i < a.card && j < b.card) {
+                if (a.array[i] < b.array[j]) i++;
+                else if (a.array[i] > b.array[j]) j++;
+                else { n++; i++; j++; }
+            }
+        } else {
+            Container arr = a.bits == null ? a : b, set = a.bits == null ? b : a;
+            for (int i = 0; i < arr.card; i++) if (set.contains(arr.array[i])) n++;
+        }
+        return n;
+    }
+
+    // ======================== container directory ========================
+
+    int indexOf(char key) {
+        int lo = 0, hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) lo = mid + 1;
+            else if (keys[mid] > key) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+
+    void insertAt(int i, char key, Container c) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = key;
+        containers[i] = c;
+        size++;
+    }
+
+    // keys must arrive in ascending order
+    void append(char key, Container c) {
+        insertAt(size, key, c);
+    }
+}
@@ -0,0 +1,218 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * SaturationSearch
+ *
+ * Finds the concurrency level that gives peak throughput for each (DBMS, workload) instead of reading
+ * the fixed THREADS = {1, 8, 16, 32} columns by eye, then fits the Universal Scalability Law
+ *
+ *     X(N) = lambda * N / (1 + sigma * (N - 1) + kappa * N * (N - 1))
+ *
+ * to the measured points (sigma = contention, kappa = coherency).
+ *
+ * Search: the thread count doubles while throughput keeps growing and p99 stays under P99_SLA_MS;
+ * once throughput falls (or the SLA is broken) the interval between the last good point and the
+ * failing point is bisected until it is narrower than MIN_STEP. Each point reuses
+ * HardBenchmarkTest.runWorkload, so the numbers are comparable with qps_tps_summary.csv.
+ * A step where workers cannot connect (max_connections, "too many clients") ends the search: that thread
+ * count is reported as the connection limit and kept out of the fit, since it is not a throughput collapse.
+ *
+ * Outputs:
+ *   result/usl_points.csv -> every measured (DBMS, workload, threads) point
+ *   result/usl_fit.csv    -> fitted lambda / sigma / kappa, R^2, predicted peak N* (NA when the fit has no peak),
+ *                            measured peak and the connection limit hit by the search (NA if none)
+ *   result/usl_curve.csv  -> fitted curve X(N) for N = 1 .. CURVE_MAX_N
+ */
+public class SaturationSearch {
+
+    // output
+    static final File RESULT_DIR = new File("result");
+    static final String POINTS_CSV = "result/usl_points.csv";
+    static final String FIT_CSV = "result/usl_fit.csv";
+    static final String CURVE_CSV = "result/usl_curve.csv";
+
+    // search params (tune)
+    static final int OPS_PER_THREAD = 200;
+    static final int MAX_THREADS = 512;
+    static final int MIN_STEP = 2;            // stop bisecting when the bracket is this narrow
+    static final double MIN_GAIN = 0.03;      // < 3% throughput gain counts as "stopped scaling"
+    static final double P99_SLA_MS = 50.0;    // points above this p99 are treated as saturated
+    static final int CURVE_MAX_N = 256;
+
+    public static void main(String[] args) throws Exception {
+        if (!RESULT_DIR.exists()) RESULT_DIR.mkdirs();
+
+        List<String[]> pointRows = new ArrayList<>();
+        List<String[]> fitRows = new ArrayList<>();
+        List<String[]> curveRows = new ArrayList<>();
+
+        String[] dbs = {"PostgreSQL", "openGauss"};
+        String[] modes = {"point_select", "simple_tx"};
+        for (String db : dbs) {
+            for (String mode : modes) {
+                System.out.printf("=== Saturation search %s %s ===%n", db, mode);
+                TreeMap<Integer, HardBenchmarkTest.MultiResult> points = search(db, mode);
+                for (HardBenchmarkTest.MultiResult mr : points.values()) {
+                    pointRows.add(new String[]{db, mode, Integer.toString(mr.threads), Long.toString(mr.totalOps),
+                            String.format("%.2f", mr.qps), String.format("%.3f", mr.avgMs), String.format("%.3f", mr.p99),
+                            Boolean.toString(mr.p99 <= P99_SLA_MS), Integer.toString(mr.connectErrors)});
+                }
+
+                TreeMap<Integer, HardBenchmarkTest.MultiResult> valid = new TreeMap<>();
+                Integer connLimit = null;
+                for (Map.Entry<Integer, HardBenchmarkTest.MultiResult> e : points.entrySet()) {
+                    if (e.getValue().connectErrors == 0) valid.put(e.getKey(), e.getValue());
+                    else if (connLimit == null) connLimit = e.getKey();
+                }
+                if (valid.isEmpty()) {
+                    System.out.printf("USL %s %s: no point without connection errors, skipped%n", db, mode);
+                    fitRows.add(new String[]{db, mode, "0", "NA", "NA", "NA", "NA", "NA", "NA", "NA", "NA",
+                            connLimit == null ? "NA" : Integer.toString(connLimit)});
+                    continue;
+                }
+                UslFit fit = fitUsl(valid);
+                Map.Entry<Integer, HardBenchmarkTest.MultiResult> best = valid.entrySet().stream()
+                        .filter(e -> e.getValue().p99 <= P99_SLA_MS)
+                        .max(Comparator.comparingDouble(e -> e.getValue().qps))
+                        .orElse(valid.firstEntry());
+                String peakN = fmt(fit.peakN(), "%.1f"), peakX = fmt(fit.predict(fit.peakN()), "%.2f");
+                String limit = connLimit == null ? "NA" : Integer.toString(connLimit);
+                System.out.printf("USL %s %s: lambda=%.2f sigma=%.5f kappa=%.7f R2=%.4f N*=%s Xmax=%s (measured peak N=%d X=%.2f, connection limit=%s)%n",
+                        db, mode, fit.lambda, fit.sigma, fit.kappa, fit.r2, peakN, peakX,
+                        best.getKey(), best.getValue().qps, limit);
+                fitRows.add(new String[]{db, mode, Integer.toString(valid.size()),
+                        String.format("%.4f", fit.lambda), String.format("%.6f", fit.sigma), String.format("%.8f", fit.kappa),
+                        String.format("%.4f", fit.r2), peakN, peakX,
+                        Integer.toString(best.getKey()), String.format("%.2f", best.getValue().qps), limit});
+                for (int n = 1; n <= CURVE_MAX_N; n++) {
+                    curveRows.add(new String[]{db, mode, Integer.toString(n), String.format("%.2f", fit.predict(n))});
+                }
+            }
+        }
+
+        writeCsv(POINTS_CSV, "DBMS,Mode,Threads,TotalOps,QPS,Avg_ms,P99_ms,WithinSLA,ConnectErrors", pointRows);
+        writeCsv(FIT_CSV, "DBMS,Mode,Points,Lambda,Sigma,Kappa,R2,PeakN_USL,PeakX_USL,PeakN_measured,PeakX_measured,ConnectionLimitN", fitRows);
+        writeCsv(CURVE_CSV, "DBMS,Mode,N,X_fitted", curveRows);
+        System.out.println("Done. Results in " + RESULT_DIR.getAbsolutePath());
+    }
+
+    // ---------- adaptive sweep ----------
+
+    static TreeMap<Integer, HardBenchmarkTest.MultiResult> search(String db, String mode) {
+        TreeMap<Integer, HardBenchmarkTest.MultiResult> points = new TreeMap<>();
+        int good = 1;
+        HardBenchmarkTest.MultiResult goodRes = measure(points, db, mode, 1);
+        if (goodRes.connectErrors > 0) return points;
+        int bad = -1;
+
+        // phase 1: exponential growth until throughput stops growing or the SLA breaks
+        while (good * 2 <= MAX_THREADS) {
+            int n = good * 2;
+            HardBenchmarkTest.MultiResult r = measure(points, db, mode, n);
+            if (r.connectErrors > 0) return points; // connection limit, not the knee
+            if (r.p99 > P99_SLA_MS || r.qps < goodRes.qps * (1 + MIN_GAIN)) { bad = n; break; }
+            good = n; goodRes = r;
+        }
+        if (bad < 0) return points; // still scaling at MAX_THREADS
+
+        // phase 2: bisect (good, bad) towards the peak
+        while (bad - good > MIN_STEP) {
+            int mid = (good + bad) / 2;
+            HardBenchmarkTest.MultiResult r = measure(points, db, mode, mid);
+            if (r.connectErrors > 0) return points;
+            if (r.p99 <= P99_SLA_MS && r.qps >= goodRes.qps) { good = mid; goodRes = r; }
+            else bad = mid;
+        }
+        return points;
+    }
+
+    static HardBenchmarkTest.MultiResult measure(TreeMap<Integer, HardBenchmarkTest.MultiResult> points,
+                                                 String db, String mode, int threads) {
+        HardBenchmarkTest.MultiResult r = points.get(threads);
+        if (r == null) {
+            System.out.printf("Running %s %s threads=%d ...%n", db, mode, threads);
+            r = HardBenchmarkTest.runWorkload(db, mode, threads, OPS_PER_THREAD);
+            points.put(threads, r);
+        }
+        return r;
+    }
+
+    // ---------- USL fit ----------
+
+    static class UslFit {
+        double lambda, sigma, kappa, r2;
+
+        double predict(double n) {
+            return lambda * n / (1 + sigma * (n - 1) + kappa * n * (n - 1));
+        }
+
+        /** NaN when kappa <= 0: the fitted curve has no peak within any range. */
+        double peakN() {
+            if (kappa <= 0) return Double.NaN;
+            return Math.sqrt(Math.max(0.0, 1 - sigma) / kappa);
+        }
+    }
+
+    /**
+     * Linearised least-squares fit. With lambda = X(1), the USL becomes
+     *   N / (X(N) / lambda) - 1 = sigma * (N - 1) + kappa * N * (N - 1)
+     * which is linear in (sigma, kappa) with no intercept; the 2x2 normal equations are solved directly
+     * and the coefficients are clamped at 0.
+     */
+    static UslFit fitUsl(TreeMap<Integer, HardBenchmarkTest.MultiResult> points) {
+        double[] n = new double[points.size()], x = new double[points.size()];
+        int k = 0;
+        for (Map.Entry<Integer, HardBenchmarkTest.MultiResult> e : points.entrySet()) {
+            n[k] = e.getKey(); x[k] = e.getValue().qps; k++;
+        }
+        return fitUsl(n, x);
+    }
+
+    static UslFit fitUsl(double[] n, double[] x) {
+        UslFit fit = new UslFit();
+        if (n.length == 0) return fit;
+        // lambda: throughput of a single client (the N = 1 point when present)
+        fit.lambda = x[0] / n[0];
+        for (int i = 0; i < n.length; i++) if (n[i] == 1) fit.lambda = x[i];
+
+        double saa = 0, sab = 0, sbb = 0, say = 0, sby = 0;
+        for (int i = 0; i < n.length; i++) {
+            if (n[i] <= 1 || x[i] <= 0) continue;
+            double a = n[i] - 1, b = n[i] * (n[i] - 1);
+            double y = n[i] * fit.lambda / x[i] - 1;
+            saa += a * a; sab += a * b; sbb += b * b; say += a * y; sby += b * y;
+        }
+        double det = saa * sbb - sab * sab;
+        if (Math.abs(det) > 1e-12) {
+            fit.sigma = (say * sbb - sby * sab) / det;
+            fit.kappa = (saa * sby - sab * say) / det;
+        } else if (saa > 0) {
+            fit.sigma = say / saa; // only one N > 1 point: contention only
+        }
+        if (fit.kappa < 0) { fit.kappa = 0; fit.sigma = saa > 0 ? say / saa : 0; }
+        if (fit.sigma < 0) { fit.sigma = 0; fit.kappa = sbb > 0 ? Math.max(0, sby / sbb) : 0; }
+
+        // R^2 on the throughput scale
+        double mean = Arrays.stream(x).average().orElse(0), ssRes = 0, ssTot = 0;
+        for (int i = 0; i < n.length; i++) {
+            double d = x[i] - fit.predict(n[i]);
+            ssRes += d * d;
+            ssTot += (x[i] - mean) * (x[i] - mean);
+        }
+        fit.r2 = ssTot > 0 ? 1 - ssRes / ssTot : 1.0;
+        return fit;
+    }
+
+    static String fmt(double v, String format) {
+        return Double.isNaN(v) || Double.isInfinite(v) ? "NA" : String.format(format, v);
+    }
+
+    static void writeCsv(String file, String header, List<String[]> rows) {
+        try (PrintWriter pw = new PrintWriter(new FileWriter(file))) {
+            pw.println(header);
+            for (String[] r : rows) pw.println(String.join(",", r));
+            System.out.println("Saved CSV: " + file);
+        } catch (IOException e) { System.err.println("CSV write error: " + e.getMessage()); }
+    }
+}
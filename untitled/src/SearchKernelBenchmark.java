@@ -0,0 +1,146 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * SearchKernelBenchmark
+ *
+ * Compares the File target's title matching step in three forms over SQL/movies.txt:
+ *   legacy        -> line.split(";") + parts[1].toLowerCase().contains(keyword.toLowerCase())
+ *   kernel_string -> BufferedReader lines + CaseInsensitiveMatcher.fieldContains (no split, no toLowerCase)
+ *   kernel_bytes  -> whole file in a ByteBuffer, lines and fields found on bytes, CaseInsensitiveMatcher.containsUtf8
+ *
+ * The file is decoded as UTF-8 in every mode. All three must return the same match count;
+ * a mismatch is reported on stderr.
+ *
+ * Outputs:
+ *   result/search_kernel.csv
+ */
+public class SearchKernelBenchmark {
+
+    static final String MOVIE_FILE = "SQL/movies.txt";
+    static final File RESULT_DIR = new File("result");
+    static final String RESULT_CSV = "result/search_kernel.csv";
+
+    static final int WARMUP_RUNS = 5;
+    static final int RUNS = 30;
+    static final String[] KEYWORDS = {"war", "THE", "gæstebud", "xyzzy"};
+    static final String[] MODES = {"legacy", "kernel_string", "kernel_bytes"};
+
+    public static void main(String[] args) throws Exception {
+        if (!RESULT_DIR.exists()) RESULT_DIR.mkdirs();
+
+        List<String[]> rows = new ArrayList<>();
+        for (String keyword : KEYWORDS) {
+            CaseInsensitiveMatcher matcher = new CaseInsensitiveMatcher(keyword);
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (String mode : MODES) {
+                for (int i = 0; i < WARMUP_RUNS; i++) runOnce(mode, keyword, matcher);
+                List<Double> times = new ArrayList<>();
+                int matches = 0;
+                for (int i = 0; i < RUNS; i++) {
+                    long t0 = System.nanoTime();
+                    matches = runOnce(mode, keyword, matcher);
+                    times.add((System.nanoTime() - t0) / 1_000_000.0);
+                }
+                counts.put(mode, matches);
+                double avg = times.stream().mapToDouble(d -> d).average().orElse(0.0);
+                double min = times.stream().mapToDouble(d -> d).min().orElse(0.0);
+                System.out.printf("%-10s %-14s matches=%d avg=%.3f ms min=%.3f ms%n", keyword, mode, matches, avg, min);
+                rows.add(new String[]{keyword, mode, Integer.toString(RUNS), Integer.toString(matches),
+                        String.format("%.3f", avg), String.format("%.3f", min), String.format("%.3f", percentile(times, 95))});
+            }
+            if (new HashSet<>(counts.values()).size() > 1) {
+                System.err.println("Match count mismatch for '" + keyword + "': " + counts);
+            }
+        }
+
+        try (PrintWriter pw = new PrintWriter(new FileWriter(RESULT_CSV))) {
+            pw.println("Keyword,Mode,Runs,Matches,Avg_ms,Min_ms,P95_ms");
+            for (String[] r : rows) pw.println(String.join(",", r));
+            System.out.println("Saved CSV: " + RESULT_CSV);
+        } catch (IOException e) {
+            System.err.println("CSV write failed: " + e.getMessage());
+        }
+    }
+
+    static int runOnce(String mode, String keyword, CaseInsensitiveMatcher matcher) throws IOException {
+        switch (mode) {
+            case "legacy": return scanLegacy(keyword);
+            case "kernel_string": return scanString(matcher);
+            default: return scanTitlesUtf8(loadFile(MOVIE_FILE), matcher);
+        }
+    }
+
+    static int scanLegacy(String keyword) throws IOException {
+        int count = 0;
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(MOVIE_FILE), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] parts = line.split(";");
+                if (parts.length > 1 && parts[1].toLowerCase().contains(keyword.toLowerCase())) count++;
+            }
+        }
+        return count;
+    }
+
+    static int scanString(CaseInsensitiveMatcher matcher) throws IOException {
+        int count = 0;
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(MOVIE_FILE), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (matcher.fieldContains(line, 1, ';')) count++;
+            }
+        }
+        return count;
+    }
+
+    /** Reads the whole file into a heap ByteBuffer through a FileChannel. */
+    static ByteBuffer loadFile(String path) throws IOException {
+        try (FileChannel ch = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate((int) ch.size());
+            while (buf.hasRemaining() && ch.read(buf) >= 0) { }
+            buf.flip();
+            return buf;
+        }
+    }
+
+    /**
+     * Byte-level scanner: walks the lines of a ';'-separated UTF-8 buffer and tests field 1 (title)
+     * without decoding. Counts every line including the header, like the String workers do.
+     */
+    static int scanTitlesUtf8(ByteBuffer buf, CaseInsensitiveMatcher matcher) {
+        byte[] data = buf.array();
+        int pos = buf.arrayOffset() + buf.position();
+        int end = buf.arrayOffset() + buf.limit();
+        int count = 0;
+        while (pos < end) {
+            int lineEnd = pos;
+            while (lineEnd < end && data[lineEnd] != '\n') lineEnd++;
+            int contentEnd = lineEnd > pos && data[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+
+            int f0 = pos;
+            while (f0 < contentEnd && data[f0] != ';') f0++;
+            if (f0 < contentEnd) {
+                int f1 = f0 + 1;
+                while (f1 < contentEnd && data[f1] != ';') f1++;
+                if (matcher.containsUtf8(data, f0 + 1, f1)) count++;
+            }
+            pos = lineEnd + 1;
+        }
+        return count;
+    }
+
+    static double percentile(List<Double> values, double p) {
+        if (values == null || values.isEmpty()) return 0.0;
+        double[] a = values.stream().mapToDouble(d -> d).sorted().toArray();
+        double rank = p / 100.0 * (a.length - 1);
+        int lo = (int) Math.floor(rank), hi = (int) Math.ceil(rank);
+        if (hi == lo) return a[lo];
+        double w = rank - lo;
+        return a[lo] * (1 - w) + a[hi] * w;
+    }
+}
@@ -0,0 +1,163 @@
+import java.sql.*;
+import java.util.*;
+
+/**
+ * ServerStats
+ *
+ * Server-side counters read before and after a benchmark cell, so client-observed latency can be split into
+ * server work and driver/network overhead. Every source is optional; whatever the server does not offer is
+ * written as NA:
+ *   pg_stat_database        -> commits, rollbacks, blocks read / hit, tuples returned / fetched / updated
+ *   pg_statio_user_tables   -> heap and index blocks read / hit
+ *   pg_stat_statements      -> calls and plan + execution time (openGauss: dbe_perf.statement)
+ *   pg_current_wal_lsn()    -> WAL bytes (openGauss: pg_current_xlog_location())
+ *   pg_stat_bgwriter        -> checkpoints, buffers written by checkpointer / bgwriter / backends
+ *                              (PostgreSQL 17+: pg_stat_checkpointer)
+ *
+ * Snapshot queries carry a marker comment and are left out of the statement totals; the database counters
+ * still include the few autocommit transactions of the snapshots themselves, negligible against a cell.
+ * Backends publish their counters at transaction end or exit, so after() waits SETTLE_MS first.
+ *
+ * Off unless -Dserver.stats=true: each sampled cell costs two extra connections and the settle wait, which
+ * adds up over sweeps (SaturationSearch probes). When off, the harness writes the columns as NA.
+ */
+public class ServerStats {
+
+    static final String MARK = "/* server_stats */ ";
+    static final long SETTLE_MS = 600;
+    static final boolean ENABLED = Boolean.getBoolean("server.stats");
+
+    /** Columns written by row(); keys of Snapshot.values. */
+    public static final String CSV_HEADER = "Client_ms,Server_ms,Server_share,Stmt_calls_per_op,Xact_commit,Xact_rollback,"
+            + "Blks_read,Blks_hit,Buffer_hit_ratio,Tup_returned,Tup_fetched,Tup_updated,"
+            + "Heap_blks_read,Heap_blks_hit,Idx_blks_read,Idx_blks_hit,WAL_bytes,WAL_bytes_per_op,"
+            + "Checkpoints,Buffers_checkpoint,Buffers_clean,Buffers_backend";
+
+    // each source: first candidate that runs wins; column labels become snapshot keys
+    static final String[][] SOURCES = {
+            {"SELECT xact_commit, xact_rollback, blks_read, blks_hit, tup_returned, tup_fetched, tup_updated "
+                    + "FROM pg_stat_database WHERE datname = current_database()"},
+            {"SELECT coalesce(sum(heap_blks_read), 0) AS heap_blks_read, coalesce(sum(heap_blks_hit), 0) AS heap_blks_hit, "
+                    + "coalesce(sum(idx_blks_read), 0) AS idx_blks_read, coalesce(sum(idx_blks_hit), 0) AS idx_blks_hit "
+                    + "FROM pg_statio_user_tables"},
+            {"SELECT coalesce(sum(calls), 0) AS stmt_calls, coalesce(sum(total_plan_time + total_exec_time), 0) AS stmt_ms "
+                    + "FROM pg_stat_statements WHERE dbid = (SELECT oid FROM pg_database WHERE datname = current_database()) "
+                    + "AND query NOT LIKE '%server_stats%'",
+             "SELECT coalesce(sum(calls), 0) AS stmt_calls, coalesce(sum(total_time), 0) AS stmt_ms "
+                    + "FROM pg_stat_statements WHERE dbid = (SELECT oid FROM pg_database WHERE datname = current_database()) "
+                    + "AND query NOT LIKE '%server_stats%'",
+             "SELECT coalesce(sum(n_calls), 0) AS stmt_calls, coalesce(sum(total_elapse_time), 0) / 1000.0 AS stmt_ms "
+                    + "FROM dbe_perf.statement WHERE query NOT LIKE '%server_stats%'"},
+            {"SELECT pg_current_wal_lsn()::text AS wal_lsn",
+             "SELECT pg_current_xlog_location()::text AS wal_lsn"},
+            {"SELECT c.num_timed + c.num_requested AS checkpoints, c.buffers_written AS buffers_checkpoint, "
+                    + "b.buffers_clean AS buffers_clean FROM pg_stat_checkpointer c, pg_stat_bgwriter b",
+             "SELECT checkpoints_timed + checkpoints_req AS checkpoints, buffers_checkpoint, buffers_clean, buffers_backend "
+                    + "FROM pg_stat_bgwriter"}};
+
+    public static final class Snapshot {
+        final Map<String, Double> values = new HashMap<>();
+
+        Double get(String key) { return values.get(key); }
+    }
+
+    /** Counters now, or null if the server cannot be reached. */
+    public static Snapshot before(String driver, String url, String user, String pass) {
+        return take(driver, url, user, pass);
+    }
+
+    public static Snapshot after(String driver, String url, String user, String pass) {
+        try { Thread.sleep(SETTLE_MS); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        return take(driver, url, user, pass);
+    }
+
+    static Snapshot take(String driver, String url, String user, String pass) {
+        try { Class.forName(driver); } catch (ClassNotFoundException e) { return null; }
+        Snapshot s = new Snapshot();
+        try (Connection conn = DriverManager.getConnection(url, user, pass);
+             Statement st = conn.createStatement()) {
+            for (String[] candidates : SOURCES) {
+                for (String sql : candidates) {
+                    try (ResultSet rs = st.executeQuery(MARK + sql)) {
+                        if (rs.next()) read(rs, s);
+                        break;
+                    } catch (SQLException ignore) { /* not available here, try next form */ }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Server stats unavailable: " + e.getMessage());
+            return null;
+        }
+        return s;
+    }
+
+    static void read(ResultSet rs, Snapshot s) throws SQLException {
+        ResultSetMetaData md = rs.getMetaData();
+        for (int c = 1; c <= md.getColumnCount(); c++) {
+            String key = md.getColumnLabel(c).toLowerCase(Locale.ROOT);
+            if (key.equals("wal_lsn")) {
+                Double bytes = lsnBytes(rs.getString(c));
+                if (bytes != null) s.values.put(key, bytes);
+            } else {
+                double v = rs.getDouble(c);
+                if (!rs.wasNull()) s.values.put(key, v);
+            }
+        }
+    }
+
+    // "16/B374D848" -> byte position
+    static Double lsnBytes(String lsn) {
+        if (lsn == null) return null;
+        int slash = lsn.indexOf('/');
+        if (slash < 0) return null;
+        try {
+            return (double) ((Long.parseLong(lsn.substring(0, slash), 16) << 32) + Long.parseLong(lsn.substring(slash + 1), 16));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static Double delta(Snapshot before, Snapshot after, String key) {
+        if (before == null || after == null) return null;
+        Double a = before.get(key), b = after.get(key);
+        return a == null || b == null ? null : b - a;
+    }
+
+    /**
+     * CSV_HEADER columns for one cell. clientMs is the sum of client-observed operation latencies (avg * ops),
+     * so Server_share = server statement time / client time, summed over the same operations.
+     */
+    public static String[] row(Snapshot before, Snapshot after, long ops, double clientMs) {
+        Double serverMs = delta(before, after, "stmt_ms");
+        Double calls = delta(before, after, "stmt_calls");
+        Double read = delta(before, after, "blks_read"), hit = delta(before, after, "blks_hit");
+        Double wal = delta(before, after, "wal_lsn");
+        return new String[]{
+                String.format("%.1f", clientMs),
+                fmt(serverMs, "%.1f"),
+                serverMs == null || clientMs <= 0 ? "NA" : String.format("%.3f", serverMs / clientMs),
+                calls == null || ops <= 0 ? "NA" : String.format("%.2f", calls / ops),
+                fmt(delta(before, after, "xact_commit"), "%.0f"),
+                fmt(delta(before, after, "xact_rollback"), "%.0f"),
+                fmt(read, "%.0f"),
+                fmt(hit, "%.0f"),
+                read == null || hit == null || read + hit <= 0 ? "NA" : String.format("%.4f", hit / (read + hit)),
+                fmt(delta(before, after, "tup_returned"), "%.0f"),
+                fmt(delta(before, after, "tup_fetched"), "%.0f"),
+                fmt(delta(before, after, "tup_updated"), "%.0f"),
+                fmt(delta(before, after, "heap_blks_read"), "%.0f"),
+                fmt(delta(before, after, "heap_blks_hit"), "%.0f"),
+                fmt(delta(before, after, "idx_blks_read"), "%.0f"),
+                fmt(delta(before, after, "idx_blks_hit"), "%.0f"),
+                fmt(wal, "%.0f"),
+                wal == null || ops <= 0 ? "NA" : String.format("%.1f", wal / ops),
+                fmt(delta(before, after, "checkpoints"), "%.0f"),
+                fmt(delta(before, after, "buffers_checkpoint"), "%.0f"),
+                fmt(delta(before, after, "buffers_clean"), "%.0f"),
+                fmt(delta(before, after, "buffers_backend"), "%.0f")};
+    }
+
+    static String fmt(Double v, String format) {
+        return v == null ? "NA" : String.format(format, v);
+    }
+}
@@ -0,0 +1,124 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * SharedScanBenchmark
+ *
+ * Multi-thread File SELECT in two modes over SQL/movies.txt:
+ *   independent -> every query does its own full read of the file (as ComparePerformanceEnhanced.fileWorker)
+ *   shared      -> every query attaches to one SharedScanExecutor pass
+ * Thread i searches KEYWORDS[i % KEYWORDS.length], so the shared pass checks several different predicates per row.
+ *
+ * Outputs:
+ *   result/shared_scan_summary.csv -> per (mode, threads): QPS, latency avg/p95/p99/max and rows read per query
+ */
+public class SharedScanBenchmark {
+
+    static final String MOVIE_FILE = "SQL/movies.txt";
+    static final File RESULT_DIR = new File("result");
+    static final String SUMMARY_CSV = "result/shared_scan_summary.csv";
+
+    static final int[] THREADS = {1, 8, 16, 32};
+    static final int QUERIES_PER_THREAD = 100;
+    static final int SCAN_BATCH_ROWS = 256;
+    static final String[] KEYWORDS = {"war", "love", "the", "man", "night", "day", "city", "star"};
+
+    public static void main(String[] args) throws Exception {
+        if (!RESULT_DIR.exists()) RESULT_DIR.mkdirs();
+        long fileRows = countRows();
+
+        List<String[]> rows = new ArrayList<>();
+        for (String mode : new String[]{"independent", "shared"}) {
+            for (int t : THREADS) {
+                System.out.printf("Running mode=%s threads=%d queriesPerThread=%d%n", mode, t, QUERIES_PER_THREAD);
+                rows.add(runCell(mode, t, fileRows));
+            }
+        }
+
+        try (PrintWriter pw = new PrintWriter(new FileWriter(SUMMARY_CSV))) {
+            pw.println("Mode,Threads,TotalQueries,TotalTime_ms,QPS,Avg_ms,P95_ms,P99_ms,Max_ms,RowsRead,RowsRead_per_query");
+            for (String[] r : rows) pw.println(String.join(",", r));
+            System.out.println("Saved summary CSV: " + SUMMARY_CSV);
+        } catch (IOException e) {
+            System.err.println("Failed to write summary CSV: " + e.getMessage());
+        }
+    }
+
+    static String[] runCell(String mode, int threads, long fileRows) throws Exception {
+        SharedScanExecutor scan = mode.equals("shared") ? new SharedScanExecutor(MOVIE_FILE, SCAN_BATCH_ROWS) : null;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<List<Double>>> futures = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            CaseInsensitiveMatcher matcher = new CaseInsensitiveMatcher(KEYWORDS[i % KEYWORDS.length]);
+            futures.add(pool.submit(() -> worker(scan, matcher, QUERIES_PER_THREAD)));
+        }
+        List<Double> latencies = new ArrayList<>();
+        for (Future<List<Double>> f : futures) {
+            try { latencies.addAll(f.get()); } catch (Exception e) { System.err.println("Worker failed: " + e.getMessage()); }
+        }
+        long end = System.nanoTime();
+        pool.shutdown();
+
+        long rowsRead = scan != null ? scan.rowsRead() : fileRows * latencies.size();
+        if (scan != null) scan.close();
+
+        double totalMs = (end - start) / 1_000_000.0;
+        double qps = totalMs > 0 ? latencies.size() / (totalMs / 1000.0) : 0.0;
+        double avg = latencies.stream().mapToDouble(d -> d).average().orElse(0.0);
+        double max = latencies.stream().mapToDouble(d -> d).max().orElse(0.0);
+        double perQuery = latencies.isEmpty() ? 0.0 : (double) rowsRead / latencies.size();
+        System.out.printf("Summary: mode=%s threads=%d queries=%d totalMs=%.2f QPS=%.2f avg=%.3f p99=%.3f rows/query=%.0f%n%n",
+                mode, threads, latencies.size(), totalMs, qps, avg, percentile(latencies, 99), perQuery);
+
+        return new String[]{mode, Integer.toString(threads), Integer.toString(latencies.size()),
+                String.format("%.2f", totalMs), String.format("%.2f", qps), String.format("%.3f", avg),
+                String.format("%.3f", percentile(latencies, 95)), String.format("%.3f", percentile(latencies, 99)),
+                String.format("%.3f", max), Long.toString(rowsRead), String.format("%.1f", perQuery)};
+    }
+
+    static List<Double> worker(SharedScanExecutor scan, CaseInsensitiveMatcher matcher, int queries) throws Exception {
+        List<Double> latencies = new ArrayList<>(queries);
+        for (int i = 0; i < queries; i++) {
+            long s = System.nanoTime();
+            if (scan != null) {
+                scan.submit(line -> matcher.fieldContains(line, 1, ';')).get();
+            } else {
+                int count = 0;
+                try (BufferedReader br = open()) {
+                    String line;
+                    while ((line = br.readLine()) != null) {
+                        if (matcher.fieldContains(line, 1, ';')) count++;
+                    }
+                }
+            }
+            latencies.add((System.nanoTime() - s) / 1_000_000.0);
+        }
+        return latencies;
+    }
+
+    static BufferedReader open() throws IOException {
+        return new BufferedReader(new InputStreamReader(new FileInputStream(MOVIE_FILE), StandardCharsets.UTF_8));
+    }
+
+    static long countRows() throws IOException {
+        long n = 0;
+        try (BufferedReader br = open()) {
+            while (br.readLine() != null) n++;
+        }
+        return n;
+    }
+
+    static double percentile(List<Double> values, double p) {
+        if (values == null || values.isEmpty()) return 0.0;
+        double[] a = values.stream().mapToDouble(d -> d).sorted().toArray();
+        double rank = p / 100.0 * (a.length - 1);
+        int lo = (int) Math.floor(rank), hi = (int) Math.ceil(rank);
+        if (hi == lo) return a[lo];
+        double w = rank - lo;
+        return a[lo] * (1 - w) + a[hi] * w;
+    }
+}
@@ -0,0 +1,173 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.Predicate;
+
+/**
+ * SharedScanExecutor
+ *
+ * Cooperative ("shared") scanning for the File target, the file-side equivalent of PostgreSQL's
+ * synchronized sequential scans. One scanner thread reads the file in a loop; queries that arrive while
+ * it is running attach at the next batch boundary, every attached predicate is checked against each row
+ * of a batch in a single pass, and a late joiner keeps going past end-of-file, wrapping around to the
+ * start until it is back at the row where it attached. When nothing is attached the scanner waits.
+ *
+ * Usage:
+ *   try (SharedScanExecutor scan = new SharedScanExecutor("SQL/movies.txt", 256)) {
+ *       CaseInsensitiveMatcher m = new CaseInsensitiveMatcher("war");
+ *       int count = scan.submit(line -> m.fieldContains(line, 1, ';')).get();
+ *   }
+ */
+public class SharedScanExecutor implements AutoCloseable {
+
+    static final class ScanQuery {
+        final Predicate<String> predicate;
+        final CompletableFuture<Integer> result = new CompletableFuture<>();
+        long startRow;
+        long seen;
+        int matches;
+
+        ScanQuery(Predicate<String> predicate) {
+            this.predicate = predicate;
+        }
+    }
+
+    final String path;
+    final int batchSize;
+    final Object lock = new Object();
+    final List<ScanQuery> pending = new ArrayList<>();   // guarded by lock
+    final List<ScanQuery> attached = new ArrayList<>();  // scanner thread only
+    final Thread scanner;
+    volatile boolean closed;
+
+    final AtomicLong rowsRead = new AtomicLong();
+    final AtomicLong passes = new AtomicLong();
+    final AtomicLong predicateChecks = new AtomicLong();
+
+    public SharedScanExecutor(String path, int batchSize) {
+        this.path = path;
+        this.batchSize = Math.max(1, batchSize);
+        this.scanner = new Thread(this::scanLoop, "shared-scan-" + new File(path).getName());
+        this.scanner.setDaemon(true);
+        this.scanner.start();
+    }
+
+    /** Attaches a query to the running scan; completes with the number of rows for which the predicate was true. */
+    public CompletableFuture<Integer> submit(Predicate<String> predicate) {
+        ScanQuery q = new ScanQuery(predicate);
+        synchronized (lock) {
+            if (closed) {
+                q.result.completeExceptionally(new IllegalStateException("scan executor closed"));
+                return q.result;
+            }
+            pending.add(q);
+            lock.notifyAll();
+        }
+        return q.result;
+    }
+
+    public long rowsRead() { return rowsRead.get(); }
+
+    public long passes() { return passes.get(); }
+
+    public long predicateChecks() { return predicateChecks.get(); }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try { scanner.join(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    }
+
+    BufferedReader open() throws IOException {
+        return new BufferedReader(new InputStreamReader(new FileInputStream(path), StandardCharsets.UTF_8));
+    }
+
+    void scanLoop() {
+        String[] batch = new String[batchSize];
+        long row = 0;
+        BufferedReader br = null;
+        try {
+            br = open();
+            while (true) {
+                // attach newcomers at the batch boundary
+                synchronized (lock) {
+                    while (pending.isEmpty() && attached.isEmpty() && !closed) lock.wait();
+                    if (closed) break;
+                    for (ScanQuery q : pending) { q.startRow = row; attached.add(q); }
+                    pending.clear();
+                }
+
+                int n = 0;
+                String line;
+                while (n < batchSize && (line = br.readLine()) != null) batch[n++] = line;
+
+                if (n == 0) { // end of file: wrap around
+                    br.close();
+                    br = open();
+                    passes.incrementAndGet();
+                    if (row == 0) { finish(q -> true); continue; } // empty file
+                    row = 0;
+                    final long at = row;
+                    finish(q -> q.seen > 0 && q.startRow == at);
+                    continue;
+                }
+
+                Iterator<ScanQuery> it = attached.iterator();
+                while (it.hasNext()) {
+                    ScanQuery q = it.next();
+                    int m = 0;
+                    try {
+                        for (int i = 0; i < n; i++) if (q.predicate.test(batch[i])) m++;
+                    } catch (RuntimeException e) { // a failing predicate fails its own query, not the scan
+                        q.result.completeExceptionally(e);
+                        it.remove();
+                        continue;
+                    }
+                    predicateChecks.addAndGet(n);
+                    q.matches += m;
+                    q.seen += n;
+                }
+                rowsRead.addAndGet(n);
+                row += n;
+                final long at = row;
+                finish(q -> q.startRow == at);
+            }
+        } catch (IOException | RuntimeException e) {
+            failAll(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failAll(e);
+        } finally {
+            if (br != null) try { br.close(); } catch (IOException ignore) { }
+            failAll(new IllegalStateException("scan executor closed"));
+        }
+    }
+
+    // completes (and detaches) every attached query that satisfies done
+    void finish(Predicate<ScanQuery> done) {
+        Iterator<ScanQuery> it = attached.iterator();
+        while (it.hasNext()) {
+            ScanQuery q = it.next();
+            if (done.test(q)) {
+                q.result.complete(q.matches);
+                it.remove();
+            }
+        }
+    }
+
+    // the scanner is gone: reject further submits, then fail everything attached or still pending
+    void failAll(Throwable t) {
+        for (ScanQuery q : attached) q.result.completeExceptionally(t);
+        attached.clear();
+        synchronized (lock) {
+            closed = true;
+            for (ScanQuery q : pending) q.result.completeExceptionally(t);
+            pending.clear();
+        }
+    }
+}
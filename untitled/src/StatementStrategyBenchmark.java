@@ -0,0 +1,254 @@
+import java.sql.*;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * StatementStrategyBenchmark
+ *
+ * Runs the same logical query with four statement-execution strategies, for PostgreSQL and openGauss:
+ *   literal          -> Statement + SQL built by string concatenation, prepareThreshold=0 (parsed and planned on every call)
+ *   client_prepared  -> PreparedStatement, prepareThreshold=0 (unnamed statement, re-parsed on every call)
+ *   server_prepared  -> PreparedStatement, prepareThreshold=1 (named server statement from the first call)
+ *   server_binary    -> server_prepared + binaryTransfer=true
+ *
+ * Workloads: "like" (LOWER(title) LIKE '%war%', same as ComparePerformance) and
+ * "point_select" (movieid = ?, where parse/plan is a large share of the op).
+ *
+ * Client CPU and allocated bytes come from ClientCost per worker thread. Server time comes from
+ * pg_stat_statements (plan + exec time) on PostgreSQL and dbe_perf.statement (cpu_time) on openGauss;
+ * it is -1 when the extension/view is not available.
+ *
+ * Outputs:
+ *   result/stmt_strategy_summary.csv
+ */
+public class StatementStrategyBenchmark {
+
+    // === DB configs (change to your credentials) ===
+    static final String PG_DRIVER = "org.postgresql.Driver";
+    static final String PG_URL = LatencyProxy.wrap("jdbc:postgresql://127.0.0.1:5430/postgres");
+    static final String PG_USER = "test";
+    static final String PG_PASS = "123456";
+
+    static final String OG_DRIVER = "org.opengauss.Driver";
+    static final String OG_URL = LatencyProxy.wrap("jdbc:opengauss://127.0.0.1:5431/postgres");
+    static final String OG_USER = "gaussdb";
+    static final String OG_PASS = "123456Aa@";
+
+    // output
+    static final File RESULT_DIR = new File("result");
+    static final String SUMMARY_CSV = "result/stmt_strategy_summary.csv";
+
+    // test params (tune)
+    static final int[] THREADS = {1, 8, 16, 32};
+    static final int OPS_PER_THREAD = 200;
+    static final String KEYWORD = "war";
+    static final String[] STRATEGIES = {"literal", "client_prepared", "server_prepared", "server_binary"};
+    static final String[] WORKLOADS = {"like", "point_select"};
+
+    static final String LIKE_SQL = "SELECT * FROM movies WHERE LOWER(title) LIKE LOWER(?)";
+    static final String POINT_SELECT_SQL = "SELECT movieid FROM movies WHERE movieid = ?";
+
+    public static void main(String[] args) throws Exception {
+        if (!RESULT_DIR.exists()) RESULT_DIR.mkdirs();
+
+        List<String[]> summaryRows = new ArrayList<>();
+        String[] dbs = {"PostgreSQL", "openGauss"};
+        for (String db : dbs) {
+            for (String workload : WORKLOADS) {
+                for (String strategy : STRATEGIES) {
+                    for (int t : THREADS) {
+                        System.out.printf("Running %s %s strategy=%s threads=%d ...%n", db, workload, strategy, t);
+                        summaryRows.add(runCell(db, workload, strategy, t, OPS_PER_THREAD));
+                    }
+                }
+            }
+        }
+
+        writeSummaryCsv(SUMMARY_CSV, summaryRows);
+        System.out.println("Done. Results in " + RESULT_DIR.getAbsolutePath());
+    }
+
+    static class ThreadStat {
+        int threadId;
+        long ops;
+        double totalMs;
+        double avgMs;
+        double p95;
+        double p99;
+        double maxMs;
+        ClientCost.Sample cost;
+    }
+
+    // one (db, workload, strategy, threads) cell -> summary row
+    static String[] runCell(String db, String workload, String strategy, int threads, int opsPerThread) {
+        boolean pg = db.equals("PostgreSQL");
+        String driver = pg ? PG_DRIVER : OG_DRIVER;
+        String url = pg ? PG_URL : OG_URL;
+        String user = pg ? PG_USER : OG_USER;
+        String pass = pg ? PG_PASS : OG_PASS;
+
+        double serverBefore = readServerTimeUs(db, driver, url, user, pass);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<ThreadStat>> futures = new ArrayList<>();
+        PgWireStats.Snapshot wireBefore = PgWireStats.snapshot(url); // after the stats query, so it is not counted
+        long started = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            final int threadId = i + 1;
+            futures.add(pool.submit(() -> worker(threadId, driver, url, user, pass, workload, strategy, opsPerThread)));
+        }
+        List<ThreadStat> stats = new ArrayList<>();
+        for (Future<ThreadStat> f : futures) {
+            try { stats.add(f.get()); } catch (Exception e) { e.printStackTrace(); }
+        }
+        long ended = System.nanoTime();
+        pool.shutdown();
+        PgWireStats.Snapshot wireAfter = PgWireStats.snapshot(url);
+
+        double serverAfter = readServerTimeUs(db, driver, url, user, pass);
+
+        long totalOps = stats.stream().mapToLong(s -> s.ops).sum();
+        double totalMs = (ended - started) / 1_000_000.0;
+        double qps = totalMs > 0 ? totalOps / (totalMs / 1000.0) : 0.0;
+        double weightedSum = 0, max = 0, p95 = 0, p99 = 0;
+        List<ClientCost.Sample> costs = new ArrayList<>();
+        for (ThreadStat ts : stats) {
+            weightedSum += ts.avgMs * ts.ops;
+            if (ts.cost != null) costs.add(ts.cost);
+            max = Math.max(max, ts.maxMs);
+            // conservative global p95/p99: take max of per-thread percentiles
+            p95 = Math.max(p95, ts.p95);
+            p99 = Math.max(p99, ts.p99);
+        }
+        double avgMs = totalOps > 0 ? weightedSum / totalOps : 0.0;
+        String[] client = ClientCost.perOp(costs);
+        double serverUsPerOp = (serverBefore < 0 || serverAfter < 0 || totalOps == 0)
+                ? -1 : (serverAfter - serverBefore) / totalOps;
+        String[] wire = PgWireStats.perOp(wireBefore, wireAfter, totalOps);
+
+        System.out.printf("Summary %s %s %s threads=%d ops=%d qps=%.2f avgMs=%.3f p99≈%.3f clientCpu=%sus/op alloc=%sB/op server=%.1fus/op%n",
+                db, workload, strategy, threads, totalOps, qps, avgMs, p99, client[1], client[0], serverUsPerOp);
+
+        return new String[]{db, workload, strategy, Integer.toString(threads), Long.toString(totalOps),
+                String.format("%.2f", totalMs), String.format("%.2f", qps),
+                String.format("%.3f", avgMs), String.format("%.3f", p95), String.format("%.3f", p99), String.format("%.3f", max),
+                client[1], client[0], String.format("%.2f", serverUsPerOp),
+                wire[0], wire[1], wire[2], wire[3], wire[4]};
+    }
+
+    // connection properties that select the strategy in pgjdbc / openGauss JDBC
+    static Properties strategyProps(String user, String pass, String strategy) {
+        Properties props = new Properties();
+        props.setProperty("user", user);
+        props.setProperty("password", pass);
+        switch (strategy) {
+            case "client_prepared":
+                props.setProperty("prepareThreshold", "0");
+                props.setProperty("binaryTransfer", "false");
+                break;
+            case "server_prepared":
+                props.setProperty("prepareThreshold", "1");
+                props.setProperty("binaryTransfer", "false");
+                break;
+            case "server_binary":
+                props.setProperty("prepareThreshold", "1");
+                props.setProperty("binaryTransfer", "true");
+                break;
+            default: // literal: pgjdbc also server-prepares repeated plain Statement text after prepareThreshold (5) runs
+                props.setProperty("prepareThreshold", "0");
+                props.setProperty("binaryTransfer", "false");
+        }
+        return props;
+    }
+
+    static ThreadStat worker(int threadId, String driver, String url, String user, String pass,
+                             String workload, String strategy, int ops) {
+        ThreadStat ts = new ThreadStat(); ts.threadId = threadId;
+        List<Double> lat = new ArrayList<>(ops);
+        try { Class.forName(driver); } catch (ClassNotFoundException e) { System.err.println("Driver not found: " + e.getMessage()); return ts; }
+
+        boolean like = workload.equals("like");
+        String likePattern = "%" + KEYWORD + "%";
+        String literalLike = "SELECT * FROM movies WHERE LOWER(title) LIKE LOWER('%" + KEYWORD.replace("'", "''") + "%')";
+
+        try (Connection conn = DriverManager.getConnection(url, strategyProps(user, pass, strategy));
+             Statement stmt = conn.createStatement();
+             PreparedStatement ps = conn.prepareStatement(like ? LIKE_SQL : POINT_SELECT_SQL)) {
+            Random rnd = new Random();
+            ClientCost.Sample c0 = ClientCost.start();
+            long t0 = System.nanoTime();
+            for (int i = 0; i < ops; i++) {
+                int id = Math.max(1, rnd.nextInt(10000)); // adjust ID range to your dataset
+                long s = System.nanoTime();
+                try {
+                    ResultSet rs;
+                    if (strategy.equals("literal")) {
+                        rs = stmt.executeQuery(like ? literalLike : "SELECT movieid FROM movies WHERE movieid = " + id);
+                    } else {
+                        if (like) ps.setString(1, likePattern); else ps.setInt(1, id);
+                        rs = ps.executeQuery();
+                    }
+                    try (ResultSet r = rs) { while (r.next()) { } }
+                } catch (SQLException ee) { System.err.println("Query error: " + ee.getMessage()); }
+                lat.add((System.nanoTime() - s) / 1_000_000.0);
+                ts.ops++;
+            }
+            ts.totalMs = (System.nanoTime() - t0) / 1_000_000.0;
+            ts.cost = ClientCost.since(c0, ts.ops);
+            computeStats(ts, lat);
+        } catch (SQLException e) { System.err.println("DB worker error: " + e.getMessage()); }
+        return ts;
+    }
+
+    /**
+     * Cumulative server-side time (microseconds) for statements touching "from movies where".
+     * PostgreSQL: pg_stat_statements plan + exec time; openGauss: dbe_perf.statement cpu_time.
+     * Returns -1 if the statistics source is not available.
+     */
+    static double readServerTimeUs(String db, String driver, String url, String user, String pass) {
+        String[] candidates = db.equals("PostgreSQL")
+                ? new String[]{
+                    "SELECT coalesce(sum(total_plan_time + total_exec_time), 0) * 1000 FROM pg_stat_statements WHERE query ILIKE '%from movies where%'",
+                    "SELECT coalesce(sum(total_time), 0) * 1000 FROM pg_stat_statements WHERE query ILIKE '%from movies where%'"}
+                : new String[]{
+                    "SELECT coalesce(sum(cpu_time), 0) FROM dbe_perf.statement WHERE query ILIKE '%from movies where%'"};
+        try { Class.forName(driver); } catch (ClassNotFoundException e) { return -1; }
+        try (Connection conn = DriverManager.getConnection(url, user, pass);
+             Statement st = conn.createStatement()) {
+            for (String sql : candidates) {
+                try (ResultSet rs = st.executeQuery(sql)) {
+                    if (rs.next()) return rs.getDouble(1);
+                } catch (SQLException ignore) { /* try next form */ }
+            }
+        } catch (SQLException e) {
+            System.err.println("Server stats unavailable: " + e.getMessage());
+        }
+        return -1;
+    }
+
+    static void computeStats(ThreadStat ts, List<Double> lat) {
+        ts.avgMs = lat.stream().mapToDouble(d -> d).average().orElse(0.0);
+        ts.maxMs = lat.stream().mapToDouble(d -> d).max().orElse(0.0);
+        ts.p95 = percentile(lat, 95);
+        ts.p99 = percentile(lat, 99);
+    }
+
+    static double percentile(List<Double> arr, double p) {
+        if (arr == null || arr.isEmpty()) return 0.0;
+        double[] a = arr.stream().mapToDouble(d -> d).sorted().toArray();
+        double rank = p / 100.0 * (a.length - 1);
+        int lo = (int) Math.floor(rank), hi = (int) Math.ceil(rank);
+        if (hi == lo) return a[lo];
+        double w = rank - lo;
+        return a[lo] * (1 - w) + a[hi] * w;
+    }
+
+    static void writeSummaryCsv(String file, List<String[]> rows) {
+        try (PrintWriter pw = new PrintWriter(new FileWriter(file))) {
+            pw.println("DBMS,Workload,Strategy,Threads,TotalOps,TotalTime_ms,QPS,Avg_ms,P95_ms,P99_ms,Max_ms,ClientCpu_us_per_op,Alloc_bytes_per_op,Server_us_per_op," + PgWireStats.CSV_HEADER);
+            for (String[] r : rows) pw.println(String.join(",", r));
+            System.out.println("Saved summary CSV: " + file);
+        } catch (IOException e) { System.err.println("CSV write error: " + e.getMessage()); }
+    }
+}
@@ -0,0 +1,249 @@
+import java.sql.*;
+import java.io.*;
+import java.util.*;
+
+/**
+ * TitleSearchBenchmark
+ *
+ * "Which movies have the keyword in their title or in one of their alternative titles?" answered four ways:
+ *   like   -> LOWER(title) LIKE '%kw%' on movies and alt_titles (sequential scans)
+ *   ft     -> lookup in movie_title_ft_index2(title_word, movieid, titleid), the word index shipped with filmdb.sql;
+ *             filled here from movies.title + alt_titles.title when empty (words = runs of letters/digits, lower case)
+ *   fts    -> to_tsvector('simple', title) @@ plainto_tsquery('simple', kw) with GIN expression indexes
+ *   trgm   -> title ILIKE '%kw%' with pg_trgm GIN indexes (skipped where the extension is missing, e.g. openGauss)
+ * Keywords mix English, French, Korean, CJK and Japanese so the multilingual alt titles matter.
+ *
+ * Recall / precision are against the like result (substring semantics, what the other benchmarks use):
+ * word-based methods miss "warrior" for "war" and unsegmented CJK text, which is the point of the comparison.
+ * The GIN indexes are created and dropped by the run; movie_title_ft_index2 is kept once filled.
+ *
+ * Outputs:
+ *   result/title_search.csv       -> per (DBMS, method, keyword): rows, recall, precision, avg/p99 latency
+ *   result/title_search_index.csv -> per (DBMS, method): index bytes, build time
+ */
+public class TitleSearchBenchmark {
+
+    // === DB configs (change to your credentials) ===
+    static final String PG_DRIVER = "org.postgresql.Driver";
+    static final String PG_URL = LatencyProxy.wrap("jdbc:postgresql://127.0.0.1:5430/postgres");
+    static final String PG_USER = "test";
+    static final String PG_PASS = "123456";
+
+    static final String OG_DRIVER = "org.opengauss.Driver";
+    static final String OG_URL = LatencyProxy.wrap("jdbc:opengauss://127.0.0.1:5431/postgres");
+    static final String OG_USER = "gaussdb";
+    static final String OG_PASS = "123456Aa@";
+
+    static final File RESULT_DIR = new File("result");
+    static final String RESULT_CSV = "result/title_search.csv";
+    static final String INDEX_CSV = "result/title_search_index.csv";
+
+    static final String[] KEYWORDS = {"war", "love", "night", "amour", "nuit", "사랑", "人", "の"};
+    static final int WARMUP_RUNS = 3;
+    static final int RUNS = 30;
+    static final int WORD_MAX = 50; // movie_title_ft_index2.title_word varchar(50)
+
+    static final String[] METHODS = {"like", "ft", "fts", "trgm"};
+    // movie ids matching the keyword; every "?" gets the same method-specific argument
+    static final String[] ID_SQL = {
+            "SELECT movieid FROM movies WHERE LOWER(title) LIKE ? UNION ALL SELECT movieid FROM alt_titles WHERE LOWER(title) LIKE ?",
+            "SELECT movieid FROM movie_title_ft_index2 WHERE title_word = ?",
+            "SELECT movieid FROM movies WHERE to_tsvector('simple', title) @@ plainto_tsquery('simple', ?) "
+                    + "UNION ALL SELECT movieid FROM alt_titles WHERE to_tsvector('simple', title) @@ plainto_tsquery('simple', ?)",
+            "SELECT movieid FROM movies WHERE title ILIKE ? UNION ALL SELECT movieid FROM alt_titles WHERE title ILIKE ?"};
+    static final String[][] INDEX_SQL = {
+            {},
+            {}, // movie_title_ft_index2 and its primary key come with filmdb.sql
+            {"CREATE INDEX ts_movies_fts ON movies USING gin (to_tsvector('simple', title))",
+             "CREATE INDEX ts_alt_titles_fts ON alt_titles USING gin (to_tsvector('simple', title))"},
+            {"CREATE EXTENSION IF NOT EXISTS pg_trgm",
+             "CREATE INDEX ts_movies_trgm ON movies USING gin (title gin_trgm_ops)",
+             "CREATE INDEX ts_alt_titles_trgm ON alt_titles USING gin (title gin_trgm_ops)"}};
+    static final String[] INDEX_BYTES_SQL = {
+            null,
+            "SELECT pg_total_relation_size('movie_title_ft_index2')",
+            "SELECT COALESCE(SUM(pg_relation_size(oid)), 0) FROM pg_class WHERE relname IN ('ts_movies_fts', 'ts_alt_titles_fts')",
+            "SELECT COALESCE(SUM(pg_relation_size(oid)), 0) FROM pg_class WHERE relname IN ('ts_movies_trgm', 'ts_alt_titles_trgm')"};
+
+    public static void main(String[] args) throws Exception {
+        if (!RESULT_DIR.exists()) RESULT_DIR.mkdirs();
+        List<String[]> rows = new ArrayList<>();
+        List<String[]> indexRows = new ArrayList<>();
+
+        runDb(rows, indexRows, "PostgreSQL", PG_DRIVER, PG_URL, PG_USER, PG_PASS);
+        runDb(rows, indexRows, "openGauss", OG_DRIVER, OG_URL, OG_USER, OG_PASS);
+
+        try (PrintWriter pw = new PrintWriter(new FileWriter(RESULT_CSV))) {
+            pw.println("DBMS,Method,Keyword,Rows,Recall,Precision,Avg_ms,P99_ms");
+            for (String[] r : rows) pw.println(String.join(",", r));
+            System.out.println("Saved CSV: " + RESULT_CSV);
+        } catch (IOException e) {
+            System.err.println("CSV write failed: " + e.getMessage());
+        }
+        try (PrintWriter pw = new PrintWriter(new FileWriter(INDEX_CSV))) {
+            pw.println("DBMS,Method,Index_bytes,Build_ms");
+            for (String[] r : indexRows) pw.println(String.join(",", r));
+            System.out.println("Saved CSV: " + INDEX_CSV);
+        } catch (IOException e) {
+            System.err.println("CSV write failed: " + e.getMessage());
+        }
+    }
+
+    static void runDb(List<String[]> rows, List<String[]> indexRows, String dbName, String driver, String url, String user, String pass) {
+        try { Class.forName(driver); } catch (ClassNotFoundException e) { System.err.println("Driver not found: " + e.getMessage()); return; }
+
+        try (Connection conn = DriverManager.getConnection(url, user, pass);
+             Statement stmt = conn.createStatement()) {
+            try {
+                // like result per keyword = ground truth for recall / precision
+                Map<String, Set<Integer>> truth = new HashMap<>();
+                for (int m = 0; m < METHODS.length; m++) {
+                    String method = METHODS[m];
+                    double buildMs;
+                    try {
+                        long t0 = System.nanoTime();
+                        if (method.equals("ft")) {
+                            long words = fillWordIndex(conn);
+                            buildMs = words < 0 ? -1 : (System.nanoTime() - t0) / 1_000_000.0;
+                        } else {
+                            for (String sql : INDEX_SQL[m]) stmt.execute(sql);
+                            buildMs = (System.nanoTime() - t0) / 1_000_000.0;
+                        }
+                        stmt.execute("ANALYZE movies");
+                        stmt.execute("ANALYZE alt_titles");
+                    } catch (SQLException e) {
+                        System.err.printf("%s: method %s unavailable (%s)%n", dbName, method, e.getMessage().trim());
+                        indexRows.add(new String[]{dbName, method, "NA", "NA"});
+                        for (String kw : KEYWORDS) rows.add(new String[]{dbName, method, kw, "NA", "NA", "NA", "NA", "NA"});
+                        continue;
+                    }
+                    long indexBytes = 0;
+                    if (INDEX_BYTES_SQL[m] != null) {
+                        try (ResultSet rs = stmt.executeQuery(INDEX_BYTES_SQL[m])) {
+                            if (rs.next()) indexBytes = rs.getLong(1);
+                        }
+                    }
+                    indexRows.add(new String[]{dbName, method, Long.toString(indexBytes), buildMs < 0 ? "NA" : String.format("%.1f", buildMs)});
+                    System.out.printf("%s %s: index %d bytes, build %s ms%n", dbName, method, indexBytes, buildMs < 0 ? "NA" : String.format("%.1f", buildMs));
+
+                    String sql = "SELECT m.movieid, m.title FROM movies m WHERE m.movieid IN (" + ID_SQL[m] + ")";
+                    int params = sql.length() - sql.replace("?", "").length();
+                    try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                        for (String kw : KEYWORDS) {
+                            String arg = argument(method, kw);
+                            for (int i = 1; i <= params; i++) ps.setString(i, arg);
+                            System.out.printf("Running %s %s keyword=%s%n", dbName, method, kw);
+                            Set<Integer> ids = new HashSet<>();
+                            List<Double> lat = new ArrayList<>();
+                            for (int i = 0; i < WARMUP_RUNS + RUNS; i++) {
+                                ids.clear();
+                                long s = System.nanoTime();
+                                try (ResultSet rs = ps.executeQuery()) {
+                                    while (rs.next()) ids.add(rs.getInt(1));
+                                }
+                                if (i >= WARMUP_RUNS) lat.add((System.nanoTime() - s) / 1_000_000.0);
+                            }
+                            if (method.equals("like")) truth.put(kw, new HashSet<>(ids));
+                            rows.add(row(dbName, method, kw, ids, truth.get(kw), lat));
+                        }
+                    }
+                }
+            } finally {
+                for (String[] ddl : INDEX_SQL) {
+                    for (String sql : ddl) {
+                        if (sql.startsWith("CREATE INDEX")) {
+                            try { stmt.execute("DROP INDEX IF EXISTS " + sql.split(" ")[2]); } catch (SQLException ignore) { }
+                        }
+                    }
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            System.err.println(dbName + " run failed: " + e.getMessage());
+        }
+    }
+
+    static String argument(String method, String kw) {
+        switch (method) {
+            case "like": return "%" + kw.toLowerCase(Locale.ROOT) + "%";
+            case "ft": return kw.toLowerCase(Locale.ROOT);
+            case "fts": return kw;
+            default: return "%" + kw + "%"; // trgm: ILIKE
+        }
+    }
+
+    /**
+     * Fills movie_title_ft_index2 from movies (titleid 1 = main title) and alt_titles if it is empty.
+     * Returns the number of rows inserted, or -1 if the table already had rows.
+     */
+    static long fillWordIndex(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM movie_title_ft_index2")) {
+            if (rs.next() && rs.getLong(1) > 0) return -1;
+        }
+        Set<String> seen = new HashSet<>();
+        List<Object[]> entries = new ArrayList<>(); // {word, movieid, titleid}
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT movieid, title, 1 FROM movies "
+                     + "UNION ALL SELECT movieid, title, titleid FROM alt_titles WHERE movieid IS NOT NULL")) {
+            while (rs.next()) {
+                int movieid = rs.getInt(1), titleid = rs.getInt(3);
+                for (String w : words(rs.getString(2))) {
+                    if (seen.add(w + '\u0000' + movieid + '\u0000' + titleid)) entries.add(new Object[]{w, movieid, titleid});
+                }
+            }
+        }
+        boolean auto = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO movie_title_ft_index2(title_word, movieid, titleid) VALUES (?, ?, ?)")) {
+            int n = 0;
+            for (Object[] e : entries) {
+                ps.setString(1, (String) e[0]);
+                ps.setInt(2, (Integer) e[1]);
+                ps.setInt(3, (Integer) e[2]);
+                ps.addBatch();
+                if (++n % 1000 == 0) ps.executeBatch();
+            }
+            ps.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(auto);
+        }
+        System.out.printf("movie_title_ft_index2 filled with %d words%n", entries.size());
+        return entries.size();
+    }
+
+    // runs of letters / digits, lower case, cut to the column width
+    static List<String> words(String title) {
+        List<String> out = new ArrayList<>();
+        StringBuilder w = new StringBuilder();
+        int len = 0;
+        for (int i = 0; i < title.length(); i += Character.charCount(title.codePointAt(i))) {
+            int cp = title.codePointAt(i);
+            if (Character.isLetterOrDigit(cp)) {
+                if (len++ < WORD_MAX) w.appendCodePoint(Character.toLowerCase(cp));
+            } else if (len > 0) {
+                out.add(w.toString());
+                w.setLength(0);
+                len = 0;
+            }
+        }
+        if (len > 0) out.add(w.toString());
+        return out;
+    }
+
+    static String[] row(String db, String method, String kw, Set<Integer> ids, Set<Integer> truth, List<Double> lat) {
+        int common = 0;
+        if (truth != null) for (int id : ids) if (truth.contains(id)) common++;
+        String recall = truth == null || truth.isEmpty() ? "NA" : String.format("%.3f", (double) common / truth.size());
+        String precision = truth == null || ids.isEmpty() ? "NA" : String.format("%.3f", (double) common / ids.size());
+        double[] a = lat.stream().mapToDouble(d -> d).sorted().toArray();
+        double avg = Arrays.stream(a).average().orElse(0.0);
+        double p99 = a.length == 0 ? 0.0 : a[Math.min(a.length - 1, (int) Math.ceil(0.99 * a.length) - 1)];
+        System.out.printf("%-10s %-5s %-6s rows=%d recall=%s precision=%s avg=%.3f ms p99=%.3f ms%n",
+                db, method, kw, ids.size(), recall, precision, avg, p99);
+        return new String[]{db, method, kw, Integer.toString(ids.size()), recall, precision,
+                String.format("%.3f", avg), String.format("%.3f", p99)};
+    }
+}